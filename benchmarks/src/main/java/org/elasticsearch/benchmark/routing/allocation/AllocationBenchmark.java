@@ -106,7 +106,10 @@ public class AllocationBenchmark {
         "       10|     10|        2|    50",
         "      100|      1|        2|    50",
         "      100|      3|        2|    50",
-        "      100|     10|        2|    50"
+        "      100|     10|        2|    50",
+
+        "     1000|      3|        1|   100",
+        "     1000|     10|        1|   200"
     })
     public String indicesShardsReplicasNodes = "10|1|0|1";
 
@@ -114,6 +117,7 @@ public class AllocationBenchmark {
 
     private AllocationService strategy;
     private ClusterState initialClusterState;
+    private ClusterState allocatedClusterState;
 
     @Setup
     public void setUp() throws Exception {
@@ -149,6 +153,7 @@ public class AllocationBenchmark {
         initialClusterState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
             .metaData(metaData).routingTable(routingTable).nodes
                 (nb).build();
+        allocatedClusterState = measureAllocation();
     }
 
     private int toInt(String v) {
@@ -165,4 +170,13 @@ public class AllocationBenchmark {
         }
         return clusterState;
     }
+
+    /**
+     * Reroutes a cluster on which all shards are allocated already, the common case of the periodic and the node join/leave reroutes
+     * on a large and stable cluster.
+     */
+    @Benchmark
+    public ClusterState measureReroute() {
+        return strategy.reroute(allocatedClusterState, "reroute");
+    }
 }
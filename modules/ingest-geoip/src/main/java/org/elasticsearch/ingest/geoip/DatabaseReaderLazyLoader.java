@@ -44,18 +44,35 @@ class DatabaseReaderLazyLoader implements Closeable {
 
     private final Path databasePath;
     private final CheckedSupplier<DatabaseReader, IOException> loader;
+    private final boolean directLookup;
     final SetOnce<DatabaseReader> databaseReader;
+    final SetOnce<MaxMindDatabase> database;
 
     // cache the database type so that we do not re-read it on every pipeline execution
     final SetOnce<String> databaseType;
 
     DatabaseReaderLazyLoader(final Path databasePath, final CheckedSupplier<DatabaseReader, IOException> loader) {
+        this(databasePath, loader, false);
+    }
+
+    /**
+     * @param directLookup true if lookups should decode the requested properties directly from the memory mapped database, see
+     *                     {@link MaxMindDatabase}, instead of building full responses through the {@link DatabaseReader}
+     */
+    DatabaseReaderLazyLoader(final Path databasePath, final CheckedSupplier<DatabaseReader, IOException> loader,
+                             final boolean directLookup) {
         this.databasePath = Objects.requireNonNull(databasePath);
         this.loader = Objects.requireNonNull(loader);
+        this.directLookup = directLookup;
         this.databaseReader = new SetOnce<>();
+        this.database = new SetOnce<>();
         this.databaseType = new SetOnce<>();
     }
 
+    boolean isDirectLookup() {
+        return directLookup;
+    }
+
     /**
      * Read the database type from the database. We do this manually instead of relying on the built-in mechanism to avoid reading the
      * entire database into memory merely to read the type. This is especially important to maintain on master nodes where pipelines are
@@ -146,9 +163,21 @@ class DatabaseReaderLazyLoader implements Closeable {
         return databaseReader.get();
     }
 
+    MaxMindDatabase getDatabase() throws IOException {
+        if (database.get() == null) {
+            synchronized (database) {
+                if (database.get() == null) {
+                    database.set(MaxMindDatabase.open(databasePath));
+                    LOGGER.debug("mapped [{}] geo-IP database for direct lookups", databasePath);
+                }
+            }
+        }
+        return database.get();
+    }
+
     @Override
     public synchronized void close() throws IOException {
-        IOUtils.close(databaseReader.get());
+        IOUtils.close(databaseReader.get(), database.get());
     }
 
 }
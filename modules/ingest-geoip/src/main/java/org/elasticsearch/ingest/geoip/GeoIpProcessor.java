@@ -36,11 +36,14 @@ import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 import org.elasticsearch.ingest.geoip.IngestGeoIpPlugin.GeoIpCache;
+import org.elasticsearch.ingest.geoip.MaxMindDatabase.FieldPath;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -62,6 +65,19 @@ public final class GeoIpProcessor extends AbstractProcessor {
     private static final String COUNTRY_DB_SUFFIX = "-Country";
     private static final String ASN_DB_SUFFIX = "-ASN";
 
+    // the record paths that back the properties when they are decoded directly from the database
+    private static final FieldPath COUNTRY_ISO_CODE_PATH = new FieldPath("country", "iso_code");
+    private static final FieldPath COUNTRY_NAME_PATH = new FieldPath("country", "names", "en");
+    private static final FieldPath CONTINENT_NAME_PATH = new FieldPath("continent", "names", "en");
+    private static final FieldPath SUBDIVISION_ISO_CODE_PATH = new FieldPath("subdivisions", FieldPath.LAST_ARRAY_ELEMENT, "iso_code");
+    private static final FieldPath SUBDIVISION_NAME_PATH = new FieldPath("subdivisions", FieldPath.LAST_ARRAY_ELEMENT, "names", "en");
+    private static final FieldPath CITY_NAME_PATH = new FieldPath("city", "names", "en");
+    private static final FieldPath TIMEZONE_PATH = new FieldPath("location", "time_zone");
+    private static final FieldPath LATITUDE_PATH = new FieldPath("location", "latitude");
+    private static final FieldPath LONGITUDE_PATH = new FieldPath("location", "longitude");
+    private static final FieldPath ASN_PATH = new FieldPath("autonomous_system_number");
+    private static final FieldPath ORGANIZATION_NAME_PATH = new FieldPath("autonomous_system_organization");
+
     private final String field;
     private final String targetField;
     private final DatabaseReaderLazyLoader lazyLoader;
@@ -116,7 +132,9 @@ public final class GeoIpProcessor extends AbstractProcessor {
         Map<String, Object> geoData;
         String databaseType = lazyLoader.getDatabaseType();
 
-        if (databaseType.endsWith(CITY_DB_SUFFIX)) {
+        if (lazyLoader.isDirectLookup()) {
+            geoData = retrieveGeoDataDirectly(ipAddress, databaseType);
+        } else if (databaseType.endsWith(CITY_DB_SUFFIX)) {
             try {
                 geoData = retrieveCityGeoData(ipAddress);
             } catch (AddressNotFoundRuntimeException e) {
@@ -165,6 +183,90 @@ public final class GeoIpProcessor extends AbstractProcessor {
         return properties;
     }
 
+    /**
+     * Resolves the address in the memory mapped database and decodes only the configured properties from its record, which avoids
+     * materializing a full {@link CityResponse} (or country or ASN response) per document. Responses are not cached in this mode, a
+     * lookup is about as cheap as a cache hit.
+     */
+    private Map<String, Object> retrieveGeoDataDirectly(InetAddress ipAddress, String databaseType) throws IOException {
+        if (databaseType.endsWith(CITY_DB_SUFFIX) == false && databaseType.endsWith(COUNTRY_DB_SUFFIX) == false
+                && databaseType.endsWith(ASN_DB_SUFFIX) == false) {
+            throw new ElasticsearchParseException("Unsupported database type [" + databaseType + "]", new IllegalStateException());
+        }
+        SpecialPermission.check();
+        final MaxMindDatabase database;
+        try {
+            database = AccessController.doPrivileged((PrivilegedExceptionAction<MaxMindDatabase>) lazyLoader::getDatabase);
+        } catch (PrivilegedActionException e) {
+            throw (IOException) e.getException();
+        }
+        final int record = database.lookup(ipAddress);
+        if (record == -1) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Object> geoData = new HashMap<>();
+        for (Property property : this.properties) {
+            switch (property) {
+                case IP:
+                    geoData.put("ip", NetworkAddress.format(ipAddress));
+                    break;
+                case COUNTRY_ISO_CODE:
+                    putIfNotNull(geoData, "country_iso_code", database.get(record, COUNTRY_ISO_CODE_PATH));
+                    break;
+                case COUNTRY_NAME:
+                    putIfNotNull(geoData, "country_name", database.get(record, COUNTRY_NAME_PATH));
+                    break;
+                case CONTINENT_NAME:
+                    putIfNotNull(geoData, "continent_name", database.get(record, CONTINENT_NAME_PATH));
+                    break;
+                case REGION_ISO_CODE:
+                    Object countryIso = database.get(record, COUNTRY_ISO_CODE_PATH);
+                    Object subdivisionIso = database.get(record, SUBDIVISION_ISO_CODE_PATH);
+                    if (countryIso != null && subdivisionIso != null) {
+                        geoData.put("region_iso_code", countryIso + "-" + subdivisionIso);
+                    }
+                    break;
+                case REGION_NAME:
+                    putIfNotNull(geoData, "region_name", database.get(record, SUBDIVISION_NAME_PATH));
+                    break;
+                case CITY_NAME:
+                    putIfNotNull(geoData, "city_name", database.get(record, CITY_NAME_PATH));
+                    break;
+                case TIMEZONE:
+                    putIfNotNull(geoData, "timezone", database.get(record, TIMEZONE_PATH));
+                    break;
+                case LOCATION:
+                    Object latitude = database.get(record, LATITUDE_PATH);
+                    Object longitude = database.get(record, LONGITUDE_PATH);
+                    if (latitude != null && longitude != null) {
+                        Map<String, Object> locationObject = new HashMap<>();
+                        locationObject.put("lat", latitude);
+                        locationObject.put("lon", longitude);
+                        geoData.put("location", locationObject);
+                    }
+                    break;
+                case ASN:
+                    Object asn = database.get(record, ASN_PATH);
+                    if (asn != null) {
+                        // uint32 values are decoded as longs, but the ASN has always been reported as an integer
+                        geoData.put("asn", ((Number) asn).intValue());
+                    }
+                    break;
+                case ORGANIZATION_NAME:
+                    putIfNotNull(geoData, "organization_name", database.get(record, ORGANIZATION_NAME_PATH));
+                    break;
+            }
+        }
+        return geoData;
+    }
+
+    private static void putIfNotNull(Map<String, Object> geoData, String key, Object value) {
+        if (value != null) {
+            geoData.put(key, value);
+        }
+    }
+
     private Map<String, Object> retrieveCityGeoData(InetAddress ipAddress) {
         SpecialPermission.check();
         CityResponse response = AccessController.doPrivileged((PrivilegedAction<CityResponse>) () ->
@@ -101,12 +101,13 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
         assertDatabaseExistence(geoIpDirectory, true);
         assertDatabaseExistence(geoIpConfigDirectory, false);
         final boolean loadDatabaseOnHeap = Booleans.parseBoolean(System.getProperty("es.geoip.load_db_on_heap", "false"));
+        final boolean directLookup = Booleans.parseBoolean(System.getProperty("es.geoip.direct_lookup", "false"));
         final Map<String, DatabaseReaderLazyLoader> databaseReaders = new HashMap<>();
 
         // load the default databases
         for (final String databaseFilename : DEFAULT_DATABASE_FILENAMES) {
             final Path databasePath = geoIpDirectory.resolve(databaseFilename);
-            final DatabaseReaderLazyLoader loader = createLoader(databasePath, loadDatabaseOnHeap);
+            final DatabaseReaderLazyLoader loader = createLoader(databasePath, loadDatabaseOnHeap, directLookup);
             databaseReaders.put(databaseFilename, loader);
         }
 
@@ -120,7 +121,7 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
                     Path databasePath = iterator.next();
                     if (Files.isRegularFile(databasePath) && pathMatcher.matches(databasePath)) {
                         String databaseFileName = databasePath.getFileName().toString();
-                        final DatabaseReaderLazyLoader loader = createLoader(databasePath, loadDatabaseOnHeap);
+                        final DatabaseReaderLazyLoader loader = createLoader(databasePath, loadDatabaseOnHeap, directLookup);
                         databaseReaders.put(databaseFileName, loader);
                     }
                 }
@@ -129,7 +130,7 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
         return Collections.unmodifiableMap(databaseReaders);
     }
 
-    private static DatabaseReaderLazyLoader createLoader(Path databasePath, boolean loadDatabaseOnHeap) {
+    private static DatabaseReaderLazyLoader createLoader(Path databasePath, boolean loadDatabaseOnHeap, boolean directLookup) {
         return new DatabaseReaderLazyLoader(
                 databasePath,
                 () -> {
@@ -140,7 +141,8 @@ public class IngestGeoIpPlugin extends Plugin implements IngestPlugin, Closeable
                         builder.fileMode(Reader.FileMode.MEMORY_MAPPED);
                     }
                     return builder.build();
-                });
+                },
+                directLookup);
     }
 
     private static void assertDatabaseExistence(final Path path, final boolean exists) throws IOException {
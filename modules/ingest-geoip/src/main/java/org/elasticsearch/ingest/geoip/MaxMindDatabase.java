@@ -0,0 +1,596 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.ingest.geoip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only view over a MaxMind DB file that walks the binary search tree and decodes the data section directly from a memory
+ * mapped buffer. In contrast to {@link com.maxmind.geoip2.DatabaseReader} no response object graph is built for a lookup; callers
+ * resolve the record of an address once and then decode only the {@link FieldPath}s they are interested in, skipping over all other
+ * values of the record without allocating.
+ *
+ * See <a href="https://maxmind.github.io/MaxMind-DB/">the MaxMind DB file format specification</a> for details on the file layout.
+ */
+final class MaxMindDatabase implements Closeable {
+
+    private static final byte[] METADATA_MARKER = {
+        (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 'M', 'a', 'x', 'M', 'i', 'n', 'd', '.', 'c', 'o', 'm'
+    };
+    private static final int MAX_METADATA_SIZE = 128 * 1024;
+    private static final int DATA_SECTION_SEPARATOR_SIZE = 16;
+
+    // the data types defined by the MaxMind DB format
+    private static final int TYPE_EXTENDED = 0;
+    private static final int TYPE_POINTER = 1;
+    private static final int TYPE_UTF8_STRING = 2;
+    private static final int TYPE_DOUBLE = 3;
+    private static final int TYPE_BYTES = 4;
+    private static final int TYPE_UINT16 = 5;
+    private static final int TYPE_UINT32 = 6;
+    private static final int TYPE_MAP = 7;
+    private static final int TYPE_INT32 = 8;
+    private static final int TYPE_UINT64 = 9;
+    private static final int TYPE_UINT128 = 10;
+    private static final int TYPE_ARRAY = 11;
+    private static final int TYPE_DATA_CACHE_CONTAINER = 12;
+    private static final int TYPE_END_MARKER = 13;
+    private static final int TYPE_BOOLEAN = 14;
+    private static final int TYPE_FLOAT = 15;
+
+    private static final int[] POINTER_VALUE_OFFSETS = {0, 2048, 526336, 0};
+
+    private final String description;
+    private final ByteBuffer buffer;
+    private final String databaseType;
+    private final int ipVersion;
+    private final int nodeCount;
+    private final int recordSize;
+    private final int nodeByteSize;
+    private final int searchTreeSize;
+    private final int dataSectionStart;
+    private final int ipv4StartNode;
+
+    /**
+     * Memory maps the database at the given path. The mapping outlives the file channel that is used to create it.
+     */
+    static MaxMindDatabase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("database [" + path + "] of size [" + size + "] is too large to be memory mapped");
+            }
+            return new MaxMindDatabase(path.toString(), channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    MaxMindDatabase(String description, ByteBuffer buffer) throws IOException {
+        this.description = description;
+        this.buffer = buffer;
+        final int metadataStart = findMetadataStart(buffer);
+        if (metadataStart == -1) {
+            throw new IOException("could not find metadata marker in database [" + description + "]");
+        }
+        final Object metadata;
+        try {
+            final Decoder decoder = new Decoder(metadataStart);
+            decoder.position = metadataStart;
+            metadata = decoder.readValue();
+        } catch (RuntimeException e) {
+            throw new IOException("failed to decode metadata of database [" + description + "]", e);
+        }
+        if (metadata instanceof Map == false) {
+            throw new IOException("unexpected metadata [" + metadata + "] in database [" + description + "]");
+        }
+        final Map<?, ?> metadataMap = (Map<?, ?>) metadata;
+        this.databaseType = String.valueOf(metadataMap.get("database_type"));
+        this.ipVersion = readMetadataInt(metadataMap, "ip_version");
+        this.nodeCount = readMetadataInt(metadataMap, "node_count");
+        this.recordSize = readMetadataInt(metadataMap, "record_size");
+        if (recordSize != 24 && recordSize != 28 && recordSize != 32) {
+            throw new IOException("unsupported record size [" + recordSize + "] in database [" + description + "]");
+        }
+        if (ipVersion != 4 && ipVersion != 6) {
+            throw new IOException("unsupported ip version [" + ipVersion + "] in database [" + description + "]");
+        }
+        this.nodeByteSize = recordSize / 4;
+        this.searchTreeSize = Math.multiplyExact(nodeCount, nodeByteSize);
+        this.dataSectionStart = searchTreeSize + DATA_SECTION_SEPARATOR_SIZE;
+        if (dataSectionStart > metadataStart) {
+            throw new IOException("search tree of database [" + description + "] overlaps with its metadata");
+        }
+
+        // IPv4 addresses live below ::/96 in IPv6 databases, pre-compute the node at which their lookups start
+        int node = 0;
+        int depth = 0;
+        if (ipVersion == 6) {
+            while (depth < 96 && node < nodeCount) {
+                node = readRecord(node, 0);
+                depth++;
+            }
+        }
+        this.ipv4StartNode = node;
+    }
+
+    private int readMetadataInt(Map<?, ?> metadata, String key) throws IOException {
+        final Object value = metadata.get(key);
+        if (value instanceof Number == false) {
+            throw new IOException("expected a number for metadata [" + key + "] in database [" + description + "] but got [" + value + "]");
+        }
+        return Math.toIntExact(((Number) value).longValue());
+    }
+
+    private static int findMetadataStart(ByteBuffer buffer) {
+        final int limit = buffer.limit();
+        final int stop = Math.max(0, limit - MAX_METADATA_SIZE);
+        outer:
+        for (int i = limit - METADATA_MARKER.length; i >= stop; i--) {
+            for (int j = 0; j < METADATA_MARKER.length; j++) {
+                if (buffer.get(i + j) != METADATA_MARKER[j]) {
+                    continue outer;
+                }
+            }
+            return i + METADATA_MARKER.length;
+        }
+        return -1;
+    }
+
+    String getDatabaseType() {
+        return databaseType;
+    }
+
+    /**
+     * Resolves the record of the given address.
+     *
+     * @return the offset of the address' record, to be passed to {@link #get(int, FieldPath)}, or {@code -1} if the database does
+     *         not contain the address
+     */
+    int lookup(InetAddress address) {
+        final byte[] bytes = address.getAddress();
+        int node;
+        if (bytes.length == 4) {
+            node = ipv4StartNode;
+        } else {
+            ensureIpv6Supported(address);
+            node = 0;
+        }
+        final int bitLength = bytes.length * 8;
+        int depth = 0;
+        while (node < nodeCount && depth < bitLength) {
+            node = readRecord(node, bit(bytes, depth));
+            depth++;
+        }
+        return resolveRecord(node, depth, bitLength);
+    }
+
+    /**
+     * Resolves the records of many addresses at once. The addresses are visited in sorted order so that the walk for each address
+     * resumes from the deepest search tree node it shares with its predecessor instead of starting over from the root, and addresses
+     * falling into the same network resolve without touching the tree at all.
+     *
+     * @return the record offsets in the order of the given addresses, {@code -1} for addresses that are not contained in the database
+     */
+    int[] lookup(InetAddress[] addresses) {
+        final int[] records = new int[addresses.length];
+        if (addresses.length == 0) {
+            return records;
+        }
+        final int keyLength = ipVersion == 6 ? 16 : 4;
+        final byte[][] keys = new byte[addresses.length][];
+        final Integer[] order = new Integer[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            keys[i] = toSearchKey(addresses[i], keyLength);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+
+        final int bitLength = keyLength * 8;
+        // nodes[d] holds the node that the previous walk reached after consuming d bits
+        final int[] nodes = new int[bitLength + 1];
+        byte[] previousKey = null;
+        int previousDepth = 0;
+        int previousRecord = -1;
+        for (int index : order) {
+            final byte[] key = keys[index];
+            int depth = 0;
+            if (previousKey != null) {
+                final int commonPrefix = commonPrefixBits(previousKey, key);
+                if (commonPrefix >= previousDepth) {
+                    // the previous walk terminated within the shared prefix, so both addresses belong to the same network
+                    records[index] = previousRecord;
+                    continue;
+                }
+                depth = commonPrefix;
+            }
+            int node = nodes[depth];
+            while (node < nodeCount && depth < bitLength) {
+                node = readRecord(node, bit(key, depth));
+                depth++;
+                nodes[depth] = node;
+            }
+            previousKey = key;
+            previousDepth = depth;
+            previousRecord = resolveRecord(node, depth, bitLength);
+            records[index] = previousRecord;
+        }
+        return records;
+    }
+
+    /**
+     * Decodes the value at the given path of a record.
+     *
+     * @param record the record offset as returned by {@link #lookup(InetAddress)}
+     * @return the decoded value or {@code null} if the record does not contain the path
+     */
+    Object get(int record, FieldPath path) {
+        if (record < 0) {
+            return null;
+        }
+        final Decoder decoder = new Decoder(dataSectionStart);
+        decoder.position = record;
+        if (decoder.seek(path)) {
+            return decoder.readValue();
+        }
+        return null;
+    }
+
+    private byte[] toSearchKey(InetAddress address, int keyLength) {
+        final byte[] bytes = address.getAddress();
+        if (bytes.length == keyLength) {
+            return bytes;
+        }
+        if (bytes.length == 4) {
+            // an IPv4 address in an IPv6 database, which stores them as ::a.b.c.d
+            final byte[] key = new byte[16];
+            System.arraycopy(bytes, 0, key, 12, 4);
+            return key;
+        }
+        ensureIpv6Supported(address);
+        throw new AssertionError("unexpected address length [" + bytes.length + "]");
+    }
+
+    private void ensureIpv6Supported(InetAddress address) {
+        if (ipVersion == 4) {
+            throw new IllegalArgumentException("error looking up [" + address.getHostAddress() + "]: you attempted to look up an "
+                + "IPv6 address in an IPv4-only database [" + description + "]");
+        }
+    }
+
+    private static int commonPrefixBits(byte[] a, byte[] b) {
+        final int mismatch = Arrays.mismatch(a, b);
+        if (mismatch == -1) {
+            return a.length * 8;
+        }
+        return mismatch * 8 + Integer.numberOfLeadingZeros((a[mismatch] ^ b[mismatch]) & 0xFF) - 24;
+    }
+
+    private static int bit(byte[] bytes, int index) {
+        return (bytes[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private int resolveRecord(int record, int depth, int bitLength) {
+        if (record == nodeCount) {
+            return -1;
+        }
+        if (record > nodeCount) {
+            return searchTreeSize + (record - nodeCount);
+        }
+        throw new IllegalStateException("search tree of database [" + description + "] is corrupt: no record after consuming ["
+            + depth + "] of [" + bitLength + "] bits");
+    }
+
+    private int readRecord(int node, int bit) {
+        final int base = node * nodeByteSize;
+        switch (recordSize) {
+            case 24:
+                return readUnsigned24(base + bit * 3);
+            case 28: {
+                // the middle byte holds the four most significant bits of both records
+                final int middle = buffer.get(base + 3) & 0xFF;
+                final int high = bit == 0 ? (middle & 0xF0) << 20 : (middle & 0x0F) << 24;
+                return high | readUnsigned24(base + bit * 4);
+            }
+            case 32:
+                return buffer.getInt(base + bit * 4);
+            default:
+                throw new AssertionError("unexpected record size [" + recordSize + "]");
+        }
+    }
+
+    private int readUnsigned24(int offset) {
+        return ((buffer.get(offset) & 0xFF) << 16) | ((buffer.get(offset + 1) & 0xFF) << 8) | (buffer.get(offset + 2) & 0xFF);
+    }
+
+    @Override
+    public void close() {
+        // the mapping is released once the buffer is garbage collected, there is no safe way to unmap it eagerly
+    }
+
+    /**
+     * A path into a record, e.g. {@code country.names.en}. Keys are kept as UTF-8 bytes so that they can be compared against the keys
+     * in the data section without decoding them.
+     */
+    static final class FieldPath {
+
+        /**
+         * A path element that selects the last entry of an array, e.g. the most specific subdivision of a city record.
+         */
+        static final String LAST_ARRAY_ELEMENT = "[-1]";
+
+        private final byte[][] keys;
+
+        FieldPath(String... elements) {
+            if (elements.length == 0) {
+                throw new IllegalArgumentException("a field path requires at least one element");
+            }
+            this.keys = new byte[elements.length][];
+            for (int i = 0; i < elements.length; i++) {
+                keys[i] = LAST_ARRAY_ELEMENT.equals(elements[i]) ? null : elements[i].getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        @Override
+        public String toString() {
+            final List<String> elements = new ArrayList<>(keys.length);
+            for (byte[] key : keys) {
+                elements.add(key == null ? LAST_ARRAY_ELEMENT : new String(key, StandardCharsets.UTF_8));
+            }
+            return String.join(".", elements);
+        }
+    }
+
+    /**
+     * Reads values from the buffer starting at {@link #position}. A decoder is cheap and must not be shared between threads.
+     */
+    private final class Decoder {
+
+        private final int pointerBase;
+        private int position;
+        // type and size of the value whose control bytes were read last; for pointers the size holds the resolved target
+        private int type;
+        private int size;
+
+        Decoder(int pointerBase) {
+            this.pointerBase = pointerBase;
+        }
+
+        private int nextByte() {
+            return buffer.get(position++) & 0xFF;
+        }
+
+        private void readControlBytes() {
+            final int control = nextByte();
+            int controlType = control >>> 5;
+            if (controlType == TYPE_POINTER) {
+                final int pointerSize = ((control >>> 3) & 0x3) + 1;
+                long pointer = pointerSize == 4 ? 0 : control & 0x7;
+                for (int i = 0; i < pointerSize; i++) {
+                    pointer = (pointer << 8) | nextByte();
+                }
+                this.type = TYPE_POINTER;
+                this.size = Math.toIntExact(pointerBase + pointer + POINTER_VALUE_OFFSETS[pointerSize - 1]);
+                return;
+            }
+            if (controlType == TYPE_EXTENDED) {
+                controlType = 7 + nextByte();
+            }
+            int controlSize = control & 0x1f;
+            if (controlSize >= 29) {
+                final int bytes = controlSize - 28;
+                int value = 0;
+                for (int i = 0; i < bytes; i++) {
+                    value = (value << 8) | nextByte();
+                }
+                controlSize = controlSize == 29 ? 29 + value : controlSize == 30 ? 285 + value : 65821 + value;
+            }
+            this.type = controlType;
+            this.size = controlSize;
+        }
+
+        /**
+         * Reads the control bytes of the value at the current position, following a pointer if there is one.
+         */
+        private void readControlBytesFollowingPointer() {
+            readControlBytes();
+            if (type == TYPE_POINTER) {
+                position = size;
+                readControlBytes();
+            }
+        }
+
+        /**
+         * Moves to the value at the given path, skipping all sibling values on the way.
+         *
+         * @return whether the path exists, in which case the current position is the start of its value
+         */
+        boolean seek(FieldPath path) {
+            for (byte[] key : path.keys) {
+                readControlBytesFollowingPointer();
+                if (key == null) {
+                    if (type != TYPE_ARRAY || size == 0) {
+                        return false;
+                    }
+                    final int entries = size;
+                    for (int i = 0; i < entries - 1; i++) {
+                        skipValue();
+                    }
+                } else {
+                    if (type != TYPE_MAP) {
+                        return false;
+                    }
+                    final int entries = size;
+                    boolean found = false;
+                    for (int i = 0; i < entries; i++) {
+                        if (readKeyAndCompare(key)) {
+                            found = true;
+                            break;
+                        }
+                        skipValue();
+                    }
+                    if (found == false) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean readKeyAndCompare(byte[] expected) {
+            readControlBytes();
+            final int keyStart;
+            if (type == TYPE_POINTER) {
+                final int next = position;
+                position = size;
+                readControlBytes();
+                keyStart = position;
+                position = next;
+            } else {
+                keyStart = position;
+                position += size;
+            }
+            if (type != TYPE_UTF8_STRING) {
+                throw new IllegalStateException("expected a string map key in database [" + description + "] but got type [" + type + "]");
+            }
+            if (size != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (buffer.get(keyStart + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void skipValue() {
+            readControlBytes();
+            switch (type) {
+                case TYPE_POINTER:
+                case TYPE_BOOLEAN:
+                case TYPE_DATA_CACHE_CONTAINER:
+                case TYPE_END_MARKER:
+                    break;
+                case TYPE_MAP: {
+                    final int values = size * 2;
+                    for (int i = 0; i < values; i++) {
+                        skipValue();
+                    }
+                    break;
+                }
+                case TYPE_ARRAY: {
+                    final int values = size;
+                    for (int i = 0; i < values; i++) {
+                        skipValue();
+                    }
+                    break;
+                }
+                default:
+                    position += size;
+            }
+        }
+
+        Object readValue() {
+            readControlBytes();
+            if (type == TYPE_POINTER) {
+                final int next = position;
+                position = size;
+                final Object value = readValue();
+                position = next;
+                return value;
+            }
+            final int size = this.size;
+            switch (type) {
+                case TYPE_UTF8_STRING:
+                    return new String(readBytes(size), StandardCharsets.UTF_8);
+                case TYPE_DOUBLE: {
+                    final double value = buffer.getDouble(position);
+                    position += size;
+                    return value;
+                }
+                case TYPE_FLOAT: {
+                    final float value = buffer.getFloat(position);
+                    position += size;
+                    return value;
+                }
+                case TYPE_BYTES:
+                    return readBytes(size);
+                case TYPE_UINT16:
+                    return (int) readUnsigned(size);
+                case TYPE_UINT32:
+                    return readUnsigned(size);
+                case TYPE_INT32:
+                    // a four byte value carries the sign bit, shorter values are always positive
+                    return (int) readUnsigned(size);
+                case TYPE_UINT64:
+                case TYPE_UINT128:
+                    return new BigInteger(1, readBytes(size));
+                case TYPE_BOOLEAN:
+                    return size != 0;
+                case TYPE_MAP: {
+                    final Map<String, Object> map = new LinkedHashMap<>(size);
+                    for (int i = 0; i < size; i++) {
+                        final Object key = readValue();
+                        map.put(String.valueOf(key), readValue());
+                    }
+                    return map;
+                }
+                case TYPE_ARRAY: {
+                    final List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                default:
+                    throw new IllegalStateException("unsupported data type [" + type + "] in database [" + description + "]");
+            }
+        }
+
+        private byte[] readBytes(int length) {
+            final byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(position + i);
+            }
+            position += length;
+            return bytes;
+        }
+
+        private long readUnsigned(int length) {
+            long value = 0;
+            for (int i = 0; i < length; i++) {
+                value = (value << 8) | nextByte();
+            }
+            return value;
+        }
+    }
+}
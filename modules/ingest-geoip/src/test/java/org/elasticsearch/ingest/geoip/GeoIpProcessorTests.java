@@ -20,15 +20,20 @@
 package org.elasticsearch.ingest.geoip;
 
 import com.maxmind.geoip2.DatabaseReader;
+import org.apache.lucene.util.Constants;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.io.PathUtils;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.RandomDocumentPicks;
 import org.elasticsearch.ingest.geoip.IngestGeoIpPlugin.GeoIpCache;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.StreamsUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -66,6 +71,73 @@ public class GeoIpProcessorTests extends ESTestCase {
         assertThat(geoData.get("location"), equalTo(location));
     }
 
+    public void testCityWithDirectLookup() throws Exception {
+        assumeFalse("windows deletion behavior is asinine", Constants.WINDOWS);
+        DatabaseReaderLazyLoader loader = directLookupLoader("GeoLite2-City.mmdb");
+        GeoIpProcessor processor = new GeoIpProcessor(randomAlphaOfLength(10), "source_field", loader, "target_field",
+                EnumSet.allOf(GeoIpProcessor.Property.class), false, new GeoIpCache(1000));
+
+        String address = "2602:306:33d3:8000::3257:9652";
+        Map<String, Object> document = new HashMap<>();
+        document.put("source_field", address);
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), document);
+        processor.execute(ingestDocument);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> geoData = (Map<String, Object>) ingestDocument.getSourceAndMetadata().get("target_field");
+        assertThat(geoData.size(), equalTo(9));
+        assertThat(geoData.get("ip"), equalTo(address));
+        assertThat(geoData.get("country_iso_code"), equalTo("US"));
+        assertThat(geoData.get("country_name"), equalTo("United States"));
+        assertThat(geoData.get("continent_name"), equalTo("North America"));
+        assertThat(geoData.get("region_iso_code"), equalTo("US-FL"));
+        assertThat(geoData.get("region_name"), equalTo("Florida"));
+        assertThat(geoData.get("city_name"), equalTo("Hollywood"));
+        assertThat(geoData.get("timezone"), equalTo("America/New_York"));
+        Map<String, Object> location = new HashMap<>();
+        location.put("lat", 25.9825d);
+        location.put("lon", -80.3434d);
+        assertThat(geoData.get("location"), equalTo(location));
+        // the full database reader is never loaded
+        assertNull(loader.databaseReader.get());
+        loader.close();
+    }
+
+    public void testAsnWithDirectLookup() throws Exception {
+        assumeFalse("windows deletion behavior is asinine", Constants.WINDOWS);
+        DatabaseReaderLazyLoader loader = directLookupLoader("GeoLite2-ASN.mmdb");
+        GeoIpProcessor processor = new GeoIpProcessor(randomAlphaOfLength(10), "source_field", loader, "target_field",
+                EnumSet.allOf(GeoIpProcessor.Property.class), false, new GeoIpCache(1000));
+
+        String ip = "82.171.64.0";
+        Map<String, Object> document = new HashMap<>();
+        document.put("source_field", ip);
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), document);
+        processor.execute(ingestDocument);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> geoData = (Map<String, Object>) ingestDocument.getSourceAndMetadata().get("target_field");
+        assertThat(geoData.size(), equalTo(3));
+        assertThat(geoData.get("ip"), equalTo(ip));
+        assertThat(geoData.get("asn"), equalTo(1136));
+        assertThat(geoData.get("organization_name"), equalTo("KPN B.V."));
+        loader.close();
+    }
+
+    public void testAddressIsNotInTheDatabaseWithDirectLookup() throws Exception {
+        assumeFalse("windows deletion behavior is asinine", Constants.WINDOWS);
+        DatabaseReaderLazyLoader loader = directLookupLoader("GeoLite2-City.mmdb");
+        GeoIpProcessor processor = new GeoIpProcessor(randomAlphaOfLength(10), "source_field", loader, "target_field",
+                EnumSet.allOf(GeoIpProcessor.Property.class), false, new GeoIpCache(1000));
+
+        Map<String, Object> document = new HashMap<>();
+        document.put("source_field", "127.0.0.1");
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), document);
+        processor.execute(ingestDocument);
+        assertThat(ingestDocument.getSourceAndMetadata().containsKey("target_field"), is(false));
+        loader.close();
+    }
+
     public void testNullValueWithIgnoreMissing() throws Exception {
         GeoIpProcessor processor = new GeoIpProcessor(randomAlphaOfLength(10), "source_field",
                 loader("/GeoLite2-City.mmdb"), "target_field", EnumSet.allOf(GeoIpProcessor.Property.class), true,
@@ -236,6 +308,14 @@ public class GeoIpProcessorTests extends ESTestCase {
         assertThat(e.getMessage(), containsString("not an IP string literal"));
     }
 
+    private DatabaseReaderLazyLoader directLookupLoader(final String databaseFilename) throws IOException {
+        final Path path = createTempDir().resolve(databaseFilename);
+        Files.copy(new ByteArrayInputStream(StreamsUtils.copyToBytesFromClasspath("/" + databaseFilename)), path);
+        return new DatabaseReaderLazyLoader(path, () -> {
+            throw new AssertionError("direct lookups must not load the database reader");
+        }, true);
+    }
+
     private DatabaseReaderLazyLoader loader(final String path) {
         final Supplier<InputStream> databaseInputStreamSupplier = () -> GeoIpProcessor.class.getResourceAsStream(path);
         final CheckedSupplier<DatabaseReader, IOException> loader =
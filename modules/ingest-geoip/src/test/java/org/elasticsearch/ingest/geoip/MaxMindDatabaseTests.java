@@ -0,0 +1,164 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.ingest.geoip;
+
+import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.geoip2.exception.AddressNotFoundException;
+import com.maxmind.geoip2.model.AsnResponse;
+import com.maxmind.geoip2.model.CityResponse;
+import org.apache.lucene.util.Constants;
+import org.elasticsearch.common.network.InetAddresses;
+import org.elasticsearch.ingest.geoip.MaxMindDatabase.FieldPath;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.StreamsUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MaxMindDatabaseTests extends ESTestCase {
+
+    public void testDatabaseType() throws IOException {
+        assertThat(load("GeoLite2-City.mmdb").getDatabaseType(), equalTo("GeoLite2-City"));
+        assertThat(load("GeoLite2-Country.mmdb").getDatabaseType(), equalTo("GeoLite2-Country"));
+        assertThat(load("GeoLite2-ASN.mmdb").getDatabaseType(), equalTo("GeoLite2-ASN"));
+    }
+
+    public void testMissingMetadata() {
+        final IOException e = expectThrows(IOException.class, () -> new MaxMindDatabase("test", ByteBuffer.wrap(new byte[1024])));
+        assertThat(e.getMessage(), containsString("could not find metadata marker"));
+    }
+
+    public void testCityLookup() throws IOException {
+        final MaxMindDatabase database = load("GeoLite2-City.mmdb");
+        final int record = database.lookup(InetAddresses.forString("2602:306:33d3:8000::3257:9652"));
+        assertThat(database.get(record, new FieldPath("country", "iso_code")), equalTo("US"));
+        assertThat(database.get(record, new FieldPath("subdivisions", FieldPath.LAST_ARRAY_ELEMENT, "iso_code")), equalTo("FL"));
+        assertThat(database.get(record, new FieldPath("city", "names", "en")), equalTo("Hollywood"));
+        assertThat(database.get(record, new FieldPath("location", "time_zone")), equalTo("America/New_York"));
+        assertThat(database.get(record, new FieldPath("location", "latitude")), equalTo(25.9825d));
+        assertThat(database.get(record, new FieldPath("location", "does_not_exist")), nullValue());
+        assertThat(database.get(record, new FieldPath("country", FieldPath.LAST_ARRAY_ELEMENT)), nullValue());
+
+        assertThat(database.lookup(InetAddresses.forString("127.0.0.1")), equalTo(-1));
+        assertThat(database.get(-1, new FieldPath("country", "iso_code")), nullValue());
+    }
+
+    public void testIpv4AddressInIpv6Database() throws IOException {
+        final MaxMindDatabase database = load("GeoLite2-City.mmdb");
+        // IPv6 databases store IPv4 addresses in the ::/96 subtree
+        assertThat(database.lookup(InetAddresses.forString("::8.8.8.8")), equalTo(database.lookup(InetAddresses.forString("8.8.8.8"))));
+    }
+
+    public void testOpen() throws IOException {
+        assumeFalse("windows deletion behavior is asinine", Constants.WINDOWS);
+        final Path path = createTempDir().resolve("GeoLite2-Country.mmdb");
+        Files.copy(new ByteArrayInputStream(StreamsUtils.copyToBytesFromClasspath("/GeoLite2-Country.mmdb")), path);
+        try (MaxMindDatabase database = MaxMindDatabase.open(path)) {
+            assertThat(database.getDatabaseType(), equalTo("GeoLite2-Country"));
+            final int record = database.lookup(InetAddresses.forString("82.170.213.79"));
+            assertThat(database.get(record, new FieldPath("country", "names", "en")), equalTo("Netherlands"));
+        }
+    }
+
+    public void testMatchesDatabaseReader() throws Exception {
+        final MaxMindDatabase database = load("GeoLite2-City.mmdb");
+        try (DatabaseReader reader = reader("GeoLite2-City.mmdb")) {
+            for (int i = 0; i < 1000; i++) {
+                final InetAddress address = randomAddress();
+                final int record = database.lookup(address);
+                CityResponse response;
+                try {
+                    response = reader.city(address);
+                } catch (AddressNotFoundException e) {
+                    response = null;
+                }
+                if (response == null) {
+                    assertThat(address.toString(), record, equalTo(-1));
+                } else {
+                    assertThat(address.toString(), database.get(record, new FieldPath("country", "iso_code")),
+                        equalTo(response.getCountry().getIsoCode()));
+                    assertThat(address.toString(), database.get(record, new FieldPath("continent", "names", "en")),
+                        equalTo(response.getContinent().getName()));
+                    assertThat(address.toString(), database.get(record, new FieldPath("city", "names", "en")),
+                        equalTo(response.getCity().getName()));
+                    assertThat(address.toString(),
+                        database.get(record, new FieldPath("subdivisions", FieldPath.LAST_ARRAY_ELEMENT, "iso_code")),
+                        equalTo(response.getMostSpecificSubdivision().getIsoCode()));
+                    assertThat(address.toString(), database.get(record, new FieldPath("location", "longitude")),
+                        equalTo(response.getLocation().getLongitude()));
+                }
+            }
+        }
+    }
+
+    public void testAsnMatchesDatabaseReader() throws Exception {
+        final MaxMindDatabase database = load("GeoLite2-ASN.mmdb");
+        try (DatabaseReader reader = reader("GeoLite2-ASN.mmdb")) {
+            final InetAddress address = InetAddresses.forString("82.171.64.0");
+            final AsnResponse response = reader.asn(address);
+            final int record = database.lookup(address);
+            assertThat(((Number) database.get(record, new FieldPath("autonomous_system_number"))).intValue(),
+                equalTo(response.getAutonomousSystemNumber()));
+            assertThat(database.get(record, new FieldPath("autonomous_system_organization")),
+                equalTo(response.getAutonomousSystemOrganization()));
+        }
+    }
+
+    public void testBatchLookupMatchesSingleLookups() throws IOException {
+        final MaxMindDatabase database = load("GeoLite2-City.mmdb");
+        final InetAddress[] addresses = new InetAddress[randomIntBetween(0, 500)];
+        for (int i = 0; i < addresses.length; i++) {
+            if (i > 0 && randomBoolean()) {
+                // addresses of the same network share their search tree prefix
+                final byte[] bytes = addresses[randomIntBetween(0, i - 1)].getAddress();
+                bytes[bytes.length - 1] = (byte) randomInt(255);
+                addresses[i] = InetAddress.getByAddress(bytes);
+            } else {
+                addresses[i] = randomAddress();
+            }
+        }
+        final int[] records = database.lookup(addresses);
+        assertThat(records.length, equalTo(addresses.length));
+        for (int i = 0; i < addresses.length; i++) {
+            assertThat(addresses[i].toString(), records[i], equalTo(database.lookup(addresses[i])));
+        }
+    }
+
+    private static MaxMindDatabase load(String databaseFilename) throws IOException {
+        return new MaxMindDatabase(databaseFilename, ByteBuffer.wrap(StreamsUtils.copyToBytesFromClasspath("/" + databaseFilename)));
+    }
+
+    private static DatabaseReader reader(String databaseFilename) throws IOException {
+        return new DatabaseReader.Builder(GeoIpProcessor.class.getResourceAsStream("/" + databaseFilename)).build();
+    }
+
+    private static InetAddress randomAddress() throws UnknownHostException {
+        return InetAddress.getByAddress(randomByteArrayOfLength(randomBoolean() ? 4 : 16));
+    }
+}
@@ -151,4 +151,20 @@ public final class CollapsingTopDocsCollector<T> extends FirstPassGroupingCollec
         return new CollapsingTopDocsCollector<>(new CollapsingDocValuesSource.Keyword(collapseField),
                 collapseField, sort, topN);
     }
+
+    /**
+     * Create a {@link GroupSelector} that extracts the collapse key of documents from a {@link org.apache.lucene.index.NumericDocValues}
+     * field, with the same restrictions as {@link #createNumeric(String, Sort, int)}.
+     */
+    public static GroupSelector<?> createNumericGroupSelector(String collapseField) {
+        return new CollapsingDocValuesSource.Numeric(collapseField);
+    }
+
+    /**
+     * Create a {@link GroupSelector} that extracts the collapse key of documents from a
+     * {@link org.apache.lucene.index.SortedDocValues} field, with the same restrictions as {@link #createKeyword(String, Sort, int)}.
+     */
+    public static GroupSelector<?> createKeywordGroupSelector(String collapseField) {
+        return new CollapsingDocValuesSource.Keyword(collapseField);
+    }
 }
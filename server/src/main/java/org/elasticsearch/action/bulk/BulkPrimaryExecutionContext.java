@@ -22,6 +22,7 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.action.support.replication.TransportWriteAction;
@@ -29,7 +30,9 @@ import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.translog.Translog;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * This is a utility class that holds the per request state needed to perform bulk operations on the primary.
@@ -75,6 +78,7 @@ class BulkPrimaryExecutionContext {
     private DocWriteRequest requestToExecute;
     private BulkItemResponse executionResult;
     private int retryCounter;
+    private Engine.IndexResult[] batchedResults;
 
 
     BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary) {
@@ -108,6 +112,70 @@ class BulkPrimaryExecutionContext {
         assert assertInvariants(ItemProcessingState.INITIAL);
     }
 
+    /** returns the index requests of the items following the current one that still have to be executed */
+    List<IndexRequest> getPendingIndexRequests() {
+        final List<IndexRequest> pending = new ArrayList<>();
+        final BulkItemRequest[] items = request.items();
+        for (int i = findNextNonAborted(currentIndex + 1); i < items.length; i = findNextNonAborted(i + 1)) {
+            if (items[i].request() instanceof IndexRequest) {
+                pending.add((IndexRequest) items[i].request());
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * returns the index requests of the current item and of the items directly following it that index new documents with
+     * auto-generated ids and have not been executed yet, up to the given number of requests
+     */
+    List<IndexRequest> getBatchableIndexRequests(int maxRequests) {
+        final List<IndexRequest> batch = new ArrayList<>();
+        final BulkItemRequest[] items = request.items();
+        for (int i = currentIndex; i < items.length && batch.size() < maxRequests; i = findNextNonAborted(i + 1)) {
+            if (isBatchable(items[i].request()) == false || (batchedResults != null && batchedResults[i] != null)) {
+                break;
+            }
+            batch.add((IndexRequest) items[i].request());
+        }
+        return batch;
+    }
+
+    private static boolean isBatchable(DocWriteRequest<?> request) {
+        if (request instanceof IndexRequest) {
+            final IndexRequest indexRequest = (IndexRequest) request;
+            return indexRequest.getAutoGeneratedTimestamp() != IndexRequest.UNSET_AUTO_GENERATED_TIMESTAMP
+                && indexRequest.isRetry() == false;
+        }
+        return false;
+    }
+
+    /**
+     * keeps the results of the requests returned by {@link #getBatchableIndexRequests(int)}, which have been executed as a batch,
+     * until their items are executed
+     */
+    void setBatchedResults(List<Engine.IndexResult> results) {
+        assert assertInvariants(ItemProcessingState.TRANSLATED);
+        if (batchedResults == null) {
+            batchedResults = new Engine.IndexResult[request.items().length];
+        }
+        int index = currentIndex;
+        for (Engine.IndexResult result : results) {
+            assert batchedResults[index] == null : "item [" + index + "] was already executed";
+            batchedResults[index] = result;
+            index = findNextNonAborted(index + 1);
+        }
+    }
+
+    /** returns and clears the result of the current item if it was executed as part of a batch, {@code null} otherwise */
+    Engine.IndexResult takeBatchedResult() {
+        if (batchedResults == null) {
+            return null;
+        }
+        final Engine.IndexResult result = batchedResults[currentIndex];
+        batchedResults[currentIndex] = null;
+        return result;
+    }
+
     /** gets the current, untranslated item request */
     public DocWriteRequest<?> getCurrent() {
         return getCurrentItem().request();
@@ -53,10 +53,13 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.index.mapper.MapperException;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.Mapping;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
@@ -68,6 +71,9 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportService;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
@@ -80,6 +86,12 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
     private static final Logger logger = LogManager.getLogger(TransportShardBulkAction.class);
 
+    /**
+     * The maximum number of index requests that are indexed on the primary as a single batch, which bounds the number of parsed
+     * documents that are held in memory at the same time.
+     */
+    static final int MAX_BATCHED_INDEX_REQUESTS = 1000;
+
     private final UpdateHelper updateHelper;
     private final MappingUpdatedAction mappingUpdatedAction;
 
@@ -174,10 +186,16 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 while (context.hasMoreOperationsToExecute()) {
                     context.setRequestToExecute(context.getCurrent());
                     final DocWriteRequest<?> docWriteRequest = context.getRequestToExecute();
-                    onComplete(
-                        exceptionToResult(
-                            e, primary, docWriteRequest.opType() == DocWriteRequest.OpType.DELETE, docWriteRequest.version()),
-                        context, null);
+                    final Engine.IndexResult batchedResult = context.takeBatchedResult();
+                    if (batchedResult != null && batchedResult.getResultType() != Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
+                        // the item was already indexed as part of a batch, its operation must be replicated
+                        onComplete(batchedResult, context, null);
+                    } else {
+                        onComplete(
+                            exceptionToResult(
+                                e, primary, docWriteRequest.opType() == DocWriteRequest.OpType.DELETE, docWriteRequest.version()),
+                            context, null);
+                    }
                 }
                 finishRequest();
             }
@@ -253,41 +271,59 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 request.ifSeqNo(), request.ifPrimaryTerm());
         } else {
             final IndexRequest request = context.getRequestToExecute();
-            result = primary.applyIndexOperationOnPrimary(version, request.versionType(), new SourceToParse(
-                    request.index(), request.type(), request.id(), request.source(), request.getContentType(), request.routing()),
-                request.ifSeqNo(), request.ifPrimaryTerm(), request.getAutoGeneratedTimestamp(), request.isRetry());
+            final Engine.IndexResult batchedResult = executeAsBatch(context);
+            if (batchedResult != null) {
+                result = batchedResult;
+            } else {
+                result = primary.applyIndexOperationOnPrimary(version, request.versionType(), new SourceToParse(
+                        request.index(), request.type(), request.id(), request.source(), request.getContentType(), request.routing()),
+                    request.ifSeqNo(), request.ifPrimaryTerm(), request.getAutoGeneratedTimestamp(), request.isRetry());
+            }
         }
         if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
-            mappingUpdater.updateMappings(result.getRequiredMappingUpdate(), primary.shardId(),
-                context.getRequestToExecute().type(),
-                new ActionListener<>() {
-                    @Override
-                    public void onResponse(Void v) {
-                        context.markAsRequiringMappingUpdate();
-                        waitForMappingUpdate.accept(
-                            ActionListener.runAfter(new ActionListener<>() {
-                                @Override
-                                public void onResponse(Void v) {
-                                    assert context.requiresWaitingForMappingUpdate();
-                                    context.resetForExecutionForRetry();
-                                }
-
-                                @Override
-                                public void onFailure(Exception e) {
-                                    context.failOnMappingUpdate(e);
-                                }
-                            }, () -> itemDoneListener.onResponse(null))
-                        );
-                    }
+            final String type = context.getRequestToExecute().type();
+            final Mapping requiredUpdate = result.getRequiredMappingUpdate();
+            final ActionListener<Void> mappingUpdateListener = new ActionListener<>() {
+                @Override
+                public void onResponse(Void v) {
+                    context.markAsRequiringMappingUpdate();
+                    waitForMappingUpdate.accept(
+                        ActionListener.runAfter(new ActionListener<>() {
+                            @Override
+                            public void onResponse(Void v) {
+                                assert context.requiresWaitingForMappingUpdate();
+                                context.resetForExecutionForRetry();
+                            }
+
+                            @Override
+                            public void onFailure(Exception e) {
+                                context.failOnMappingUpdate(e);
+                            }
+                        }, () -> itemDoneListener.onResponse(null))
+                    );
+                }
 
-                    @Override
-                    public void onFailure(Exception e) {
-                        onComplete(exceptionToResult(e, primary, isDelete, version), context, updateResult);
-                        // Requesting mapping update failed, so we don't have to wait for a cluster state update
-                        assert context.isInitial();
-                        itemDoneListener.onResponse(null);
-                    }
-                });
+                @Override
+                public void onFailure(Exception e) {
+                    onComplete(exceptionToResult(e, primary, isDelete, version), context, updateResult);
+                    // Requesting mapping update failed, so we don't have to wait for a cluster state update
+                    assert context.isInitial();
+                    itemDoneListener.onResponse(null);
+                }
+            };
+            final Mapping batchedUpdate = batchPendingMappingUpdates(context, type, requiredUpdate);
+            if (batchedUpdate == requiredUpdate) {
+                mappingUpdater.updateMappings(requiredUpdate, primary.shardId(), type, mappingUpdateListener);
+            } else {
+                mappingUpdater.updateMappings(batchedUpdate, primary.shardId(), type,
+                    ActionListener.wrap(mappingUpdateListener::onResponse, e -> {
+                        // the combined update may have been rejected because of another item, e.g. for exceeding the field limit,
+                        // so retry with the update of the current item alone and leave the other items to fail on their own
+                        logger.debug(() -> new ParameterizedMessage("{} failed to apply batched dynamic mapping update, " +
+                            "retrying with the mapping update of document [{}] only", primary.shardId(), context.getCurrent().id()), e);
+                        mappingUpdater.updateMappings(requiredUpdate, primary.shardId(), type, mappingUpdateListener);
+                    }));
+            }
             return false;
         } else {
             onComplete(result, context, updateResult);
@@ -295,6 +331,76 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         return true;
     }
 
+    /**
+     * Index requests of new documents with auto-generated ids can't conflict with each other, so if enabled through
+     * {@link IndexSettings#INDEX_BATCH_AUTO_GENERATED_IDS_SETTING} a run of such requests is indexed on the primary as a single batch
+     * once its first item is executed. The results of the other items of the run are kept until these items are executed.
+     *
+     * @return the result of the current item if it was indexed as part of a batch, or {@code null} if it has to be indexed on its own,
+     *         which is also the case if it requires a dynamic mapping update
+     */
+    static Engine.IndexResult executeAsBatch(BulkPrimaryExecutionContext context) throws IOException {
+        Engine.IndexResult result = context.takeBatchedResult();
+        if (result == null && context.getPrimary().indexSettings().getValue(IndexSettings.INDEX_BATCH_AUTO_GENERATED_IDS_SETTING)) {
+            final List<IndexRequest> requests = context.getBatchableIndexRequests(MAX_BATCHED_INDEX_REQUESTS);
+            if (requests.size() > 1) {
+                final List<SourceToParse> sources = new ArrayList<>(requests.size());
+                final long[] autoGeneratedTimestamps = new long[requests.size()];
+                for (int i = 0; i < requests.size(); i++) {
+                    final IndexRequest request = requests.get(i);
+                    sources.add(new SourceToParse(
+                        request.index(), request.type(), request.id(), request.source(), request.getContentType(), request.routing()));
+                    autoGeneratedTimestamps[i] = request.getAutoGeneratedTimestamp();
+                }
+                context.setBatchedResults(context.getPrimary().applyIndexOperationsOnPrimary(sources, autoGeneratedTimestamps));
+                result = context.takeBatchedResult();
+            }
+        }
+        if (result != null && result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
+            // the mapping may have changed in the meantime, so parse the document again on the regular path which updates the mapping
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Merges the dynamic mapping updates that the index requests following the current item would require into the given update, so
+     * that the rest of the bulk can be indexed after a single mapping round-trip to the master rather than waiting for the master once
+     * per item that introduces new fields. This pre-parses the pending documents and is therefore only done if enabled through
+     * {@link MapperService#INDEX_MAPPING_BATCH_DYNAMIC_UPDATES_SETTING}. Updates are not pre-parsed as they first need to be resolved
+     * against the current version of the document.
+     *
+     * @return the merged update, or the given update if there is nothing to merge
+     */
+    static Mapping batchPendingMappingUpdates(BulkPrimaryExecutionContext context, String type, Mapping update) {
+        final List<IndexRequest> pendingRequests = context.getPendingIndexRequests();
+        if (pendingRequests.isEmpty()) {
+            return update;
+        }
+        final IndexShard primary = context.getPrimary();
+        if (primary.indexSettings().getValue(MapperService.INDEX_MAPPING_BATCH_DYNAMIC_UPDATES_SETTING) == false) {
+            return update;
+        }
+        Mapping batchedUpdate = update;
+        for (IndexRequest request : pendingRequests) {
+            if (type.equals(request.type()) == false) {
+                continue;
+            }
+            final Mapping pendingUpdate = primary.getDynamicMappingUpdate(new SourceToParse(
+                request.index(), request.type(), request.id(), request.source(), request.getContentType(), request.routing()));
+            if (pendingUpdate != null) {
+                try {
+                    batchedUpdate = batchedUpdate.merge(pendingUpdate);
+                } catch (Exception e) {
+                    // the item conflicts with the updates collected so far, it will request (and fail) its own update once it executes
+                    logger.trace(() -> new ParameterizedMessage("{} not batching dynamic mapping update of document [{}]",
+                        primary.shardId(), request.id()), e);
+                }
+            }
+        }
+        return batchedUpdate;
+    }
+
     private static Engine.Result exceptionToResult(Exception e, IndexShard primary, boolean isDelete, long version) {
         return isDelete ? primary.getFailedDeleteResult(e, version) : primary.getFailedIndexResult(e, version);
     }
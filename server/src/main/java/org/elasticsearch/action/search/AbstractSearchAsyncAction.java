@@ -99,6 +99,19 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         this.clusters = clusters;
     }
 
+    /**
+     * Returns the number of shards that are skipped because they cannot match the query of the request.
+     */
+    static int countSkippedShards(GroupShardsIterator<SearchShardIterator> shardsIts) {
+        int skipped = 0;
+        for (SearchShardIterator shardIt : shardsIts) {
+            if (shardIt.skip()) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
     /**
      * Builds how long it took to execute the search.
      */
@@ -330,7 +343,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         final String[] routings = indexRoutings.getOrDefault(indexName, Collections.emptySet())
             .toArray(new String[0]);
         return new ShardSearchTransportRequest(shardIt.getOriginalIndices(), request, shardIt.shardId(), getNumShards(),
-            filter, indexBoost, timeProvider.getAbsoluteStartMillis(), shardIt.getClusterAlias(), routings);
+            filter, indexBoost, timeProvider.getAbsoluteStartMillis(), shardIt.getClusterAlias(), routings, shardIt.getReaderContextId());
     }
 
     /**
@@ -38,8 +38,8 @@ import java.util.function.Function;
 
 /**
  * This search phase is an optional phase that will be executed once all hits are fetched from the shards that executes
- * field-collapsing on the inner hits. This phase only executes if field collapsing is requested in the search request and otherwise
- * forwards to the next phase immediately.
+ * field-collapsing on the inner hits. This phase only executes if field collapsing is requested in the search request and the shards
+ * didn't already expand the collapsed hits in their fetch phase, otherwise it forwards to the next phase immediately.
  */
 final class ExpandSearchPhase extends SearchPhase {
     private final SearchPhaseContext context;
@@ -64,9 +64,34 @@ final class ExpandSearchPhase extends SearchPhase {
             searchRequest.source().collapse().getInnerHits().isEmpty() == false;
     }
 
+    /**
+     * Returns <code>true</code> iff the shard already expanded the collapsed hits in its fetch phase.
+     *
+     * @see CollapseBuilder#canExpandInFetchPhase
+     */
+    private boolean isExpandedInFetchPhase() {
+        final SearchSourceBuilder source = context.getRequest().source();
+        final CollapseBuilder collapseBuilder = source.collapse();
+        if (collapseBuilder.canExpandInFetchPhase(context.getNumShards(), source.query(), source.postFilter()) == false) {
+            return false;
+        }
+        // the shard may still leave the expansion to this phase, for instance if the inner hits exceed the max inner result window
+        for (SearchHit hit : searchResponse.hits().getHits()) {
+            if (hit.getInnerHits() == null) {
+                return false;
+            }
+            for (InnerHitBuilder innerHitBuilder : collapseBuilder.getInnerHits()) {
+                if (hit.getInnerHits().containsKey(innerHitBuilder.getName()) == false) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public void run() throws IOException {
-        if (isCollapseRequest() && searchResponse.hits().getHits().length > 0) {
+        if (isCollapseRequest() && searchResponse.hits().getHits().length > 0 && isExpandedInFetchPhase() == false) {
             SearchRequest searchRequest = context.getRequest();
             CollapseBuilder collapseBuilder = searchRequest.source().collapse();
             final List<InnerHitBuilder> innerHitBuilders = collapseBuilder.getInnerHits();
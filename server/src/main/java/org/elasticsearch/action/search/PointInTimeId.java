@@ -0,0 +1,129 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.internal.ReaderContextId;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The decoded id of a point in time: the node and the reader context id holding the point in time of every shard. Everything else
+ * about the point in time, such as the alias filters that apply to it and the user that opened it, is kept by the reader contexts
+ * since the id is provided by the client.
+ */
+final class PointInTimeId {
+
+    private final Map<ShardId, ReaderContextIdForNode> shards;
+
+    PointInTimeId(Map<ShardId, ReaderContextIdForNode> shards) {
+        this.shards = Collections.unmodifiableMap(shards);
+    }
+
+    /**
+     * The node and reader context id per shard.
+     */
+    Map<ShardId, ReaderContextIdForNode> shards() {
+        return shards;
+    }
+
+    String encode() throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(Version.CURRENT);
+            Version.writeVersion(Version.CURRENT, out);
+            out.writeVInt(shards.size());
+            for (Map.Entry<ShardId, ReaderContextIdForNode> entry : shards.entrySet()) {
+                entry.getKey().writeTo(out);
+                out.writeString(entry.getValue().getNode());
+                entry.getValue().getReaderContextId().writeTo(out);
+            }
+            return Base64.getUrlEncoder().encodeToString(BytesReference.toBytes(out.bytes()));
+        }
+    }
+
+    static PointInTimeId decode(String id) {
+        final BytesArray bytes;
+        try {
+            bytes = new BytesArray(Base64.getUrlDecoder().decode(id));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cannot parse point in time id", e);
+        }
+        try (StreamInput in = bytes.streamInput()) {
+            final Version version = Version.readVersion(in);
+            in.setVersion(version);
+            final int numShards = in.readVInt();
+            final Map<ShardId, ReaderContextIdForNode> shards = new HashMap<>(numShards);
+            for (int i = 0; i < numShards; i++) {
+                shards.put(new ShardId(in), new ReaderContextIdForNode(in.readString(), new ReaderContextId(in)));
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Not all bytes were read");
+            }
+            return new PointInTimeId(shards);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot parse point in time id", e);
+        }
+    }
+
+    static final class ReaderContextIdForNode {
+        private final String node;
+        private final ReaderContextId readerContextId;
+
+        ReaderContextIdForNode(String node, ReaderContextId readerContextId) {
+            this.node = node;
+            this.readerContextId = readerContextId;
+        }
+
+        String getNode() {
+            return node;
+        }
+
+        ReaderContextId getReaderContextId() {
+            return readerContextId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ReaderContextIdForNode that = (ReaderContextIdForNode) o;
+            return readerContextId.equals(that.readerContextId) && node.equals(that.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(node, readerContextId);
+        }
+    }
+}
@@ -328,9 +328,35 @@ public final class SearchPhaseController {
                 assert currentOffset == sortedDocs.length : "expected no more score doc slices";
             }
         }
+        if (reducedQueryPhase.shardResults != null) {
+            return reducedQueryPhase.buildResponse(hits, mergeFetchProfileResults(reducedQueryPhase.shardResults, fetchResults));
+        }
         return reducedQueryPhase.buildResponse(hits);
     }
 
+    /**
+     * Adds the profile of the fetch phase of every shard to the profile results of the query phase of the same shard.
+     */
+    static SearchProfileShardResults mergeFetchProfileResults(SearchProfileShardResults shardResults,
+                                                              Collection<? extends SearchPhaseResult> fetchResults) {
+        Map<String, ProfileShardResult> profileResults = null;
+        for (SearchPhaseResult entry : fetchResults) {
+            FetchSearchResult fetchResult = entry.fetchResult();
+            if (fetchResult == null || fetchResult.profileResult() == null) {
+                continue;
+            }
+            String key = fetchResult.getSearchShardTarget().toString();
+            ProfileShardResult profileShardResult = shardResults.getShardResults().get(key);
+            if (profileShardResult != null) {
+                if (profileResults == null) {
+                    profileResults = new HashMap<>(shardResults.getShardResults());
+                }
+                profileResults.put(key, profileShardResult.withFetchProfileResult(fetchResult.profileResult()));
+            }
+        }
+        return profileResults == null ? shardResults : new SearchProfileShardResults(profileResults);
+    }
+
     private SearchHits getHits(ReducedQueryPhase reducedQueryPhase, boolean ignoreFrom,
                                Collection<? extends SearchPhaseResult> fetchResults, IntFunction<SearchPhaseResult> resultsLookup) {
         SortedTopDocs sortedTopDocs = reducedQueryPhase.sortedTopDocs;
@@ -553,7 +579,11 @@ public final class SearchPhaseController {
          * @see #merge(boolean, ReducedQueryPhase, Collection, IntFunction)
          */
         public InternalSearchResponse buildResponse(SearchHits hits) {
-            return new InternalSearchResponse(hits, aggregations, suggest, shardResults, timedOut, terminatedEarly, numReducePhases);
+            return buildResponse(hits, shardResults);
+        }
+
+        private InternalSearchResponse buildResponse(SearchHits hits, SearchProfileShardResults profileResults) {
+            return new InternalSearchResponse(hits, aggregations, suggest, profileResults, timedOut, terminatedEarly, numReducePhases);
         }
     }
 
@@ -574,16 +604,20 @@ public final class SearchPhaseController {
         private int numReducePhases = 0;
         private final TopDocsStats topDocsStats;
         private final boolean performFinalReduce;
+        private final SearchProgressListener progressListener;
+        private int numConsumedResults;
 
         /**
          * Creates a new {@link QueryPhaseResultConsumer}
+         * @param progressListener a listener that is notified of the received results and of the partial reduces
          * @param controller a controller instance to reduce the query response objects
          * @param expectedResultSize the expected number of query results. Corresponds to the number of shards queried
          * @param bufferSize the size of the reduce buffer. if the buffer size is smaller than the number of expected results
          *                   the buffer is used to incrementally reduce aggregation results before all shards responded.
          */
-        private QueryPhaseResultConsumer(SearchPhaseController controller, int expectedResultSize, int bufferSize,
-                                         boolean hasTopDocs, boolean hasAggs, int trackTotalHitsUpTo, boolean performFinalReduce) {
+        private QueryPhaseResultConsumer(SearchProgressListener progressListener, SearchPhaseController controller,
+                                         int expectedResultSize, int bufferSize, boolean hasTopDocs, boolean hasAggs,
+                                         int trackTotalHitsUpTo, boolean performFinalReduce) {
             super(expectedResultSize);
             if (expectedResultSize != 1 && bufferSize < 2) {
                 throw new IllegalArgumentException("buffer size must be >= 2 if there is more than one expected result");
@@ -603,6 +637,7 @@ public final class SearchPhaseController {
             this.bufferSize = bufferSize;
             this.topDocsStats = new TopDocsStats(trackTotalHitsUpTo);
             this.performFinalReduce = performFinalReduce;
+            this.progressListener = progressListener;
         }
 
         @Override
@@ -610,6 +645,7 @@ public final class SearchPhaseController {
             super.consumeResult(result);
             QuerySearchResult queryResult = result.queryResult();
             consumeInternal(queryResult);
+            progressListener.notifyQueryResult(queryResult.getShardIndex());
         }
 
         private synchronized void consumeInternal(QuerySearchResult querySearchResult) {
@@ -629,7 +665,10 @@ public final class SearchPhaseController {
                 }
                 numReducePhases++;
                 index = 1;
+                progressListener.notifyPartialReduce(numConsumedResults, topDocsStats.getTotalHits(),
+                    hasAggs ? aggsBuffer[0] : null, numReducePhases);
             }
+            numConsumedResults++;
             final int i = index++;
             if (hasAggs) {
                 aggsBuffer[i] = (InternalAggregations) querySearchResult.consumeAggs();
@@ -652,8 +691,12 @@ public final class SearchPhaseController {
 
         @Override
         public ReducedQueryPhase reduce() {
-            return controller.reducedQueryPhase(results.asList(), getRemainingAggs(), getRemainingTopDocs(), topDocsStats,
-                numReducePhases, false, performFinalReduce);
+            final List<SearchPhaseResult> queryResults = results.asList();
+            ReducedQueryPhase reducePhase = controller.reducedQueryPhase(queryResults, getRemainingAggs(), getRemainingTopDocs(),
+                topDocsStats, numReducePhases, false, performFinalReduce);
+            progressListener.notifyReduce(queryResults.size(), reducePhase.totalHits, reducePhase.aggregations,
+                reducePhase.numReducePhases, performFinalReduce);
+            return reducePhase;
         }
 
         /**
@@ -679,6 +722,15 @@ public final class SearchPhaseController {
      * Returns a new ArraySearchPhaseResults instance. This might return an instance that reduces search responses incrementally.
      */
     InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> newSearchPhaseResults(SearchRequest request, int numShards) {
+        return newSearchPhaseResults(SearchProgressListener.NOOP, request, numShards);
+    }
+
+    /**
+     * Returns a new ArraySearchPhaseResults instance that notifies the provided {@link SearchProgressListener} of the query results
+     * it receives and of the reduces it performs. This might return an instance that reduces search responses incrementally.
+     */
+    InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> newSearchPhaseResults(SearchProgressListener listener,
+                                                                                        SearchRequest request, int numShards) {
         SearchSourceBuilder source = request.source();
         boolean isScrollRequest = request.scroll() != null;
         final boolean hasAggs = source != null && source.aggregations() != null;
@@ -688,14 +740,25 @@ public final class SearchPhaseController {
             // no incremental reduce if scroll is used - we only hit a single shard or sometimes more...
             if (request.getBatchedReduceSize() < numShards) {
                 // only use this if there are aggs and if there are more shards than we should reduce at once
-                return new QueryPhaseResultConsumer(this, numShards, request.getBatchedReduceSize(), hasTopDocs, hasAggs,
+                return new QueryPhaseResultConsumer(listener, this, numShards, request.getBatchedReduceSize(), hasTopDocs, hasAggs,
                     trackTotalHitsUpTo, request.isFinalReduce());
             }
         }
         return new InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult>(numShards) {
+            @Override
+            void consumeResult(SearchPhaseResult result) {
+                super.consumeResult(result);
+                listener.notifyQueryResult(result.getShardIndex());
+            }
+
             @Override
             ReducedQueryPhase reduce() {
-                return reducedQueryPhase(results.asList(), isScrollRequest, trackTotalHitsUpTo, request.isFinalReduce());
+                final List<SearchPhaseResult> queryResults = results.asList();
+                ReducedQueryPhase reducePhase = reducedQueryPhase(queryResults, isScrollRequest, trackTotalHitsUpTo,
+                    request.isFinalReduce());
+                listener.notifyReduce(queryResults.size(), reducePhase.totalHits, reducePhase.aggregations, reducePhase.numReducePhases,
+                    request.isFinalReduce());
+                return reducePhase;
             }
         };
     }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+
+/**
+ * A listener that is notified of the progress of a search request on the coordinating node: the shards that are searched, every
+ * query result that is received and every (partial) reduce of the query results. The listener is attached to the {@link SearchTask}
+ * of the request and is invoked on the threads that execute the search, implementations should be cheap and must not block.
+ */
+public abstract class SearchProgressListener {
+
+    private static final Logger logger = LogManager.getLogger(SearchProgressListener.class);
+
+    public static final SearchProgressListener NOOP = new SearchProgressListener() {};
+
+    /**
+     * Executed when the shards to search are known.
+     *
+     * @param totalShards   the total number of shards of the request
+     * @param skippedShards the number of shards that are skipped because they cannot match the query
+     */
+    protected void onListShards(int totalShards, int skippedShards) {}
+
+    /**
+     * Executed when the query phase of a shard returns its result.
+     *
+     * @param shardIndex the index of the shard in the list of shards of the request
+     */
+    protected void onQueryResult(int shardIndex) {}
+
+    /**
+     * Executed when a partial reduce of the query results is created. The partial reduce only merges the results of the shards that
+     * responded so far, aggregations in particular are not reduced for the final response.
+     *
+     * @param numShards    the number of shards whose results are included in the partial reduce
+     * @param totalHits    the total number of hits of these shards, or <code>null</code> if hits are not tracked
+     * @param aggs         the partially reduced aggregations, or <code>null</code> if the request has no aggregations
+     * @param reducePhase  the number of the reduce phase
+     */
+    protected void onPartialReduce(int numShards, @Nullable TotalHits totalHits, @Nullable InternalAggregations aggs, int reducePhase) {}
+
+    /**
+     * Executed once the query results of all shards were reduced, before the fetch phase runs.
+     *
+     * @param numShards      the number of shards whose results are included in the reduce
+     * @param totalHits      the total number of hits, or <code>null</code> if hits are not tracked
+     * @param aggs           the reduced aggregations, or <code>null</code> if the request has no aggregations
+     * @param reducePhase    the number of the reduce phase
+     * @param isFinalReduce  whether the aggregations were reduced for the final response, this is <code>false</code> if the search
+     *                       is executed on behalf of a cross cluster search that reduces the results of all clusters again
+     */
+    protected void onReduce(int numShards, @Nullable TotalHits totalHits, @Nullable InternalAggregations aggs, int reducePhase,
+                            boolean isFinalReduce) {}
+
+    final void notifyListShards(int totalShards, int skippedShards) {
+        try {
+            onListShards(totalShards, skippedShards);
+        } catch (Exception e) {
+            logger.warn("Failed to execute progress listener on list shards", e);
+        }
+    }
+
+    final void notifyQueryResult(int shardIndex) {
+        try {
+            onQueryResult(shardIndex);
+        } catch (Exception e) {
+            logger.warn(() -> new ParameterizedMessage("Failed to execute progress listener on query result [{}]", shardIndex), e);
+        }
+    }
+
+    final void notifyPartialReduce(int numShards, TotalHits totalHits, InternalAggregations aggs, int reducePhase) {
+        try {
+            onPartialReduce(numShards, totalHits, aggs, reducePhase);
+        } catch (Exception e) {
+            logger.warn("Failed to execute progress listener on partial reduce", e);
+        }
+    }
+
+    final void notifyReduce(int numShards, TotalHits totalHits, InternalAggregations aggs, int reducePhase, boolean isFinalReduce) {
+        try {
+            onReduce(numShards, totalHits, aggs, reducePhase, isFinalReduce);
+        } catch (Exception e) {
+            logger.warn("Failed to execute progress listener on reduce", e);
+        }
+    }
+}
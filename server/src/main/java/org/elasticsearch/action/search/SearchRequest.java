@@ -260,6 +260,10 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
                 validationException =
                     addValidationError("[request_cache] cannot be used in a scroll context", validationException);
             }
+            if (source != null && source.pointInTimeBuilder() != null) {
+                validationException =
+                    addValidationError("using [point in time] is not allowed in a scroll context", validationException);
+            }
         }
         return validationException;
     }
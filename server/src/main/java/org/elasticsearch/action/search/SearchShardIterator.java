@@ -26,6 +26,8 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.internal.ReaderContext;
+import org.elasticsearch.search.internal.ReaderContextId;
 
 import java.util.List;
 import java.util.Objects;
@@ -40,6 +42,7 @@ public final class SearchShardIterator extends PlainShardIterator {
 
     private final OriginalIndices originalIndices;
     private final String clusterAlias;
+    private final ReaderContextId readerContextId;
     private boolean skip = false;
 
     /**
@@ -52,9 +55,24 @@ public final class SearchShardIterator extends PlainShardIterator {
      * @param originalIndices the indices that the search request originally related to (before any rewriting happened)
      */
     public SearchShardIterator(@Nullable String clusterAlias, ShardId shardId, List<ShardRouting> shards, OriginalIndices originalIndices) {
+        this(clusterAlias, shardId, shards, originalIndices, null);
+    }
+
+    /**
+     * Creates a {@link PlainShardIterator} instance that iterates over a subset of the given shards of a point in time.
+     *
+     * @param clusterAlias the alias of the cluster where the shard is located
+     * @param shardId shard id of the group
+     * @param shards  shards to iterate
+     * @param originalIndices the indices that the search request originally related to (before any rewriting happened)
+     * @param readerContextId the id of the reader context that holds the point in time on the shard
+     */
+    public SearchShardIterator(@Nullable String clusterAlias, ShardId shardId, List<ShardRouting> shards, OriginalIndices originalIndices,
+                               @Nullable ReaderContextId readerContextId) {
         super(shardId, shards);
         this.originalIndices = originalIndices;
         this.clusterAlias = clusterAlias;
+        this.readerContextId = readerContextId;
     }
 
     /**
@@ -72,6 +90,15 @@ public final class SearchShardIterator extends PlainShardIterator {
         return clusterAlias;
     }
 
+    /**
+     * Returns the id of the {@link ReaderContext} holding the point in time the shard should be searched against, or <code>null</code>
+     * if the shard should be searched against its current reader.
+     */
+    @Nullable
+    ReaderContextId getReaderContextId() {
+        return readerContextId;
+    }
+
     /**
      * Creates a new shard target from this iterator, pointing at the node identified by the provided identifier.
      * @see SearchShardTarget
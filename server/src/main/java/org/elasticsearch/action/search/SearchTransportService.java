@@ -30,7 +30,9 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.dfs.DfsSearchResult;
@@ -39,12 +41,15 @@ import org.elasticsearch.search.fetch.QueryFetchSearchResult;
 import org.elasticsearch.search.fetch.ScrollQueryFetchSearchResult;
 import org.elasticsearch.search.fetch.ShardFetchRequest;
 import org.elasticsearch.search.fetch.ShardFetchSearchRequest;
+import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalScrollSearchRequest;
+import org.elasticsearch.search.internal.ReaderContextId;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.internal.ShardSearchTransportRequest;
 import org.elasticsearch.search.query.QuerySearchRequest;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.query.ScrollQuerySearchResult;
+import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.RemoteClusterService;
 import org.elasticsearch.transport.Transport;
@@ -78,6 +83,8 @@ public class SearchTransportService {
     public static final String FETCH_ID_SCROLL_ACTION_NAME = "indices:data/read/search[phase/fetch/id/scroll]";
     public static final String FETCH_ID_ACTION_NAME = "indices:data/read/search[phase/fetch/id]";
     public static final String QUERY_CAN_MATCH_NAME = "indices:data/read/search[can_match]";
+    public static final String OPEN_READER_CONTEXT_ACTION_NAME = "indices:data/read/open_point_in_time[open_reader_context]";
+    public static final String FREE_READER_CONTEXT_ACTION_NAME = "indices:data/read/close_point_in_time[free_reader_context]";
 
     private final TransportService transportService;
     private final BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper;
@@ -109,6 +116,21 @@ public class SearchTransportService {
             TransportRequestOptions.EMPTY, new ActionListenerResponseHandler<>(listener, SearchFreeContextResponse::new));
     }
 
+    public void sendOpenReaderContext(Transport.Connection connection, OpenReaderContextRequest request, Task task,
+                                      ActionListener<OpenReaderContextResponse> listener) {
+        transportService.sendChildRequest(connection, OPEN_READER_CONTEXT_ACTION_NAME, request, task, TransportRequestOptions.EMPTY,
+            new ActionListenerResponseHandler<>(listener, OpenReaderContextResponse::new));
+    }
+
+    public void sendFreeReaderContext(Transport.Connection connection, ShardId shardId, ReaderContextId readerContextId,
+                                      ActionListener<SearchFreeContextResponse> listener) {
+        final OriginalIndices originalIndices =
+            new OriginalIndices(new String[] {shardId.getIndexName()}, IndicesOptions.strictExpandOpenAndForbidClosed());
+        transportService.sendRequest(connection, FREE_READER_CONTEXT_ACTION_NAME,
+            new FreeReaderContextRequest(originalIndices, readerContextId), TransportRequestOptions.EMPTY,
+            new ActionListenerResponseHandler<>(listener, SearchFreeContextResponse::new));
+    }
+
     public void sendCanMatch(Transport.Connection connection, final ShardSearchTransportRequest request, SearchTask task, final
                             ActionListener<SearchService.CanMatchResponse> listener) {
         transportService.sendChildRequest(connection, QUERY_CAN_MATCH_NAME, request, task,
@@ -270,6 +292,134 @@ public class SearchTransportService {
         }
     }
 
+    static class OpenReaderContextRequest extends TransportRequest implements IndicesRequest {
+        private final OriginalIndices originalIndices;
+        private final ShardId shardId;
+        private final AliasFilter aliasFilter;
+        private final TimeValue keepAlive;
+
+        OpenReaderContextRequest(OriginalIndices originalIndices, ShardId shardId, AliasFilter aliasFilter, TimeValue keepAlive) {
+            this.originalIndices = originalIndices;
+            this.shardId = shardId;
+            this.aliasFilter = aliasFilter;
+            this.keepAlive = keepAlive;
+        }
+
+        OpenReaderContextRequest(StreamInput in) throws IOException {
+            super(in);
+            originalIndices = OriginalIndices.readOriginalIndices(in);
+            shardId = new ShardId(in);
+            aliasFilter = new AliasFilter(in);
+            keepAlive = in.readTimeValue();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            OriginalIndices.writeOriginalIndices(originalIndices, out);
+            shardId.writeTo(out);
+            aliasFilter.writeTo(out);
+            out.writeTimeValue(keepAlive);
+        }
+
+        ShardId shardId() {
+            return shardId;
+        }
+
+        AliasFilter aliasFilter() {
+            return aliasFilter;
+        }
+
+        TimeValue keepAlive() {
+            return keepAlive;
+        }
+
+        @Override
+        public String[] indices() {
+            return originalIndices.indices();
+        }
+
+        @Override
+        public IndicesOptions indicesOptions() {
+            return originalIndices.indicesOptions();
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+        }
+    }
+
+    static class OpenReaderContextResponse extends TransportResponse {
+        private final ReaderContextId readerContextId;
+
+        OpenReaderContextResponse(ReaderContextId readerContextId) {
+            this.readerContextId = readerContextId;
+        }
+
+        OpenReaderContextResponse(StreamInput in) throws IOException {
+            super(in);
+            readerContextId = new ReaderContextId(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            readerContextId.writeTo(out);
+        }
+
+        ReaderContextId readerContextId() {
+            return readerContextId;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+        }
+    }
+
+    static class FreeReaderContextRequest extends TransportRequest implements IndicesRequest {
+        private final OriginalIndices originalIndices;
+        private final ReaderContextId readerContextId;
+
+        FreeReaderContextRequest(OriginalIndices originalIndices, ReaderContextId readerContextId) {
+            this.originalIndices = originalIndices;
+            this.readerContextId = readerContextId;
+        }
+
+        FreeReaderContextRequest(StreamInput in) throws IOException {
+            super(in);
+            originalIndices = OriginalIndices.readOriginalIndices(in);
+            readerContextId = new ReaderContextId(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            OriginalIndices.writeOriginalIndices(originalIndices, out);
+            readerContextId.writeTo(out);
+        }
+
+        ReaderContextId readerContextId() {
+            return readerContextId;
+        }
+
+        @Override
+        public String[] indices() {
+            return originalIndices.indices();
+        }
+
+        @Override
+        public IndicesOptions indicesOptions() {
+            return originalIndices.indicesOptions();
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+        }
+    }
+
     public static class SearchFreeContextResponse extends TransportResponse {
 
         private boolean freed;
@@ -396,6 +546,19 @@ public class SearchTransportService {
                 searchService.canMatch(request, new ChannelActionListener<>(channel, QUERY_CAN_MATCH_NAME, request));
             });
         TransportActionProxy.registerProxyAction(transportService, QUERY_CAN_MATCH_NAME, SearchService.CanMatchResponse::new);
+
+        // opening a reader context only acquires a searcher, there is no need to fork
+        transportService.registerRequestHandler(OPEN_READER_CONTEXT_ACTION_NAME, ThreadPool.Names.SAME, OpenReaderContextRequest::new,
+            (request, channel, task) -> {
+                ReaderContextId readerContextId = searchService.openReaderContext(request.shardId(), request.aliasFilter(),
+                    request.keepAlive());
+                channel.sendResponse(new OpenReaderContextResponse(readerContextId));
+            });
+        transportService.registerRequestHandler(FREE_READER_CONTEXT_ACTION_NAME, ThreadPool.Names.SAME, FreeReaderContextRequest::new,
+            (request, channel, task) -> {
+                boolean freed = searchService.freeReaderContext(request.readerContextId(), request);
+                channel.sendResponse(new SearchFreeContextResponse(freed));
+            });
     }
 
 
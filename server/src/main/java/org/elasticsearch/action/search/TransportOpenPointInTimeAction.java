@@ -0,0 +1,189 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.NoShardAvailableActionException;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.transport.Transport;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Opens a point in time by opening a reader context on one copy of every shard of the requested indices. The returned id encodes the
+ * node and reader context of every shard, the alias filters that applied when the point in time was opened are kept by the reader
+ * contexts.
+ */
+public class TransportOpenPointInTimeAction extends HandledTransportAction<OpenPointInTimeRequest, OpenPointInTimeResponse> {
+
+    private final ClusterService clusterService;
+    private final SearchService searchService;
+    private final SearchTransportService searchTransportService;
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+
+    @Inject
+    public TransportOpenPointInTimeAction(TransportService transportService, ClusterService clusterService, ActionFilters actionFilters,
+                                          SearchService searchService, SearchTransportService searchTransportService,
+                                          IndexNameExpressionResolver indexNameExpressionResolver) {
+        super(OpenPointInTimeAction.NAME, transportService, actionFilters, OpenPointInTimeRequest::new);
+        this.clusterService = clusterService;
+        this.searchService = searchService;
+        this.searchTransportService = searchTransportService;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
+    }
+
+    @Override
+    protected void doExecute(Task task, OpenPointInTimeRequest request, ActionListener<OpenPointInTimeResponse> listener) {
+        final ClusterState clusterState = clusterService.state();
+        clusterState.blocks().globalBlockedRaiseException(ClusterBlockLevel.READ);
+        final Index[] indices = indexNameExpressionResolver.concreteIndices(clusterState, request.indicesOptions(), request.indices());
+        final Set<String> indicesAndAliases = indexNameExpressionResolver.resolveExpressions(clusterState, request.indices());
+        final Map<String, AliasFilter> aliasFilters = new HashMap<>();
+        final String[] concreteIndices = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            clusterState.blocks().indexBlockedRaiseException(ClusterBlockLevel.READ, indices[i].getName());
+            aliasFilters.put(indices[i].getUUID(), searchService.buildAliasFilter(clusterState, indices[i].getName(), indicesAndAliases));
+            concreteIndices[i] = indices[i].getName();
+        }
+        final Map<String, Set<String>> routingMap = indexNameExpressionResolver.resolveSearchRouting(clusterState, request.routing(),
+            request.indices());
+        final GroupShardsIterator<ShardIterator> shardIterators = clusterService.operationRouting().searchShards(clusterState,
+            concreteIndices, routingMap, request.preference());
+        final OriginalIndices originalIndices = new OriginalIndices(request.indices(), request.indicesOptions());
+        final DiscoveryNodes nodes = clusterState.nodes();
+
+        final AtomicArray<Map.Entry<ShardId, PointInTimeId.ReaderContextIdForNode>> results = new AtomicArray<>(shardIterators.size());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final CountDown countDown = new CountDown(shardIterators.size());
+        final Runnable onShardDone = () -> {
+            if (countDown.countDown()) {
+                final Map<ShardId, PointInTimeId.ReaderContextIdForNode> shards = new HashMap<>();
+                for (Map.Entry<ShardId, PointInTimeId.ReaderContextIdForNode> entry : results.asList()) {
+                    shards.put(entry.getKey(), entry.getValue());
+                }
+                if (failure.get() != null) {
+                    freeReaderContexts(nodes, shards);
+                    listener.onFailure(failure.get());
+                    return;
+                }
+                try {
+                    listener.onResponse(new OpenPointInTimeResponse(new PointInTimeId(shards).encode()));
+                } catch (Exception e) {
+                    freeReaderContexts(nodes, shards);
+                    listener.onFailure(e);
+                }
+            }
+        };
+        if (shardIterators.size() == 0) {
+            onShardDone.run();
+            return;
+        }
+        int shardIndex = 0;
+        for (ShardIterator shardIterator : shardIterators) {
+            final int index = shardIndex++;
+            final AliasFilter aliasFilter = aliasFilters.get(shardIterator.shardId().getIndex().getUUID());
+            openReaderContext(task, shardIterator, originalIndices, aliasFilter, request.keepAlive(), nodes, null,
+                ActionListener.wrap(readerContextId -> {
+                    results.set(index, new AbstractMap.SimpleImmutableEntry<>(shardIterator.shardId(), readerContextId));
+                    onShardDone.run();
+                }, e -> {
+                    if (failure.compareAndSet(null, e) == false) {
+                        failure.get().addSuppressed(e);
+                    }
+                    onShardDone.run();
+                }));
+        }
+    }
+
+    /**
+     * Opens a reader context on the next copy of the shard, moving on to the following copy if it fails.
+     */
+    private void openReaderContext(Task task, ShardIterator shardIterator, OriginalIndices originalIndices, AliasFilter aliasFilter,
+                                   TimeValue keepAlive, DiscoveryNodes nodes, Exception lastFailure,
+                                   ActionListener<PointInTimeId.ReaderContextIdForNode> listener) {
+        final ShardRouting shardRouting = shardIterator.nextOrNull();
+        if (shardRouting == null) {
+            listener.onFailure(lastFailure != null ? lastFailure : new NoShardAvailableActionException(shardIterator.shardId()));
+            return;
+        }
+        final DiscoveryNode node = nodes.get(shardRouting.currentNodeId());
+        final Transport.Connection connection;
+        try {
+            if (node == null) {
+                throw new NoShardAvailableActionException(shardIterator.shardId(), "no node found for id: " + shardRouting.currentNodeId());
+            }
+            connection = searchTransportService.getConnection(null, node);
+        } catch (Exception e) {
+            openReaderContext(task, shardIterator, originalIndices, aliasFilter, keepAlive, nodes, e, listener);
+            return;
+        }
+        final SearchTransportService.OpenReaderContextRequest shardRequest =
+            new SearchTransportService.OpenReaderContextRequest(originalIndices, shardIterator.shardId(), aliasFilter, keepAlive);
+        searchTransportService.sendOpenReaderContext(connection, shardRequest, task, ActionListener.wrap(
+            response -> listener.onResponse(new PointInTimeId.ReaderContextIdForNode(node.getId(), response.readerContextId())),
+            e -> {
+                logger.trace(() -> new ParameterizedMessage("{} failed to open reader context on node [{}]",
+                    shardIterator.shardId(), node.getId()), e);
+                openReaderContext(task, shardIterator, originalIndices, aliasFilter, keepAlive, nodes, e, listener);
+            }));
+    }
+
+    private void freeReaderContexts(DiscoveryNodes nodes, Map<ShardId, PointInTimeId.ReaderContextIdForNode> shards) {
+        for (Map.Entry<ShardId, PointInTimeId.ReaderContextIdForNode> entry : shards.entrySet()) {
+            final DiscoveryNode node = nodes.get(entry.getValue().getNode());
+            if (node == null) {
+                continue;
+            }
+            try {
+                searchTransportService.sendFreeReaderContext(searchTransportService.getConnection(null, node), entry.getKey(),
+                    entry.getValue().getReaderContextId(), ActionListener.wrap(r -> {}, e -> logger.debug(
+                        () -> new ParameterizedMessage("{} failed to free reader context", entry.getKey()), e)));
+            } catch (Exception e) {
+                logger.debug(() -> new ParameterizedMessage("{} failed to free reader context", entry.getKey()), e);
+            }
+        }
+    }
+}
@@ -34,7 +34,10 @@ import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
@@ -204,6 +207,10 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 searchRequest.source(source);
             }
             final ClusterState clusterState = clusterService.state();
+            if (source != null && source.pointInTimeBuilder() != null) {
+                executePointInTimeSearch((SearchTask) task, timeProvider, searchRequest, clusterState, listener);
+                return;
+            }
             final Map<String, OriginalIndices> remoteClusterIndices = remoteClusterService.groupIndices(searchRequest.indicesOptions(),
                 searchRequest.indices());
             OriginalIndices localIndices = remoteClusterIndices.remove(RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY);
@@ -481,7 +488,54 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 concreteIndices, routingMap, searchRequest.preference(), searchService.getResponseCollectorService(), nodeSearchCounts);
         GroupShardsIterator<SearchShardIterator> shardIterators = mergeShardsIterators(localShardsIterator, localIndices,
             searchRequest.getLocalClusterAlias(), remoteShardIterators);
+        executeShardsSearch(task, timeProvider, searchRequest, shardIterators, remoteConnections, clusterState, aliasFilter, routingMap,
+            listener, clusters);
+    }
+
+    /**
+     * Executes a search against the reader contexts of a point in time. The shards are the ones the point in time was opened on, the
+     * indices of the search request are ignored. The alias filters are applied by the reader contexts.
+     */
+    private void executePointInTimeSearch(SearchTask task, SearchTimeProvider timeProvider, SearchRequest searchRequest,
+                                          ClusterState clusterState, ActionListener<SearchResponse> listener) {
+        clusterState.blocks().globalBlockedRaiseException(ClusterBlockLevel.READ);
+        final String id = searchRequest.source().pointInTimeBuilder().getId();
+        final PointInTimeId pointInTimeId = PointInTimeId.decode(id);
+        final List<SearchShardIterator> shards = new ArrayList<>(pointInTimeId.shards().size());
+        final Map<String, AliasFilter> aliasFilters = new HashMap<>();
+        for (Map.Entry<ShardId, PointInTimeId.ReaderContextIdForNode> entry : pointInTimeId.shards().entrySet()) {
+            final ShardId shardId = entry.getKey();
+            final PointInTimeId.ReaderContextIdForNode readerContextId = entry.getValue();
+            clusterState.blocks().indexBlockedRaiseException(ClusterBlockLevel.READ, shardId.getIndexName());
+            // the reader context only exists on the node that opened it, if that node no longer holds the shard the search fails
+            final List<ShardRouting> targets = new ArrayList<>(1);
+            final IndexRoutingTable indexRoutingTable = clusterState.routingTable().index(shardId.getIndex());
+            if (indexRoutingTable != null) {
+                final IndexShardRoutingTable shardRoutingTable = indexRoutingTable.shard(shardId.id());
+                if (shardRoutingTable != null) {
+                    for (ShardRouting shardRouting : shardRoutingTable.activeShards()) {
+                        if (readerContextId.getNode().equals(shardRouting.currentNodeId())) {
+                            targets.add(shardRouting);
+                            break;
+                        }
+                    }
+                }
+            }
+            final OriginalIndices originalIndices = new OriginalIndices(new String[] {shardId.getIndexName()},
+                searchRequest.indicesOptions());
+            shards.add(new SearchShardIterator(searchRequest.getLocalClusterAlias(), shardId, targets, originalIndices,
+                readerContextId.getReaderContextId()));
+            aliasFilters.put(shardId.getIndex().getUUID(), AliasFilter.EMPTY);
+        }
+        executeShardsSearch(task, timeProvider, searchRequest, new GroupShardsIterator<>(shards), (clusterName, nodeId) -> null,
+            clusterState, aliasFilters, Collections.emptyMap(), listener, SearchResponse.Clusters.EMPTY);
+    }
 
+    private void executeShardsSearch(SearchTask task, SearchTimeProvider timeProvider, SearchRequest searchRequest,
+                                     GroupShardsIterator<SearchShardIterator> shardIterators,
+                                     BiFunction<String, String, DiscoveryNode> remoteConnections, ClusterState clusterState,
+                                     Map<String, AliasFilter> aliasFilter, Map<String, Set<String>> routingMap,
+                                     ActionListener<SearchResponse> listener, SearchResponse.Clusters clusters) {
         failIfOverShardCountLimit(clusterService, shardIterators.size());
 
         Map<String, Float> concreteIndexBoosts = resolveIndexBoosts(searchRequest, clusterState);
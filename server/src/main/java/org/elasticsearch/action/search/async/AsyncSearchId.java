@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.tasks.TaskId;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * The id of an async search: the id of the document the final response is stored in and the id of the task that executes the search,
+ * encoded together so that a running search can be reached on the node that executes it.
+ */
+final class AsyncSearchId {
+
+    private final String docId;
+    private final TaskId taskId;
+    private final String encoded;
+
+    AsyncSearchId(String docId, TaskId taskId) {
+        this.docId = Objects.requireNonNull(docId);
+        this.taskId = Objects.requireNonNull(taskId);
+        this.encoded = encode(docId, taskId);
+    }
+
+    /**
+     * The id of the document of the async search in the async search index.
+     */
+    String getDocId() {
+        return docId;
+    }
+
+    /**
+     * The id of the task that executes the async search.
+     */
+    TaskId getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * The id as it is returned to the user.
+     */
+    String getEncoded() {
+        return encoded;
+    }
+
+    static String encode(String docId, TaskId taskId) {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeString(docId);
+            out.writeString(taskId.toString());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(BytesReference.toBytes(out.bytes()));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    static AsyncSearchId decode(String id) {
+        final byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid async search id [" + id + "]", e);
+        }
+        try (StreamInput in = StreamInput.wrap(bytes)) {
+            final String docId = in.readString();
+            final TaskId taskId = new TaskId(in.readString());
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("not all bytes were read");
+            }
+            return new AsyncSearchId(docId, taskId);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("invalid async search id [" + id + "]", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AsyncSearchId that = (AsyncSearchId) o;
+        return docId.equals(that.docId) && taskId.equals(that.taskId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(docId, taskId);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncSearchId{docId='" + docId + "', taskId=" + taskId + "}";
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.ResourceAlreadyExistsException;
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.internal.io.Streams;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.index.engine.DocumentMissingException;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.elasticsearch.action.admin.cluster.node.tasks.get.GetTaskAction.TASKS_ORIGIN;
+
+/**
+ * Stores the final responses of async searches in the async search index and removes them once they expired. The expired responses
+ * are removed periodically by the elected master node. A response is stored with the security headers of the user that submitted the
+ * search, and it can only be retrieved or deleted by the same user.
+ */
+public class AsyncSearchIndexService implements ClusterStateListener, Closeable {
+
+    private static final Logger logger = LogManager.getLogger(AsyncSearchIndexService.class);
+
+    public static final String INDEX = ".async-search";
+
+    public static final String TYPE = "_doc";
+
+    public static final String MAPPING_FILE = "async-search-index-mapping.json";
+
+    static final String RESULT_FIELD = "result";
+    static final String EXPIRATION_TIME_FIELD = "expiration_time";
+    static final String HEADERS_FIELD = "headers";
+
+    public static final Setting<TimeValue> CLEANUP_INTERVAL_SETTING = Setting.timeSetting("search.async.cleanup_interval",
+        TimeValue.timeValueHours(1), TimeValue.timeValueSeconds(1), Setting.Property.NodeScope);
+
+    static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private final Client client;
+    private final ClusterService clusterService;
+    private final ThreadPool threadPool;
+    private final NamedWriteableRegistry namedWriteableRegistry;
+    private final AsyncSearchSecurity security;
+    private final TimeValue cleanupInterval;
+    private final AtomicBoolean cleanupRunning = new AtomicBoolean();
+    private Scheduler.Cancellable cleanupTask;
+
+    public AsyncSearchIndexService(Settings settings, Client client, ClusterService clusterService, ThreadPool threadPool,
+                                   NamedWriteableRegistry namedWriteableRegistry, AsyncSearchSecurity security) {
+        this.client = new OriginSettingClient(client, TASKS_ORIGIN);
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.namedWriteableRegistry = namedWriteableRegistry;
+        this.security = security;
+        this.cleanupInterval = CLEANUP_INTERVAL_SETTING.get(settings);
+        clusterService.addListener(this);
+    }
+
+    /**
+     * Returns the security headers of the current thread context, they identify the user that executes the request.
+     */
+    Map<String, String> getSecurityHeaders() {
+        return security.getSecurityHeaders(threadPool.getThreadContext());
+    }
+
+    /**
+     * Returns <code>true</code> if the current thread context is executed on behalf of the user that submitted the async search.
+     */
+    boolean isSameUser(Map<String, String> originHeaders) {
+        return security.isSameUser(originHeaders, getSecurityHeaders());
+    }
+
+    /**
+     * Stores the final response of an async search with the security headers of its submitter, creating the async search index if
+     * needed.
+     */
+    void storeResponse(String docId, Map<String, String> originHeaders, AsyncSearchResponse response, ActionListener<Void> listener) {
+        if (clusterService.state().routingTable().hasIndex(INDEX)) {
+            doStoreResponse(docId, originHeaders, response, listener);
+            return;
+        }
+        CreateIndexRequest createIndexRequest = new CreateIndexRequest(INDEX);
+        createIndexRequest.settings(indexSettings());
+        createIndexRequest.mapping(TYPE, indexMapping(), XContentType.JSON);
+        createIndexRequest.cause("auto(async search api)");
+        client.admin().indices().create(createIndexRequest, ActionListener.wrap(
+            r -> doStoreResponse(docId, originHeaders, response, listener),
+            e -> {
+                if (ExceptionsHelper.unwrapCause(e) instanceof ResourceAlreadyExistsException) {
+                    doStoreResponse(docId, originHeaders, response, listener);
+                } else {
+                    listener.onFailure(e);
+                }
+            }));
+    }
+
+    private void doStoreResponse(String docId, Map<String, String> originHeaders, AsyncSearchResponse response,
+                                 ActionListener<Void> listener) {
+        final Map<String, Object> source = new HashMap<>();
+        try {
+            source.put(RESULT_FIELD, encodeResponse(response));
+        } catch (IOException e) {
+            listener.onFailure(e);
+            return;
+        }
+        source.put(EXPIRATION_TIME_FIELD, response.getExpirationTime());
+        source.put(HEADERS_FIELD, originHeaders);
+        IndexRequest indexRequest = new IndexRequest(INDEX).id(docId).source(source, XContentType.JSON);
+        client.index(indexRequest, ActionListener.wrap(r -> listener.onResponse(null), listener::onFailure));
+    }
+
+    /**
+     * Retrieves the stored response of an async search. Fails with a {@link ResourceNotFoundException} if the response does not exist,
+     * is expired or was submitted by another user.
+     */
+    void getResponse(AsyncSearchId searchId, ActionListener<AsyncSearchResponse> listener) {
+        final Map<String, String> securityHeaders = getSecurityHeaders();
+        client.get(new GetRequest(INDEX, searchId.getDocId()), ActionListener.wrap(
+            getResponse -> {
+                if (getResponse.isExists() == false || isOwner(getResponse.getSource(), securityHeaders) == false) {
+                    listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+                    return;
+                }
+                final Map<String, Object> source = getResponse.getSource();
+                final long expirationTime = ((Number) source.get(EXPIRATION_TIME_FIELD)).longValue();
+                if (expirationTime < threadPool.absoluteTimeInMillis()) {
+                    listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+                    return;
+                }
+                final AsyncSearchResponse response = decodeResponse((String) source.get(RESULT_FIELD));
+                listener.onResponse(response.withIdAndExpirationTime(searchId.getEncoded(), expirationTime));
+            },
+            e -> {
+                if (ExceptionsHelper.unwrapCause(e) instanceof IndexNotFoundException) {
+                    listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+                } else {
+                    listener.onFailure(e);
+                }
+            }));
+    }
+
+    /**
+     * Updates the expiration time of the stored response of an async search. Fails with a {@link ResourceNotFoundException} if the
+     * response does not exist. The caller must have retrieved the response through {@link #getResponse} first, so that the expiration
+     * time of a response can only be updated by the user that submitted the search.
+     */
+    void updateExpirationTime(AsyncSearchId searchId, long expirationTimeMillis, ActionListener<Void> listener) {
+        UpdateRequest updateRequest = new UpdateRequest(INDEX, searchId.getDocId())
+            .doc(singletonMap(EXPIRATION_TIME_FIELD, expirationTimeMillis));
+        client.update(updateRequest, ActionListener.wrap(r -> listener.onResponse(null), e -> {
+            if (ExceptionsHelper.unwrapCause(e) instanceof DocumentMissingException
+                    || ExceptionsHelper.unwrapCause(e) instanceof IndexNotFoundException) {
+                listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+            } else {
+                listener.onFailure(e);
+            }
+        }));
+    }
+
+    /**
+     * Deletes the stored response of an async search, the listener is invoked with <code>true</code> if the response existed. Fails
+     * with a {@link ResourceNotFoundException} if the response was submitted by another user.
+     */
+    void deleteResponse(AsyncSearchId searchId, ActionListener<Boolean> listener) {
+        final Map<String, String> securityHeaders = getSecurityHeaders();
+        client.get(new GetRequest(INDEX, searchId.getDocId()).fetchSourceContext(new FetchSourceContext(true,
+                new String[] { HEADERS_FIELD }, null)), ActionListener.wrap(
+            getResponse -> {
+                if (getResponse.isExists() == false) {
+                    listener.onResponse(false);
+                } else if (isOwner(getResponse.getSource(), securityHeaders) == false) {
+                    listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+                } else {
+                    client.delete(new DeleteRequest(INDEX, searchId.getDocId()), ActionListener.wrap(
+                        r -> listener.onResponse(r.getResult() == DocWriteResponse.Result.DELETED), listener::onFailure));
+                }
+            },
+            e -> {
+                if (ExceptionsHelper.unwrapCause(e) instanceof IndexNotFoundException) {
+                    listener.onResponse(false);
+                } else {
+                    listener.onFailure(e);
+                }
+            }));
+    }
+
+    private boolean isOwner(Map<String, Object> source, Map<String, String> securityHeaders) {
+        @SuppressWarnings("unchecked")
+        final Map<String, String> originHeaders = (Map<String, String>) source.get(HEADERS_FIELD);
+        return security.isSameUser(originHeaders == null ? emptyMap() : originHeaders, securityHeaders);
+    }
+
+    String encodeResponse(AsyncSearchResponse response) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(Version.CURRENT);
+            Version.writeVersion(Version.CURRENT, out);
+            response.writeTo(out);
+            return Base64.getEncoder().encodeToString(BytesReference.toBytes(out.bytes()));
+        }
+    }
+
+    AsyncSearchResponse decodeResponse(String value) throws IOException {
+        try (StreamInput in = new NamedWriteableAwareStreamInput(StreamInput.wrap(Base64.getDecoder().decode(value)),
+                namedWriteableRegistry)) {
+            in.setVersion(Version.readVersion(in));
+            return new AsyncSearchResponse(in);
+        }
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.localNodeMaster()) {
+            scheduleCleanup();
+        } else {
+            cancelCleanup();
+        }
+    }
+
+    private synchronized void scheduleCleanup() {
+        if (cleanupTask == null) {
+            cleanupTask = threadPool.scheduleWithFixedDelay(this::deleteExpiredResponses, cleanupInterval, ThreadPool.Names.GENERIC);
+        }
+    }
+
+    private synchronized void cancelCleanup() {
+        if (cleanupTask != null) {
+            cleanupTask.cancel();
+            cleanupTask = null;
+        }
+    }
+
+    /**
+     * Deletes the responses whose expiration time passed, in batches of {@link #CLEANUP_BATCH_SIZE} documents.
+     */
+    void deleteExpiredResponses() {
+        if (clusterService.state().routingTable().hasIndex(INDEX) == false || cleanupRunning.compareAndSet(false, true) == false) {
+            return;
+        }
+        deleteExpiredResponses(threadPool.absoluteTimeInMillis());
+    }
+
+    private void deleteExpiredResponses(long nowInMillis) {
+        SearchRequest searchRequest = new SearchRequest(INDEX)
+            .indicesOptions(IndicesOptions.lenientExpandOpen())
+            .source(new SearchSourceBuilder()
+                .query(QueryBuilders.rangeQuery(EXPIRATION_TIME_FIELD).lt(nowInMillis))
+                .fetchSource(false)
+                .trackTotalHits(false)
+                .size(CLEANUP_BATCH_SIZE));
+        client.search(searchRequest, ActionListener.wrap(searchResponse -> {
+            final SearchHit[] hits = searchResponse.getHits().getHits();
+            if (hits.length == 0) {
+                cleanupRunning.set(false);
+                return;
+            }
+            BulkRequest bulkRequest = new BulkRequest();
+            for (SearchHit hit : hits) {
+                bulkRequest.add(new DeleteRequest(INDEX, hit.getId()));
+            }
+            client.bulk(bulkRequest, ActionListener.wrap(bulkResponse -> {
+                if (bulkResponse.hasFailures()) {
+                    logger.debug("failed to delete expired async search responses: {}", bulkResponse.buildFailureMessage());
+                }
+                if (hits.length == CLEANUP_BATCH_SIZE && bulkResponse.hasFailures() == false) {
+                    deleteExpiredResponses(nowInMillis);
+                } else {
+                    cleanupRunning.set(false);
+                }
+            }, this::onCleanupFailure));
+        }, this::onCleanupFailure));
+    }
+
+    private void onCleanupFailure(Exception e) {
+        cleanupRunning.set(false);
+        logger.warn(new ParameterizedMessage("failed to delete expired async search responses from [{}]", INDEX), e);
+    }
+
+    private Settings indexSettings() {
+        return Settings.builder()
+            .put(IndexMetaData.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+            .put(IndexMetaData.INDEX_AUTO_EXPAND_REPLICAS_SETTING.getKey(), "0-1")
+            .put(IndexMetaData.SETTING_PRIORITY, Integer.MAX_VALUE)
+            .build();
+    }
+
+    String indexMapping() {
+        try (InputStream is = getClass().getResourceAsStream(MAPPING_FILE)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Streams.copy(is, out);
+            return out.toString(StandardCharsets.UTF_8.name());
+        } catch (Exception e) {
+            throw new IllegalStateException("failed to load the async search index mapping [" + MAPPING_FILE + "]", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        clusterService.removeListener(this);
+        cancelCleanup();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.ParseField;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.StatusToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.rest.RestStatus;
+
+import java.io.IOException;
+
+/**
+ * The response of an async search: the search response of a completed search, or the partial response of a search that is still
+ * running, that only contains the hit count and the aggregations that were reduced so far.
+ */
+public final class AsyncSearchResponse extends ActionResponse implements StatusToXContentObject {
+
+    static final ParseField ID = new ParseField("id");
+    static final ParseField IS_PARTIAL = new ParseField("is_partial");
+    static final ParseField IS_RUNNING = new ParseField("is_running");
+    static final ParseField START_TIME = new ParseField("start_time_in_millis");
+    static final ParseField EXPIRATION_TIME = new ParseField("expiration_time_in_millis");
+    static final ParseField RESPONSE = new ParseField("response");
+    static final ParseField ERROR = new ParseField("error");
+
+    @Nullable
+    private final String id;
+    @Nullable
+    private final SearchResponse searchResponse;
+    @Nullable
+    private final ElasticsearchException failure;
+    private final boolean isPartial;
+    private final boolean isRunning;
+    private final long startTimeMillis;
+    private final long expirationTimeMillis;
+
+    public AsyncSearchResponse(@Nullable String id, @Nullable SearchResponse searchResponse, @Nullable ElasticsearchException failure,
+                               boolean isPartial, boolean isRunning, long startTimeMillis, long expirationTimeMillis) {
+        this.id = id;
+        this.searchResponse = searchResponse;
+        this.failure = failure;
+        this.isPartial = isPartial;
+        this.isRunning = isRunning;
+        this.startTimeMillis = startTimeMillis;
+        this.expirationTimeMillis = expirationTimeMillis;
+    }
+
+    public AsyncSearchResponse(StreamInput in) throws IOException {
+        super(in);
+        id = in.readOptionalString();
+        searchResponse = in.readOptionalWriteable(SearchResponse::new);
+        failure = in.readException();
+        isPartial = in.readBoolean();
+        isRunning = in.readBoolean();
+        startTimeMillis = in.readLong();
+        expirationTimeMillis = in.readLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeOptionalString(id);
+        out.writeOptionalWriteable(searchResponse);
+        out.writeException(failure);
+        out.writeBoolean(isPartial);
+        out.writeBoolean(isRunning);
+        out.writeLong(startTimeMillis);
+        out.writeLong(expirationTimeMillis);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+    }
+
+    /**
+     * Returns a copy of this response with the provided id and expiration time.
+     */
+    AsyncSearchResponse withIdAndExpirationTime(@Nullable String id, long expirationTimeMillis) {
+        return new AsyncSearchResponse(id, searchResponse, failure, isPartial, isRunning, startTimeMillis, expirationTimeMillis);
+    }
+
+    /**
+     * The id of the async search, or <code>null</code> if the search completed before the submit request returned and its response
+     * was not kept.
+     */
+    @Nullable
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The search response, or <code>null</code> if the search failed before any shard returned a result. The response only contains
+     * the hit count and the partially reduced aggregations as long as {@link #isPartial()} returns <code>true</code>.
+     */
+    @Nullable
+    public SearchResponse getSearchResponse() {
+        return searchResponse;
+    }
+
+    /**
+     * The failure of the search, if any.
+     */
+    @Nullable
+    public ElasticsearchException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns <code>true</code> if the search response only contains the results of the shards that responded so far, or if the
+     * search was cancelled or failed before all shards were reduced.
+     */
+    public boolean isPartial() {
+        return isPartial;
+    }
+
+    /**
+     * Returns <code>true</code> if the search is still running.
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * When the search started, in milliseconds since epoch.
+     */
+    public long getStartTime() {
+        return startTimeMillis;
+    }
+
+    /**
+     * When the search and its response will be removed, in milliseconds since epoch.
+     */
+    public long getExpirationTime() {
+        return expirationTimeMillis;
+    }
+
+    @Override
+    public RestStatus status() {
+        if (failure != null && searchResponse == null) {
+            return ExceptionsHelper.status(failure);
+        }
+        return searchResponse == null || isRunning ? RestStatus.OK : searchResponse.status();
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        if (id != null) {
+            builder.field(ID.getPreferredName(), id);
+        }
+        builder.field(IS_PARTIAL.getPreferredName(), isPartial);
+        builder.field(IS_RUNNING.getPreferredName(), isRunning);
+        builder.field(START_TIME.getPreferredName(), startTimeMillis);
+        builder.field(EXPIRATION_TIME.getPreferredName(), expirationTimeMillis);
+        if (searchResponse != null) {
+            builder.field(RESPONSE.getPreferredName());
+            searchResponse.toXContent(builder, params);
+        }
+        if (failure != null) {
+            builder.startObject(ERROR.getPreferredName());
+            ElasticsearchException.generateThrowableXContent(builder, params, failure);
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.plugins.ActionPlugin;
+
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Identifies the user that executes a request, so that an async search can only be retrieved or deleted by the user that submitted it.
+ * The security plugin provides the implementation through {@link ActionPlugin#getAsyncSearchSecurity()}, {@link #NONE} is used if
+ * security is not installed.
+ */
+public interface AsyncSearchSecurity {
+
+    /**
+     * Does not identify users, the async searches that were submitted without security headers can be accessed by every request.
+     */
+    AsyncSearchSecurity NONE = new AsyncSearchSecurity() {
+        @Override
+        public Map<String, String> getSecurityHeaders(ThreadContext threadContext) {
+            return emptyMap();
+        }
+
+        @Override
+        public boolean isSameUser(Map<String, String> originHeaders, Map<String, String> securityHeaders) {
+            return originHeaders.equals(securityHeaders);
+        }
+    };
+
+    /**
+     * Returns the headers of the thread context that identify the user that executes the request. They are stored along with the async
+     * search that the request submits.
+     */
+    Map<String, String> getSecurityHeaders(ThreadContext threadContext);
+
+    /**
+     * Returns <code>true</code> if the security headers identify the same user as the headers that were stored with an async search
+     * when it was submitted. The headers may have been taken on different nodes.
+     */
+    boolean isSameUser(Map<String, String> originHeaders, Map<String, String> securityHeaders);
+}
@@ -0,0 +1,318 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchProgressListener;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchTask;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The task of an async search. It tracks the progress of the search through a {@link SearchProgressListener}, so that the hit count
+ * and the aggregations reduced so far can be returned while the search is still running, and holds the final response until it is
+ * stored in the async search index.
+ */
+final class AsyncSearchTask extends SearchTask {
+
+    private static final Logger logger = LogManager.getLogger(AsyncSearchTask.class);
+
+    private final AsyncSearchId searchId;
+    private final Map<String, String> originHeaders;
+    private final long startTimeMillis;
+    private final long startRelativeTimeMillis;
+    private final boolean keepOnCompletion;
+    private final ThreadPool threadPool;
+    private final Supplier<InternalAggregation.ReduceContext> finalReduceContextSupplier;
+
+    private volatile long expirationTimeMillis;
+
+    // the state below is guarded by this
+    private int totalShards = -1;
+    private int skippedShards;
+    private int successfulShards;
+    private TotalHits totalHits;
+    private InternalAggregations aggs;
+    private boolean aggsAreFinal;
+    private InternalAggregations reducedAggs;
+    private int reducePhase;
+    private SearchResponse finalResponse;
+    private ElasticsearchException failure;
+    private boolean keepResponse;
+    private long completionListenerId;
+    private final Map<Long, CompletionListener> completionListeners = new HashMap<>();
+
+    AsyncSearchTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers, AsyncSearchId searchId,
+                    Map<String, String> originHeaders, long startTimeMillis, long expirationTimeMillis, boolean keepOnCompletion,
+                    ThreadPool threadPool, Supplier<InternalAggregation.ReduceContext> finalReduceContextSupplier) {
+        super(id, type, action, "async_search{id[" + searchId.getEncoded() + "]}", parentTaskId, headers);
+        this.searchId = searchId;
+        this.originHeaders = originHeaders;
+        this.startTimeMillis = startTimeMillis;
+        this.startRelativeTimeMillis = threadPool.relativeTimeInMillis();
+        this.expirationTimeMillis = expirationTimeMillis;
+        this.keepOnCompletion = keepOnCompletion;
+        this.threadPool = threadPool;
+        this.finalReduceContextSupplier = finalReduceContextSupplier;
+        setProgressListener(new Listener());
+    }
+
+    AsyncSearchId getSearchId() {
+        return searchId;
+    }
+
+    /**
+     * Returns the security headers of the user that submitted the search, see {@link AsyncSearchIndexService#getSecurityHeaders()}.
+     */
+    Map<String, String> getOriginHeaders() {
+        return originHeaders;
+    }
+
+    long getExpirationTime() {
+        return expirationTimeMillis;
+    }
+
+    /**
+     * Extends the expiration time of this search, the expiration time is never shortened.
+     */
+    void extendExpirationTime(long expirationTimeMillis) {
+        this.expirationTimeMillis = Math.max(this.expirationTimeMillis, expirationTimeMillis);
+    }
+
+    /**
+     * Returns <code>true</code> if the final response of the search must be stored in the async search index: either it was requested
+     * or the id of the search was returned while the search was running.
+     */
+    synchronized boolean shouldKeepResponse() {
+        return keepResponse || keepOnCompletion;
+    }
+
+    synchronized boolean isFinished() {
+        return finalResponse != null || failure != null;
+    }
+
+    /**
+     * Invokes the listener with the response of the search once it completed, or with its current progress once the timeout
+     * expires, whatever comes first. A timeout that is not positive returns the current progress immediately.
+     */
+    void addCompletionListener(ActionListener<AsyncSearchResponse> listener, TimeValue waitForCompletion) {
+        if (waitForCompletion.getMillis() > 0) {
+            synchronized (this) {
+                if (isFinished() == false) {
+                    final long id = completionListenerId++;
+                    final Scheduler.ScheduledCancellable timeout = threadPool.schedule(() -> onCompletionTimeout(id),
+                        waitForCompletion, ThreadPool.Names.GENERIC);
+                    completionListeners.put(id, new CompletionListener(listener, timeout));
+                    return;
+                }
+            }
+        }
+        respond(listener);
+    }
+
+    private void onCompletionTimeout(long id) {
+        final CompletionListener completionListener;
+        synchronized (this) {
+            completionListener = completionListeners.remove(id);
+        }
+        if (completionListener != null) {
+            respond(completionListener.listener);
+        }
+    }
+
+    private void respond(ActionListener<AsyncSearchResponse> listener) {
+        final AsyncSearchResponse response;
+        try {
+            response = getResponse();
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        listener.onResponse(response);
+    }
+
+    /**
+     * Records the final response of the search and notifies the completion listeners.
+     */
+    void onResponse(SearchResponse response) {
+        synchronized (this) {
+            finalResponse = response;
+        }
+        notifyCompletionListeners();
+    }
+
+    /**
+     * Records the failure of the search and notifies the completion listeners.
+     */
+    void onFailure(Exception e) {
+        synchronized (this) {
+            failure = ExceptionsHelper.convertToElastic(e);
+        }
+        notifyCompletionListeners();
+    }
+
+    private void notifyCompletionListeners() {
+        final List<CompletionListener> listeners;
+        synchronized (this) {
+            listeners = new ArrayList<>(completionListeners.values());
+            completionListeners.clear();
+        }
+        for (CompletionListener listener : listeners) {
+            listener.timeout.cancel();
+            respond(listener.listener);
+        }
+    }
+
+    /**
+     * Returns the final response of the search if it completed, or its current progress otherwise. The partial aggregations are
+     * copied under the lock and reduced outside of it, so that the progress listener of the search is never blocked by a reduce.
+     */
+    AsyncSearchResponse getResponse() {
+        final String id;
+        final ElasticsearchException failure;
+        final long expirationTimeMillis;
+        final int totalShards;
+        final int successfulShards;
+        final int skippedShards;
+        final TotalHits totalHits;
+        final InternalAggregations partialAggs;
+        final boolean needsReduce;
+        final int reducePhase;
+        synchronized (this) {
+            if (finalResponse != null) {
+                return new AsyncSearchResponse(shouldKeepResponse() ? searchId.getEncoded() : null, finalResponse, null, false, false,
+                    startTimeMillis, this.expirationTimeMillis);
+            }
+            // the id of a running search is returned so the response must be kept once the search completes
+            keepResponse |= this.failure == null;
+            id = shouldKeepResponse() ? searchId.getEncoded() : null;
+            failure = this.failure;
+            expirationTimeMillis = this.expirationTimeMillis;
+            totalShards = this.totalShards;
+            successfulShards = this.successfulShards;
+            skippedShards = this.skippedShards;
+            totalHits = this.totalHits;
+            if (aggs != null && reducedAggs == null && aggsAreFinal) {
+                reducedAggs = aggs;
+            }
+            needsReduce = aggs != null && reducedAggs == null;
+            partialAggs = needsReduce ? aggs : reducedAggs;
+            reducePhase = this.reducePhase;
+        }
+        SearchResponse partialResponse = null;
+        if (totalShards != -1) {
+            final InternalAggregations responseAggs = needsReduce ? reduceAggs(partialAggs) : partialAggs;
+            final InternalSearchResponse internal = new InternalSearchResponse(new SearchHits(new SearchHit[0], totalHits, Float.NaN),
+                responseAggs, null, null, false, null, reducePhase);
+            final long tookInMillis = threadPool.relativeTimeInMillis() - startRelativeTimeMillis;
+            partialResponse = new SearchResponse(internal, null, totalShards, successfulShards, skippedShards, tookInMillis,
+                ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+        }
+        return new AsyncSearchResponse(id, partialResponse, failure, true, failure == null, startTimeMillis, expirationTimeMillis);
+    }
+
+    private InternalAggregations reduceAggs(InternalAggregations partialAggs) {
+        InternalAggregations reduced;
+        try {
+            reduced = InternalAggregations.reduce(Collections.singletonList(partialAggs), finalReduceContextSupplier.get());
+        } catch (Exception e) {
+            logger.debug("failed to reduce the partial aggregations of async search [" + searchId.getEncoded() + "]", e);
+            reduced = partialAggs;
+        }
+        synchronized (this) {
+            // the reduced aggregations are only cached if no reduce phase completed in the meantime
+            if (aggs == partialAggs) {
+                reducedAggs = reduced;
+            }
+        }
+        return reduced;
+    }
+
+    private static final class CompletionListener {
+        private final ActionListener<AsyncSearchResponse> listener;
+        private final Scheduler.ScheduledCancellable timeout;
+
+        private CompletionListener(ActionListener<AsyncSearchResponse> listener, Scheduler.ScheduledCancellable timeout) {
+            this.listener = listener;
+            this.timeout = timeout;
+        }
+    }
+
+    private class Listener extends SearchProgressListener {
+
+        @Override
+        protected void onListShards(int totalShards, int skippedShards) {
+            synchronized (AsyncSearchTask.this) {
+                AsyncSearchTask.this.totalShards = totalShards;
+                AsyncSearchTask.this.skippedShards = skippedShards;
+                AsyncSearchTask.this.successfulShards = skippedShards;
+            }
+        }
+
+        @Override
+        protected void onQueryResult(int shardIndex) {
+            synchronized (AsyncSearchTask.this) {
+                successfulShards++;
+            }
+        }
+
+        @Override
+        protected void onPartialReduce(int numShards, TotalHits totalHits, InternalAggregations aggs, int reducePhase) {
+            updateReduce(totalHits, aggs, false, reducePhase);
+        }
+
+        @Override
+        protected void onReduce(int numShards, TotalHits totalHits, InternalAggregations aggs, int reducePhase,
+                                boolean isFinalReduce) {
+            updateReduce(totalHits, aggs, isFinalReduce, reducePhase);
+        }
+
+        private void updateReduce(TotalHits totalHits, InternalAggregations aggs, boolean isFinal, int reducePhase) {
+            synchronized (AsyncSearchTask.this) {
+                AsyncSearchTask.this.totalHits = totalHits;
+                AsyncSearchTask.this.aggs = aggs;
+                AsyncSearchTask.this.aggsAreFinal = isFinal;
+                AsyncSearchTask.this.reducedAggs = null;
+                AsyncSearchTask.this.reducePhase = reducePhase;
+            }
+        }
+    }
+}
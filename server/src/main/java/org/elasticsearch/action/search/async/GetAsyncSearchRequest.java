@@ -0,0 +1,134 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+
+/**
+ * A request to retrieve the progress or the final response of an async search.
+ */
+public final class GetAsyncSearchRequest extends ActionRequest {
+
+    private final String id;
+    private TimeValue waitForCompletionTimeout = TimeValue.MINUS_ONE;
+    @Nullable
+    private TimeValue keepAlive;
+
+    public GetAsyncSearchRequest(String id) {
+        this.id = Objects.requireNonNull(id, "[id] must not be null");
+    }
+
+    public GetAsyncSearchRequest(StreamInput in) throws IOException {
+        super(in);
+        id = in.readString();
+        waitForCompletionTimeout = in.readTimeValue();
+        keepAlive = in.readOptionalTimeValue();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(id);
+        out.writeTimeValue(waitForCompletionTimeout);
+        out.writeOptionalTimeValue(keepAlive);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = null;
+        if (keepAlive != null && keepAlive.getMillis() < TimeValue.timeValueSeconds(1).getMillis()) {
+            validationException = addValidationError("[keep_alive] must be greater than or equal to 1s, got [" + keepAlive + "]",
+                validationException);
+        }
+        return validationException;
+    }
+
+    /**
+     * The id of the async search.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * How long to wait for the search to complete before the current progress is returned, a negative value returns the progress
+     * immediately.
+     */
+    public TimeValue getWaitForCompletionTimeout() {
+        return waitForCompletionTimeout;
+    }
+
+    public GetAsyncSearchRequest setWaitForCompletionTimeout(TimeValue waitForCompletionTimeout) {
+        this.waitForCompletionTimeout = Objects.requireNonNull(waitForCompletionTimeout, "[wait_for_completion_timeout] must not be null");
+        return this;
+    }
+
+    /**
+     * The keep alive the search is extended to, counted from now, or <code>null</code> to keep the current expiration time.
+     */
+    @Nullable
+    public TimeValue getKeepAlive() {
+        return keepAlive;
+    }
+
+    public GetAsyncSearchRequest setKeepAlive(@Nullable TimeValue keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    @Override
+    public String getDescription() {
+        return "id[" + id + "], waitForCompletionTimeout[" + waitForCompletionTimeout + "], keepAlive[" + keepAlive + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GetAsyncSearchRequest that = (GetAsyncSearchRequest) o;
+        return id.equals(that.id)
+            && waitForCompletionTimeout.equals(that.waitForCompletionTimeout)
+            && Objects.equals(keepAlive, that.keepAlive);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, waitForCompletionTimeout, keepAlive);
+    }
+}
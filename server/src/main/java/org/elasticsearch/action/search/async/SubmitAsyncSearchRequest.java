@@ -0,0 +1,180 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.IndicesRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+
+/**
+ * A request to submit a search that is executed asynchronously. The request waits up to the given timeout for the search to complete
+ * and otherwise returns the id of the search, that can be used to poll its progress and retrieve its final response, which is kept for
+ * the given keep alive.
+ */
+public final class SubmitAsyncSearchRequest extends ActionRequest implements IndicesRequest.Replaceable {
+
+    public static final TimeValue DEFAULT_WAIT_FOR_COMPLETION_TIMEOUT = TimeValue.timeValueSeconds(1);
+    public static final TimeValue DEFAULT_KEEP_ALIVE = TimeValue.timeValueDays(5);
+    public static final int DEFAULT_BATCHED_REDUCE_SIZE = 5;
+
+    private final SearchRequest searchRequest;
+    private TimeValue waitForCompletionTimeout = DEFAULT_WAIT_FOR_COMPLETION_TIMEOUT;
+    private TimeValue keepAlive = DEFAULT_KEEP_ALIVE;
+    private boolean keepOnCompletion = false;
+
+    public SubmitAsyncSearchRequest(SearchRequest searchRequest) {
+        this.searchRequest = Objects.requireNonNull(searchRequest, "[search_request] must not be null");
+    }
+
+    public SubmitAsyncSearchRequest(StreamInput in) throws IOException {
+        super(in);
+        searchRequest = new SearchRequest(in);
+        waitForCompletionTimeout = in.readTimeValue();
+        keepAlive = in.readTimeValue();
+        keepOnCompletion = in.readBoolean();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        searchRequest.writeTo(out);
+        out.writeTimeValue(waitForCompletionTimeout);
+        out.writeTimeValue(keepAlive);
+        out.writeBoolean(keepOnCompletion);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+    }
+
+    /**
+     * The search request to execute.
+     */
+    public SearchRequest getSearchRequest() {
+        return searchRequest;
+    }
+
+    /**
+     * How long the submit request waits for the search to complete before it returns the id and the partial results of the search.
+     */
+    public TimeValue getWaitForCompletionTimeout() {
+        return waitForCompletionTimeout;
+    }
+
+    public SubmitAsyncSearchRequest setWaitForCompletionTimeout(TimeValue waitForCompletionTimeout) {
+        this.waitForCompletionTimeout = Objects.requireNonNull(waitForCompletionTimeout, "[wait_for_completion_timeout] must not be null");
+        return this;
+    }
+
+    /**
+     * How long the search and its final response are kept, counted from the submission of the search.
+     */
+    public TimeValue getKeepAlive() {
+        return keepAlive;
+    }
+
+    public SubmitAsyncSearchRequest setKeepAlive(TimeValue keepAlive) {
+        this.keepAlive = Objects.requireNonNull(keepAlive, "[keep_alive] must not be null");
+        return this;
+    }
+
+    /**
+     * Whether the final response is kept even if the search completed before the submit request returned.
+     */
+    public boolean isKeepOnCompletion() {
+        return keepOnCompletion;
+    }
+
+    public SubmitAsyncSearchRequest setKeepOnCompletion(boolean keepOnCompletion) {
+        this.keepOnCompletion = keepOnCompletion;
+        return this;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = searchRequest.validate();
+        if (searchRequest.scroll() != null) {
+            validationException = addValidationError("[scroll] is not supported in async search", validationException);
+        }
+        if (keepAlive.getMillis() < TimeValue.timeValueSeconds(1).getMillis()) {
+            validationException = addValidationError("[keep_alive] must be greater than or equal to 1s, got [" + keepAlive + "]",
+                validationException);
+        }
+        if (waitForCompletionTimeout.getMillis() < 0) {
+            validationException = addValidationError("[wait_for_completion_timeout] must be positive, got [" + waitForCompletionTimeout
+                + "]", validationException);
+        }
+        return validationException;
+    }
+
+    @Override
+    public String[] indices() {
+        return searchRequest.indices();
+    }
+
+    @Override
+    public SubmitAsyncSearchRequest indices(String... indices) {
+        searchRequest.indices(indices);
+        return this;
+    }
+
+    @Override
+    public IndicesOptions indicesOptions() {
+        return searchRequest.indicesOptions();
+    }
+
+    @Override
+    public String getDescription() {
+        return "indices[" + Strings.arrayToCommaDelimitedString(searchRequest.indices()) + "], waitForCompletionTimeout["
+            + waitForCompletionTimeout + "], keepAlive[" + keepAlive + "], keepOnCompletion[" + keepOnCompletion + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SubmitAsyncSearchRequest that = (SubmitAsyncSearchRequest) o;
+        return keepOnCompletion == that.keepOnCompletion
+            && searchRequest.equals(that.searchRequest)
+            && waitForCompletionTimeout.equals(that.waitForCompletionTimeout)
+            && keepAlive.equals(that.keepAlive);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(searchRequest, waitForCompletionTimeout, keepAlive, keepOnCompletion);
+    }
+}
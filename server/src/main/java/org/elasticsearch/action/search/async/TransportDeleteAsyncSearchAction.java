@@ -0,0 +1,112 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.admin.cluster.node.tasks.cancel.CancelTasksRequest;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import static org.elasticsearch.action.admin.cluster.node.tasks.get.GetTaskAction.TASKS_ORIGIN;
+
+/**
+ * Cancels an async search if it is still running and deletes its stored response. The request is forwarded to the node that executes
+ * the search, so that only the task of an async search can be cancelled through this action. Only the user that submitted the search
+ * can delete it, other users get a {@link ResourceNotFoundException}.
+ */
+public class TransportDeleteAsyncSearchAction extends HandledTransportAction<DeleteAsyncSearchRequest, AcknowledgedResponse> {
+
+    private final ClusterService clusterService;
+    private final TransportService transportService;
+    private final Client client;
+    private final AsyncSearchIndexService indexService;
+
+    @Inject
+    public TransportDeleteAsyncSearchAction(TransportService transportService, ActionFilters actionFilters, ClusterService clusterService,
+                                            Client client, AsyncSearchIndexService indexService) {
+        super(DeleteAsyncSearchAction.NAME, transportService, actionFilters, DeleteAsyncSearchRequest::new);
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+        this.client = new OriginSettingClient(client, TASKS_ORIGIN);
+        this.indexService = indexService;
+    }
+
+    @Override
+    protected void doExecute(Task task, DeleteAsyncSearchRequest request, ActionListener<AcknowledgedResponse> listener) {
+        final AsyncSearchId searchId;
+        try {
+            searchId = AsyncSearchId.decode(request.getId());
+        } catch (IllegalArgumentException e) {
+            listener.onFailure(e);
+            return;
+        }
+        final String nodeId = searchId.getTaskId().getNodeId();
+        if (clusterService.localNode().getId().equals(nodeId)) {
+            final Task runningTask = taskManager.getTask(searchId.getTaskId().getId());
+            if (runningTask instanceof AsyncSearchTask && ((AsyncSearchTask) runningTask).getSearchId().equals(searchId)) {
+                final AsyncSearchTask searchTask = (AsyncSearchTask) runningTask;
+                if (indexService.isSameUser(searchTask.getOriginHeaders()) == false) {
+                    listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+                    return;
+                }
+                CancelTasksRequest cancelRequest = new CancelTasksRequest()
+                    .setTaskId(searchId.getTaskId())
+                    .setReason("async search deleted");
+                // the response of a cancelled search is not stored, but it may have been stored before the search was cancelled
+                client.admin().cluster().cancelTasks(cancelRequest, ActionListener.wrap(
+                    r -> deleteResponse(searchId, true, listener), listener::onFailure));
+                return;
+            }
+        } else {
+            final DiscoveryNode node = clusterService.state().nodes().get(nodeId);
+            if (node != null) {
+                transportService.sendRequest(node, DeleteAsyncSearchAction.NAME, request,
+                    new ActionListenerResponseHandler<>(listener, in -> {
+                        AcknowledgedResponse response = new AcknowledgedResponse();
+                        response.readFrom(in);
+                        return response;
+                    }, ThreadPool.Names.SAME));
+                return;
+            }
+        }
+        deleteResponse(searchId, false, listener);
+    }
+
+    private void deleteResponse(AsyncSearchId searchId, boolean wasRunning, ActionListener<AcknowledgedResponse> listener) {
+        indexService.deleteResponse(searchId, ActionListener.wrap(found -> {
+            if (found || wasRunning) {
+                listener.onResponse(new AcknowledgedResponse(true));
+            } else {
+                listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+            }
+        }, listener::onFailure));
+    }
+}
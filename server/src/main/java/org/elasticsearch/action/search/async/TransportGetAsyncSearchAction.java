@@ -0,0 +1,101 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+/**
+ * Retrieves the progress or the final response of an async search. The request is forwarded to the node that executes the search if
+ * the search is still running there, and is otherwise answered from the async search index. Only the user that submitted the search
+ * can retrieve it, other users get a {@link ResourceNotFoundException}.
+ */
+public class TransportGetAsyncSearchAction extends HandledTransportAction<GetAsyncSearchRequest, AsyncSearchResponse> {
+
+    private final ClusterService clusterService;
+    private final ThreadPool threadPool;
+    private final TransportService transportService;
+    private final AsyncSearchIndexService indexService;
+
+    @Inject
+    public TransportGetAsyncSearchAction(TransportService transportService, ActionFilters actionFilters, ClusterService clusterService,
+                                         ThreadPool threadPool, AsyncSearchIndexService indexService) {
+        super(GetAsyncSearchAction.NAME, transportService, actionFilters, GetAsyncSearchRequest::new);
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.transportService = transportService;
+        this.indexService = indexService;
+    }
+
+    @Override
+    protected void doExecute(Task task, GetAsyncSearchRequest request, ActionListener<AsyncSearchResponse> listener) {
+        final AsyncSearchId searchId;
+        try {
+            searchId = AsyncSearchId.decode(request.getId());
+        } catch (IllegalArgumentException e) {
+            listener.onFailure(e);
+            return;
+        }
+        final String nodeId = searchId.getTaskId().getNodeId();
+        if (clusterService.localNode().getId().equals(nodeId)) {
+            final Task runningTask = taskManager.getTask(searchId.getTaskId().getId());
+            if (runningTask instanceof AsyncSearchTask && ((AsyncSearchTask) runningTask).getSearchId().equals(searchId)) {
+                final AsyncSearchTask searchTask = (AsyncSearchTask) runningTask;
+                if (indexService.isSameUser(searchTask.getOriginHeaders()) == false) {
+                    listener.onFailure(new ResourceNotFoundException(searchId.getEncoded()));
+                    return;
+                }
+                if (request.getKeepAlive() != null) {
+                    searchTask.extendExpirationTime(threadPool.absoluteTimeInMillis() + request.getKeepAlive().getMillis());
+                }
+                searchTask.addCompletionListener(listener, request.getWaitForCompletionTimeout());
+                return;
+            }
+        } else {
+            final DiscoveryNode node = clusterService.state().nodes().get(nodeId);
+            if (node != null) {
+                transportService.sendRequest(node, GetAsyncSearchAction.NAME, request,
+                    new ActionListenerResponseHandler<>(listener, AsyncSearchResponse::new, ThreadPool.Names.SAME));
+                return;
+            }
+        }
+        // the search completed or the node that executed it left the cluster
+        if (request.getKeepAlive() != null) {
+            // the response is retrieved first so that only its owner can extend its expiration time
+            indexService.getResponse(searchId, ActionListener.wrap(response -> {
+                final long expirationTime = threadPool.absoluteTimeInMillis() + request.getKeepAlive().getMillis();
+                indexService.updateExpirationTime(searchId, expirationTime, ActionListener.wrap(
+                    r -> listener.onResponse(response.withIdAndExpirationTime(searchId.getEncoded(), expirationTime)),
+                    listener::onFailure));
+            }, listener::onFailure));
+        } else {
+            indexService.getResponse(searchId, listener);
+        }
+    }
+}
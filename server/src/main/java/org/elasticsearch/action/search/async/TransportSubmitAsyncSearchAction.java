@@ -0,0 +1,144 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.cluster.node.tasks.cancel.CancelTasksRequest;
+import org.elasticsearch.action.search.SearchAction;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.TransportSearchAction;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.Map;
+
+import static org.elasticsearch.action.admin.cluster.node.tasks.get.GetTaskAction.TASKS_ORIGIN;
+
+/**
+ * Submits an async search: the search is executed on this node under an {@link AsyncSearchTask} that outlives the submit request.
+ * The final response is stored in the async search index if the id of the search was returned before it completed.
+ */
+public class TransportSubmitAsyncSearchAction extends HandledTransportAction<SubmitAsyncSearchRequest, AsyncSearchResponse> {
+
+    private final ClusterService clusterService;
+    private final ThreadPool threadPool;
+    private final Client client;
+    private final TransportSearchAction searchAction;
+    private final SearchService searchService;
+    private final AsyncSearchIndexService indexService;
+
+    @Inject
+    public TransportSubmitAsyncSearchAction(TransportService transportService, ActionFilters actionFilters, ClusterService clusterService,
+                                            ThreadPool threadPool, Client client, TransportSearchAction searchAction,
+                                            SearchService searchService, AsyncSearchIndexService indexService) {
+        super(SubmitAsyncSearchAction.NAME, transportService, actionFilters, SubmitAsyncSearchRequest::new);
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.client = new OriginSettingClient(client, TASKS_ORIGIN);
+        this.searchAction = searchAction;
+        this.searchService = searchService;
+        this.indexService = indexService;
+    }
+
+    @Override
+    protected void doExecute(Task submitTask, SubmitAsyncSearchRequest request, ActionListener<AsyncSearchResponse> listener) {
+        final String docId = UUIDs.randomBase64UUID();
+        final String nodeId = clusterService.localNode().getId();
+        final long startTime = threadPool.absoluteTimeInMillis();
+        final long expirationTime = startTime + request.getKeepAlive().getMillis();
+        final Map<String, String> originHeaders = indexService.getSecurityHeaders();
+        final SearchRequest searchRequest = new SearchRequest(request.getSearchRequest()) {
+            @Override
+            public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+                final AsyncSearchId searchId = new AsyncSearchId(docId, new TaskId(nodeId, id));
+                return new AsyncSearchTask(id, type, action, parentTaskId, headers, searchId, originHeaders, startTime,
+                    expirationTime, request.isKeepOnCompletion(), threadPool, () -> searchService.createReduceContext(true));
+            }
+        };
+        final AsyncSearchTask searchTask = (AsyncSearchTask) taskManager.register("transport", SearchAction.NAME, searchRequest);
+        scheduleExpirationCheck(searchTask);
+        searchAction.execute(searchTask, searchRequest, new ActionListener<SearchResponse>() {
+            @Override
+            public void onResponse(SearchResponse response) {
+                searchTask.onResponse(response);
+                onSearchCompleted(searchTask);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                searchTask.onFailure(e);
+                onSearchCompleted(searchTask);
+            }
+        });
+        searchTask.addCompletionListener(listener, request.getWaitForCompletionTimeout());
+    }
+
+    private void onSearchCompleted(AsyncSearchTask searchTask) {
+        if (searchTask.isCancelled() || searchTask.shouldKeepResponse() == false
+                || searchTask.getExpirationTime() <= threadPool.absoluteTimeInMillis()) {
+            taskManager.unregister(searchTask);
+            return;
+        }
+        // the task is unregistered once the response is stored, so that the response can be retrieved from the task in the meantime
+        final AsyncSearchResponse response = searchTask.getResponse();
+        indexService.storeResponse(searchTask.getSearchId().getDocId(), searchTask.getOriginHeaders(), response, ActionListener.wrap(
+            r -> taskManager.unregister(searchTask),
+            e -> {
+                logger.error(() -> new ParameterizedMessage("failed to store the response of async search [{}]",
+                    searchTask.getSearchId().getEncoded()), e);
+                taskManager.unregister(searchTask);
+            }));
+    }
+
+    /**
+     * Cancels the search once its expiration time passed if it is still running.
+     */
+    private void scheduleExpirationCheck(AsyncSearchTask searchTask) {
+        final long delay = Math.max(0L, searchTask.getExpirationTime() - threadPool.absoluteTimeInMillis());
+        threadPool.schedule(() -> {
+            if (searchTask.isFinished()) {
+                return;
+            }
+            if (searchTask.getExpirationTime() <= threadPool.absoluteTimeInMillis()) {
+                CancelTasksRequest cancelRequest = new CancelTasksRequest()
+                    .setTaskId(new TaskId(clusterService.localNode().getId(), searchTask.getId()))
+                    .setReason("async search expired");
+                client.admin().cluster().cancelTasks(cancelRequest, ActionListener.wrap(r -> {},
+                    e -> logger.debug(() -> new ParameterizedMessage("failed to cancel expired async search [{}]",
+                        searchTask.getSearchId().getEncoded()), e)));
+            } else {
+                scheduleExpirationCheck(searchTask);
+            }
+        }, TimeValue.timeValueMillis(delay), ThreadPool.Names.GENERIC);
+    }
+}
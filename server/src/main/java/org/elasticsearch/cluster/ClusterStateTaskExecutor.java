@@ -38,6 +38,15 @@ public interface ClusterStateTaskExecutor<T> {
         return true;
     }
 
+    /**
+     * indicates whether the tasks of this executor may be chained with the pending tasks of other executors that allow it too. Chained
+     * tasks are executed one executor after the other in a single cluster state update, each executor seeing the state resulting from
+     * the previous one, and the resulting state is published once.
+     */
+    default boolean allowsChaining() {
+        return false;
+    }
+
     /**
      * Callback invoked after new cluster state is published. Note that
      * this method is not invoked if the cluster state was not updated.
@@ -371,6 +371,11 @@ public class ShardStateAction {
             return allocationService.applyFailedShards(currentState, failedShards, staleShards);
         }
 
+        @Override
+        public boolean allowsChaining() {
+            return true;
+        }
+
         @Override
         public void clusterStatePublished(ClusterChangedEvent clusterChangedEvent) {
             int numberOfUnassignedShards = clusterChangedEvent.state().getRoutingNodes().unassigned().size();
@@ -514,6 +519,11 @@ public class ShardStateAction {
             this.logger = logger;
         }
 
+        @Override
+        public boolean allowsChaining() {
+            return true;
+        }
+
         @Override
         public ClusterTasksResult<StartedShardEntry> execute(ClusterState currentState, List<StartedShardEntry> tasks) throws Exception {
             ClusterTasksResult.Builder<StartedShardEntry> builder = ClusterTasksResult.builder();
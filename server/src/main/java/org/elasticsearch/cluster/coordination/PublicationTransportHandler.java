@@ -38,7 +38,11 @@ import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ListenableFuture;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesTransportRequest;
@@ -50,8 +54,8 @@ import org.elasticsearch.transport.TransportResponseHandler;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
@@ -74,6 +78,9 @@ public class PublicationTransportHandler {
     private final AtomicLong fullClusterStateReceivedCount = new AtomicLong();
     private final AtomicLong incompatibleClusterStateDiffReceivedCount = new AtomicLong();
     private final AtomicLong compatibleClusterStateDiffReceivedCount = new AtomicLong();
+    private final AtomicLong fullClusterStateSerializedCount = new AtomicLong();
+    private final AtomicLong clusterStateDiffSerializedCount = new AtomicLong();
+    private final AtomicLong serializationTimeNanos = new AtomicLong();
     // -> no need to put a timeout on the options here, because we want the response to eventually be received
     //  and not log an error if it arrives after the timeout
     private final TransportRequestOptions stateRequestOptions = TransportRequestOptions.builder()
@@ -122,7 +129,10 @@ public class PublicationTransportHandler {
         return new PublishClusterStateStats(
             fullClusterStateReceivedCount.get(),
             incompatibleClusterStateDiffReceivedCount.get(),
-            compatibleClusterStateDiffReceivedCount.get());
+            compatibleClusterStateDiffReceivedCount.get(),
+            fullClusterStateSerializedCount.get(),
+            clusterStateDiffSerializedCount.get(),
+            TimeUnit.NANOSECONDS.toMillis(serializationTimeNanos.get()));
     }
 
     public interface PublicationContext {
@@ -140,13 +150,12 @@ public class PublicationTransportHandler {
         final ClusterState newState = clusterChangedEvent.state();
         final ClusterState previousState = clusterChangedEvent.previousState();
         final boolean sendFullVersion = clusterChangedEvent.previousState().getBlocks().disableStatePersistence();
-        final Map<Version, BytesReference> serializedStates = new HashMap<>();
-        final Map<Version, BytesReference> serializedDiffs = new HashMap<>();
+        final Map<Version, ListenableFuture<BytesReference>> serializedStates = ConcurrentCollections.newConcurrentMap();
+        final Map<Version, ListenableFuture<BytesReference>> serializedDiffs = ConcurrentCollections.newConcurrentMap();
 
-        // we build these early as a best effort not to commit in the case of error.
-        // sadly this is not water tight as it may that a failed diff based publishing to a node
-        // will cause a full serialization based on an older version, which may fail after the
-        // change has been committed.
+        // we start serializing early, once per node version, so that the bytes are ready by the time the publish requests are sent.
+        // Serializing and compressing a large cluster state takes a while, so it is done on the generic threadpool rather than on the
+        // thread that publishes the state, and a failure to serialize fails the publish requests to the nodes that needed it.
         buildDiffAndSerializeStates(clusterChangedEvent.state(), clusterChangedEvent.previousState(),
             nodes, sendFullVersion, serializedStates, serializedDiffs);
 
@@ -220,7 +229,7 @@ public class PublicationTransportHandler {
 
     private void sendClusterStateToNode(ClusterState clusterState, BytesReference bytes, DiscoveryNode node,
                                         ActionListener<PublishWithJoinResponse> responseActionListener, boolean sendDiffs,
-                                        Map<Version, BytesReference> serializedStates) {
+                                        Map<Version, ListenableFuture<BytesReference>> serializedStates) {
         try {
             final BytesTransportRequest request = new BytesTransportRequest(bytes, node.getVersion());
             final Consumer<TransportException> transportExceptionHandler = exp -> {
@@ -262,75 +271,106 @@ public class PublicationTransportHandler {
         }
     }
 
-    private static void buildDiffAndSerializeStates(ClusterState clusterState, ClusterState previousState, DiscoveryNodes discoveryNodes,
-                                                    boolean sendFullVersion, Map<Version, BytesReference> serializedStates,
-                                                    Map<Version, BytesReference> serializedDiffs) {
+    private void buildDiffAndSerializeStates(ClusterState clusterState, ClusterState previousState, DiscoveryNodes discoveryNodes,
+                                             boolean sendFullVersion, Map<Version, ListenableFuture<BytesReference>> serializedStates,
+                                             Map<Version, ListenableFuture<BytesReference>> serializedDiffs) {
         Diff<ClusterState> diff = null;
         for (DiscoveryNode node : discoveryNodes) {
             if (node.equals(discoveryNodes.getLocalNode())) {
                 // ignore, see newPublicationContext
                 continue;
             }
-            try {
-                if (sendFullVersion || !previousState.nodes().nodeExists(node)) {
-                    if (serializedStates.containsKey(node.getVersion()) == false) {
-                        serializedStates.put(node.getVersion(), serializeFullClusterState(clusterState, node.getVersion()));
-                    }
-                } else {
-                    // will send a diff
-                    if (diff == null) {
-                        diff = clusterState.diff(previousState);
-                    }
-                    if (serializedDiffs.containsKey(node.getVersion()) == false) {
-                        serializedDiffs.put(node.getVersion(), serializeDiffClusterState(diff, node.getVersion()));
-                    }
+            if (sendFullVersion || !previousState.nodes().nodeExists(node)) {
+                serializedStates.computeIfAbsent(node.getVersion(), version -> serializeAsync(true, clusterState, version));
+            } else {
+                // will send a diff
+                if (diff == null) {
+                    diff = clusterState.diff(previousState);
                 }
-            } catch (IOException e) {
-                throw new ElasticsearchException("failed to serialize cluster state for publishing to node {}", e, node);
+                final Diff<ClusterState> clusterStateDiff = diff;
+                serializedDiffs.computeIfAbsent(node.getVersion(), version -> serializeAsync(false, clusterStateDiff, version));
             }
         }
     }
 
-    private void sendFullClusterState(ClusterState clusterState, Map<Version, BytesReference> serializedStates,
+    /**
+     * Serializes and compresses the given full cluster state or diff for nodes of the given version on the generic threadpool. The
+     * compressed bytes are shared by the publish requests to all nodes of that version.
+     */
+    private ListenableFuture<BytesReference> serializeAsync(boolean fullState, Writeable writeable, Version nodeVersion) {
+        final ListenableFuture<BytesReference> future = new ListenableFuture<>();
+        transportService.getThreadPool().generic().execute(new AbstractRunnable() {
+            @Override
+            public void onFailure(Exception e) {
+                future.onFailure(new ElasticsearchException("failed to serialize cluster state for publishing to nodes of version [{}]",
+                    e, nodeVersion));
+            }
+
+            @Override
+            protected void doRun() throws IOException {
+                final long startNanos = System.nanoTime();
+                final BytesReference compressed = serialize(fullState, writeable, nodeVersion);
+                serializationTimeNanos.addAndGet(System.nanoTime() - startNanos);
+                if (fullState) {
+                    fullClusterStateSerializedCount.incrementAndGet();
+                } else {
+                    clusterStateDiffSerializedCount.incrementAndGet();
+                }
+                future.onResponse(compressed);
+            }
+
+            @Override
+            public String toString() {
+                return "serialize " + (fullState ? "full cluster state" : "cluster state diff") + " for nodes of version ["
+                    + nodeVersion + "]";
+            }
+        });
+        return future;
+    }
+
+    private void sendFullClusterState(ClusterState clusterState, Map<Version, ListenableFuture<BytesReference>> serializedStates,
                                       DiscoveryNode node, ActionListener<PublishWithJoinResponse> responseActionListener) {
-        BytesReference bytes = serializedStates.get(node.getVersion());
-        if (bytes == null) {
-            try {
-                bytes = serializeFullClusterState(clusterState, node.getVersion());
-                serializedStates.put(node.getVersion(), bytes);
-            } catch (Exception e) {
+        final ListenableFuture<BytesReference> bytes = serializedStates.computeIfAbsent(node.getVersion(),
+            version -> serializeAsync(true, clusterState, version));
+        bytes.addListener(ActionListener.wrap(
+            b -> sendClusterStateToNode(clusterState, b, node, responseActionListener, false, serializedStates),
+            e -> {
                 logger.warn(() -> new ParameterizedMessage("failed to serialize cluster state before publishing it to node {}", node), e);
                 responseActionListener.onFailure(e);
-                return;
-            }
-        }
-        sendClusterStateToNode(clusterState, bytes, node, responseActionListener, false, serializedStates);
+            }), EsExecutors.newDirectExecutorService(), transportService.getThreadPool().getThreadContext());
     }
 
-    private void sendClusterStateDiff(ClusterState clusterState,
-                                      Map<Version, BytesReference> serializedDiffs, Map<Version, BytesReference> serializedStates,
+    private void sendClusterStateDiff(ClusterState clusterState, Map<Version, ListenableFuture<BytesReference>> serializedDiffs,
+                                      Map<Version, ListenableFuture<BytesReference>> serializedStates,
                                       DiscoveryNode node, ActionListener<PublishWithJoinResponse> responseActionListener) {
-        final BytesReference bytes = serializedDiffs.get(node.getVersion());
+        final ListenableFuture<BytesReference> bytes = serializedDiffs.get(node.getVersion());
         assert bytes != null : "failed to find serialized diff for node " + node + " of version [" + node.getVersion() + "]";
-        sendClusterStateToNode(clusterState, bytes, node, responseActionListener, true, serializedStates);
+        bytes.addListener(ActionListener.wrap(
+            b -> sendClusterStateToNode(clusterState, b, node, responseActionListener, true, serializedStates),
+            e -> {
+                logger.warn(() -> new ParameterizedMessage("failed to serialize cluster state diff before publishing it to node {}", node),
+                    e);
+                responseActionListener.onFailure(e);
+            }), EsExecutors.newDirectExecutorService(), transportService.getThreadPool().getThreadContext());
     }
 
     public static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion) throws IOException {
-        final BytesStreamOutput bStream = new BytesStreamOutput();
-        try (StreamOutput stream = CompressorFactory.COMPRESSOR.streamOutput(bStream)) {
-            stream.setVersion(nodeVersion);
-            stream.writeBoolean(true);
-            clusterState.writeTo(stream);
-        }
-        return bStream.bytes();
+        return serialize(true, clusterState, nodeVersion);
     }
 
     public static BytesReference serializeDiffClusterState(Diff diff, Version nodeVersion) throws IOException {
+        return serialize(false, diff, nodeVersion);
+    }
+
+    /**
+     * Serializes the given full cluster state or diff straight into the compressor, so that no uncompressed copy is held in memory.
+     */
+    private static BytesReference serialize(boolean fullState, Writeable writeable, Version nodeVersion) throws IOException {
         final BytesStreamOutput bStream = new BytesStreamOutput();
         try (StreamOutput stream = CompressorFactory.COMPRESSOR.streamOutput(bStream)) {
             stream.setVersion(nodeVersion);
-            stream.writeBoolean(false);
-            diff.writeTo(stream);
+            stream.writeBoolean(fullState);
+            writeable.writeTo(stream);
         }
         return bStream.bytes();
     }
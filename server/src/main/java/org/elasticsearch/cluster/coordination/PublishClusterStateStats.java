@@ -19,9 +19,11 @@
 
 package org.elasticsearch.cluster.coordination;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
@@ -35,6 +37,9 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
     private final long fullClusterStateReceivedCount;
     private final long incompatibleClusterStateDiffReceivedCount;
     private final long compatibleClusterStateDiffReceivedCount;
+    private final long fullClusterStateSerializedCount;
+    private final long clusterStateDiffSerializedCount;
+    private final long serializationTimeMillis;
 
     /**
      * @param fullClusterStateReceivedCount the number of times this node has received a full copy of the cluster state from the master.
@@ -44,15 +49,46 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
     public PublishClusterStateStats(long fullClusterStateReceivedCount,
                                     long incompatibleClusterStateDiffReceivedCount,
                                     long compatibleClusterStateDiffReceivedCount) {
+        this(fullClusterStateReceivedCount, incompatibleClusterStateDiffReceivedCount, compatibleClusterStateDiffReceivedCount,
+            0L, 0L, 0L);
+    }
+
+    /**
+     * @param fullClusterStateReceivedCount the number of times this node has received a full copy of the cluster state from the master.
+     * @param incompatibleClusterStateDiffReceivedCount the number of times this node has received a cluster-state diff from the master.
+     * @param compatibleClusterStateDiffReceivedCount the number of times that received cluster-state diffs were compatible with
+     * @param fullClusterStateSerializedCount the number of times this node has serialized a full copy of the cluster state for publishing.
+     * @param clusterStateDiffSerializedCount the number of times this node has serialized a cluster-state diff for publishing.
+     * @param serializationTimeMillis the total time this node spent serializing and compressing cluster states and diffs for
+     *                                publishing.
+     */
+    public PublishClusterStateStats(long fullClusterStateReceivedCount,
+                                    long incompatibleClusterStateDiffReceivedCount,
+                                    long compatibleClusterStateDiffReceivedCount,
+                                    long fullClusterStateSerializedCount,
+                                    long clusterStateDiffSerializedCount,
+                                    long serializationTimeMillis) {
         this.fullClusterStateReceivedCount = fullClusterStateReceivedCount;
         this.incompatibleClusterStateDiffReceivedCount = incompatibleClusterStateDiffReceivedCount;
         this.compatibleClusterStateDiffReceivedCount = compatibleClusterStateDiffReceivedCount;
+        this.fullClusterStateSerializedCount = fullClusterStateSerializedCount;
+        this.clusterStateDiffSerializedCount = clusterStateDiffSerializedCount;
+        this.serializationTimeMillis = serializationTimeMillis;
     }
 
     public PublishClusterStateStats(StreamInput in) throws IOException {
         fullClusterStateReceivedCount = in.readVLong();
         incompatibleClusterStateDiffReceivedCount = in.readVLong();
         compatibleClusterStateDiffReceivedCount = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            fullClusterStateSerializedCount = in.readVLong();
+            clusterStateDiffSerializedCount = in.readVLong();
+            serializationTimeMillis = in.readVLong();
+        } else {
+            fullClusterStateSerializedCount = 0L;
+            clusterStateDiffSerializedCount = 0L;
+            serializationTimeMillis = 0L;
+        }
     }
 
     @Override
@@ -60,6 +96,11 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
         out.writeVLong(fullClusterStateReceivedCount);
         out.writeVLong(incompatibleClusterStateDiffReceivedCount);
         out.writeVLong(compatibleClusterStateDiffReceivedCount);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(fullClusterStateSerializedCount);
+            out.writeVLong(clusterStateDiffSerializedCount);
+            out.writeVLong(serializationTimeMillis);
+        }
     }
 
     @Override
@@ -69,6 +110,10 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
             builder.field("full_states", fullClusterStateReceivedCount);
             builder.field("incompatible_diffs", incompatibleClusterStateDiffReceivedCount);
             builder.field("compatible_diffs", compatibleClusterStateDiffReceivedCount);
+            builder.field("serialized_full_states", fullClusterStateSerializedCount);
+            builder.field("serialized_diffs", clusterStateDiffSerializedCount);
+            builder.humanReadableField("serialization_time_in_millis", "serialization_time",
+                new TimeValue(serializationTimeMillis));
         }
         builder.endObject();
         return builder;
@@ -80,11 +125,20 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
 
     public long getCompatibleClusterStateDiffReceivedCount() { return compatibleClusterStateDiffReceivedCount; }
 
+    public long getFullClusterStateSerializedCount() { return fullClusterStateSerializedCount; }
+
+    public long getClusterStateDiffSerializedCount() { return clusterStateDiffSerializedCount; }
+
+    public long getSerializationTimeMillis() { return serializationTimeMillis; }
+
     @Override
     public String toString() {
         return "PublishClusterStateStats(full=" + fullClusterStateReceivedCount
             + ", incompatible=" + incompatibleClusterStateDiffReceivedCount
             + ", compatible=" + compatibleClusterStateDiffReceivedCount
+            + ", serializedFull=" + fullClusterStateSerializedCount
+            + ", serializedDiffs=" + clusterStateDiffSerializedCount
+            + ", serializationTime=" + serializationTimeMillis
             + ")";
     }
 }
@@ -63,11 +63,13 @@ import java.io.IOException;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -772,6 +774,14 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContentFragmen
     }
 
     public static IndexMetaData readFrom(StreamInput in) throws IOException {
+        return readFrom(in, null);
+    }
+
+    /**
+     * Reads index metadata written by {@link #writeTo(StreamOutput, boolean)}, resolving the mappings that were written by hash with
+     * the given lookup, or reading all mappings in full if the lookup is {@code null}.
+     */
+    static IndexMetaData readFrom(StreamInput in, @Nullable Function<String, MappingMetaData> mappingsByHash) throws IOException {
         Builder builder = new Builder(in.readString());
         builder.version(in.readLong());
         builder.mappingVersion(in.readVLong());
@@ -783,9 +793,19 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContentFragmen
         builder.state(State.fromId(in.readByte()));
         builder.settings(readSettingsFromStream(in));
         builder.primaryTerms(in.readVLongArray());
+        final boolean readMappingsByHash = mappingsByHash != null && in.readBoolean();
         int mappingsSize = in.readVInt();
         for (int i = 0; i < mappingsSize; i++) {
-            MappingMetaData mappingMd = new MappingMetaData(in);
+            final MappingMetaData mappingMd;
+            if (readMappingsByHash) {
+                final String hash = in.readString();
+                mappingMd = mappingsByHash.apply(hash);
+                if (mappingMd == null) {
+                    throw new IllegalStateException("unknown mapping [" + hash + "] for index [" + builder.index + "]");
+                }
+            } else {
+                mappingMd = new MappingMetaData(in);
+            }
             builder.putMapping(mappingMd);
         }
         int aliasesSize = in.readVInt();
@@ -814,6 +834,14 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContentFragmen
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        writeTo(out, false);
+    }
+
+    /**
+     * Writes this index metadata. If {@code mappingsByHash} is set the mappings are written as their hash if they can be shared with
+     * other indices, and the reader must know the mappings by their hash, see {@link #readFrom(StreamInput, Function)}.
+     */
+    void writeTo(StreamOutput out, boolean mappingsByHash) throws IOException {
         out.writeString(index.getName()); // uuid will come as part of settings
         out.writeLong(version);
         out.writeVLong(mappingVersion);
@@ -825,9 +853,17 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContentFragmen
         out.writeByte(state.id());
         writeSettingsToStream(settings, out);
         out.writeVLongArray(primaryTerms);
+        final boolean writeMappingsByHash = mappingsByHash && canShareMappings();
+        if (mappingsByHash) {
+            out.writeBoolean(writeMappingsByHash);
+        }
         out.writeVInt(mappings.size());
         for (ObjectCursor<MappingMetaData> cursor : mappings.values()) {
-            cursor.value.writeTo(out);
+            if (writeMappingsByHash) {
+                out.writeString(cursor.value.getSha256());
+            } else {
+                cursor.value.writeTo(out);
+            }
         }
         out.writeVInt(aliases.size());
         for (ObjectCursor<AliasMetaData> cursor : aliases.values()) {
@@ -849,6 +885,42 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContentFragmen
         }
     }
 
+    /**
+     * Whether the mappings of this index can be shared with other indices. The routing of the mappings of indices with a default mapping
+     * is updated from the default mapping, so they must not be shared.
+     */
+    boolean canShareMappings() {
+        return mappings.containsKey(MapperService.DEFAULT_MAPPING) == false;
+    }
+
+    /**
+     * Returns index metadata that refers to the mapping instances known by their hash instead of its own equal instances, registering
+     * its own mappings under their hash if there are none yet. Returns this instance if there is nothing to replace.
+     */
+    IndexMetaData deduplicateMappings(Map<String, MappingMetaData> mappingsByHash) {
+        if (canShareMappings() == false) {
+            return this;
+        }
+        ImmutableOpenMap.Builder<String, MappingMetaData> deduplicated = null;
+        for (ObjectObjectCursor<String, MappingMetaData> cursor : mappings) {
+            final MappingMetaData existing = mappingsByHash.putIfAbsent(cursor.value.getSha256(), cursor.value);
+            if (existing != null && existing != cursor.value) {
+                assert existing.equals(cursor.value) : "mappings with the same hash must be equal: " + existing + " vs " + cursor.value;
+                if (deduplicated == null) {
+                    deduplicated = ImmutableOpenMap.builder(mappings);
+                }
+                deduplicated.put(cursor.key, existing);
+            }
+        }
+        if (deduplicated == null) {
+            return this;
+        }
+        return new IndexMetaData(index, version, mappingVersion, settingsVersion, aliasesVersion, primaryTerms, state, numberOfShards,
+            numberOfReplicas, settings, deduplicated.build(), aliases, customData, inSyncAllocationIds, requireFilters,
+            initialRecoveryFilters, includeFilters, excludeFilters, indexCreatedVersion, indexUpgradedVersion, routingNumShards,
+            routingPartitionSize, waitForActiveShards, rolloverInfos);
+    }
+
     public static Builder builder(String index) {
         return new Builder(index);
     }
@@ -1105,8 +1177,15 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContentFragmen
             // update default mapping on the MappingMetaData
             if (mappings.containsKey(MapperService.DEFAULT_MAPPING)) {
                 MappingMetaData defaultMapping = mappings.get(MapperService.DEFAULT_MAPPING);
+                final List<MappingMetaData> updated = new ArrayList<>();
                 for (ObjectCursor<MappingMetaData> cursor : mappings.values()) {
-                    cursor.value.updateDefaultMapping(defaultMapping);
+                    final MappingMetaData mapping = cursor.value.withDefaultMapping(defaultMapping);
+                    if (mapping != cursor.value) {
+                        updated.add(mapping);
+                    }
+                }
+                for (MappingMetaData mapping : updated) {
+                    mappings.put(mapping.type(), mapping);
                 }
             }
 
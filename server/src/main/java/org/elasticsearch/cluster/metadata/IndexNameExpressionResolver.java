@@ -25,12 +25,17 @@ import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.time.DateMathParser;
 import org.elasticsearch.common.time.DateUtils;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexNotFoundException;
@@ -38,6 +43,7 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.indices.IndexClosedException;
 import org.elasticsearch.indices.InvalidIndexNameException;
 
+import java.lang.ref.WeakReference;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -59,9 +65,25 @@ import java.util.stream.StreamSupport;
 
 public class IndexNameExpressionResolver {
 
+    /**
+     * The maximum estimated size in bytes of the cached concrete indices resolutions and wildcard matches.
+     */
+    static final long MAX_CACHED_RESOLUTIONS_BYTES = new ByteSizeValue(1, ByteSizeUnit.MB).getBytes();
+
+    /**
+     * Cached resolutions that are not used for this long are dropped, like the ones of metadata that was garbage collected.
+     */
+    static final TimeValue CACHED_RESOLUTIONS_EXPIRE_AFTER_ACCESS = TimeValue.timeValueMinutes(5);
+
     private final DateMathExpressionResolver dateMathExpressionResolver = new DateMathExpressionResolver();
     private final List<ExpressionResolver> expressionResolvers = List.of(dateMathExpressionResolver, new WildcardExpressionResolver());
 
+    private final Cache<ResolutionKey, Object> resolutionCache = CacheBuilder.<ResolutionKey, Object>builder()
+        .setMaximumWeight(MAX_CACHED_RESOLUTIONS_BYTES)
+        .setExpireAfterAccess(CACHED_RESOLUTIONS_EXPIRE_AFTER_ACCESS)
+        .weigher((key, value) -> key.ramBytesUsed() + ResolutionKey.ramBytesUsed(value))
+        .build();
+
     /**
      * Same as {@link #concreteIndexNames(ClusterState, IndicesOptions, String...)}, but the index expressions and options
      * are encapsulated in the specified request.
@@ -147,6 +169,45 @@ public class IndexNameExpressionResolver {
         if (indexExpressions == null || indexExpressions.length == 0) {
             indexExpressions = new String[]{MetaData.ALL};
         }
+        for (String expression : indexExpressions) {
+            if (expression.indexOf('<') >= 0) {
+                // date math expressions resolve differently depending on the start time of the request, they can't be cached
+                return resolveConcreteIndices(context, indexExpressions);
+            }
+        }
+        final ConcreteIndicesKey key = new ConcreteIndicesKey(context, indexExpressions);
+        Index[] concreteIndices = (Index[]) resolutionCache.get(key);
+        if (concreteIndices == null) {
+            concreteIndices = resolveConcreteIndices(context, indexExpressions);
+            resolutionCache.put(key, concreteIndices);
+        }
+        // callers are free to modify the returned array
+        return concreteIndices.clone();
+    }
+
+    /**
+     * Returns the names of all the indices and aliases of the given metadata that match the given wildcard expression. The matches are
+     * cached per metadata instance.
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> resolveWildcardMatches(MetaData metaData, String expression) {
+        final WildcardMatchesKey key = new WildcardMatchesKey(metaData, expression);
+        Set<String> matches = (Set<String>) resolutionCache.get(key);
+        if (matches == null) {
+            matches = Collections.unmodifiableSet(new HashSet<>(WildcardExpressionResolver.matchingNames(metaData, expression)));
+            resolutionCache.put(key, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the cache of the resolutions, for testing.
+     */
+    Cache<ResolutionKey, Object> resolutionCache() {
+        return resolutionCache;
+    }
+
+    private Index[] resolveConcreteIndices(Context context, String... indexExpressions) {
         MetaData metaData = context.getState().metaData();
         IndicesOptions options = context.getOptions();
         final boolean failClosed = options.forbidClosedIndices() && options.ignoreUnavailable() == false;
@@ -252,6 +313,131 @@ public class IndexNameExpressionResolver {
         return concreteIndices.toArray(new Index[concreteIndices.size()]);
     }
 
+    /**
+     * The key of a resolution cached against a single instance of the metadata. The metadata version alone does not identify its content
+     * since the master resolves expressions against intermediate states that share the version of the last committed state, hence keys
+     * compare the metadata by identity. Entries of different metadata instances live side by side, so resolving against an intermediate
+     * state does not evict what was resolved against the applied state.
+     * <p>
+     * The metadata is only weakly referenced so that the cache doesn't keep the metadata of past cluster states alive. Once it is
+     * garbage collected the key no longer matches any lookup and its entry waits for eviction, which the weigher accounts for.
+     */
+    abstract static class ResolutionKey {
+        /**
+         * Rough per object overhead, in bytes, used to estimate the size of the cached entries.
+         */
+        private static final long OBJECT_OVERHEAD_BYTES = 32;
+
+        private final WeakReference<MetaData> metaData;
+        private final int metaDataHashCode;
+
+        ResolutionKey(MetaData metaData) {
+            this.metaData = new WeakReference<>(metaData);
+            this.metaDataHashCode = System.identityHashCode(metaData);
+        }
+
+        abstract long ramBytesUsed();
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final MetaData metaData = this.metaData.get();
+            return metaData != null && metaData == ((ResolutionKey) o).metaData.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return metaDataHashCode;
+        }
+
+        static long ramBytesUsed(String string) {
+            return OBJECT_OVERHEAD_BYTES + 2L * string.length();
+        }
+
+        static long ramBytesUsed(Object value) {
+            long bytes = OBJECT_OVERHEAD_BYTES;
+            if (value instanceof Index[]) {
+                for (Index index : (Index[]) value) {
+                    bytes += OBJECT_OVERHEAD_BYTES + ramBytesUsed(index.getName()) + ramBytesUsed(index.getUUID());
+                }
+            } else {
+                // the names are shared with the metadata, only the set entries are accounted for
+                bytes += OBJECT_OVERHEAD_BYTES * ((Set<?>) value).size();
+            }
+            return bytes;
+        }
+    }
+
+    private static final class ConcreteIndicesKey extends ResolutionKey {
+        private final List<String> expressions;
+        private final IndicesOptions options;
+        private final boolean preserveAliases;
+        private final boolean resolveToWriteIndex;
+
+        ConcreteIndicesKey(Context context, String[] expressions) {
+            super(context.getState().metaData());
+            this.expressions = List.of(expressions);
+            this.options = context.getOptions();
+            this.preserveAliases = context.isPreserveAliases();
+            this.resolveToWriteIndex = context.isResolveToWriteIndex();
+        }
+
+        @Override
+        long ramBytesUsed() {
+            long bytes = ResolutionKey.OBJECT_OVERHEAD_BYTES;
+            for (String expression : expressions) {
+                bytes += ramBytesUsed(expression);
+            }
+            return bytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (super.equals(o) == false) {
+                return false;
+            }
+            ConcreteIndicesKey that = (ConcreteIndicesKey) o;
+            return preserveAliases == that.preserveAliases
+                && resolveToWriteIndex == that.resolveToWriteIndex
+                && expressions.equals(that.expressions)
+                && options.equals(that.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), expressions, options, preserveAliases, resolveToWriteIndex);
+        }
+    }
+
+    private static final class WildcardMatchesKey extends ResolutionKey {
+        private final String expression;
+
+        WildcardMatchesKey(MetaData metaData, String expression) {
+            super(metaData);
+            this.expression = expression;
+        }
+
+        @Override
+        long ramBytesUsed() {
+            return ramBytesUsed(expression);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o) && expression.equals(((WildcardMatchesKey) o).expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + expression.hashCode();
+        }
+    }
+
     private static boolean addIndex(IndexMetaData metaData, Context context) {
         return (context.options.ignoreThrottled() && IndexSettings.INDEX_SEARCH_THROTTLED.get(metaData.getSettings())) == false;
     }
@@ -791,13 +977,32 @@ public class IndexNameExpressionResolver {
             }
         }
 
-        private static Map<String, AliasOrIndex> suffixWildcard(Context context, MetaData metaData, String expression) {
+        /**
+         * Returns the names of all the indices and aliases that match the given wildcard expression.
+         */
+        static Set<String> matchingNames(MetaData metaData, String expression) {
+            if (Regex.isMatchAllPattern(expression)) {
+                return metaData.getAliasAndIndexLookup().keySet();
+            } else if (expression.indexOf("*") == expression.length() - 1) {
+                return prefixSubMap(metaData, expression).keySet();
+            } else {
+                return metaData.getAliasAndIndexLookup().keySet().stream()
+                    .filter(name -> Regex.simpleMatch(expression, name))
+                    .collect(Collectors.toSet());
+            }
+        }
+
+        private static SortedMap<String, AliasOrIndex> prefixSubMap(MetaData metaData, String expression) {
             assert expression.length() >= 2 : "expression [" + expression + "] should have at least a length of 2";
             String fromPrefix = expression.substring(0, expression.length() - 1);
             char[] toPrefixCharArr = fromPrefix.toCharArray();
             toPrefixCharArr[toPrefixCharArr.length - 1]++;
             String toPrefix = new String(toPrefixCharArr);
-            SortedMap<String,AliasOrIndex> subMap = metaData.getAliasAndIndexLookup().subMap(fromPrefix, toPrefix);
+            return metaData.getAliasAndIndexLookup().subMap(fromPrefix, toPrefix);
+        }
+
+        private static Map<String, AliasOrIndex> suffixWildcard(Context context, MetaData metaData, String expression) {
+            SortedMap<String,AliasOrIndex> subMap = prefixSubMap(metaData, expression);
             if (context.getOptions().ignoreAliases()) {
                  return subMap.entrySet().stream()
                         .filter(entry -> entry.getValue().isAlias() == false)
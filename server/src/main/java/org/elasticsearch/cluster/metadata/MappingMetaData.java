@@ -24,6 +24,7 @@ import org.elasticsearch.cluster.AbstractDiffable;
 import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.hash.MessageDigests;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -32,6 +33,8 @@ import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.index.mapper.DocumentMapper;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Map;
 
 import static org.elasticsearch.common.xcontent.support.XContentMapValues.nodeBooleanValue;
@@ -77,6 +80,8 @@ public class MappingMetaData extends AbstractDiffable<MappingMetaData> {
 
     private Routing routing;
 
+    private volatile String sha256;
+
     public MappingMetaData(DocumentMapper docMapper) {
         this.type = docMapper.type();
         this.source = docMapper.mappingSource();
@@ -126,10 +131,21 @@ public class MappingMetaData extends AbstractDiffable<MappingMetaData> {
         }
     }
 
-    void updateDefaultMapping(MappingMetaData defaultMapping) {
-        if (routing == Routing.EMPTY) {
-            routing = defaultMapping.routing();
+    private MappingMetaData(String type, CompressedXContent source, Routing routing) {
+        this.type = type;
+        this.source = source;
+        this.routing = routing;
+    }
+
+    /**
+     * Returns this mapping with the routing of the given default mapping if it has none of its own. Mapping instances are shared
+     * between indices, so a copy is returned rather than updating this instance.
+     */
+    MappingMetaData withDefaultMapping(MappingMetaData defaultMapping) {
+        if (routing == Routing.EMPTY && defaultMapping.routing() != Routing.EMPTY) {
+            return new MappingMetaData(type, source, defaultMapping.routing());
         }
+        return this;
     }
 
     public String type() {
@@ -163,6 +179,23 @@ public class MappingMetaData extends AbstractDiffable<MappingMetaData> {
         return this.routing;
     }
 
+    /**
+     * Returns the hex encoded SHA-256 of the type, source and routing of this mapping. Mappings with the same hash are equal, which
+     * {@link MetaData} relies on to store and serialize the mappings that many indices have in common only once.
+     */
+    public String getSha256() {
+        String sha256 = this.sha256;
+        if (sha256 == null) {
+            final MessageDigest digest = MessageDigests.sha256();
+            digest.update(type.getBytes(StandardCharsets.UTF_8));
+            digest.update(source.compressed());
+            digest.update((byte) (routing.required() ? 1 : 0));
+            sha256 = MessageDigests.toHexString(digest.digest());
+            this.sha256 = sha256;
+        }
+        return sha256;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeString(type());
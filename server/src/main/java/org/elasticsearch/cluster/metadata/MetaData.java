@@ -25,6 +25,7 @@ import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.CollectionUtil;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.AliasesRequest;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterState.FeatureAware;
@@ -169,6 +170,7 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
     private final Settings persistentSettings;
     private final Settings settings;
     private final ImmutableOpenMap<String, IndexMetaData> indices;
+    private final ImmutableOpenMap<String, MappingMetaData> mappingsByHash;
     private final ImmutableOpenMap<String, IndexTemplateMetaData> templates;
     private final ImmutableOpenMap<String, Custom> customs;
 
@@ -183,9 +185,9 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
 
     MetaData(String clusterUUID, boolean clusterUUIDCommitted, long version, CoordinationMetaData coordinationMetaData,
              Settings transientSettings, Settings persistentSettings,
-             ImmutableOpenMap<String, IndexMetaData> indices, ImmutableOpenMap<String, IndexTemplateMetaData> templates,
-             ImmutableOpenMap<String, Custom> customs, String[] allIndices, String[] allOpenIndices, String[] allClosedIndices,
-             SortedMap<String, AliasOrIndex> aliasAndIndexLookup) {
+             ImmutableOpenMap<String, IndexMetaData> indices, ImmutableOpenMap<String, MappingMetaData> mappingsByHash,
+             ImmutableOpenMap<String, IndexTemplateMetaData> templates, ImmutableOpenMap<String, Custom> customs, String[] allIndices,
+             String[] allOpenIndices, String[] allClosedIndices, SortedMap<String, AliasOrIndex> aliasAndIndexLookup) {
         this.clusterUUID = clusterUUID;
         this.clusterUUIDCommitted = clusterUUIDCommitted;
         this.version = version;
@@ -194,6 +196,7 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
         this.persistentSettings = persistentSettings;
         this.settings = Settings.builder().put(persistentSettings).put(transientSettings).build();
         this.indices = indices;
+        this.mappingsByHash = mappingsByHash;
         this.customs = customs;
         this.templates = templates;
         int totalNumberOfShards = 0;
@@ -670,6 +673,14 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
         return indices();
     }
 
+    /**
+     * Returns the distinct mappings of all indices keyed by their {@link MappingMetaData#getSha256() hash}. Indices with equal mappings,
+     * like the indices created from the same template, share the same mapping instance.
+     */
+    public ImmutableOpenMap<String, MappingMetaData> getMappingsByHash() {
+        return mappingsByHash;
+    }
+
     public ImmutableOpenMap<String, IndexTemplateMetaData> templates() {
         return this.templates;
     }
@@ -886,9 +897,22 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
         builder.coordinationMetaData(new CoordinationMetaData(in));
         builder.transientSettings(readSettingsFromStream(in));
         builder.persistentSettings(readSettingsFromStream(in));
-        int size = in.readVInt();
-        for (int i = 0; i < size; i++) {
-            builder.put(IndexMetaData.readFrom(in), false);
+        int size;
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            size = in.readVInt();
+            final Map<String, MappingMetaData> mappingsByHash = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                mappingsByHash.put(in.readString(), new MappingMetaData(in));
+            }
+            size = in.readVInt();
+            for (int i = 0; i < size; i++) {
+                builder.put(IndexMetaData.readFrom(in, mappingsByHash::get), false);
+            }
+        } else {
+            size = in.readVInt();
+            for (int i = 0; i < size; i++) {
+                builder.put(IndexMetaData.readFrom(in), false);
+            }
         }
         size = in.readVInt();
         for (int i = 0; i < size; i++) {
@@ -910,9 +934,18 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
         coordinationMetaData.writeTo(out);
         writeSettingsToStream(transientSettings, out);
         writeSettingsToStream(persistentSettings, out);
+        final boolean writeMappingsByHash = out.getVersion().onOrAfter(Version.V_8_0_0);
+        if (writeMappingsByHash) {
+            // mappings that several indices have in common are written once, the indices refer to them by hash
+            out.writeVInt(mappingsByHash.size());
+            for (ObjectObjectCursor<String, MappingMetaData> cursor : mappingsByHash) {
+                out.writeString(cursor.key);
+                cursor.value.writeTo(out);
+            }
+        }
         out.writeVInt(indices.size());
         for (IndexMetaData indexMetaData : this) {
-            indexMetaData.writeTo(out);
+            indexMetaData.writeTo(out, writeMappingsByHash);
         }
         out.writeVInt(templates.size());
         for (ObjectCursor<IndexTemplateMetaData> cursor : templates.values()) {
@@ -955,11 +988,14 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
         private final ImmutableOpenMap.Builder<String, IndexTemplateMetaData> templates;
         private final ImmutableOpenMap.Builder<String, Custom> customs;
 
+        private final ImmutableOpenMap<String, MappingMetaData> previousMappingsByHash;
+
         public Builder() {
             clusterUUID = UNKNOWN_CLUSTER_UUID;
             indices = ImmutableOpenMap.builder();
             templates = ImmutableOpenMap.builder();
             customs = ImmutableOpenMap.builder();
+            previousMappingsByHash = ImmutableOpenMap.of();
             indexGraveyard(IndexGraveyard.builder().build()); // create new empty index graveyard to initialize
         }
 
@@ -973,6 +1009,7 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
             this.indices = ImmutableOpenMap.builder(metaData.indices);
             this.templates = ImmutableOpenMap.builder(metaData.templates);
             this.customs = ImmutableOpenMap.builder(metaData.customs);
+            this.previousMappingsByHash = metaData.mappingsByHash;
         }
 
         public Builder put(IndexMetaData.Builder indexMetaDataBuilder) {
@@ -1164,6 +1201,7 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
             final List<String> allOpenIndices = new ArrayList<>();
             final List<String> allClosedIndices = new ArrayList<>();
             final Set<String> duplicateAliasesIndices = new HashSet<>();
+            final ImmutableOpenMap<String, MappingMetaData> mappingsByHash = deduplicateMappings();
             for (ObjectCursor<IndexMetaData> cursor : indices.values()) {
                 final IndexMetaData indexMetaData = cursor.value;
                 final String name = indexMetaData.getIndex().getName();
@@ -1205,8 +1243,41 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
             String[] allClosedIndicesArray = allClosedIndices.toArray(new String[allClosedIndices.size()]);
 
             return new MetaData(clusterUUID, clusterUUIDCommitted, version, coordinationMetaData, transientSettings, persistentSettings,
-                    indices.build(), templates.build(), customs.build(), allIndicesArray, allOpenIndicesArray, allClosedIndicesArray,
-                    aliasAndIndexLookup);
+                    indices.build(), mappingsByHash, templates.build(), customs.build(), allIndicesArray, allOpenIndicesArray,
+                    allClosedIndicesArray, aliasAndIndexLookup);
+        }
+
+        /**
+         * Makes all indices with equal mappings refer to the same mapping instances. The map is seeded with the mappings of the metadata
+         * this builder was created from, so that the indices that did not change keep their instances and are not rebuilt, and only the
+         * hashes that are still in use are kept.
+         */
+        private ImmutableOpenMap<String, MappingMetaData> deduplicateMappings() {
+            final Map<String, MappingMetaData> mappingsByHash = new HashMap<>(previousMappingsByHash.size());
+            for (ObjectObjectCursor<String, MappingMetaData> cursor : previousMappingsByHash) {
+                mappingsByHash.put(cursor.key, cursor.value);
+            }
+            final Set<String> usedHashes = new HashSet<>();
+            final List<IndexMetaData> deduplicated = new ArrayList<>();
+            for (ObjectCursor<IndexMetaData> cursor : indices.values()) {
+                final IndexMetaData indexMetaData = cursor.value.deduplicateMappings(mappingsByHash);
+                if (indexMetaData != cursor.value) {
+                    deduplicated.add(indexMetaData);
+                }
+                if (indexMetaData.canShareMappings()) {
+                    for (ObjectCursor<MappingMetaData> mapping : indexMetaData.getMappings().values()) {
+                        usedHashes.add(mapping.value.getSha256());
+                    }
+                }
+            }
+            for (IndexMetaData indexMetaData : deduplicated) {
+                indices.put(indexMetaData.getIndex().getName(), indexMetaData);
+            }
+            final ImmutableOpenMap.Builder<String, MappingMetaData> builder = ImmutableOpenMap.builder(usedHashes.size());
+            for (String hash : usedHashes) {
+                builder.put(hash, mappingsByHash.get(hash));
+            }
+            return builder.build();
         }
 
         private SortedMap<String, AliasOrIndex> buildAliasAndIndexLookup() {
@@ -364,6 +364,11 @@ public class MetaDataMappingService {
             }
         }
 
+        @Override
+        public boolean allowsChaining() {
+            return true;
+        }
+
         @Override
         public String describeTasks(List<PutMappingClusterStateUpdateRequest> tasks) {
             return String.join(", ", tasks.stream().map(t -> (CharSequence)t.type())::iterator);
@@ -51,6 +51,13 @@ public class RoutingNode implements Iterable<ShardRouting> {
         this.shards = shards;
     }
 
+    /**
+     * Returns a copy of this routing node that can be modified independently.
+     */
+    RoutingNode copy() {
+        return new RoutingNode(nodeId, node, new LinkedHashMap<>(shards));
+    }
+
     private static LinkedHashMap<ShardId, ShardRouting> buildShardRoutingMap(ShardRouting... shardRoutings) {
         final LinkedHashMap<ShardId, ShardRouting> shards = new LinkedHashMap<>();
         for (ShardRouting shardRouting : shardRoutings) {
@@ -147,6 +147,32 @@ public class RoutingNodes implements Iterable<RoutingNode> {
         }
     }
 
+    /**
+     * Creates a copy of the given routing nodes, which is much cheaper than building them from the routing table again. The shards
+     * that the given routing nodes temporarily ignore are unassigned in the copy, like they are in the routing table built from them.
+     */
+    public RoutingNodes(RoutingNodes routingNodes, boolean readOnly) {
+        this.readOnly = readOnly;
+        for (Map.Entry<String, RoutingNode> entry : routingNodes.nodesToShards.entrySet()) {
+            nodesToShards.put(entry.getKey(), entry.getValue().copy());
+        }
+        for (ShardRouting shard : routingNodes.unassignedShards.unassigned) {
+            unassignedShards.add(shard);
+        }
+        for (ShardRouting shard : routingNodes.unassignedShards.ignored) {
+            unassignedShards.add(shard);
+        }
+        for (Map.Entry<ShardId, List<ShardRouting>> entry : routingNodes.assignedShards.entrySet()) {
+            assignedShards.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        for (Map.Entry<String, Recoveries> entry : routingNodes.recoveriesPerNode.entrySet()) {
+            recoveriesPerNode.put(entry.getKey(), entry.getValue().copy());
+        }
+        this.inactivePrimaryCount = routingNodes.inactivePrimaryCount;
+        this.inactiveShardCount = routingNodes.inactiveShardCount;
+        this.relocatingShards = routingNodes.relocatingShards;
+    }
+
     private void addRecovery(ShardRouting routing) {
         updateRecoveryCounts(routing, true, findAssignedPrimaryIfPeerRecovery(routing));
     }
@@ -1184,6 +1210,13 @@ public class RoutingNodes implements Iterable<RoutingNode> {
             return incoming;
         }
 
+        Recoveries copy() {
+            final Recoveries copy = new Recoveries();
+            copy.incoming = incoming;
+            copy.outgoing = outgoing;
+            return copy;
+        }
+
         public static Recoveries getOrAdd(Map<String, Recoveries> map, String key) {
             Recoveries recoveries = map.get(key);
             if (recoveries == null) {
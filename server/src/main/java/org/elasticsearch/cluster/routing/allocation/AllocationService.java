@@ -30,6 +30,7 @@ import org.elasticsearch.cluster.health.ClusterStateHealth;
 import org.elasticsearch.cluster.metadata.AutoExpandReplicas;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.RoutingNode;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
@@ -45,6 +46,7 @@ import org.elasticsearch.gateway.GatewayAllocator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -71,6 +73,12 @@ public class AllocationService {
     private final ShardsAllocator shardsAllocator;
     private final ClusterInfoService clusterInfoService;
 
+    /**
+     * The routing nodes the last routing table computed by this service was built from. Building routing nodes from the routing table
+     * is costly on large clusters, so the next allocation round copies these instead if it starts from that very routing table.
+     */
+    private volatile LastRoutingNodes lastRoutingNodes;
+
     public AllocationService(AllocationDeciders allocationDeciders,
                              GatewayAllocator gatewayAllocator,
                              ShardsAllocator shardsAllocator, ClusterInfoService clusterInfoService) {
@@ -145,7 +153,9 @@ public class AllocationService {
                 newStateBuilder.customs(customsBuilder.build());
             }
         }
-        return newStateBuilder.build();
+        final ClusterState newState = newStateBuilder.build();
+        lastRoutingNodes = new LastRoutingNodes(newState.routingTable(), newState.nodes(), newRoutingNodes);
+        return newState;
     }
 
     // Used for testing
@@ -377,6 +387,7 @@ public class AllocationService {
         allocation.debugDecision(debug);
         reroute(allocation);
         if (fixedClusterState == clusterState && allocation.routingNodesChanged() == false) {
+            lastRoutingNodes = new LastRoutingNodes(clusterState.routingTable(), clusterState.nodes(), routingNodes);
             return clusterState;
         }
         return buildResultAndLogHealthChange(clusterState, allocation, reason);
@@ -451,10 +462,45 @@ public class AllocationService {
     }
 
     private RoutingNodes getMutableRoutingNodes(ClusterState clusterState) {
+        final LastRoutingNodes last = lastRoutingNodes;
+        if (last != null && last.routingTable == clusterState.routingTable() && last.nodes == clusterState.nodes()) {
+            final RoutingNodes routingNodes = new RoutingNodes(last.routingNodes, false);
+            assert sameRoutingNodes(routingNodes, new RoutingNodes(clusterState, false));
+            return routingNodes;
+        }
         RoutingNodes routingNodes = new RoutingNodes(clusterState, false); // this is a costly operation - only call this once!
         return routingNodes;
     }
 
+    private static boolean sameRoutingNodes(RoutingNodes copied, RoutingNodes built) {
+        assert copied.size() == built.size() : "expected [" + built.size() + "] nodes but got [" + copied.size() + "]";
+        for (RoutingNode node : built) {
+            final RoutingNode copiedNode = copied.node(node.nodeId());
+            assert copiedNode != null : "missing node [" + node.nodeId() + "]";
+            assert new HashSet<>(copiedNode.copyShards()).equals(new HashSet<>(node.copyShards()))
+                : "expected shards " + node.copyShards() + " on node [" + node.nodeId() + "] but got " + copiedNode.copyShards();
+        }
+        assert copied.unassigned().size() == built.unassigned().size()
+            : "expected [" + built.unassigned().size() + "] unassigned shards but got [" + copied.unassigned().size() + "]";
+        assert RoutingNodes.assertShardStats(copied);
+        return true;
+    }
+
+    /**
+     * Routing nodes together with the routing table and the nodes they are equivalent to.
+     */
+    private static final class LastRoutingNodes {
+        private final RoutingTable routingTable;
+        private final DiscoveryNodes nodes;
+        private final RoutingNodes routingNodes;
+
+        LastRoutingNodes(RoutingTable routingTable, DiscoveryNodes nodes, RoutingNodes routingNodes) {
+            this.routingTable = routingTable;
+            this.nodes = nodes;
+            this.routingNodes = routingNodes;
+        }
+    }
+
     /** override this to control time based decisions during allocation */
     protected long currentNanoTime() {
         return System.nanoTime();
@@ -50,6 +50,7 @@ import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.gateway.PriorityComparator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -59,6 +60,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
 
@@ -70,6 +72,8 @@ import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
  * for shards allocated on a {@link RoutingNode}</li>
  * <li><code>cluster.routing.allocation.balance.index</code> - The <b>index balance</b> defines a factor to the number
  * of {@link org.elasticsearch.cluster.routing.ShardRouting}s per index allocated on a specific node</li>
+ * <li><code>cluster.routing.allocation.balance.disk_usage</code> - The <b>disk usage balance</b> defines a factor to the
+ * size of the shards allocated on a specific node, as reported by the {@link org.elasticsearch.cluster.ClusterInfo}</li>
  * <li><code>cluster.routing.allocation.balance.threshold</code> - A <b>threshold</b> to set the minimal optimization
  * value of operations that should be performed</li>
  * </ul>
@@ -85,6 +89,8 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         Setting.floatSetting("cluster.routing.allocation.balance.index", 0.55f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> SHARD_BALANCE_FACTOR_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.shard", 0.45f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> DISK_USAGE_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.disk_usage", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> THRESHOLD_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.threshold", 1.0f, 0.0f,
             Property.Dynamic, Property.NodeScope);
@@ -98,14 +104,16 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Inject
     public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings) {
-        setWeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings));
+        setWeightFunction(settings);
         setThreshold(THRESHOLD_SETTING.get(settings));
-        clusterSettings.addSettingsUpdateConsumer(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, this::setWeightFunction);
+        clusterSettings.addSettingsUpdateConsumer(this::setWeightFunction,
+            Arrays.asList(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, DISK_USAGE_BALANCE_FACTOR_SETTING));
         clusterSettings.addSettingsUpdateConsumer(THRESHOLD_SETTING, this::setThreshold);
     }
 
-    private void setWeightFunction(float indexBalance, float shardBalanceFactor) {
-        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor);
+    private void setWeightFunction(Settings settings) {
+        weightFunction = new WeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings),
+            DISK_USAGE_BALANCE_FACTOR_SETTING.get(settings));
     }
 
     private void setThreshold(float threshold) {
@@ -162,6 +170,13 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         return weightFunction.shardBalance;
     }
 
+    /**
+     * Returns the disk usage related weight factor.
+     */
+    public float getDiskUsageBalance() {
+        return weightFunction.diskUsageBalance;
+    }
+
 
     /**
      * This class is the primary weight function used to create balanced over nodes and shards in the cluster.
@@ -169,6 +184,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * <ul>
      * <li><code>index balance</code> - balance property over shards per index</li>
      * <li><code>shard balance</code> - balance property over shards per cluster</li>
+     * <li><code>disk usage balance</code> - balance property over the size of the shards per cluster</li>
      * </ul>
      * <p>
      * Each of these properties are expressed as factor such that the properties factor defines the relative
@@ -184,44 +200,79 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * <li>
      * <code>weight<sub>node</sub>(node, index) = shardBalance * (node.numShards() - avgShardsPerNode)</code>
      * </li>
+     * <li>
+     * <code>weight<sub>disk</sub>(node, index) = diskUsageBalance * (node.diskUsage() - avgDiskUsagePerNode) / avgShardSize</code>
+     * </li>
      * </ul>
-     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)</code>
+     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)
+     * + weight<sub>disk</sub>(node, index)</code>
+     * <p>
+     * The disk usage of a node is the sum of the sizes of the shards allocated to it. Dividing it by the average shard size expresses
+     * it in shards, so that it is comparable to the other properties and to the threshold. Adding or removing a shard changes the
+     * disk usage of a node by the size of that shard if it is known, or by the average shard size of its index otherwise.
+     * </p>
      */
     public static class WeightFunction {
 
         private final float indexBalance;
         private final float shardBalance;
+        private final float diskUsageBalance;
         private final float theta0;
         private final float theta1;
+        private final float theta2;
 
 
         public WeightFunction(float indexBalance, float shardBalance) {
-            float sum = indexBalance + shardBalance;
+            this(indexBalance, shardBalance, 0.0f);
+        }
+
+        public WeightFunction(float indexBalance, float shardBalance, float diskUsageBalance) {
+            float sum = indexBalance + shardBalance + diskUsageBalance;
             if (sum <= 0.0f) {
                 throw new IllegalArgumentException("Balance factors must sum to a value > 0 but was: " + sum);
             }
             theta0 = shardBalance / sum;
             theta1 = indexBalance / sum;
+            theta2 = diskUsageBalance / sum;
             this.indexBalance = indexBalance;
             this.shardBalance = shardBalance;
+            this.diskUsageBalance = diskUsageBalance;
+        }
+
+        /**
+         * Returns <code>true</code> if the weights depend on the size of the shards.
+         */
+        boolean usesDiskUsage() {
+            return theta2 > 0.0f;
         }
 
         public float weight(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, 0);
+            return weight(balancer, node, index, 0, 0);
         }
 
         public float weightShardAdded(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, 1);
+            return weight(balancer, node, index, 1, balancer.avgShardSize(index));
         }
 
         public float weightShardRemoved(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, -1);
+            return weight(balancer, node, index, -1, -balancer.avgShardSize(index));
+        }
+
+        public float weightShardAdded(Balancer balancer, ModelNode node, ShardRouting shard) {
+            return weight(balancer, node, shard.getIndexName(), 1, balancer.shardSize(shard));
+        }
+
+        public float weightShardRemoved(Balancer balancer, ModelNode node, ShardRouting shard) {
+            return weight(balancer, node, shard.getIndexName(), -1, -balancer.shardSize(shard));
         }
 
-        private float weight(Balancer balancer, ModelNode node, String index, int numAdditionalShards) {
+        private float weight(Balancer balancer, ModelNode node, String index, int numAdditionalShards, double additionalDiskUsage) {
             final float weightShard = node.numShards() + numAdditionalShards - balancer.avgShardsPerNode();
             final float weightIndex = node.numShards(index) + numAdditionalShards - balancer.avgShardsPerNode(index);
-            return theta0 * weightShard + theta1 * weightIndex;
+            final float weightDiskUsage = balancer.avgShardSize() > 0
+                ? (float) ((node.diskUsage() + additionalDiskUsage - balancer.avgDiskUsagePerNode()) / balancer.avgShardSize())
+                : 0.0f;
+            return theta0 * weightShard + theta1 * weightIndex + theta2 * weightDiskUsage;
         }
     }
 
@@ -238,6 +289,9 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final float threshold;
         private final MetaData metaData;
         private final float avgShardsPerNode;
+        private final Map<String, Long> diskUsagePerIndex;
+        private final double avgDiskUsagePerNode;
+        private final double avgShardSize;
         private final NodeSorter sorter;
 
         public Balancer(Logger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
@@ -248,10 +302,37 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             this.routingNodes = allocation.routingNodes();
             this.metaData = allocation.metaData();
             avgShardsPerNode = ((float) metaData.getTotalNumberOfShards()) / routingNodes.size();
+            diskUsagePerIndex = weight.usesDiskUsage() ? diskUsagePerIndex() : Collections.emptyMap();
+            final long totalDiskUsage = diskUsagePerIndex.values().stream().mapToLong(Long::longValue).sum();
+            avgDiskUsagePerNode = ((double) totalDiskUsage) / routingNodes.size();
+            avgShardSize = metaData.getTotalNumberOfShards() == 0 ? 0 : ((double) totalDiskUsage) / metaData.getTotalNumberOfShards();
             nodes = Collections.unmodifiableMap(buildModelFromAssigned());
             sorter = newNodeSorter();
         }
 
+        /**
+         * Sums up the expected size of all shards of each index, assigned or not.
+         */
+        private Map<String, Long> diskUsagePerIndex() {
+            final Map<String, Long> diskUsagePerIndex = new HashMap<>();
+            final ToLongFunction<ShardRouting> shardSizes = shard -> DiskThresholdDecider.getExpectedShardSize(shard, allocation, 0);
+            for (RoutingNode routingNode : routingNodes) {
+                for (ShardRouting shard : routingNode) {
+                    /* relocating shards are accounted for by their initializing target */
+                    if (shard.state() != RELOCATING) {
+                        diskUsagePerIndex.merge(shard.getIndexName(), shardSizes.applyAsLong(shard), Long::sum);
+                    }
+                }
+            }
+            for (ShardRouting shard : routingNodes.unassigned()) {
+                diskUsagePerIndex.merge(shard.getIndexName(), shardSizes.applyAsLong(shard), Long::sum);
+            }
+            for (ShardRouting shard : routingNodes.unassigned().ignored()) {
+                diskUsagePerIndex.merge(shard.getIndexName(), shardSizes.applyAsLong(shard), Long::sum);
+            }
+            return diskUsagePerIndex;
+        }
+
         /**
          * Returns an array view on the nodes in the balancer. Nodes should not be removed from this list.
          */
@@ -273,6 +354,35 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return avgShardsPerNode;
         }
 
+        /**
+         * Returns the global average of the disk usage per node in bytes, or {@code 0} if disk usage isn't balanced
+         */
+        public double avgDiskUsagePerNode() {
+            return avgDiskUsagePerNode;
+        }
+
+        /**
+         * Returns the global average shard size in bytes, or {@code 0} if disk usage isn't balanced
+         */
+        public double avgShardSize() {
+            return avgShardSize;
+        }
+
+        /**
+         * Returns the average shard size in bytes of the given index, or {@code 0} if disk usage isn't balanced
+         */
+        public double avgShardSize(String index) {
+            final Long diskUsage = diskUsagePerIndex.get(index);
+            return diskUsage == null ? 0 : ((double) diskUsage) / metaData.index(index).getTotalNumberOfShards();
+        }
+
+        /**
+         * Returns the expected size in bytes of the given shard, or {@code 0} if disk usage isn't balanced
+         */
+        public long shardSize(ShardRouting shard) {
+            return weight.usesDiskUsage() ? DiskThresholdDecider.getExpectedShardSize(shard, allocation, 0) : 0;
+        }
+
         /**
          * Returns a new {@link NodeSorter} that sorts the nodes based on their
          * current weight with respect to the index passed to the sorter. The
@@ -391,10 +501,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                     // the gains make it worth it, as defined by the threshold
                     boolean deltaAboveThreshold = lessThan(currentDelta, threshold) == false;
                     // simulate the weight of the node if we were to relocate the shard to it
-                    float weightWithShardAdded = weight.weightShardAdded(this, node, idxName);
+                    float weightWithShardAdded = weight.weightShardAdded(this, node, shard);
                     // calculate the delta of the weights of the two nodes if we were to add the shard to the
                     // node in question and move it away from the node that currently holds it.
-                    float proposedDelta = weightWithShardAdded - weight.weightShardRemoved(this, currentNode, idxName);
+                    float proposedDelta = weightWithShardAdded - weight.weightShardRemoved(this, currentNode, shard);
                     boolean betterWeightWithShardAdded = proposedDelta < currentDelta;
                     rebalanceConditionsMet = deltaAboveThreshold && betterWeightWithShardAdded;
                     // if the simulated weight delta with the shard moved away is better than the weight delta
@@ -721,7 +831,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private Map<String, ModelNode> buildModelFromAssigned() {
             Map<String, ModelNode> nodes = new HashMap<>();
             for (RoutingNode rn : routingNodes) {
-                ModelNode node = new ModelNode(rn);
+                ModelNode node = new ModelNode(rn, this::shardSize);
                 nodes.put(rn.nodeId(), node);
                 for (ShardRouting shard : rn) {
                     assert rn.nodeId().equals(shard.currentNodeId());
@@ -896,7 +1006,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
 
                 // simulate weight if we would add shard to node
-                float currentWeight = weight.weightShardAdded(this, node, shard.getIndexName());
+                float currentWeight = weight.weightShardAdded(this, node, shard);
                 // moving the shard would not improve the balance, and we are not in explain mode, so short circuit
                 if (currentWeight > minWeight && explain == false) {
                     continue;
@@ -988,9 +1098,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                         if (((allocationDecision.type() == Type.YES) || (allocationDecision.type() == Type.THROTTLE))
                                 && ((rebalanceDecision.type() == Type.YES) || (rebalanceDecision.type() == Type.THROTTLE))) {
                             if (maxNode.containsShard(shard)) {
-                                // simulate moving shard from maxNode to minNode
-                                final float delta = weight.weightShardAdded(
-                                    this, minNode, idx) - weight.weightShardRemoved(this, maxNode, idx);
+                                // simulate moving shard from maxNode to minNode, the delta is the weight difference between
+                                // both nodes after the move which sets shards of different sizes apart if disk usage is balanced
+                                final float delta = Math.abs(weight.weightShardAdded(
+                                    this, minNode, shard) - weight.weightShardRemoved(this, maxNode, shard));
                                 if (delta < minCost ||
                                         (candidate != null && Float.compare(delta, minCost) == 0 && candidate.id() > shard.id())) {
                                     /* this last line is a tie-breaker to make the shard allocation alg deterministic
@@ -1033,10 +1144,13 @@ public class BalancedShardsAllocator implements ShardsAllocator {
     static class ModelNode implements Iterable<ModelIndex> {
         private final Map<String, ModelIndex> indices = new HashMap<>();
         private int numShards = 0;
+        private long diskUsage = 0;
         private final RoutingNode routingNode;
+        private final ToLongFunction<ShardRouting> shardSizes;
 
-        ModelNode(RoutingNode routingNode) {
+        ModelNode(RoutingNode routingNode, ToLongFunction<ShardRouting> shardSizes) {
             this.routingNode = routingNode;
+            this.shardSizes = shardSizes;
         }
 
         public ModelIndex getIndex(String indexId) {
@@ -1060,6 +1174,13 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return index == null ? 0 : index.numShards();
         }
 
+        /**
+         * Returns the expected size in bytes of all shards allocated on this node
+         */
+        public long diskUsage() {
+            return diskUsage;
+        }
+
         public int highestPrimary(String index) {
             ModelIndex idx = indices.get(index);
             if (idx != null) {
@@ -1076,6 +1197,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             }
             index.addShard(shard);
             numShards++;
+            diskUsage += shardSizes.applyAsLong(shard);
         }
 
         public void removeShard(ShardRouting shard) {
@@ -1087,6 +1209,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
             }
             numShards--;
+            diskUsage -= shardSizes.applyAsLong(shard);
         }
 
         @Override
@@ -20,6 +20,7 @@
 package org.elasticsearch.cluster.routing.allocation.decider;
 
 import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeFilters;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.RoutingNode;
@@ -29,6 +30,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 
 import java.util.EnumSet;
 import java.util.Map;
@@ -96,6 +98,13 @@ public class FilterAllocationDecider extends AllocationDecider {
     private volatile DiscoveryNodeFilters clusterIncludeFilters;
     private volatile DiscoveryNodeFilters clusterExcludeFilters;
 
+    /**
+     * The outcome of the cluster filters per node id. The cluster filters only depend on the node and the cluster settings, both of
+     * which rarely change, yet they are checked for every shard and node on every reroute, so we reuse the outcome across reroutes for
+     * as long as the node and the filters are the same instances.
+     */
+    private final Map<String, ClusterFilterMatch> clusterFilterMatches = ConcurrentCollections.newConcurrentMap();
+
     public FilterAllocationDecider(Settings settings, ClusterSettings clusterSettings) {
         setClusterRequireFilters(CLUSTER_ROUTING_REQUIRE_GROUP_SETTING.getAsMap(settings));
         setClusterExcludeFilters(CLUSTER_ROUTING_EXCLUDE_GROUP_SETTING.getAsMap(settings));
@@ -178,34 +187,77 @@ public class FilterAllocationDecider extends AllocationDecider {
     }
 
     private Decision shouldClusterFilter(RoutingNode node, RoutingAllocation allocation) {
-        if (clusterRequireFilters != null) {
-            if (clusterRequireFilters.match(node.node()) == false) {
-                return allocation.decision(Decision.NO, NAME, "node does not match cluster setting [%s] filters [%s]",
-                    CLUSTER_ROUTING_REQUIRE_GROUP_PREFIX, clusterRequireFilters);
-            }
+        final DiscoveryNodeFilters requireFilters = clusterRequireFilters;
+        final DiscoveryNodeFilters includeFilters = clusterIncludeFilters;
+        final DiscoveryNodeFilters excludeFilters = clusterExcludeFilters;
+        ClusterFilterMatch match = clusterFilterMatches.get(node.nodeId());
+        if (match == null || match.isValidFor(node.node(), requireFilters, includeFilters, excludeFilters) == false) {
+            match = new ClusterFilterMatch(node.node(), requireFilters, includeFilters, excludeFilters);
+            clusterFilterMatches.put(node.nodeId(), match);
         }
-        if (clusterIncludeFilters != null) {
-            if (clusterIncludeFilters.match(node.node()) == false) {
+        switch (match.failure) {
+            case REQUIRE:
+                return allocation.decision(Decision.NO, NAME, "node does not match cluster setting [%s] filters [%s]",
+                    CLUSTER_ROUTING_REQUIRE_GROUP_PREFIX, requireFilters);
+            case INCLUDE:
                 return allocation.decision(Decision.NO, NAME, "node does not cluster setting [%s] filters [%s]",
-                    CLUSTER_ROUTING_INCLUDE_GROUP_PREFIX, clusterIncludeFilters);
-            }
-        }
-        if (clusterExcludeFilters != null) {
-            if (clusterExcludeFilters.match(node.node())) {
+                    CLUSTER_ROUTING_INCLUDE_GROUP_PREFIX, includeFilters);
+            case EXCLUDE:
                 return allocation.decision(Decision.NO, NAME, "node matches cluster setting [%s] filters [%s]",
-                    CLUSTER_ROUTING_EXCLUDE_GROUP_PREFIX, clusterExcludeFilters);
-            }
+                    CLUSTER_ROUTING_EXCLUDE_GROUP_PREFIX, excludeFilters);
+            default:
+                return null;
         }
-        return null;
     }
 
     private void setClusterRequireFilters(Map<String, String> filters) {
         clusterRequireFilters = DiscoveryNodeFilters.buildFromKeyValue(AND, filters);
+        clusterFilterMatches.clear();
     }
     private void setClusterIncludeFilters(Map<String, String> filters) {
         clusterIncludeFilters = DiscoveryNodeFilters.buildFromKeyValue(OR, filters);
+        clusterFilterMatches.clear();
     }
     private void setClusterExcludeFilters(Map<String, String> filters) {
         clusterExcludeFilters = DiscoveryNodeFilters.buildFromKeyValue(OR, filters);
+        clusterFilterMatches.clear();
+    }
+
+    private enum ClusterFilterFailure {
+        NONE, REQUIRE, INCLUDE, EXCLUDE
+    }
+
+    /**
+     * The outcome of matching a node against the cluster filters, valid for as long as the node and the filters are the same instances.
+     */
+    private static final class ClusterFilterMatch {
+        private final DiscoveryNode node;
+        private final DiscoveryNodeFilters requireFilters;
+        private final DiscoveryNodeFilters includeFilters;
+        private final DiscoveryNodeFilters excludeFilters;
+        private final ClusterFilterFailure failure;
+
+        ClusterFilterMatch(DiscoveryNode node, DiscoveryNodeFilters requireFilters, DiscoveryNodeFilters includeFilters,
+                           DiscoveryNodeFilters excludeFilters) {
+            this.node = node;
+            this.requireFilters = requireFilters;
+            this.includeFilters = includeFilters;
+            this.excludeFilters = excludeFilters;
+            if (requireFilters != null && requireFilters.match(node) == false) {
+                failure = ClusterFilterFailure.REQUIRE;
+            } else if (includeFilters != null && includeFilters.match(node) == false) {
+                failure = ClusterFilterFailure.INCLUDE;
+            } else if (excludeFilters != null && excludeFilters.match(node)) {
+                failure = ClusterFilterFailure.EXCLUDE;
+            } else {
+                failure = ClusterFilterFailure.NONE;
+            }
+        }
+
+        boolean isValidFor(DiscoveryNode node, DiscoveryNodeFilters requireFilters, DiscoveryNodeFilters includeFilters,
+                           DiscoveryNodeFilters excludeFilters) {
+            return this.node == node && this.requireFilters == requireFilters && this.includeFilters == includeFilters
+                && this.excludeFilters == excludeFilters;
+        }
     }
 }
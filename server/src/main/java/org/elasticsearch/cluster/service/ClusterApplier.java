@@ -39,6 +39,11 @@ public interface ClusterApplier {
      */
     void onNewClusterState(String source, Supplier<ClusterState> clusterStateSupplier, ClusterApplyListener listener);
 
+    /**
+     * Returns stats about the cluster states applied so far.
+     */
+    ClusterApplierStats stats();
+
     /**
      * Listener for results of cluster state application
      */
@@ -36,7 +36,10 @@ import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
@@ -47,10 +50,13 @@ import org.elasticsearch.common.util.iterable.Iterables;
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -71,11 +77,25 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
 
     public static final String CLUSTER_UPDATE_THREAD_NAME = "clusterApplierService#updateTask";
 
+    /**
+     * Whether new cluster states that queue up while an earlier one is being applied are collapsed into the latest of them, so that
+     * the appliers and listeners are called once with the combined change rather than once per intermediate state.
+     */
+    public static final Setting<Boolean> CLUSTER_APPLIER_COLLAPSE_PENDING_STATES_SETTING =
+        Setting.boolSetting("cluster.service.applier.collapse_pending_states", false, Setting.Property.NodeScope);
+
     private final ClusterSettings clusterSettings;
     protected final ThreadPool threadPool;
 
     private volatile TimeValue slowTaskLoggingThreshold;
 
+    private final boolean collapsePendingStates;
+    private final Queue<PendingClusterState> pendingClusterStates = ConcurrentCollections.newQueue();
+
+    private final CounterMetric appliedStates = new CounterMetric();
+    private final CounterMetric collapsedStates = new CounterMetric();
+    private final Map<String, MeanMetric> applierTimes = ConcurrentCollections.newConcurrentMap();
+
     private volatile PrioritizedEsThreadPoolExecutor threadPoolExecutor;
 
     /**
@@ -106,6 +126,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         this.threadPool = threadPool;
         this.state = new AtomicReference<>();
         this.slowTaskLoggingThreshold = CLUSTER_SERVICE_SLOW_TASK_LOGGING_THRESHOLD_SETTING.get(settings);
+        this.collapsePendingStates = CLUSTER_APPLIER_COLLAPSE_PENDING_STATES_SETTING.get(settings);
         this.localNodeMasterListeners = new LocalNodeMasterListeners(threadPool);
         this.nodeName = nodeName;
     }
@@ -319,6 +340,12 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
     @Override
     public void onNewClusterState(final String source, final Supplier<ClusterState> clusterStateSupplier,
                                   final ClusterApplyListener listener) {
+        if (collapsePendingStates) {
+            final PendingClusterState pendingClusterState = new PendingClusterState(source, clusterStateSupplier, listener);
+            pendingClusterStates.add(pendingClusterState);
+            submitStateUpdateTask(source, ClusterStateTaskConfig.build(Priority.HIGH), pendingClusterState, pendingClusterState);
+            return;
+        }
         Function<ClusterState, ClusterState> applyFunction = currentState -> {
             ClusterState nextState = clusterStateSupplier.get();
             if (nextState != null) {
@@ -330,6 +357,70 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         submitStateUpdateTask(source, ClusterStateTaskConfig.build(Priority.HIGH), applyFunction, listener);
     }
 
+    @Override
+    public ClusterApplierStats stats() {
+        final List<ClusterApplierStats.Recording> recordings = new ArrayList<>(applierTimes.size());
+        applierTimes.forEach((name, metric) ->
+            recordings.add(new ClusterApplierStats.Recording(name, metric.count(), TimeUnit.NANOSECONDS.toMillis(metric.sum()))));
+        recordings.sort(Comparator.comparingLong(ClusterApplierStats.Recording::getExecutionTimeMillis).reversed()
+            .thenComparing(ClusterApplierStats.Recording::getName));
+        return new ClusterApplierStats(appliedStates.count(), collapsedStates.count(), recordings);
+    }
+
+    /**
+     * A new cluster state submitted while {@link #CLUSTER_APPLIER_COLLAPSE_PENDING_STATES_SETTING} is enabled. The first task to run
+     * drains all the states queued so far and applies the latest of them on behalf of all of them, notifying all their listeners once
+     * it is applied. The tasks of the drained states find their state already applied when they run, and do nothing.
+     */
+    private class PendingClusterState implements Function<ClusterState, ClusterState>, ClusterApplyListener {
+        private final String source;
+        private final Supplier<ClusterState> clusterStateSupplier;
+        private final ClusterApplyListener listener;
+        private final List<PendingClusterState> batch = new ArrayList<>();
+
+        PendingClusterState(String source, Supplier<ClusterState> clusterStateSupplier, ClusterApplyListener listener) {
+            this.source = source;
+            this.clusterStateSupplier = clusterStateSupplier;
+            this.listener = new SafeClusterApplyListener(listener, logger);
+        }
+
+        @Override
+        public ClusterState apply(ClusterState currentState) {
+            assert batch.isEmpty() : "pending cluster state [" + source + "] applied twice";
+            PendingClusterState pendingClusterState;
+            while ((pendingClusterState = pendingClusterStates.poll()) != null) {
+                batch.add(pendingClusterState);
+            }
+            if (batch.size() > 1) {
+                logger.debug("collapsing [{}] pending cluster states into the one from [{}]", batch.size(),
+                    batch.get(batch.size() - 1).source);
+                collapsedStates.inc(batch.size() - 1);
+            }
+            // states are queued in the order they were submitted, so the last one that supplies a state supersedes all the others
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                final ClusterState nextState = batch.get(i).clusterStateSupplier.get();
+                if (nextState != null) {
+                    return nextState;
+                }
+            }
+            return currentState;
+        }
+
+        @Override
+        public void onSuccess(String source) {
+            for (PendingClusterState pendingClusterState : batch) {
+                pendingClusterState.listener.onSuccess(pendingClusterState.source);
+            }
+        }
+
+        @Override
+        public void onFailure(String source, Exception e) {
+            for (PendingClusterState pendingClusterState : batch) {
+                pendingClusterState.listener.onFailure(pendingClusterState.source, e);
+            }
+        }
+    }
+
     private void submitStateUpdateTask(final String source, final ClusterStateTaskConfig config,
                                        final Function<ClusterState, ClusterState> executor,
                                        final ClusterApplyListener listener) {
@@ -462,6 +553,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
 
         logger.debug("apply cluster state with version {}", newClusterState.version());
         callClusterStateAppliers(clusterChangedEvent);
+        appliedStates.inc();
 
         nodeConnectionsService.disconnectFromNodesExcept(newClusterState.nodes());
 
@@ -486,10 +578,22 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
     private void callClusterStateAppliers(ClusterChangedEvent clusterChangedEvent) {
         clusterStateAppliers.forEach(applier -> {
             logger.trace("calling [{}] with change to version [{}]", applier, clusterChangedEvent.state().version());
+            final long startTimeNanos = System.nanoTime();
             applier.applyClusterState(clusterChangedEvent);
+            applierTimes.computeIfAbsent(recordingName(applier), k -> new MeanMetric()).inc(System.nanoTime() - startTimeNanos);
         });
     }
 
+    /**
+     * The name the time spent in the given applier or executor is recorded under: its class name, or the class it is defined in for
+     * lambdas.
+     */
+    static String recordingName(Object applierOrExecutor) {
+        final String className = applierOrExecutor.getClass().getName();
+        final int lambdaIndex = className.indexOf("$$Lambda");
+        return lambdaIndex == -1 ? className : className.substring(0, lambdaIndex);
+    }
+
     private void callClusterStateListeners(ClusterChangedEvent clusterChangedEvent) {
         Stream.concat(clusterStateListeners.stream(), timeoutClusterStateListeners.stream()).forEach(listener -> {
             try {
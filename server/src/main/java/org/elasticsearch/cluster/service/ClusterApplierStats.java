@@ -0,0 +1,147 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stats about the application of cluster states by the {@link ClusterApplierService}: how many states were applied, how many queued
+ * states were collapsed into a later one, and the cumulative time each {@link org.elasticsearch.cluster.ClusterStateApplier} took.
+ */
+public class ClusterApplierStats implements Writeable, ToXContentFragment {
+
+    private final long appliedStates;
+    private final long collapsedStates;
+    private final List<Recording> recordings;
+
+    /**
+     * @param appliedStates the number of cluster states this node has applied.
+     * @param collapsedStates the number of queued cluster states that were superseded by a later one and never applied on their own.
+     * @param recordings the cumulative execution count and time of each cluster state applier.
+     */
+    public ClusterApplierStats(long appliedStates, long collapsedStates, List<Recording> recordings) {
+        this.appliedStates = appliedStates;
+        this.collapsedStates = collapsedStates;
+        this.recordings = Collections.unmodifiableList(recordings);
+    }
+
+    public ClusterApplierStats(StreamInput in) throws IOException {
+        appliedStates = in.readVLong();
+        collapsedStates = in.readVLong();
+        recordings = Collections.unmodifiableList(in.readList(Recording::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(appliedStates);
+        out.writeVLong(collapsedStates);
+        out.writeList(recordings);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("cluster_applier_stats");
+        {
+            builder.field("applied_states", appliedStates);
+            builder.field("collapsed_states", collapsedStates);
+            builder.startArray("recordings");
+            for (Recording recording : recordings) {
+                recording.toXContent(builder, params);
+            }
+            builder.endArray();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public long getAppliedStates() {
+        return appliedStates;
+    }
+
+    public long getCollapsedStates() {
+        return collapsedStates;
+    }
+
+    public List<Recording> getRecordings() {
+        return recordings;
+    }
+
+    /**
+     * The cumulative execution count and time of a single cluster state applier.
+     */
+    public static class Recording implements Writeable, ToXContentFragment {
+
+        private final String name;
+        private final long executionCount;
+        private final long executionTimeMillis;
+
+        public Recording(String name, long executionCount, long executionTimeMillis) {
+            this.name = Objects.requireNonNull(name);
+            this.executionCount = executionCount;
+            this.executionTimeMillis = executionTimeMillis;
+        }
+
+        public Recording(StreamInput in) throws IOException {
+            name = in.readString();
+            executionCount = in.readVLong();
+            executionTimeMillis = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            out.writeVLong(executionCount);
+            out.writeVLong(executionTimeMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("name", name);
+            builder.field("cumulative_execution_count", executionCount);
+            builder.humanReadableField("cumulative_execution_time_millis", "cumulative_execution_time",
+                new TimeValue(executionTimeMillis));
+            builder.endObject();
+            return builder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public long getExecutionTimeMillis() {
+            return executionTimeMillis;
+        }
+    }
+}
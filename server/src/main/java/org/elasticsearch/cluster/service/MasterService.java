@@ -40,9 +40,12 @@ import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -55,8 +58,11 @@ import org.elasticsearch.cluster.coordination.FailedToCommitClusterStateExceptio
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -86,6 +92,10 @@ public class MasterService extends AbstractLifecycleComponent {
     private volatile PrioritizedEsThreadPoolExecutor threadPoolExecutor;
     private volatile Batcher taskBatcher;
 
+    private final CounterMetric chainedBatches = new CounterMetric();
+    private final Map<String, MeanMetric> queueTimes = ConcurrentCollections.newConcurrentMap();
+    private final Map<String, MeanMetric> computeTimes = ConcurrentCollections.newConcurrentMap();
+
     public MasterService(String nodeName, Settings settings, ThreadPool threadPool) {
         this.nodeName = nodeName;
         // TODO: introduce a dedicated setting for master service
@@ -135,11 +145,23 @@ public class MasterService extends AbstractLifecycleComponent {
                         new ProcessClusterEventTimeoutException(timeout, task.source))));
         }
 
+        @Override
+        protected boolean allowsChaining(Object batchingKey) {
+            return ((ClusterStateTaskExecutor<?>) batchingKey).allowsChaining();
+        }
+
+        @Override
+        protected void run(List<Batch> batches) {
+            chainedBatches.inc(batches.size() - 1);
+            runTasks(batches.stream().map(batch -> new TaskInputs((ClusterStateTaskExecutor<Object>) batch.batchingKey,
+                (List<UpdateTask>) batch.tasks, batch.tasksSummary)).collect(Collectors.toList()));
+        }
+
         @Override
         protected void run(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary) {
             ClusterStateTaskExecutor<Object> taskExecutor = (ClusterStateTaskExecutor<Object>) batchingKey;
             List<UpdateTask> updateTasks = (List<UpdateTask>) tasks;
-            runTasks(new TaskInputs(taskExecutor, updateTasks, tasksSummary));
+            runTasks(Collections.singletonList(new TaskInputs(taskExecutor, updateTasks, tasksSummary)));
         }
 
         class UpdateTask extends BatchedTask {
@@ -190,8 +212,11 @@ public class MasterService extends AbstractLifecycleComponent {
         return true;
     }
 
-    protected void runTasks(TaskInputs taskInputs) {
-        final String summary = taskInputs.summary;
+    /**
+     * Runs the given batches of tasks, chaining them into a single cluster state update if there is more than one.
+     */
+    protected void runTasks(List<TaskInputs> chainedTaskInputs) {
+        final String summary = chainedTaskInputs.stream().map(inputs -> inputs.summary).collect(Collectors.joining(", "));
         if (!lifecycle.started()) {
             logger.debug("processing [{}]: ignoring, master service not started", summary);
             return;
@@ -200,9 +225,17 @@ public class MasterService extends AbstractLifecycleComponent {
         logger.debug("processing [{}]: execute", summary);
         final ClusterState previousClusterState = state();
 
-        if (!previousClusterState.nodes().isLocalNodeElectedMaster() && taskInputs.runOnlyWhenMaster()) {
-            logger.debug("failing [{}]: local node is no longer master", summary);
-            taskInputs.onNoLongerMaster();
+        final List<TaskInputs> taskInputs = new ArrayList<>(chainedTaskInputs.size());
+        for (TaskInputs inputs : chainedTaskInputs) {
+            recordQueueTimes(inputs);
+            if (!previousClusterState.nodes().isLocalNodeElectedMaster() && inputs.runOnlyWhenMaster()) {
+                logger.debug("failing [{}]: local node is no longer master", inputs.summary);
+                inputs.onNoLongerMaster();
+            } else {
+                taskInputs.add(inputs);
+            }
+        }
+        if (taskInputs.isEmpty()) {
             return;
         }
 
@@ -262,14 +295,7 @@ public class MasterService extends AbstractLifecycleComponent {
 
     protected void onPublicationSuccess(ClusterChangedEvent clusterChangedEvent, TaskOutputs taskOutputs, long startTimeNS) {
         taskOutputs.processedDifferentClusterState(clusterChangedEvent.previousState(), clusterChangedEvent.state());
-
-        try {
-            taskOutputs.clusterStatePublished(clusterChangedEvent);
-        } catch (Exception e) {
-            logger.error(() -> new ParameterizedMessage(
-                "exception thrown while notifying executor of new cluster state publication [{}]",
-                clusterChangedEvent.source()), e);
-        }
+        taskOutputs.clusterStatePublished(clusterChangedEvent);
         TimeValue executionTime = TimeValue.timeValueMillis(Math.max(0, TimeValue.nsecToMSec(currentTimeInNanos() - startTimeNS)));
         logger.debug("processing [{}]: took [{}] done publishing updated cluster state (version: {}, uuid: {})",
             clusterChangedEvent.source(),
@@ -306,15 +332,51 @@ public class MasterService extends AbstractLifecycleComponent {
         // TODO: do we want to call updateTask.onFailure here?
     }
 
-    public TaskOutputs calculateTaskOutputs(TaskInputs taskInputs, ClusterState previousClusterState, long startTimeNS) {
-        ClusterTasksResult<Object> clusterTasksResult = executeTasks(taskInputs, startTimeNS, previousClusterState);
-        ClusterState newClusterState = patchVersions(previousClusterState, clusterTasksResult);
-        return new TaskOutputs(taskInputs, previousClusterState, newClusterState, getNonFailedTasks(taskInputs, clusterTasksResult),
-            clusterTasksResult.executionResults);
+    /**
+     * Executes the given batches of tasks one after the other, each on the cluster state resulting from the previous one, and returns
+     * the outcome of all of them.
+     */
+    public TaskOutputs calculateTaskOutputs(List<TaskInputs> taskInputs, ClusterState previousClusterState, long startTimeNS) {
+        ClusterState resultingState = previousClusterState;
+        final List<Batcher.UpdateTask> nonFailedTasks = new ArrayList<>();
+        final Map<Object, ClusterStateTaskExecutor.TaskResult> executionResults = new IdentityHashMap<>();
+        for (TaskInputs inputs : taskInputs) {
+            final long computeStartTimeNS = currentTimeInNanos();
+            ClusterTasksResult<Object> clusterTasksResult = executeTasks(inputs, startTimeNS, resultingState);
+            computeTimes.computeIfAbsent(ClusterApplierService.recordingName(inputs.executor), k -> new MeanMetric())
+                .inc(currentTimeInNanos() - computeStartTimeNS);
+            resultingState = clusterTasksResult.resultingState;
+            nonFailedTasks.addAll(getNonFailedTasks(inputs, clusterTasksResult));
+            executionResults.putAll(clusterTasksResult.executionResults);
+        }
+        ClusterState newClusterState = patchVersions(previousClusterState, resultingState);
+        return new TaskOutputs(taskInputs, previousClusterState, newClusterState, nonFailedTasks, executionResults);
+    }
+
+    private void recordQueueTimes(TaskInputs taskInputs) {
+        final MeanMetric queueTime = queueTimes.computeIfAbsent(ClusterApplierService.recordingName(taskInputs.executor),
+            k -> new MeanMetric());
+        for (Batcher.UpdateTask updateTask : taskInputs.updateTasks) {
+            queueTime.inc(updateTask.getAgeInMillis());
+        }
+    }
+
+    /**
+     * Returns stats about the cluster state update tasks executed so far.
+     */
+    public MasterServiceStats stats() {
+        final List<MasterServiceStats.ExecutorStats> executors = new ArrayList<>(queueTimes.size());
+        queueTimes.forEach((name, queueTime) -> {
+            final MeanMetric computeTime = computeTimes.getOrDefault(name, new MeanMetric());
+            executors.add(new MasterServiceStats.ExecutorStats(name, queueTime.count(), queueTime.sum(), computeTime.count(),
+                TimeUnit.NANOSECONDS.toMillis(computeTime.sum())));
+        });
+        executors.sort(Comparator.comparingLong(MasterServiceStats.ExecutorStats::getComputeTimeMillis).reversed()
+            .thenComparing(MasterServiceStats.ExecutorStats::getName));
+        return new MasterServiceStats(chainedBatches.count(), executors);
     }
 
-    private ClusterState patchVersions(ClusterState previousClusterState, ClusterTasksResult<?> executionResult) {
-        ClusterState newClusterState = executionResult.resultingState;
+    private ClusterState patchVersions(ClusterState previousClusterState, ClusterState newClusterState) {
 
         if (previousClusterState != newClusterState) {
             // only the master controls the version numbers
@@ -382,13 +444,13 @@ public class MasterService extends AbstractLifecycleComponent {
      * Output created by executing a set of tasks provided as TaskInputs
      */
     protected class TaskOutputs {
-        public final TaskInputs taskInputs;
+        public final List<TaskInputs> taskInputs;
         public final ClusterState previousClusterState;
         public final ClusterState newClusterState;
         public final List<Batcher.UpdateTask> nonFailedTasks;
         public final Map<Object, ClusterStateTaskExecutor.TaskResult> executionResults;
 
-        TaskOutputs(TaskInputs taskInputs, ClusterState previousClusterState,
+        TaskOutputs(List<TaskInputs> taskInputs, ClusterState previousClusterState,
                            ClusterState newClusterState,
                            List<Batcher.UpdateTask> nonFailedTasks,
                            Map<Object, ClusterStateTaskExecutor.TaskResult> executionResults) {
@@ -408,7 +470,15 @@ public class MasterService extends AbstractLifecycleComponent {
         }
 
         public void clusterStatePublished(ClusterChangedEvent clusterChangedEvent) {
-            taskInputs.executor.clusterStatePublished(clusterChangedEvent);
+            for (TaskInputs inputs : taskInputs) {
+                try {
+                    inputs.executor.clusterStatePublished(clusterChangedEvent);
+                } catch (Exception e) {
+                    logger.error(() -> new ParameterizedMessage(
+                        "exception thrown while notifying executor of new cluster state publication [{}]",
+                        clusterChangedEvent.source()), e);
+                }
+            }
         }
 
         public Discovery.AckListener createAckListener(ThreadPool threadPool, ClusterState newClusterState) {
@@ -425,11 +495,13 @@ public class MasterService extends AbstractLifecycleComponent {
 
         public void notifyFailedTasks() {
             // fail all tasks that have failed
-            for (Batcher.UpdateTask updateTask : taskInputs.updateTasks) {
-                assert executionResults.containsKey(updateTask.task) : "missing " + updateTask;
-                final ClusterStateTaskExecutor.TaskResult taskResult = executionResults.get(updateTask.task);
-                if (taskResult.isSuccess() == false) {
-                    updateTask.listener.onFailure(updateTask.source(), taskResult.getFailure());
+            for (TaskInputs inputs : taskInputs) {
+                for (Batcher.UpdateTask updateTask : inputs.updateTasks) {
+                    assert executionResults.containsKey(updateTask.task) : "missing " + updateTask;
+                    final ClusterStateTaskExecutor.TaskResult taskResult = executionResults.get(updateTask.task);
+                    if (taskResult.isSuccess() == false) {
+                        updateTask.listener.onFailure(updateTask.source(), taskResult.getFailure());
+                    }
                 }
             }
         }
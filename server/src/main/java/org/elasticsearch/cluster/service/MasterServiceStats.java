@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stats about the cluster state update tasks executed by the {@link MasterService}: for each executor the time its tasks spent queued
+ * and the time it took to compute the new cluster states, and how many batches were chained into the computation of another one.
+ */
+public class MasterServiceStats implements Writeable, ToXContentFragment {
+
+    private final long chainedBatches;
+    private final List<ExecutorStats> executors;
+
+    /**
+     * @param chainedBatches the number of batches of tasks that were executed as part of the cluster state computation of another one.
+     * @param executors the cumulative queue and compute time of the tasks of each executor.
+     */
+    public MasterServiceStats(long chainedBatches, List<ExecutorStats> executors) {
+        this.chainedBatches = chainedBatches;
+        this.executors = Collections.unmodifiableList(executors);
+    }
+
+    public MasterServiceStats(StreamInput in) throws IOException {
+        chainedBatches = in.readVLong();
+        executors = Collections.unmodifiableList(in.readList(ExecutorStats::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(chainedBatches);
+        out.writeList(executors);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("master_service_stats");
+        {
+            builder.field("chained_batches", chainedBatches);
+            builder.startArray("executors");
+            for (ExecutorStats executor : executors) {
+                executor.toXContent(builder, params);
+            }
+            builder.endArray();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public long getChainedBatches() {
+        return chainedBatches;
+    }
+
+    public List<ExecutorStats> getExecutors() {
+        return executors;
+    }
+
+    /**
+     * The cumulative queue and compute time of the tasks of a single cluster state task executor.
+     */
+    public static class ExecutorStats implements Writeable, ToXContentFragment {
+
+        private final String name;
+        private final long taskCount;
+        private final long queueTimeMillis;
+        private final long executionCount;
+        private final long computeTimeMillis;
+
+        public ExecutorStats(String name, long taskCount, long queueTimeMillis, long executionCount, long computeTimeMillis) {
+            this.name = Objects.requireNonNull(name);
+            this.taskCount = taskCount;
+            this.queueTimeMillis = queueTimeMillis;
+            this.executionCount = executionCount;
+            this.computeTimeMillis = computeTimeMillis;
+        }
+
+        public ExecutorStats(StreamInput in) throws IOException {
+            name = in.readString();
+            taskCount = in.readVLong();
+            queueTimeMillis = in.readVLong();
+            executionCount = in.readVLong();
+            computeTimeMillis = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            out.writeVLong(taskCount);
+            out.writeVLong(queueTimeMillis);
+            out.writeVLong(executionCount);
+            out.writeVLong(computeTimeMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("name", name);
+            builder.field("cumulative_task_count", taskCount);
+            builder.humanReadableField("cumulative_queue_time_millis", "cumulative_queue_time", new TimeValue(queueTimeMillis));
+            builder.field("cumulative_execution_count", executionCount);
+            builder.humanReadableField("cumulative_compute_time_millis", "cumulative_compute_time", new TimeValue(computeTimeMillis));
+            builder.endObject();
+            return builder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTaskCount() {
+            return taskCount;
+        }
+
+        public long getQueueTimeMillis() {
+            return queueTimeMillis;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public long getComputeTimeMillis() {
+            return computeTimeMillis;
+        }
+    }
+}
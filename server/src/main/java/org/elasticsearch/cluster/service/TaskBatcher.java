@@ -27,9 +27,11 @@ import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.util.concurrent.PrioritizedEsThreadPoolExecutor;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -39,14 +41,16 @@ import java.util.stream.Collectors;
 
 /**
  * Batching support for {@link PrioritizedEsThreadPoolExecutor}
- * Tasks that share the same batching key are batched (see {@link BatchedTask#batchingKey})
+ * Tasks that share the same batching key are batched (see {@link BatchedTask#batchingKey}). Batches of different batching keys
+ * that {@link #allowsChaining(Object) allow it} are additionally chained and run together.
  */
 public abstract class TaskBatcher {
 
     private final Logger logger;
     private final PrioritizedEsThreadPoolExecutor threadExecutor;
     // package visible for tests
-    final Map<Object, LinkedHashSet<BatchedTask>> tasksPerBatchingKey = new HashMap<>();
+    // batching keys are kept in the order their tasks were first queued in, which is the order batches are chained in
+    final Map<Object, LinkedHashSet<BatchedTask>> tasksPerBatchingKey = new LinkedHashMap<>();
 
     public TaskBatcher(Logger logger, PrioritizedEsThreadPoolExecutor threadExecutor) {
         this.logger = logger;
@@ -124,32 +128,88 @@ public abstract class TaskBatcher {
         // if this task is already processed, it shouldn't execute other tasks with same batching key that arrived later,
         // to give other tasks with different batching key a chance to execute.
         if (updateTask.processed.get() == false) {
-            final List<BatchedTask> toExecute = new ArrayList<>();
-            final Map<String, List<BatchedTask>> processTasksBySource = new HashMap<>();
+            final List<List<BatchedTask>> toExecute = new ArrayList<>();
             synchronized (tasksPerBatchingKey) {
                 LinkedHashSet<BatchedTask> pending = tasksPerBatchingKey.remove(updateTask.batchingKey);
                 if (pending != null) {
-                    for (BatchedTask task : pending) {
-                        if (task.processed.getAndSet(true) == false) {
-                            logger.trace("will process {}", task);
-                            toExecute.add(task);
-                            processTasksBySource.computeIfAbsent(task.source, s -> new ArrayList<>()).add(task);
-                        } else {
-                            logger.trace("skipping {}, already processed", task);
+                    addUnprocessedTasks(toExecute, pending);
+                }
+                if (toExecute.isEmpty() == false && allowsChaining(updateTask.batchingKey)) {
+                    final Iterator<Map.Entry<Object, LinkedHashSet<BatchedTask>>> iterator = tasksPerBatchingKey.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        final Map.Entry<Object, LinkedHashSet<BatchedTask>> entry = iterator.next();
+                        if (allowsChaining(entry.getKey()) == false) {
+                            continue;
+                        }
+                        // lower priority tasks stay queued, chaining them would delay the higher priority tasks queued before them
+                        final List<BatchedTask> chained = new ArrayList<>();
+                        for (Iterator<BatchedTask> tasks = entry.getValue().iterator(); tasks.hasNext(); ) {
+                            final BatchedTask task = tasks.next();
+                            if (task.priority().after(updateTask.priority()) == false) {
+                                chained.add(task);
+                                tasks.remove();
+                            }
                         }
+                        if (entry.getValue().isEmpty()) {
+                            iterator.remove();
+                        }
+                        addUnprocessedTasks(toExecute, chained);
                     }
                 }
             }
 
             if (toExecute.isEmpty() == false) {
-                final String tasksSummary = processTasksBySource.entrySet().stream().map(entry -> {
-                    String tasks = updateTask.describeTasks(entry.getValue());
-                    return tasks.isEmpty() ? entry.getKey() : entry.getKey() + "[" + tasks + "]";
-                }).reduce((s1, s2) -> s1 + ", " + s2).orElse("");
+                final List<Batch> batches = new ArrayList<>(toExecute.size());
+                for (List<BatchedTask> tasks : toExecute) {
+                    batches.add(new Batch(tasks.get(0).batchingKey, tasks, summarize(tasks)));
+                }
+                run(batches);
+            }
+        }
+    }
 
-                run(updateTask.batchingKey, toExecute, tasksSummary);
+    private void addUnprocessedTasks(List<List<BatchedTask>> toExecute, Collection<BatchedTask> pending) {
+        final List<BatchedTask> tasks = new ArrayList<>(pending.size());
+        for (BatchedTask task : pending) {
+            if (task.processed.getAndSet(true) == false) {
+                logger.trace("will process {}", task);
+                tasks.add(task);
+            } else {
+                logger.trace("skipping {}, already processed", task);
             }
         }
+        if (tasks.isEmpty() == false) {
+            toExecute.add(tasks);
+        }
+    }
+
+    private static String summarize(List<BatchedTask> tasks) {
+        final Map<String, List<BatchedTask>> processTasksBySource = new LinkedHashMap<>();
+        for (BatchedTask task : tasks) {
+            processTasksBySource.computeIfAbsent(task.source, s -> new ArrayList<>()).add(task);
+        }
+        return processTasksBySource.entrySet().stream().map(entry -> {
+            String description = tasks.get(0).describeTasks(entry.getValue());
+            return description.isEmpty() ? entry.getKey() : entry.getKey() + "[" + description + "]";
+        }).reduce((s1, s2) -> s1 + ", " + s2).orElse("");
+    }
+
+    /**
+     * Whether the tasks of the given batching key may be chained with the tasks of other batching keys that allow it too. Chained
+     * batches are passed together to {@link #run(List)}.
+     */
+    protected boolean allowsChaining(Object batchingKey) {
+        return false;
+    }
+
+    /**
+     * Runs the given batches, which all have a different batching key. There is more than one batch only if their batching keys
+     * {@link #allowsChaining(Object) allow chaining}. Defaults to running the batches one after another.
+     */
+    protected void run(List<Batch> batches) {
+        for (Batch batch : batches) {
+            run(batch.batchingKey, batch.tasks, batch.tasksSummary);
+        }
     }
 
     /**
@@ -158,6 +218,21 @@ public abstract class TaskBatcher {
      */
     protected abstract void run(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary);
 
+    /**
+     * The tasks of a single batching key that are run together.
+     */
+    protected static final class Batch {
+        final Object batchingKey;
+        final List<? extends BatchedTask> tasks;
+        final String tasksSummary;
+
+        Batch(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary) {
+            this.batchingKey = batchingKey;
+            this.tasks = tasks;
+            this.tasksSummary = tasksSummary;
+        }
+    }
+
     /**
      * Represents a runnable task that supports batching.
      * Implementors of TaskBatcher can subclass this to add a payload to the task.
@@ -0,0 +1,73 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.index;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReader;
+
+import java.io.IOException;
+
+/**
+ * A {@link FilterLeafReader} that gives access to a {@link StoredFieldsReader} optimized for reading the stored fields of documents
+ * in increasing doc id order. The stored fields of consecutive documents are compressed together in blocks, the returned reader keeps
+ * the last decompressed block around instead of decompressing it again for every document it contains.
+ */
+public abstract class SequentialStoredFieldsLeafReader extends FilterLeafReader {
+
+    public SequentialStoredFieldsLeafReader(LeafReader in) {
+        super(in);
+    }
+
+    /**
+     * Implementations should wrap the provided {@link StoredFieldsReader} the same way they filter the stored fields of
+     * {@link #document(int, org.apache.lucene.index.StoredFieldVisitor)}.
+     */
+    protected abstract StoredFieldsReader doGetSequentialStoredFieldsReader(StoredFieldsReader reader);
+
+    /**
+     * Returns a {@link StoredFieldsReader} optimized for sequential access. The returned reader is not thread safe and must only be
+     * used by the thread that created it.
+     */
+    public StoredFieldsReader getSequentialStoredFieldsReader() throws IOException {
+        if (in instanceof CodecReader) {
+            CodecReader reader = (CodecReader) in;
+            return doGetSequentialStoredFieldsReader(reader.getFieldsReader().getMergeInstance());
+        } else if (in instanceof SequentialStoredFieldsLeafReader) {
+            SequentialStoredFieldsLeafReader reader = (SequentialStoredFieldsLeafReader) in;
+            return doGetSequentialStoredFieldsReader(reader.getSequentialStoredFieldsReader());
+        } else {
+            throw new IOException("requires a CodecReader or a SequentialStoredFieldsLeafReader, got " + in.getClass());
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if {@link #getSequentialStoredFieldsReader()} can be called on this reader.
+     */
+    public boolean canReadSequentially() {
+        if (in instanceof CodecReader) {
+            return true;
+        } else if (in instanceof SequentialStoredFieldsLeafReader) {
+            return ((SequentialStoredFieldsLeafReader) in).canReadSequentially();
+        }
+        return false;
+    }
+}
@@ -119,6 +119,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSettings.MAX_RESCORE_WINDOW_SETTING,
             IndexSettings.MAX_ADJACENCY_MATRIX_FILTERS_SETTING,
             IndexSettings.MAX_ANALYZED_OFFSET_SETTING,
+            IndexSettings.HIGHLIGHT_CACHE_SIZE_SETTING,
             IndexSettings.MAX_TERMS_COUNT_SETTING,
             IndexSettings.INDEX_TRANSLOG_SYNC_INTERVAL_SETTING,
             IndexSettings.DEFAULT_FIELD_SETTING,
@@ -133,6 +134,8 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSettings.INDEX_SOFT_DELETES_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING,
+            IndexSettings.INDEX_APPEND_ONLY_SETTING,
+            IndexSettings.INDEX_BATCH_AUTO_GENERATED_IDS_SETTING,
             IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING,
             UnassignedInfo.INDEX_DELAYED_NODE_LEFT_TIMEOUT_SETTING,
             EnableAllocationDecider.INDEX_ROUTING_REBALANCE_ENABLE_SETTING,
@@ -142,6 +145,9 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSettings.INDEX_TRANSLOG_RETENTION_AGE_SETTING,
             IndexSettings.INDEX_TRANSLOG_RETENTION_SIZE_SETTING,
             IndexSettings.INDEX_SEARCH_IDLE_AFTER,
+            IndexSettings.INDEX_REFRESH_ADAPTIVE_ENABLED_SETTING,
+            IndexSettings.INDEX_REFRESH_ADAPTIVE_MAX_INTERVAL_SETTING,
+            IndexSettings.INDEX_REFRESH_ADAPTIVE_HEAVY_INDEXING_RATE_SETTING,
             IndexSettings.INDEX_SEARCH_THROTTLED,
             IndexFieldDataService.INDEX_FIELDDATA_CACHE_KEY,
             FieldMapper.IGNORE_MALFORMED_SETTING,
@@ -153,6 +159,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             MapperService.INDEX_MAPPING_TOTAL_FIELDS_LIMIT_SETTING,
             MapperService.INDEX_MAPPING_DEPTH_LIMIT_SETTING,
             MapperService.INDEX_MAPPING_FIELD_NAME_LENGTH_LIMIT_SETTING,
+            MapperService.INDEX_MAPPING_BATCH_DYNAMIC_UPDATES_SETTING,
             BitsetFilterCache.INDEX_LOAD_RANDOM_ACCESS_FILTERS_EAGERLY_SETTING,
             IndexModule.INDEX_STORE_TYPE_SETTING,
             IndexModule.INDEX_STORE_PRE_LOAD_SETTING,
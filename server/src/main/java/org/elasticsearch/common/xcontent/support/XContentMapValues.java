@@ -25,11 +25,15 @@ import org.apache.lucene.util.automaton.CharacterRunAutomaton;
 import org.apache.lucene.util.automaton.Operations;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -164,16 +168,53 @@ public class XContentMapValues {
      */
     public static Function<Map<String, ?>, Map<String, Object>> filter(String[] includes, String[] excludes) {
         CharacterRunAutomaton matchAllAutomaton = new CharacterRunAutomaton(Automata.makeAnyString());
+        CharacterRunAutomaton include = includeAutomaton(includes, matchAllAutomaton);
+        CharacterRunAutomaton exclude = excludeAutomaton(excludes);
 
-        CharacterRunAutomaton include;
+        // NOTE: We cannot use Operations.minus because of the special case that
+        // we want all sub properties to match as soon as an object matches
+
+        return (map) -> filter(map,
+            include, 0,
+            exclude, 0,
+            matchAllAutomaton);
+    }
+
+    /**
+     * Returns a function that copies the object the parser is positioned on to the builder, only keeping the properties that match
+     * the given include and exclude rules. This is the streaming counterpart of {@link #filter(String[], String[])}: the rules are
+     * the same but the matching properties are copied straight from the parser to the builder, and in their original order, instead
+     * of building a map of the whole object first.
+     * @see #filter(Map, String[], String[]) for details
+     */
+    public static CheckedBiConsumer<XContentParser, XContentBuilder, IOException> filterStreaming(String[] includes, String[] excludes) {
+        CharacterRunAutomaton matchAllAutomaton = new CharacterRunAutomaton(Automata.makeAnyString());
+        CharacterRunAutomaton include = includeAutomaton(includes, matchAllAutomaton);
+        CharacterRunAutomaton exclude = excludeAutomaton(excludes);
+        return (parser, builder) -> {
+            if (parser.currentToken() == null) {
+                parser.nextToken();
+            }
+            if (parser.currentToken() != XContentParser.Token.START_OBJECT) {
+                throw new ElasticsearchParseException("expected an object but got [{}]", parser.currentToken());
+            }
+            // the top level object is always written, even if it ends up empty
+            builder.startObject();
+            new StreamingFilter(builder, exclude, matchAllAutomaton).filterProperties(parser, include, 0, 0);
+            builder.endObject();
+        };
+    }
+
+    private static CharacterRunAutomaton includeAutomaton(String[] includes, CharacterRunAutomaton matchAllAutomaton) {
         if (includes == null || includes.length == 0) {
-            include = matchAllAutomaton;
-        } else {
-            Automaton includeA = Regex.simpleMatchToAutomaton(includes);
-            includeA = makeMatchDotsInFieldNames(includeA);
-            include = new CharacterRunAutomaton(includeA);
+            return matchAllAutomaton;
         }
+        Automaton includeA = Regex.simpleMatchToAutomaton(includes);
+        includeA = makeMatchDotsInFieldNames(includeA);
+        return new CharacterRunAutomaton(includeA);
+    }
 
+    private static CharacterRunAutomaton excludeAutomaton(String[] excludes) {
         Automaton excludeA;
         if (excludes == null || excludes.length == 0) {
             excludeA = Automata.makeEmpty();
@@ -181,15 +222,7 @@ public class XContentMapValues {
             excludeA = Regex.simpleMatchToAutomaton(excludes);
             excludeA = makeMatchDotsInFieldNames(excludeA);
         }
-        CharacterRunAutomaton exclude = new CharacterRunAutomaton(excludeA);
-
-        // NOTE: We cannot use Operations.minus because of the special case that
-        // we want all sub properties to match as soon as an object matches
-
-        return (map) -> filter(map,
-            include, 0,
-            exclude, 0,
-            matchAllAutomaton);
+        return new CharacterRunAutomaton(excludeA);
     }
 
     /** Make matches on objects also match dots in field names.
@@ -314,6 +347,168 @@ public class XContentMapValues {
         return filtered;
     }
 
+    /**
+     * Copies the properties of an object that match the include and exclude rules, following the same rules as the map based filter.
+     * Objects and arrays are only written once the first of their properties or values is kept, since they must be omitted when
+     * they end up empty. Until then they are recorded as pending.
+     */
+    private static final class StreamingFilter {
+
+        private final XContentBuilder builder;
+        private final CharacterRunAutomaton excludeAutomaton;
+        private final CharacterRunAutomaton matchAllAutomaton;
+        // field names (String) and START_OBJECT / START_ARRAY tokens that are not written yet
+        private final List<Object> pending = new ArrayList<>();
+
+        private StreamingFilter(XContentBuilder builder, CharacterRunAutomaton excludeAutomaton, CharacterRunAutomaton matchAllAutomaton) {
+            this.builder = builder;
+            this.excludeAutomaton = excludeAutomaton;
+            this.matchAllAutomaton = matchAllAutomaton;
+        }
+
+        /**
+         * Filters the properties of the object the parser is positioned on, the parser is positioned on the end of the object when this
+         * method returns.
+         */
+        private void filterProperties(XContentParser parser, CharacterRunAutomaton includeAutomaton, int initialIncludeState,
+                                      int initialExcludeState) throws IOException {
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                assert token == XContentParser.Token.FIELD_NAME : "expected a field name but got " + token;
+                String key = parser.currentName();
+                token = parser.nextToken();
+
+                int includeState = step(includeAutomaton, key, initialIncludeState);
+                if (includeState == -1) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                int excludeState = step(excludeAutomaton, key, initialExcludeState);
+                if (excludeState != -1 && excludeAutomaton.isAccept(excludeState)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                CharacterRunAutomaton subIncludeAutomaton = includeAutomaton;
+                int subIncludeState = includeState;
+                if (includeAutomaton.isAccept(includeState)) {
+                    if (excludeState == -1 || excludeAutomaton.step(excludeState, '.') == -1) {
+                        // the exclude has no chances to match inner properties
+                        flushPending();
+                        builder.field(key);
+                        builder.copyCurrentStructure(parser);
+                        continue;
+                    } else {
+                        // the object matched, so consider that the include matches every inner property
+                        // we only care about excludes now
+                        subIncludeAutomaton = matchAllAutomaton;
+                        subIncludeState = 0;
+                    }
+                }
+
+                if (token == XContentParser.Token.START_OBJECT) {
+
+                    subIncludeState = subIncludeAutomaton.step(subIncludeState, '.');
+                    if (subIncludeState == -1) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    if (excludeState != -1) {
+                        excludeState = excludeAutomaton.step(excludeState, '.');
+                    }
+
+                    int mark = pending.size();
+                    pending.add(key);
+                    startPending(XContentParser.Token.START_OBJECT);
+                    if (includeAutomaton.isAccept(includeState)) {
+                        // matching objects are kept even if they end up empty
+                        flushPending();
+                    }
+                    filterProperties(parser, subIncludeAutomaton, subIncludeState, excludeState);
+                    endPending(mark, XContentParser.Token.END_OBJECT);
+
+                } else if (token == XContentParser.Token.START_ARRAY) {
+
+                    int mark = pending.size();
+                    pending.add(key);
+                    startPending(XContentParser.Token.START_ARRAY);
+                    filterArray(parser, subIncludeAutomaton, subIncludeState, excludeState);
+                    endPending(mark, XContentParser.Token.END_ARRAY);
+
+                } else {
+
+                    // leaf property
+                    if (includeAutomaton.isAccept(includeState)
+                            && (excludeState == -1 || excludeAutomaton.isAccept(excludeState) == false)) {
+                        flushPending();
+                        builder.field(key);
+                        builder.copyCurrentStructure(parser);
+                    }
+
+                }
+            }
+        }
+
+        private void filterArray(XContentParser parser, CharacterRunAutomaton includeAutomaton, int initialIncludeState,
+                                 int initialExcludeState) throws IOException {
+            boolean isInclude = includeAutomaton.isAccept(initialIncludeState);
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                if (token == XContentParser.Token.START_OBJECT) {
+                    int includeState = includeAutomaton.step(initialIncludeState, '.');
+                    int excludeState = initialExcludeState;
+                    if (excludeState != -1) {
+                        excludeState = excludeAutomaton.step(excludeState, '.');
+                    }
+                    int mark = startPending(XContentParser.Token.START_OBJECT);
+                    filterProperties(parser, includeAutomaton, includeState, excludeState);
+                    endPending(mark, XContentParser.Token.END_OBJECT);
+                } else if (token == XContentParser.Token.START_ARRAY) {
+                    int mark = startPending(XContentParser.Token.START_ARRAY);
+                    filterArray(parser, includeAutomaton, initialIncludeState, initialExcludeState);
+                    endPending(mark, XContentParser.Token.END_ARRAY);
+                } else if (isInclude) {
+                    // #22557: only accept this array value if the key we are on is accepted:
+                    flushPending();
+                    builder.copyCurrentStructure(parser);
+                }
+            }
+        }
+
+        private int startPending(XContentParser.Token token) {
+            int mark = pending.size();
+            pending.add(token);
+            return mark;
+        }
+
+        /**
+         * Ends the object or array started at the given mark: it is either dropped if nothing was written in the meantime or closed.
+         */
+        private void endPending(int mark, XContentParser.Token endToken) throws IOException {
+            if (pending.size() > mark) {
+                pending.subList(mark, pending.size()).clear();
+            } else if (endToken == XContentParser.Token.END_OBJECT) {
+                builder.endObject();
+            } else {
+                builder.endArray();
+            }
+        }
+
+        private void flushPending() throws IOException {
+            for (Object value : pending) {
+                if (value instanceof String) {
+                    builder.field((String) value);
+                } else if (value == XContentParser.Token.START_OBJECT) {
+                    builder.startObject();
+                } else {
+                    builder.startArray();
+                }
+            }
+            pending.clear();
+        }
+    }
+
     public static boolean isObject(Object node) {
         return node instanceof Map;
     }
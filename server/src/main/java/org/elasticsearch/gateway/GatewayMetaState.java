@@ -23,6 +23,7 @@ import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterName;
@@ -44,13 +45,22 @@ import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.node.Node;
 import org.elasticsearch.plugins.MetaDataUpgrader;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -58,6 +68,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -72,8 +84,10 @@ import java.util.function.UnaryOperator;
  * {@link ClusterState#metaData()}. Instead when node is starting up, it calls {@link #getMetaData()} method and if this node is
  * elected as master, it requests metaData from other master eligible nodes. After that, master node performs re-conciliation on the
  * gathered results, re-creates {@link ClusterState} and broadcasts this state to other nodes in the cluster.
+ * If {@link PersistedClusterStateService#ENABLED_SETTING} is set, master-eligible nodes load and persist their metadata with a
+ * {@link PersistedClusterStateService} instead of the state files.
  */
-public class GatewayMetaState implements ClusterStateApplier, CoordinationState.PersistedState {
+public class GatewayMetaState implements ClusterStateApplier, CoordinationState.PersistedState, Closeable {
     protected static final Logger logger = LogManager.getLogger(GatewayMetaState.class);
 
     private final NodeEnvironment nodeEnv;
@@ -82,6 +96,8 @@ public class GatewayMetaState implements ClusterStateApplier, CoordinationState.
     private final ClusterService clusterService;
     private final IndicesService indicesService;
     private final TransportService transportService;
+    private final PersistedClusterStateService persistedClusterStateService;
+    private LucenePersistedState lucenePersistedState;
 
     //there is a single thread executing updateClusterState calls, hence no volatile modifier
     protected Manifest previousManifest;
@@ -91,16 +107,29 @@ public class GatewayMetaState implements ClusterStateApplier, CoordinationState.
     public GatewayMetaState(Settings settings, NodeEnvironment nodeEnv, MetaStateService metaStateService,
                             MetaDataIndexUpgradeService metaDataIndexUpgradeService, MetaDataUpgrader metaDataUpgrader,
                             TransportService transportService, ClusterService clusterService,
-                            IndicesService indicesService) throws IOException {
+                            IndicesService indicesService, PersistedClusterStateService persistedClusterStateService)
+            throws IOException {
         this.settings = settings;
         this.nodeEnv = nodeEnv;
         this.metaStateService = metaStateService;
         this.transportService = transportService;
         this.clusterService = clusterService;
         this.indicesService = indicesService;
+        this.persistedClusterStateService = persistedClusterStateService;
 
-        upgradeMetaData(metaDataIndexUpgradeService, metaDataUpgrader);
-        initializeClusterState(ClusterName.CLUSTER_NAME_SETTING.get(settings));
+        if (persistedClusterStateService != null && usesPersistedClusterStateService() == false) {
+            ensureNoMetaDataIndex(persistedClusterStateService);
+        }
+        final PersistedClusterStateService.OnDiskState onDiskState = usesPersistedClusterStateService()
+            ? persistedClusterStateService.loadBestOnDiskState() : null;
+        if (onDiskState == null || onDiskState.empty()) {
+            // the state files are the source of truth, they are migrated to the Lucene index on the first write if it is enabled
+            upgradeMetaData(metaDataIndexUpgradeService, metaDataUpgrader);
+            initializeClusterState(ClusterName.CLUSTER_NAME_SETTING.get(settings));
+        } else {
+            initializeClusterState(ClusterName.CLUSTER_NAME_SETTING.get(settings), onDiskState,
+                upgradeOnDiskMetaData(onDiskState.metaData, metaDataIndexUpgradeService, metaDataUpgrader));
+        }
         incrementalWrite = false;
     }
 
@@ -112,9 +141,38 @@ public class GatewayMetaState implements ClusterStateApplier, CoordinationState.
             clusterApplierService.addLowPriorityApplier(this);
             return new InMemoryPersistedState(getCurrentTerm(), getLastAcceptedState());
         }
+        if (usesPersistedClusterStateService()) {
+            assert lucenePersistedState == null : "persisted state must only be created once";
+            try {
+                lucenePersistedState = new LucenePersistedState(persistedClusterStateService, metaStateService,
+                    Node.NODE_NAME_SETTING.get(settings), transportService.getThreadPool().getThreadContext(), getCurrentTerm(),
+                    getLastAcceptedState());
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to write the cluster state to the metadata index", e);
+            }
+            return lucenePersistedState;
+        }
         return this;
     }
 
+    /**
+     * Fails if a data path holds a metadata index although the node persists its metadata in state files: the global state and manifest
+     * files stopped being updated once the metadata index was written, so loading them would silently go back to stale metadata.
+     */
+    private void ensureNoMetaDataIndex(PersistedClusterStateService persistedClusterStateService) throws IOException {
+        final List<Path> dataPaths = persistedClusterStateService.findDataPathsWithMetaDataIndex();
+        if (dataPaths.isEmpty() == false) {
+            throw new IllegalStateException("node persists its cluster metadata in state files, but found a metadata index in "
+                + dataPaths + " that was written with [" + PersistedClusterStateService.ENABLED_SETTING.getKey() + "] enabled; "
+                + "this node must be a master-eligible node started with [" + PersistedClusterStateService.ENABLED_SETTING.getKey()
+                + "] enabled");
+        }
+    }
+
+    private boolean usesPersistedClusterStateService() {
+        return persistedClusterStateService != null && persistedClusterStateService.isEnabled() && DiscoveryNode.isMasterNode(settings);
+    }
+
     private void initializeClusterState(ClusterName clusterName) throws IOException {
         long startNS = System.nanoTime();
         Tuple<Manifest, MetaData> manifestAndMetaData = metaStateService.loadFullState();
@@ -129,6 +187,18 @@ public class GatewayMetaState implements ClusterStateApplier, CoordinationState.
         logger.debug("took {} to load state", TimeValue.timeValueMillis(TimeValue.nsecToMSec(System.nanoTime() - startNS)));
     }
 
+    private void initializeClusterState(ClusterName clusterName, PersistedClusterStateService.OnDiskState onDiskState,
+                                        MetaData upgradedMetaData) {
+        // only the current term of the manifest is relevant once the metadata is persisted in the Lucene index
+        previousManifest = new Manifest(onDiskState.currentTerm, onDiskState.lastAcceptedVersion,
+            Manifest.empty().getGlobalGeneration(), Collections.emptyMap());
+        previousClusterState = ClusterState.builder(clusterName)
+            .version(onDiskState.lastAcceptedVersion)
+            .metaData(upgradedMetaData).build();
+        logger.debug("loaded state with term [{}] and version [{}] from [{}]",
+            onDiskState.currentTerm, onDiskState.lastAcceptedVersion, onDiskState.dataPath);
+    }
+
     public void applyClusterStateUpdaters() {
         assert previousClusterState.nodes().getLocalNode() == null : "applyClusterStateUpdaters must only be called once";
         assert transportService.getLocalNode() != null : "transport service is not yet started";
@@ -184,6 +254,15 @@ public class GatewayMetaState implements ClusterStateApplier, CoordinationState.
         }
     }
 
+    /**
+     * Upgrades the metadata loaded from the Lucene index, see {@link #upgradeMetaData(MetaData, MetaDataIndexUpgradeService,
+     * MetaDataUpgrader)}. The upgraded metadata is written along with the first cluster state.
+     */
+    protected MetaData upgradeOnDiskMetaData(MetaData metaData, MetaDataIndexUpgradeService metaDataIndexUpgradeService,
+                                             MetaDataUpgrader metaDataUpgrader) {
+        return upgradeMetaData(metaData, metaDataIndexUpgradeService, metaDataUpgrader);
+    }
+
     protected boolean isMasterOrDataNode() {
         return DiscoveryNode.isMasterNode(settings) || DiscoveryNode.isDataNode(settings);
     }
@@ -257,6 +336,199 @@ public class GatewayMetaState implements ClusterStateApplier, CoordinationState.
         }
     }
 
+    @Override
+    public void close() throws IOException {
+        IOUtils.close(lucenePersistedState);
+    }
+
+    /**
+     * Persists the cluster states accepted by a master-eligible node with a {@link PersistedClusterStateService}. A failed write closes
+     * the writer, the next write then opens a new one and writes the full state again.
+     * The metadata of each index is also still written to the state file of the index, since the dangling indices detection and the
+     * listing of the started shards of a node read the index metadata from there. These files are written in the background so that
+     * accepting a state only waits for the single commit of the metadata index, and if several states are accepted in the meantime
+     * only the last one is written.
+     */
+    static class LucenePersistedState implements PersistedState, Closeable {
+
+        static final String INDEX_STATE_FILES_THREAD_NAME = "index_state_files_writer";
+
+        private final PersistedClusterStateService persistedClusterStateService;
+        private final MetaStateService metaStateService;
+        private final ExecutorService indexStateFilesExecutor;
+        private final Object mutex = new Object();
+        // the versions of the index metadata written to the index state files, by index, only accessed by the background writes
+        private final Map<Index, Long> writtenIndexVersions = new HashMap<>();
+        // the last accepted state whose index state files are not written yet, guarded by the mutex
+        private ClusterState pendingIndexStateFilesState;
+        // whether the background write of the index state files is scheduled or running, guarded by the mutex
+        private boolean indexStateFilesWriteScheduled;
+        private PersistedClusterStateService.Writer writer;
+        private long currentTerm;
+        private ClusterState lastAcceptedState;
+
+        LucenePersistedState(PersistedClusterStateService persistedClusterStateService, MetaStateService metaStateService,
+                             String nodeName, ThreadContext threadContext, long currentTerm,
+                             ClusterState lastAcceptedState) throws IOException {
+            this.persistedClusterStateService = persistedClusterStateService;
+            this.metaStateService = metaStateService;
+            this.indexStateFilesExecutor = EsExecutors.newScaling(nodeName + "/" + INDEX_STATE_FILES_THREAD_NAME, 0, 1, 60,
+                TimeUnit.SECONDS, EsExecutors.daemonThreadFactory(nodeName, INDEX_STATE_FILES_THREAD_NAME), threadContext);
+            this.currentTerm = currentTerm;
+            this.lastAcceptedState = lastAcceptedState;
+            boolean success = false;
+            try {
+                // the data paths may hold different states, or none at all if the state files are migrated, write the full state to each
+                writeFullState(currentTerm, lastAcceptedState);
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+            scheduleIndexStateFilesWrite(lastAcceptedState);
+        }
+
+        @Override
+        public long getCurrentTerm() {
+            return currentTerm;
+        }
+
+        @Override
+        public ClusterState getLastAcceptedState() {
+            return lastAcceptedState;
+        }
+
+        @Override
+        public void setCurrentTerm(long currentTerm) {
+            try {
+                if (writer == null) {
+                    writeFullState(currentTerm, lastAcceptedState);
+                } else {
+                    writer.commit(currentTerm, lastAcceptedState.version());
+                }
+            } catch (Exception e) {
+                handleExceptionOnWrite(e);
+            }
+            this.currentTerm = currentTerm;
+        }
+
+        @Override
+        public void setLastAcceptedState(ClusterState clusterState) {
+            try {
+                if (writer == null || clusterState.term() != lastAcceptedState.term()) {
+                    // a new term may come with a state that is unrelated to the last accepted one
+                    writeFullState(currentTerm, clusterState);
+                } else {
+                    writer.writeIncrementalStateAndCommit(currentTerm, lastAcceptedState, clusterState);
+                }
+            } catch (Exception e) {
+                handleExceptionOnWrite(e);
+            }
+            lastAcceptedState = clusterState;
+            scheduleIndexStateFilesWrite(clusterState);
+        }
+
+        private void scheduleIndexStateFilesWrite(ClusterState clusterState) {
+            synchronized (mutex) {
+                pendingIndexStateFilesState = clusterState;
+                if (indexStateFilesWriteScheduled) {
+                    return;
+                }
+                indexStateFilesWriteScheduled = true;
+            }
+            indexStateFilesExecutor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    while (true) {
+                        final ClusterState state;
+                        synchronized (mutex) {
+                            state = pendingIndexStateFilesState;
+                            pendingIndexStateFilesState = null;
+                            if (state == null) {
+                                indexStateFilesWriteScheduled = false;
+                                return;
+                            }
+                        }
+                        try {
+                            writeIndexStateFiles(state);
+                        } catch (Exception e) {
+                            // the failed files are written again with the next state since their versions were not recorded
+                            logger.warn(new ParameterizedMessage("failed to write the index state files of the cluster state with " +
+                                "version [{}]", state.version()), e);
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    assert false : e;
+                    logger.warn("failed to write the index state files", e);
+                    synchronized (mutex) {
+                        indexStateFilesWriteScheduled = false;
+                    }
+                }
+
+                @Override
+                public void onRejection(Exception e) {
+                    // the executor is shut down, the index state files are brought up to date on the next start
+                    logger.debug("not writing the index state files", e);
+                }
+            });
+        }
+
+        /**
+         * Writes the state file of each index whose metadata changed since it was last written. The versions of the files found on
+         * disk are checked first so that a restarted node does not write the state files of all its indices again.
+         */
+        private void writeIndexStateFiles(ClusterState clusterState) throws IOException {
+            final Set<Index> removedIndices = new HashSet<>(writtenIndexVersions.keySet());
+            for (IndexMetaData indexMetaData : clusterState.metaData()) {
+                final Index index = indexMetaData.getIndex();
+                removedIndices.remove(index);
+                Long writtenVersion = writtenIndexVersions.get(index);
+                if (writtenVersion == null) {
+                    final IndexMetaData onDiskIndexMetaData = metaStateService.loadIndexState(index);
+                    if (onDiskIndexMetaData != null) {
+                        writtenVersion = onDiskIndexMetaData.getVersion();
+                        writtenIndexVersions.put(index, writtenVersion);
+                    }
+                }
+                if (writtenVersion == null || writtenVersion != indexMetaData.getVersion()) {
+                    final long generation = metaStateService.writeIndex("version changed", indexMetaData);
+                    metaStateService.cleanupIndex(index, generation);
+                    writtenIndexVersions.put(index, indexMetaData.getVersion());
+                }
+            }
+            // the files of deleted indices are removed along with their index folder
+            writtenIndexVersions.keySet().removeAll(removedIndices);
+        }
+
+        private void writeFullState(long currentTerm, ClusterState clusterState) throws IOException {
+            if (writer == null) {
+                writer = persistedClusterStateService.createWriter();
+            }
+            writer.writeFullStateAndCommit(currentTerm, clusterState);
+        }
+
+        private void handleExceptionOnWrite(Exception e) {
+            if (writer != null && writer.isOpen() == false) {
+                writer = null;
+            }
+            if (e instanceof IOException) {
+                throw new UncheckedIOException((IOException) e);
+            }
+            throw ExceptionsHelper.convertToRuntime(e);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // lets the pending write of the index state files complete
+            ThreadPool.terminate(indexStateFilesExecutor, 10, TimeUnit.SECONDS);
+            IOUtils.close(writer);
+        }
+    }
+
     /**
      * This class is used to write changed global {@link MetaData}, {@link IndexMetaData} and {@link Manifest} to disk.
      * This class delegates <code>write*</code> calls to corresponding write calls in {@link MetaStateService} and
@@ -0,0 +1,458 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.gateway;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SerialMergeScheduler;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.SimpleFSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.env.NodeEnvironment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the cluster metadata of a master-eligible node in a bare Lucene index in the {@value MetaDataStateFormat#STATE_DIR_NAME}
+ * directory of each data path, rather than in one state file per index plus a {@link org.elasticsearch.cluster.metadata.Manifest}.
+ * The global metadata and the metadata of each index are stored as separate documents, and the current term and the version of the
+ * last accepted cluster state are stored in the user data of the Lucene commit. Publishing a cluster state is a single atomic Lucene
+ * commit that only rewrites the documents of the metadata that changed.
+ */
+public class PersistedClusterStateService {
+    private static final Logger logger = LogManager.getLogger(PersistedClusterStateService.class);
+
+    /**
+     * Whether master-eligible nodes persist the cluster metadata in a Lucene index. Once a node has written its metadata to the Lucene
+     * index it stops updating the global state and manifest files, so the setting must not be disabled again on that node: such a node
+     * refuses to start.
+     */
+    public static final Setting<Boolean> ENABLED_SETTING =
+        Setting.boolSetting("gateway.persisted_state.lucene.enabled", false, Setting.Property.NodeScope);
+
+    private static final String CURRENT_TERM_KEY = "current_term";
+    private static final String LAST_ACCEPTED_VERSION_KEY = "last_accepted_version";
+    private static final String NODE_VERSION_KEY = "node_version";
+    private static final String TYPE_FIELD_NAME = "type";
+    private static final String DATA_FIELD_NAME = "data";
+    private static final String GLOBAL_TYPE_NAME = "global";
+    private static final String INDEX_TYPE_NAME = "index";
+    private static final String INDEX_UUID_FIELD_NAME = "index_uuid";
+
+    private final Path[] dataPaths;
+    private final NamedXContentRegistry namedXContentRegistry;
+    private final boolean enabled;
+
+    public PersistedClusterStateService(Settings settings, NodeEnvironment nodeEnvironment, NamedXContentRegistry namedXContentRegistry) {
+        this(nodeEnvironment.hasNodeFile() ? nodeEnvironment.nodeDataPaths() : new Path[0], namedXContentRegistry,
+            ENABLED_SETTING.get(settings));
+    }
+
+    PersistedClusterStateService(Path[] dataPaths, NamedXContentRegistry namedXContentRegistry, boolean enabled) {
+        this.dataPaths = dataPaths;
+        this.namedXContentRegistry = namedXContentRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns <code>true</code> if the cluster metadata should be persisted by this service rather than in state files.
+     */
+    public boolean isEnabled() {
+        return enabled && dataPaths.length > 0;
+    }
+
+    /**
+     * Returns the data paths that hold a metadata index, whether or not this service is enabled.
+     */
+    public List<Path> findDataPathsWithMetaDataIndex() throws IOException {
+        final List<Path> dataPathsWithMetaDataIndex = new ArrayList<>();
+        for (Path dataPath : dataPaths) {
+            final Path indexPath = dataPath.resolve(MetaDataStateFormat.STATE_DIR_NAME);
+            if (Files.exists(indexPath) == false) {
+                continue;
+            }
+            try (Directory directory = createDirectory(indexPath)) {
+                if (DirectoryReader.indexExists(directory)) {
+                    dataPathsWithMetaDataIndex.add(dataPath);
+                }
+            }
+        }
+        return dataPathsWithMetaDataIndex;
+    }
+
+    /**
+     * Loads the best on-disk state, i.e. the one with the highest current term and last accepted version, of all data paths. Returns
+     * an {@link OnDiskState#empty() empty} state if no data path holds a metadata index yet.
+     */
+    public OnDiskState loadBestOnDiskState() throws IOException {
+        Path bestDataPath = null;
+        long bestCurrentTerm = Long.MIN_VALUE;
+        long bestLastAcceptedVersion = Long.MIN_VALUE;
+        for (Path dataPath : dataPaths) {
+            final Path indexPath = dataPath.resolve(MetaDataStateFormat.STATE_DIR_NAME);
+            if (Files.exists(indexPath) == false) {
+                continue;
+            }
+            try (Directory directory = createDirectory(indexPath)) {
+                if (DirectoryReader.indexExists(directory) == false) {
+                    continue;
+                }
+                final Map<String, String> userData = SegmentInfos.readLatestCommit(directory).getUserData();
+                final long currentTerm = Long.parseLong(userData.get(CURRENT_TERM_KEY));
+                final long lastAcceptedVersion = Long.parseLong(userData.get(LAST_ACCEPTED_VERSION_KEY));
+                logger.trace("found metadata with term [{}] and version [{}] written by node version [{}] in [{}]",
+                    currentTerm, lastAcceptedVersion, userData.get(NODE_VERSION_KEY), dataPath);
+                if (currentTerm > bestCurrentTerm || (currentTerm == bestCurrentTerm && lastAcceptedVersion > bestLastAcceptedVersion)) {
+                    bestDataPath = dataPath;
+                    bestCurrentTerm = currentTerm;
+                    bestLastAcceptedVersion = lastAcceptedVersion;
+                }
+            }
+        }
+        if (bestDataPath == null) {
+            return OnDiskState.NO_ON_DISK_STATE;
+        }
+        final MetaData metaData = loadMetaData(bestDataPath.resolve(MetaDataStateFormat.STATE_DIR_NAME));
+        return new OnDiskState(bestDataPath, bestCurrentTerm, bestLastAcceptedVersion, metaData);
+    }
+
+    private MetaData loadMetaData(Path indexPath) throws IOException {
+        MetaData globalMetaData = null;
+        final List<IndexMetaData> indexMetaDatas = new ArrayList<>();
+        try (Directory directory = createDirectory(indexPath);
+             DirectoryReader reader = DirectoryReader.open(directory)) {
+            for (LeafReaderContext context : reader.leaves()) {
+                final LeafReader leafReader = context.reader();
+                final Bits liveDocs = leafReader.getLiveDocs();
+                for (int docId = 0; docId < leafReader.maxDoc(); docId++) {
+                    if (liveDocs != null && liveDocs.get(docId) == false) {
+                        continue;
+                    }
+                    final Document document = leafReader.document(docId);
+                    final String type = document.get(TYPE_FIELD_NAME);
+                    final BytesRef data = document.getBinaryValue(DATA_FIELD_NAME);
+                    if (GLOBAL_TYPE_NAME.equals(type)) {
+                        if (globalMetaData != null) {
+                            throw new IllegalStateException("found global metadata more than once in [" + indexPath + "]");
+                        }
+                        globalMetaData = readXContent(data, MetaData.FORMAT);
+                    } else if (INDEX_TYPE_NAME.equals(type)) {
+                        indexMetaDatas.add(readXContent(data, IndexMetaData.FORMAT));
+                    } else {
+                        throw new IllegalStateException("unexpected metadata document of type [" + type + "] in [" + indexPath + "]");
+                    }
+                }
+            }
+        }
+        if (globalMetaData == null) {
+            throw new IllegalStateException("no global metadata found in [" + indexPath + "]");
+        }
+        final MetaData.Builder builder = MetaData.builder(globalMetaData);
+        for (IndexMetaData indexMetaData : indexMetaDatas) {
+            builder.put(indexMetaData, false);
+        }
+        return builder.build();
+    }
+
+    private <T> T readXContent(BytesRef bytes, MetaDataStateFormat<T> format) throws IOException {
+        try (XContentParser parser = XContentType.SMILE.xContent().createParser(namedXContentRegistry, LoggingDeprecationHandler.INSTANCE,
+                bytes.bytes, bytes.offset, bytes.length)) {
+            return format.fromXContent(parser);
+        }
+    }
+
+    /**
+     * Creates a writer that holds the metadata index of every data path open until it is closed. The first state written with a new
+     * writer must be a {@link Writer#writeFullStateAndCommit full} one since the data paths may hold different states.
+     */
+    public Writer createWriter() throws IOException {
+        final List<Closeable> closeables = new ArrayList<>();
+        final List<IndexWriter> indexWriters = new ArrayList<>();
+        boolean success = false;
+        try {
+            for (Path dataPath : dataPaths) {
+                final Path indexPath = dataPath.resolve(MetaDataStateFormat.STATE_DIR_NAME);
+                Files.createDirectories(indexPath);
+                final Directory directory = createDirectory(indexPath);
+                closeables.add(directory);
+                final IndexWriter indexWriter = createIndexWriter(directory);
+                closeables.add(indexWriter);
+                indexWriters.add(indexWriter);
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                IOUtils.closeWhileHandlingException(closeables);
+            }
+        }
+        return new Writer(indexWriters, closeables);
+    }
+
+    private static IndexWriter createIndexWriter(Directory directory) throws IOException {
+        final IndexWriterConfig indexWriterConfig = new IndexWriterConfig(new KeywordAnalyzer());
+        indexWriterConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        // changes must only become visible once the whole cluster state was written
+        indexWriterConfig.setCommitOnClose(false);
+        // the index is small and only written by the cluster state applier, merge on the writing thread
+        indexWriterConfig.setMergeScheduler(new SerialMergeScheduler());
+        return new IndexWriter(directory, indexWriterConfig);
+    }
+
+    // exposed for tests
+    Directory createDirectory(Path path) throws IOException {
+        // it is possible to disable the use of MMapDirectory for indices, and it may be surprising to users that have done so if we
+        // still use a MMapDirectory here, which might happen with FSDirectory.open(path). Concurrency is of no concern here so a
+        // SimpleFSDirectory is fine:
+        return new SimpleFSDirectory(path);
+    }
+
+    /**
+     * The cluster metadata found on disk, along with the current term and the version of the last accepted cluster state.
+     */
+    public static class OnDiskState {
+        private static final OnDiskState NO_ON_DISK_STATE = new OnDiskState(null, 0L, 0L, MetaData.EMPTY_META_DATA);
+
+        @Nullable
+        public final Path dataPath;
+        public final long currentTerm;
+        public final long lastAcceptedVersion;
+        public final MetaData metaData;
+
+        private OnDiskState(@Nullable Path dataPath, long currentTerm, long lastAcceptedVersion, MetaData metaData) {
+            this.dataPath = dataPath;
+            this.currentTerm = currentTerm;
+            this.lastAcceptedVersion = lastAcceptedVersion;
+            this.metaData = metaData;
+        }
+
+        public boolean empty() {
+            return this == NO_ON_DISK_STATE;
+        }
+    }
+
+    /**
+     * Writes cluster states to the metadata index of every data path. A writer must not be used anymore once one of its methods
+     * threw an exception, it is closed by then and a new one must be created.
+     */
+    public static class Writer implements Closeable {
+
+        private final List<IndexWriter> indexWriters;
+        private final List<Closeable> closeables;
+        private boolean fullStateWritten = false;
+        private boolean closed = false;
+
+        private Writer(List<IndexWriter> indexWriters, List<Closeable> closeables) {
+            this.indexWriters = indexWriters;
+            this.closeables = closeables;
+        }
+
+        /**
+         * Replaces the metadata stored in every data path with the metadata of the given cluster state and commits it.
+         */
+        public void writeFullStateAndCommit(long currentTerm, ClusterState clusterState) throws IOException {
+            ensureOpen();
+            try {
+                for (IndexWriter indexWriter : indexWriters) {
+                    indexWriter.deleteAll();
+                }
+                addDocument(makeGlobalMetaDataDocument(clusterState.metaData()));
+                for (IndexMetaData indexMetaData : clusterState.metaData()) {
+                    addDocument(makeIndexMetaDataDocument(indexMetaData));
+                }
+                innerCommit(currentTerm, clusterState.version());
+                fullStateWritten = true;
+            } catch (Exception e) {
+                closeOnFailure(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Updates the documents of the global metadata and of the indices whose metadata changed between the two given cluster states,
+         * removes the documents of the deleted indices, and commits.
+         */
+        public void writeIncrementalStateAndCommit(long currentTerm, ClusterState previousClusterState,
+                                                   ClusterState clusterState) throws IOException {
+            ensureOpen();
+            assert fullStateWritten : "must write the full state before writing incremental states";
+            try {
+                final MetaData previousMetaData = previousClusterState.metaData();
+                final MetaData metaData = clusterState.metaData();
+                if (MetaData.isGlobalStateEquals(previousMetaData, metaData) == false) {
+                    updateDocument(new Term(TYPE_FIELD_NAME, GLOBAL_TYPE_NAME), makeGlobalMetaDataDocument(metaData));
+                }
+
+                final Map<String, Long> previousIndexVersions = new HashMap<>();
+                for (IndexMetaData indexMetaData : previousMetaData) {
+                    previousIndexVersions.put(indexMetaData.getIndexUUID(), indexMetaData.getVersion());
+                }
+                int updatedIndices = 0;
+                for (IndexMetaData indexMetaData : metaData) {
+                    final Long previousVersion = previousIndexVersions.remove(indexMetaData.getIndexUUID());
+                    if (previousVersion == null || previousVersion != indexMetaData.getVersion()) {
+                        updateDocument(new Term(INDEX_UUID_FIELD_NAME, indexMetaData.getIndexUUID()),
+                            makeIndexMetaDataDocument(indexMetaData));
+                        updatedIndices++;
+                    }
+                }
+                for (String indexUUID : previousIndexVersions.keySet()) {
+                    deleteDocuments(new Term(INDEX_UUID_FIELD_NAME, indexUUID));
+                }
+                logger.trace("writing cluster state version [{}]: updated [{}] indices and removed [{}] indices",
+                    clusterState.version(), updatedIndices, previousIndexVersions.size());
+
+                innerCommit(currentTerm, clusterState.version());
+            } catch (Exception e) {
+                closeOnFailure(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Commits the given current term and last accepted version without changing the stored metadata.
+         */
+        public void commit(long currentTerm, long lastAcceptedVersion) throws IOException {
+            ensureOpen();
+            assert fullStateWritten : "must write the full state before committing";
+            try {
+                innerCommit(currentTerm, lastAcceptedVersion);
+            } catch (Exception e) {
+                closeOnFailure(e);
+                throw e;
+            }
+        }
+
+        public boolean isOpen() {
+            return closed == false;
+        }
+
+        private void innerCommit(long currentTerm, long lastAcceptedVersion) throws IOException {
+            final Map<String, String> commitData = new HashMap<>(3);
+            commitData.put(CURRENT_TERM_KEY, Long.toString(currentTerm));
+            commitData.put(LAST_ACCEPTED_VERSION_KEY, Long.toString(lastAcceptedVersion));
+            commitData.put(NODE_VERSION_KEY, Integer.toString(Version.CURRENT.id));
+            // prepare every data path first so that a failure leaves none of them with a partially written state
+            for (IndexWriter indexWriter : indexWriters) {
+                indexWriter.setLiveCommitData(commitData.entrySet());
+                indexWriter.prepareCommit();
+            }
+            for (IndexWriter indexWriter : indexWriters) {
+                indexWriter.commit();
+            }
+        }
+
+        private void addDocument(Document document) throws IOException {
+            for (IndexWriter indexWriter : indexWriters) {
+                indexWriter.addDocument(document);
+            }
+        }
+
+        private void updateDocument(Term term, Document document) throws IOException {
+            for (IndexWriter indexWriter : indexWriters) {
+                indexWriter.updateDocument(term, document);
+            }
+        }
+
+        private void deleteDocuments(Term term) throws IOException {
+            for (IndexWriter indexWriter : indexWriters) {
+                indexWriter.deleteDocuments(term);
+            }
+        }
+
+        private void ensureOpen() {
+            if (closed) {
+                throw new AlreadyClosedException("cluster state writer is closed");
+            }
+        }
+
+        private void closeOnFailure(Exception e) {
+            logger.debug("closing cluster state writer after a failed write", e);
+            closed = true;
+            IOUtils.closeWhileHandlingException(closeables);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed == false) {
+                closed = true;
+                // uncommitted changes are rolled back since the index writers don't commit on close
+                IOUtils.close(closeables);
+            }
+        }
+    }
+
+    private static Document makeGlobalMetaDataDocument(MetaData metaData) throws IOException {
+        return makeDocument(GLOBAL_TYPE_NAME, metaData, MetaData.FORMAT);
+    }
+
+    private static Document makeIndexMetaDataDocument(IndexMetaData indexMetaData) throws IOException {
+        final Document document = makeDocument(INDEX_TYPE_NAME, indexMetaData, IndexMetaData.FORMAT);
+        document.add(new StringField(INDEX_UUID_FIELD_NAME, indexMetaData.getIndexUUID(), Field.Store.NO));
+        return document;
+    }
+
+    private static <T> Document makeDocument(String typeName, T state, MetaDataStateFormat<T> format) throws IOException {
+        final Document document = new Document();
+        document.add(new StringField(TYPE_FIELD_NAME, typeName, Field.Store.YES));
+        try (XContentBuilder builder = XContentFactory.smileBuilder()) {
+            builder.startObject();
+            format.toXContent(builder, state);
+            builder.endObject();
+            document.add(new StoredField(DATA_FIELD_NAME, BytesReference.bytes(builder).toBytesRef()));
+        }
+        return document;
+    }
+}
@@ -130,6 +130,13 @@ public final class IndexSettings {
         Setting.intSetting("index.highlight.max_analyzed_offset", 1000000, 1,
             Property.Dynamic, Property.IndexScope);
 
+    /**
+     * The maximum memory the highlights cached by each shard of the index may use. Caching highlights helps when paging through
+     * the same results over and over. Defaults to <code>0</code> which disables the cache.
+     */
+    public static final Setting<ByteSizeValue> HIGHLIGHT_CACHE_SIZE_SETTING =
+        Setting.byteSizeSetting("index.highlight.cache.size", new ByteSizeValue(0), Property.IndexScope);
+
 
     /**
      * Index setting describing the maximum number of terms that can be used in Terms Query.
@@ -184,6 +191,21 @@ public final class IndexSettings {
     public static final Setting<TimeValue> INDEX_REFRESH_INTERVAL_SETTING =
         Setting.timeSetting("index.refresh_interval", DEFAULT_REFRESH_INTERVAL, new TimeValue(-1, TimeUnit.MILLISECONDS),
             Property.Dynamic, Property.IndexScope);
+    /**
+     * Whether the scheduled refresh of a shard adapts its interval to search activity and indexing pressure, between
+     * {@code index.refresh_interval} and {@code index.refresh.adaptive.max_interval}.
+     */
+    public static final Setting<Boolean> INDEX_REFRESH_ADAPTIVE_ENABLED_SETTING =
+        Setting.boolSetting("index.refresh.adaptive.enabled", false, Property.Dynamic, Property.IndexScope);
+    public static final Setting<TimeValue> INDEX_REFRESH_ADAPTIVE_MAX_INTERVAL_SETTING =
+        Setting.timeSetting("index.refresh.adaptive.max_interval", TimeValue.timeValueSeconds(30), TimeValue.timeValueMillis(1),
+            Property.Dynamic, Property.IndexScope);
+    /**
+     * The number of documents per second a shard needs to index for its scheduled refreshes to be spread out even while it is
+     * being searched.
+     */
+    public static final Setting<Integer> INDEX_REFRESH_ADAPTIVE_HEAVY_INDEXING_RATE_SETTING =
+        Setting.intSetting("index.refresh.adaptive.heavy_indexing_rate", 5000, 1, Property.Dynamic, Property.IndexScope);
     public static final Setting<ByteSizeValue> INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING =
         Setting.byteSizeSetting("index.translog.flush_threshold_size", new ByteSizeValue(512, ByteSizeUnit.MB),
             /*
@@ -249,6 +271,20 @@ public final class IndexSettings {
         settings -> Boolean.toString(IndexMetaData.SETTING_INDEX_VERSION_CREATED.get(settings).onOrAfter(Version.V_7_0_0)),
         Property.IndexScope, Property.Final);
 
+    /**
+     * Specifies if the index only accepts new documents with auto-generated ids. Updates and deletes are rejected which allows
+     * the engine to append documents without maintaining the live version map.
+     */
+    public static final Setting<Boolean> INDEX_APPEND_ONLY_SETTING =
+        Setting.boolSetting("index.append_only", false, Property.IndexScope, Property.Final);
+
+    /**
+     * Specifies if the primary indexes runs of consecutive bulk items that index new documents with auto-generated ids as a single
+     * batch rather than one document at a time.
+     */
+    public static final Setting<Boolean> INDEX_BATCH_AUTO_GENERATED_IDS_SETTING =
+        Setting.boolSetting("index.bulk.batch_auto_generated_ids", false, Property.Dynamic, Property.IndexScope);
+
     /**
      * Controls how many soft-deleted documents will be kept around before being merged away. Keeping more deleted
      * documents increases the chance of operation-based recoveries and allows querying a longer history of documents.
@@ -318,6 +354,9 @@ public final class IndexSettings {
     private volatile Translog.Durability durability;
     private volatile TimeValue syncInterval;
     private volatile TimeValue refreshInterval;
+    private volatile boolean adaptiveRefresh;
+    private volatile TimeValue adaptiveRefreshMaxInterval;
+    private volatile int adaptiveRefreshHeavyIndexingRate;
     private volatile ByteSizeValue flushThresholdSize;
     private volatile TimeValue translogRetentionAge;
     private volatile ByteSizeValue translogRetentionSize;
@@ -329,6 +368,7 @@ public final class IndexSettings {
     private long gcDeletesInMillis = DEFAULT_GC_DELETES.millis();
     private final boolean softDeleteEnabled;
     private volatile long softDeleteRetentionOperations;
+    private final boolean appendOnly;
 
     private volatile long retentionLeaseMillis;
 
@@ -452,6 +492,9 @@ public final class IndexSettings {
         defaultFields = scopedSettings.get(DEFAULT_FIELD_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
+        adaptiveRefresh = scopedSettings.get(INDEX_REFRESH_ADAPTIVE_ENABLED_SETTING);
+        adaptiveRefreshMaxInterval = scopedSettings.get(INDEX_REFRESH_ADAPTIVE_MAX_INTERVAL_SETTING);
+        adaptiveRefreshHeavyIndexingRate = scopedSettings.get(INDEX_REFRESH_ADAPTIVE_HEAVY_INDEXING_RATE_SETTING);
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
         translogRetentionAge = scopedSettings.get(INDEX_TRANSLOG_RETENTION_AGE_SETTING);
         translogRetentionSize = scopedSettings.get(INDEX_TRANSLOG_RETENTION_SIZE_SETTING);
@@ -461,6 +504,7 @@ public final class IndexSettings {
         softDeleteEnabled = version.onOrAfter(Version.V_6_5_0) && scopedSettings.get(INDEX_SOFT_DELETES_SETTING);
         softDeleteRetentionOperations = scopedSettings.get(INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING);
         retentionLeaseMillis = scopedSettings.get(INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING).millis();
+        appendOnly = scopedSettings.get(INDEX_APPEND_ONLY_SETTING);
         warmerEnabled = scopedSettings.get(INDEX_WARMER_ENABLED_SETTING);
         maxResultWindow = scopedSettings.get(MAX_RESULT_WINDOW_SETTING);
         maxInnerResultWindow = scopedSettings.get(MAX_INNER_RESULT_WINDOW_SETTING);
@@ -520,6 +564,10 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_RETENTION_AGE_SETTING, this::setTranslogRetentionAge);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_RETENTION_SIZE_SETTING, this::setTranslogRetentionSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_ADAPTIVE_ENABLED_SETTING, this::setAdaptiveRefresh);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_ADAPTIVE_MAX_INTERVAL_SETTING, this::setAdaptiveRefreshMaxInterval);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_ADAPTIVE_HEAVY_INDEXING_RATE_SETTING,
+            this::setAdaptiveRefreshHeavyIndexingRate);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
         scopedSettings.addSettingsUpdateConsumer(MAX_TERMS_COUNT_SETTING, this::setMaxTermsCount);
@@ -559,6 +607,18 @@ public final class IndexSettings {
         this.refreshInterval = timeValue;
     }
 
+    private void setAdaptiveRefresh(boolean adaptiveRefresh) {
+        this.adaptiveRefresh = adaptiveRefresh;
+    }
+
+    private void setAdaptiveRefreshMaxInterval(TimeValue adaptiveRefreshMaxInterval) {
+        this.adaptiveRefreshMaxInterval = adaptiveRefreshMaxInterval;
+    }
+
+    private void setAdaptiveRefreshHeavyIndexingRate(int adaptiveRefreshHeavyIndexingRate) {
+        this.adaptiveRefreshHeavyIndexingRate = adaptiveRefreshHeavyIndexingRate;
+    }
+
     /**
      * Returns the settings for this index. These settings contain the node and index level settings where
      * settings that are specified on both index and node level are overwritten by the index settings.
@@ -713,6 +773,28 @@ public final class IndexSettings {
         return refreshInterval;
     }
 
+    /**
+     * Returns <code>true</code> if the scheduled refresh of the shards of this index adapts its interval to search activity and
+     * indexing pressure.
+     */
+    public boolean isAdaptiveRefresh() {
+        return adaptiveRefresh;
+    }
+
+    /**
+     * Returns the longest interval the adaptive refresh may stretch the scheduled refresh of a shard to.
+     */
+    public TimeValue getAdaptiveRefreshMaxInterval() {
+        return adaptiveRefreshMaxInterval;
+    }
+
+    /**
+     * Returns the indexing rate, in documents per second, above which a shard is considered to be under heavy indexing.
+     */
+    public int getAdaptiveRefreshHeavyIndexingRate() {
+        return adaptiveRefreshHeavyIndexingRate;
+    }
+
     /**
      * Returns the transaction log threshold size when to forcefully flush the index and clear the transaction log.
      */
@@ -940,6 +1022,13 @@ public final class IndexSettings {
         return softDeleteEnabled;
     }
 
+    /**
+     * Returns <code>true</code> if the index only accepts new documents with auto-generated ids.
+     */
+    public boolean isAppendOnly() {
+        return appendOnly;
+    }
+
     private void setSoftDeleteRetentionOperations(long ops) {
         this.softDeleteRetentionOperations = ops;
     }
@@ -85,6 +85,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Comparator;
@@ -379,6 +380,22 @@ public abstract class Engine implements Closeable {
      */
     public abstract IndexResult index(Index index) throws IOException;
 
+    /**
+     * Perform a batch of document index operations on the engine. Engines that can't index several documents at once
+     * index them one by one.
+     * @param operations the operations to perform
+     * @return the {@link IndexResult}s of the operations, in the order of the given operations
+     *
+     * Note: engine level failures (i.e. persistent engine failures) are thrown
+     */
+    public List<IndexResult> index(List<Index> operations) throws IOException {
+        final List<IndexResult> results = new ArrayList<>(operations.size());
+        for (Index operation : operations) {
+            results.add(index(operation));
+        }
+        return results;
+    }
+
     /**
      * Perform document delete operation on the engine
      * @param delete operation to perform
@@ -518,10 +535,16 @@ public abstract class Engine implements Closeable {
     public static class IndexResult extends Result {
 
         private final boolean created;
+        private final boolean appendOnly;
 
         public IndexResult(long version, long term, long seqNo, boolean created) {
+            this(version, term, seqNo, created, false);
+        }
+
+        public IndexResult(long version, long term, long seqNo, boolean created, boolean appendOnly) {
             super(Operation.TYPE.INDEX, version, term, seqNo);
             this.created = created;
+            this.appendOnly = appendOnly;
         }
 
         /**
@@ -534,17 +557,26 @@ public abstract class Engine implements Closeable {
         public IndexResult(Exception failure, long version, long term, long seqNo) {
             super(Operation.TYPE.INDEX, failure, version, term, seqNo);
             this.created = false;
+            this.appendOnly = false;
         }
 
         public IndexResult(Mapping requiredMappingUpdate) {
             super(Operation.TYPE.INDEX, requiredMappingUpdate);
             this.created = false;
+            this.appendOnly = false;
         }
 
         public boolean isCreated() {
             return created;
         }
 
+        /**
+         * Returns <code>true</code> if the document was appended without consulting the live version map
+         */
+        public boolean isAppendOnly() {
+            return appendOnly;
+        }
+
     }
 
     public static class DeleteResult extends Result {
@@ -51,6 +51,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.SuppressForbidden;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.LoggerInfoStream;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -88,9 +89,12 @@ import org.elasticsearch.threadpool.ThreadPool;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -157,6 +161,7 @@ public class InternalEngine extends Engine {
     private final CounterMetric numDocUpdates = new CounterMetric();
     private final NumericDocValuesField softDeletesField = Lucene.newSoftDeletesField();
     private final boolean softDeleteEnabled;
+    private final boolean appendOnlyIndex;
     private final SoftDeletesPolicy softDeletesPolicy;
     private final LastRefreshedCheckpointListener lastRefreshedCheckpointListener;
 
@@ -195,6 +200,7 @@ public class InternalEngine extends Engine {
                 assert translog.getGeneration() != null;
                 this.translog = translog;
                 this.softDeleteEnabled = engineConfig.getIndexSettings().isSoftDeleteEnabled();
+                this.appendOnlyIndex = engineConfig.getIndexSettings().isAppendOnly();
                 this.softDeletesPolicy = newSoftDeletesPolicy();
                 this.combinedDeletionPolicy =
                     new CombinedDeletionPolicy(logger, translogDeletionPolicy, softDeletesPolicy, translog::getLastSyncedGlobalCheckpoint);
@@ -612,11 +618,17 @@ public class InternalEngine extends Engine {
             SearcherScope scope;
             if (get.realtime()) {
                 VersionValue versionValue = null;
-                try (Releasable ignore = versionMap.acquireLock(get.uid().bytes())) {
-                    // we need to lock here to access the version map to do this truly in RT
-                    versionValue = getVersionFromMap(get.uid().bytes());
+                if (appendOnlyIndex == false) {
+                    try (Releasable ignore = versionMap.acquireLock(get.uid().bytes())) {
+                        // we need to lock here to access the version map to do this truly in RT
+                        versionValue = getVersionFromMap(get.uid().bytes());
+                    }
                 }
-                if (versionValue != null) {
+                if (appendOnlyIndex) {
+                    // append-only indices don't maintain the version map on the primary, refresh to see recently appended documents
+                    // but only if the internal reader doesn't cover all operations processed so far
+                    refreshIfNeeded("realtime_get", localCheckpointTracker.getMaxSeqNo());
+                } else if (versionValue != null) {
                     if (versionValue.isDelete()) {
                         return GetResult.NOT_EXISTS;
                     }
@@ -906,7 +918,8 @@ public class InternalEngine extends Engine {
                     }
                     indexResult.setTranslogLocation(location);
                 }
-                if (plan.indexIntoLucene && indexResult.getResultType() == Result.Type.SUCCESS) {
+                if (plan.indexIntoLucene && indexResult.getResultType() == Result.Type.SUCCESS
+                    && (appendOnlyIndex == false || index.origin() != Operation.Origin.PRIMARY)) {
                     final Translog.Location translogLocation = trackTranslogLocation.get() ? indexResult.getTranslogLocation() : null;
                     versionMap.maybePutIndexUnderLock(index.uid().bytes(),
                         new IndexVersionValue(translogLocation, plan.versionForIndexing, index.seqNo(), index.primaryTerm()));
@@ -926,6 +939,161 @@ public class InternalEngine extends Engine {
         }
     }
 
+    /**
+     * Indexes a batch of new documents with auto-generated ids on the primary. Such documents can't conflict with each other, so
+     * the whole batch is added to Lucene with a single {@link IndexWriter#addDocuments} call and written to the translog with a single
+     * write. Batches that contain any other operation are indexed one by one.
+     */
+    @Override
+    public List<IndexResult> index(List<Index> operations) throws IOException {
+        if (operations.size() < 2 || canIndexAsBatch(operations) == false) {
+            return super.index(operations);
+        }
+        try (ReleasableLock releasableLock = readLock.acquire()) {
+            ensureOpen();
+            try (Releasable ignored = acquireUidLocks(operations);
+                 Releasable indexThrottle = throttle.acquireThrottle()) {
+                return indexBatch(operations);
+            }
+        } catch (RuntimeException | IOException e) {
+            try {
+                maybeFailEngine("index", e);
+            } catch (Exception inner) {
+                e.addSuppressed(inner);
+            }
+            throw e;
+        }
+    }
+
+    private boolean canIndexAsBatch(List<Index> operations) {
+        final Set<BytesRef> uids = new HashSet<>();
+        for (Index index : operations) {
+            assert Objects.equals(index.uid().field(), IdFieldMapper.NAME) : index.uid().field();
+            if (index.origin() != Operation.Origin.PRIMARY || index.seqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO || index.isRetry()
+                || canOptimizeAddDocument(index) == false || uids.add(index.uid().bytes()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Acquires the locks of the uids of all given operations, in uid order so that concurrent batches can't deadlock.
+     */
+    private Releasable acquireUidLocks(List<Index> operations) {
+        final BytesRef[] uids = operations.stream().map(index -> index.uid().bytes()).sorted().toArray(BytesRef[]::new);
+        final List<Releasable> locks = new ArrayList<>(uids.length);
+        boolean success = false;
+        try {
+            for (BytesRef uid : uids) {
+                locks.add(versionMap.acquireLock(uid));
+            }
+            success = true;
+            return Releasables.wrap(locks);
+        } finally {
+            if (success == false) {
+                Releasables.close(locks);
+            }
+        }
+    }
+
+    private List<IndexResult> indexBatch(List<Index> operations) throws IOException {
+        final List<Index> indices = new ArrayList<>(operations.size());
+        final List<IndexingStrategy> plans = new ArrayList<>(operations.size());
+        for (Index index : operations) {
+            assert assertIncomingSequenceNumber(index.origin(), index.seqNo());
+            lastWriteNanos = index.startTime();
+            final IndexingStrategy plan = indexingStrategyForOperation(index);
+            assert plan.indexIntoLucene && plan.earlyResultOnPreFlightError.isPresent() == false : "can't batch [" + index.id() + "]";
+            index = new Index(index.uid(), index.parsedDoc(), generateSeqNoForOperationOnPrimary(index), index.primaryTerm(),
+                index.version(), index.versionType(), index.origin(), index.startTime(), index.getAutoGeneratedIdTimestamp(),
+                index.isRetry(), index.getIfSeqNo(), index.getIfPrimaryTerm());
+            if (plan.useLuceneUpdateDocument) {
+                advanceMaxSeqNoOfUpdatesOrDeletesOnPrimary(index.seqNo());
+            }
+            indices.add(index);
+            plans.add(plan);
+        }
+
+        final List<IndexResult> results = indexBatchIntoLucene(indices, plans);
+
+        final List<Translog.Index> translogOperations = new ArrayList<>(indices.size());
+        for (int i = 0; i < indices.size(); i++) {
+            final Index index = indices.get(i);
+            final IndexResult indexResult = results.get(i);
+            if (indexResult.getResultType() == Result.Type.SUCCESS) {
+                translogOperations.add(new Translog.Index(index, indexResult));
+            } else {
+                // if we have document failure, record it as a no-op in the translog and Lucene with the generated seq_no
+                final NoOp noOp = new NoOp(indexResult.getSeqNo(), index.primaryTerm(), index.origin(),
+                    index.startTime(), indexResult.getFailure().toString());
+                indexResult.setTranslogLocation(innerNoOp(noOp).getTranslogLocation());
+            }
+        }
+        final Iterator<Translog.Location> locations = translog.add(translogOperations).iterator();
+        for (int i = 0; i < indices.size(); i++) {
+            final Index index = indices.get(i);
+            final IndexResult indexResult = results.get(i);
+            if (indexResult.getResultType() == Result.Type.SUCCESS) {
+                indexResult.setTranslogLocation(locations.next());
+                if (appendOnlyIndex == false) {
+                    final Translog.Location translogLocation = trackTranslogLocation.get() ? indexResult.getTranslogLocation() : null;
+                    versionMap.maybePutIndexUnderLock(index.uid().bytes(),
+                        new IndexVersionValue(translogLocation, plans.get(i).versionForIndexing, index.seqNo(), index.primaryTerm()));
+                }
+            }
+            localCheckpointTracker.markSeqNoAsCompleted(indexResult.getSeqNo());
+            indexResult.setTook(System.nanoTime() - index.startTime());
+            indexResult.freeze();
+        }
+        assert locations.hasNext() == false;
+        return results;
+    }
+
+    private List<IndexResult> indexBatchIntoLucene(List<Index> indices, List<IndexingStrategy> plans) throws IOException {
+        final IndexResult[] results = new IndexResult[indices.size()];
+        final List<ParseContext.Document> docs = new ArrayList<>();
+        for (int i = 0; i < indices.size(); i++) {
+            final Index index = indices.get(i);
+            final IndexingStrategy plan = plans.get(i);
+            if (plan.useLuceneUpdateDocument) {
+                // the document may have been indexed before, which is rare enough to not bother batching it
+                results[i] = indexIntoLucene(index, plan);
+            } else {
+                index.parsedDoc().updateSeqID(index.seqNo(), index.primaryTerm());
+                index.parsedDoc().version().setLongValue(plan.versionForIndexing);
+                assert assertDocDoesNotExist(index, false);
+                docs.addAll(index.docs());
+            }
+        }
+        if (docs.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        boolean added = false;
+        try {
+            indexWriter.addDocuments(docs);
+            numDocAppends.inc(docs.size());
+            added = true;
+        } catch (Exception ex) {
+            if (indexWriter.getTragicException() != null) {
+                throw ex;
+            }
+            // IndexWriter drops all documents of the batch on a document failure, index them one by one to only fail the culprits
+            logger.trace("failed to add a batch of [{}] documents, adding them one by one", docs.size());
+        }
+        for (int i = 0; i < indices.size(); i++) {
+            final Index index = indices.get(i);
+            final IndexingStrategy plan = plans.get(i);
+            if (plan.useLuceneUpdateDocument == false) {
+                results[i] = added
+                    ? new IndexResult(plan.versionForIndexing, index.primaryTerm(), index.seqNo(), plan.currentNotFoundOrDeleted,
+                        plan.appendOnly)
+                    : indexIntoLucene(index, plan);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
     protected final IndexingStrategy planIndexingAsNonPrimary(Index index) throws IOException {
         assertNonPrimaryOrigin(index);
         final IndexingStrategy plan;
@@ -986,10 +1154,17 @@ public class InternalEngine extends Engine {
         assert index.origin() == Operation.Origin.PRIMARY : "planing as primary but origin isn't. got " + index.origin();
         final IndexingStrategy plan;
         // resolve an external operation into an internal one which is safe to replay
-        if (canOptimizeAddDocument(index)) {
+        if (appendOnlyIndex && canOptimizeAddDocument(index) == false) {
+            final IllegalArgumentException e = new IllegalArgumentException("index [" + shardId.getIndexName()
+                + "] is append-only and only accepts new documents with auto-generated ids, got document with id [" + index.id() + "]");
+            plan = IndexingStrategy.rejectAsNotAppendOnly(e, getPrimaryTerm());
+        } else if (canOptimizeAddDocument(index)) {
             if (mayHaveBeenIndexedBefore(index)) {
                 plan = IndexingStrategy.overrideExistingAsIfNotThere(1L);
-                versionMap.enforceSafeAccess();
+                if (appendOnlyIndex == false) {
+                    // append-only indices never read the version map on the primary, updateDocument takes care of the duplicate
+                    versionMap.enforceSafeAccess();
+                }
             } else {
                 plan = IndexingStrategy.optimizedAppendOnly(1L);
             }
@@ -1053,7 +1228,8 @@ public class InternalEngine extends Engine {
                 assert assertDocDoesNotExist(index, canOptimizeAddDocument(index) == false);
                 addDocs(index.docs(), indexWriter);
             }
-            return new IndexResult(plan.versionForIndexing, index.primaryTerm(), index.seqNo(), plan.currentNotFoundOrDeleted);
+            return new IndexResult(plan.versionForIndexing, index.primaryTerm(), index.seqNo(), plan.currentNotFoundOrDeleted,
+                plan.appendOnly);
         } catch (Exception ex) {
             if (indexWriter.getTragicException() == null) {
                 /* There is no tragic event recorded so this must be a document failure.
@@ -1129,11 +1305,19 @@ public class InternalEngine extends Engine {
         final long versionForIndexing;
         final boolean indexIntoLucene;
         final boolean addStaleOpToLucene;
+        final boolean appendOnly;
         final Optional<IndexResult> earlyResultOnPreFlightError;
 
         private IndexingStrategy(boolean currentNotFoundOrDeleted, boolean useLuceneUpdateDocument,
                                  boolean indexIntoLucene, boolean addStaleOpToLucene,
                                  long versionForIndexing, IndexResult earlyResultOnPreFlightError) {
+            this(currentNotFoundOrDeleted, useLuceneUpdateDocument, indexIntoLucene, addStaleOpToLucene, false,
+                versionForIndexing, earlyResultOnPreFlightError);
+        }
+
+        private IndexingStrategy(boolean currentNotFoundOrDeleted, boolean useLuceneUpdateDocument,
+                                 boolean indexIntoLucene, boolean addStaleOpToLucene, boolean appendOnly,
+                                 long versionForIndexing, IndexResult earlyResultOnPreFlightError) {
             assert useLuceneUpdateDocument == false || indexIntoLucene :
                 "use lucene update is set to true, but we're not indexing into lucene";
             assert (indexIntoLucene && earlyResultOnPreFlightError != null) == false :
@@ -1145,13 +1329,19 @@ public class InternalEngine extends Engine {
             this.versionForIndexing = versionForIndexing;
             this.indexIntoLucene = indexIntoLucene;
             this.addStaleOpToLucene = addStaleOpToLucene;
+            this.appendOnly = appendOnly;
             this.earlyResultOnPreFlightError =
                 earlyResultOnPreFlightError == null ? Optional.empty() :
                     Optional.of(earlyResultOnPreFlightError);
         }
 
         public static IndexingStrategy optimizedAppendOnly(long versionForIndexing) {
-            return new IndexingStrategy(true, false, true, false, versionForIndexing, null);
+            return new IndexingStrategy(true, false, true, false, true, versionForIndexing, null);
+        }
+
+        static IndexingStrategy rejectAsNotAppendOnly(IllegalArgumentException e, long term) {
+            final IndexResult result = new IndexResult(e, Versions.NOT_FOUND, term);
+            return new IndexingStrategy(true, false, false, false, Versions.NOT_FOUND, result);
         }
 
         public static IndexingStrategy skipDueToVersionConflict(
@@ -1227,7 +1417,9 @@ public class InternalEngine extends Engine {
 
     @Override
     public DeleteResult delete(Delete delete) throws IOException {
-        versionMap.enforceSafeAccess();
+        if (appendOnlyIndex == false || delete.origin() != Operation.Origin.PRIMARY) {
+            versionMap.enforceSafeAccess();
+        }
         assert Objects.equals(delete.uid().field(), IdFieldMapper.NAME) : delete.uid().field();
         assert assertIncomingSequenceNumber(delete.origin(), delete.seqNo());
         final DeleteResult deleteResult;
@@ -1324,6 +1516,11 @@ public class InternalEngine extends Engine {
 
     protected final DeletionStrategy planDeletionAsPrimary(Delete delete) throws IOException {
         assert delete.origin() == Operation.Origin.PRIMARY : "planing as primary but got " + delete.origin();
+        if (appendOnlyIndex) {
+            final IllegalArgumentException e = new IllegalArgumentException("index [" + shardId.getIndexName()
+                + "] is append-only and does not accept deletes, got delete for id [" + delete.id() + "]");
+            return DeletionStrategy.rejectAsNotAppendOnly(e, getPrimaryTerm());
+        }
         // resolve operation from external to internal
         final VersionValue versionValue = resolveDocVersion(delete, delete.getIfSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO);
         assert incrementVersionLookup();
@@ -1423,6 +1620,11 @@ public class InternalEngine extends Engine {
             return new DeletionStrategy(false, false, currentlyDeleted, Versions.NOT_FOUND, deleteResult);
         }
 
+        static DeletionStrategy rejectAsNotAppendOnly(IllegalArgumentException e, long term) {
+            final DeleteResult deleteResult = new DeleteResult(e, Versions.NOT_FOUND, term, SequenceNumbers.UNASSIGNED_SEQ_NO, false);
+            return new DeletionStrategy(false, false, true, Versions.NOT_FOUND, deleteResult);
+        }
+
         static DeletionStrategy processNormally(boolean currentlyDeleted, long versionOfDeletion) {
             return new DeletionStrategy(true, false, currentlyDeleted, versionOfDeletion, null);
 
@@ -106,6 +106,9 @@ public class MapperService extends AbstractIndexComponent implements Closeable {
         Setting.longSetting("index.mapping.depth.limit", 20L, 1, Property.Dynamic, Property.IndexScope);
     public static final Setting<Long> INDEX_MAPPING_FIELD_NAME_LENGTH_LIMIT_SETTING =
         Setting.longSetting("index.mapping.field_name_length.limit", Long.MAX_VALUE, 1L, Property.Dynamic, Property.IndexScope);
+    // whether a bulk that needs a dynamic mapping update resolves the updates of all of its remaining items in a single round-trip
+    public static final Setting<Boolean> INDEX_MAPPING_BATCH_DYNAMIC_UPDATES_SETTING =
+        Setting.boolSetting("index.mapping.batch_dynamic_updates", false, Property.Dynamic, Property.IndexScope);
     public static final boolean INDEX_MAPPER_DYNAMIC_DEFAULT = true;
     @Deprecated
     public static final Setting<Boolean> INDEX_MAPPER_DYNAMIC_SETTING =
@@ -21,25 +21,20 @@ package org.elasticsearch.index.query;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.ConjunctionDISI;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.MatchNoDocsQuery;
-import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.search.TopDocsCollector;
-import org.apache.lucene.search.TopFieldCollector;
-import org.apache.lucene.search.TopScoreDocCollector;
-import org.apache.lucene.search.TotalHitCountCollector;
-import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.search.join.BitSetProducer;
-import org.apache.lucene.search.join.ParentChildrenBlockJoinQuery;
 import org.apache.lucene.search.join.ScoreMode;
-import org.elasticsearch.action.search.MaxScoreCollector;
+import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
-import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -49,16 +44,18 @@ import org.elasticsearch.index.search.ESToParentBlockJoinQuery;
 import org.elasticsearch.index.search.NestedHelper;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.fetch.subphase.InnerHitsContext;
+import org.elasticsearch.search.fetch.subphase.InnerHitsContext.InnerHitCollector;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 
-import static org.elasticsearch.search.fetch.subphase.InnerHitsContext.intersect;
-
 public class NestedQueryBuilder extends AbstractQueryBuilder<NestedQueryBuilder> {
     public static final String NAME = "nested";
     /**
@@ -383,59 +380,95 @@ public class NestedQueryBuilder extends AbstractQueryBuilder<NestedQueryBuilder>
         @Override
         public TopDocsAndMaxScore[] topDocs(SearchHit[] hits) throws IOException {
             Weight innerHitQueryWeight = createInnerHitQueryWeight();
-            TopDocsAndMaxScore[] result = new TopDocsAndMaxScore[hits.length];
+            Query rawParentFilter;
+            if (parentObjectMapper == null) {
+                rawParentFilter = Queries.newNonNestedFilter(context.indexShard().indexSettings().getIndexVersionCreated());
+            } else {
+                rawParentFilter = parentObjectMapper.nestedTypeFilter();
+            }
+            BitSetProducer parentFilter = context.bitsetFilterCache().getBitSetProducer(rawParentFilter);
+            Query childFilter = childObjectMapper.nestedTypeFilter();
+            Weight childWeight = context.searcher().createWeight(context.searcher().rewrite(childFilter),
+                org.apache.lucene.search.ScoreMode.COMPLETE_NO_SCORES, 1f);
+
+            // visit the hits in doc id order so that the nested docs of all hits of a segment are collected in a single pass
+            Integer[] order = new Integer[hits.length];
             for (int i = 0; i < hits.length; i++) {
-                SearchHit hit = hits[i];
-                Query rawParentFilter;
-                if (parentObjectMapper == null) {
-                    rawParentFilter = Queries.newNonNestedFilter(context.indexShard().indexSettings().getIndexVersionCreated());
-                } else {
-                    rawParentFilter = parentObjectMapper.nestedTypeFilter();
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> hits[i].docId()));
+            InnerHitCollector[] collectors = new InnerHitCollector[hits.length];
+            for (int i = 0; i < hits.length; i++) {
+                collectors[i] = new InnerHitCollector(this);
+            }
+            List<LeafReaderContext> leaves = searcher().getIndexReader().leaves();
+            try {
+                int start = 0;
+                while (start < order.length) {
+                    // With nested inner hits the nested docs are always in the same segment as their parent
+                    LeafReaderContext ctx = leaves.get(ReaderUtil.subIndex(hits[order[start]].docId(), leaves));
+                    int maxDoc = ctx.docBase + ctx.reader().maxDoc();
+                    int end = start + 1;
+                    while (end < order.length && hits[order[end]].docId() < maxDoc) {
+                        end++;
+                    }
+                    collectNestedDocs(ctx, hits, order, start, end, parentFilter, childWeight, innerHitQueryWeight, collectors);
+                    start = end;
                 }
+            } finally {
+                clearReleasables(Lifetime.COLLECTION);
+            }
 
-                int parentDocId = hit.docId();
-                final int readerIndex = ReaderUtil.subIndex(parentDocId, searcher().getIndexReader().leaves());
-                // With nested inner hits the nested docs are always in the same segement, so need to use the other segments
-                LeafReaderContext ctx = searcher().getIndexReader().leaves().get(readerIndex);
-
-                Query childFilter = childObjectMapper.nestedTypeFilter();
-                BitSetProducer parentFilter = context.bitsetFilterCache().getBitSetProducer(rawParentFilter);
-                Query q = new ParentChildrenBlockJoinQuery(parentFilter, childFilter, parentDocId);
-                Weight weight = context.searcher().createWeight(context.searcher().rewrite(q),
-                        org.apache.lucene.search.ScoreMode.COMPLETE_NO_SCORES, 1f);
-                if (size() == 0) {
-                    TotalHitCountCollector totalHitCountCollector = new TotalHitCountCollector();
-                    intersect(weight, innerHitQueryWeight, totalHitCountCollector, ctx);
-                    result[i] = new TopDocsAndMaxScore(new TopDocs(new TotalHits(totalHitCountCollector.getTotalHits(),
-                        TotalHits.Relation.EQUAL_TO), Lucene.EMPTY_SCORE_DOCS), Float.NaN);
+            TopDocsAndMaxScore[] result = new TopDocsAndMaxScore[hits.length];
+            for (int i = 0; i < order.length; i++) {
+                if (i > 0 && hits[order[i]].docId() == hits[order[i - 1]].docId()) {
+                    result[order[i]] = result[order[i - 1]];
                 } else {
-                    int topN = Math.min(from() + size(), context.searcher().getIndexReader().maxDoc());
-                    TopDocsCollector<?> topDocsCollector;
-                    MaxScoreCollector maxScoreCollector = null;
-                    if (sort() != null) {
-                        topDocsCollector = TopFieldCollector.create(sort().sort, topN, Integer.MAX_VALUE);
-                        if (trackScores()) {
-                            maxScoreCollector = new MaxScoreCollector();
-                        }
-                    } else {
-                        topDocsCollector = TopScoreDocCollector.create(topN, Integer.MAX_VALUE);
-                        maxScoreCollector = new MaxScoreCollector();
-                    }
-                    try {
-                        intersect(weight, innerHitQueryWeight, MultiCollector.wrap(topDocsCollector, maxScoreCollector), ctx);
-                    } finally {
-                        clearReleasables(Lifetime.COLLECTION);
-                    }
+                    result[order[i]] = collectors[order[i]].topDocs();
+                }
+            }
+            return result;
+        }
 
-                    TopDocs td = topDocsCollector.topDocs(from(), size());
-                    float maxScore = Float.NaN;
-                    if (maxScoreCollector != null) {
-                        maxScore = maxScoreCollector.getMaxScore();
+        /**
+         * Collects the nested docs of the hits <code>order[start]</code> to <code>order[end - 1]</code>, which are all in the provided
+         * segment and sorted by doc id. The nested docs of a parent are indexed right before it, so a single pass over the nested docs
+         * of the segment routes every nested doc to the collector of its parent.
+         */
+        private static void collectNestedDocs(LeafReaderContext ctx, SearchHit[] hits, Integer[] order, int start, int end,
+                                              BitSetProducer parentFilter, Weight childWeight, Weight innerHitQueryWeight,
+                                              InnerHitCollector[] collectors) throws IOException {
+            BitSet parents = parentFilter.getBitSet(ctx);
+            if (parents == null) {
+                return;
+            }
+            Scorer childScorer = childWeight.scorer(ctx);
+            if (childScorer == null) {
+                return;
+            }
+            Scorer innerHitQueryScorer = innerHitQueryWeight.scorer(ctx);
+            if (innerHitQueryScorer == null) {
+                return;
+            }
+            Bits liveDocs = ctx.reader().getLiveDocs();
+            DocIdSetIterator iterator = ConjunctionDISI.intersectIterators(Arrays.asList(innerHitQueryScorer.iterator(),
+                childScorer.iterator()));
+            for (int i = start; i < end; i++) {
+                int parentDoc = hits[order[i]].docId() - ctx.docBase;
+                if (parentDoc == 0 || parents.get(parentDoc) == false) {
+                    continue;
+                }
+                int firstChild = parents.prevSetBit(parentDoc - 1) + 1;
+                int doc = iterator.docID();
+                if (doc < firstChild) {
+                    doc = iterator.advance(firstChild);
+                }
+                for (; doc < parentDoc; doc = iterator.nextDoc()) {
+                    if (liveDocs == null || liveDocs.get(doc)) {
+                        collectors[order[i]].collect(ctx, innerHitQueryScorer, doc);
                     }
-                    result[i] = new TopDocsAndMaxScore(td, maxScore);
                 }
             }
-            return result;
         }
     }
 }
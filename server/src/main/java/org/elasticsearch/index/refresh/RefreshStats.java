@@ -46,6 +46,16 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
      */
     private int listeners;
 
+    /**
+     * Number of scheduled refreshes the adaptive refresh deferred.
+     */
+    private long adaptiveDeferred;
+
+    /**
+     * The longest interval the adaptive refresh currently aims for between scheduled refreshes.
+     */
+    private long adaptiveIntervalInMillis;
+
     public RefreshStats() {
     }
 
@@ -57,6 +67,10 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
             externalTotalTimeInMillis = in.readVLong();
         }
         listeners = in.readVInt();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            adaptiveDeferred = in.readVLong();
+            adaptiveIntervalInMillis = in.readVLong();
+        }
     }
 
     @Override
@@ -68,14 +82,25 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
             out.writeVLong(externalTotalTimeInMillis);
         }
         out.writeVInt(listeners);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(adaptiveDeferred);
+            out.writeVLong(adaptiveIntervalInMillis);
+        }
     }
 
     public RefreshStats(long total, long totalTimeInMillis, long externalTotal, long externalTotalTimeInMillis, int listeners) {
+        this(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners, 0, 0);
+    }
+
+    public RefreshStats(long total, long totalTimeInMillis, long externalTotal, long externalTotalTimeInMillis, int listeners,
+                        long adaptiveDeferred, long adaptiveIntervalInMillis) {
         this.total = total;
         this.totalTimeInMillis = totalTimeInMillis;
         this.externalTotal = externalTotal;
         this.externalTotalTimeInMillis = externalTotalTimeInMillis;
         this.listeners = listeners;
+        this.adaptiveDeferred = adaptiveDeferred;
+        this.adaptiveIntervalInMillis = adaptiveIntervalInMillis;
     }
 
     public void add(RefreshStats refreshStats) {
@@ -91,6 +116,8 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
         this.externalTotal += refreshStats.externalTotal;
         this.externalTotalTimeInMillis += refreshStats.externalTotalTimeInMillis;
         this.listeners += refreshStats.listeners;
+        this.adaptiveDeferred += refreshStats.adaptiveDeferred;
+        this.adaptiveIntervalInMillis = Math.max(this.adaptiveIntervalInMillis, refreshStats.adaptiveIntervalInMillis);
     }
 
     /**
@@ -139,6 +166,21 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
         return listeners;
     }
 
+    /**
+     * The number of scheduled refreshes the adaptive refresh deferred.
+     */
+    public long getAdaptiveDeferred() {
+        return adaptiveDeferred;
+    }
+
+    /**
+     * The longest interval the adaptive refresh currently aims for between scheduled refreshes, {@code 0} if adaptive refresh is
+     * disabled.
+     */
+    public TimeValue getAdaptiveInterval() {
+        return new TimeValue(adaptiveIntervalInMillis);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("refresh");
@@ -147,6 +189,8 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
         builder.field("external_total", externalTotal);
         builder.humanReadableField("external_total_time_in_millis", "external_total_time", getExternalTotalTime());
         builder.field("listeners", listeners);
+        builder.field("adaptive_deferred", adaptiveDeferred);
+        builder.humanReadableField("adaptive_interval_in_millis", "adaptive_interval", getAdaptiveInterval());
         builder.endObject();
         return builder;
     }
@@ -166,11 +210,14 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
                 && totalTimeInMillis == rhs.totalTimeInMillis
                 && externalTotal == rhs.externalTotal
                 && externalTotalTimeInMillis == rhs.externalTotalTimeInMillis
-                && listeners == rhs.listeners;
+                && listeners == rhs.listeners
+                && adaptiveDeferred == rhs.adaptiveDeferred
+                && adaptiveIntervalInMillis == rhs.adaptiveIntervalInMillis;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners);
+        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners, adaptiveDeferred,
+            adaptiveIntervalInMillis);
     }
 }
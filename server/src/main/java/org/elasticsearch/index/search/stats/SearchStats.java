@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.search.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -33,6 +34,7 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class SearchStats implements Writeable, ToXContentFragment {
 
@@ -45,6 +47,7 @@ public class SearchStats implements Writeable, ToXContentFragment {
         private long fetchCount;
         private long fetchTimeInMillis;
         private long fetchCurrent;
+        private Map<String, Long> fetchBreakdownInMillis;
 
         private long scrollCount;
         private long scrollTimeInMillis;
@@ -56,6 +59,7 @@ public class SearchStats implements Writeable, ToXContentFragment {
 
         private Stats() {
             // for internal use, initializes all counts to 0
+            fetchBreakdownInMillis = new HashMap<>();
         }
 
         public Stats(
@@ -63,6 +67,18 @@ public class SearchStats implements Writeable, ToXContentFragment {
                 long fetchCount, long fetchTimeInMillis, long fetchCurrent,
                 long scrollCount, long scrollTimeInMillis, long scrollCurrent,
                 long suggestCount, long suggestTimeInMillis, long suggestCurrent
+        ) {
+            this(queryCount, queryTimeInMillis, queryCurrent,
+                fetchCount, fetchTimeInMillis, fetchCurrent, Collections.emptyMap(),
+                scrollCount, scrollTimeInMillis, scrollCurrent,
+                suggestCount, suggestTimeInMillis, suggestCurrent);
+        }
+
+        public Stats(
+                long queryCount, long queryTimeInMillis, long queryCurrent,
+                long fetchCount, long fetchTimeInMillis, long fetchCurrent, Map<String, Long> fetchBreakdownInMillis,
+                long scrollCount, long scrollTimeInMillis, long scrollCurrent,
+                long suggestCount, long suggestTimeInMillis, long suggestCurrent
         ) {
             this.queryCount = queryCount;
             this.queryTimeInMillis = queryTimeInMillis;
@@ -71,6 +87,7 @@ public class SearchStats implements Writeable, ToXContentFragment {
             this.fetchCount = fetchCount;
             this.fetchTimeInMillis = fetchTimeInMillis;
             this.fetchCurrent = fetchCurrent;
+            this.fetchBreakdownInMillis = new HashMap<>(fetchBreakdownInMillis);
 
             this.scrollCount = scrollCount;
             this.scrollTimeInMillis = scrollTimeInMillis;
@@ -89,6 +106,11 @@ public class SearchStats implements Writeable, ToXContentFragment {
             fetchCount = in.readVLong();
             fetchTimeInMillis = in.readVLong();
             fetchCurrent = in.readVLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                fetchBreakdownInMillis = in.readMap(StreamInput::readString, StreamInput::readVLong);
+            } else {
+                fetchBreakdownInMillis = new HashMap<>();
+            }
 
             scrollCount = in.readVLong();
             scrollTimeInMillis = in.readVLong();
@@ -107,6 +129,9 @@ public class SearchStats implements Writeable, ToXContentFragment {
             fetchCount += stats.fetchCount;
             fetchTimeInMillis += stats.fetchTimeInMillis;
             fetchCurrent += stats.fetchCurrent;
+            for (Map.Entry<String, Long> entry : stats.fetchBreakdownInMillis.entrySet()) {
+                fetchBreakdownInMillis.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
 
             scrollCount += stats.scrollCount;
             scrollTimeInMillis += stats.scrollTimeInMillis;
@@ -149,6 +174,13 @@ public class SearchStats implements Writeable, ToXContentFragment {
             return fetchCurrent;
         }
 
+        /**
+         * Returns the time spent loading stored fields and in every fetch sub phase, in milliseconds, keyed by sub phase name.
+         */
+        public Map<String, Long> getFetchBreakdownInMillis() {
+            return Collections.unmodifiableMap(fetchBreakdownInMillis);
+        }
+
         public long getScrollCount() {
             return scrollCount;
         }
@@ -194,6 +226,9 @@ public class SearchStats implements Writeable, ToXContentFragment {
             out.writeVLong(fetchCount);
             out.writeVLong(fetchTimeInMillis);
             out.writeVLong(fetchCurrent);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeMap(fetchBreakdownInMillis, StreamOutput::writeString, StreamOutput::writeVLong);
+            }
 
             out.writeVLong(scrollCount);
             out.writeVLong(scrollTimeInMillis);
@@ -213,6 +248,15 @@ public class SearchStats implements Writeable, ToXContentFragment {
             builder.field(Fields.FETCH_TOTAL, fetchCount);
             builder.humanReadableField(Fields.FETCH_TIME_IN_MILLIS, Fields.FETCH_TIME, getFetchTime());
             builder.field(Fields.FETCH_CURRENT, fetchCurrent);
+            if (fetchBreakdownInMillis.isEmpty() == false) {
+                builder.startObject(Fields.FETCH_BREAKDOWN);
+                for (Map.Entry<String, Long> entry : new TreeMap<>(fetchBreakdownInMillis).entrySet()) {
+                    builder.startObject(entry.getKey());
+                    builder.humanReadableField(Fields.TIME_IN_MILLIS, Fields.TIME, new TimeValue(entry.getValue()));
+                    builder.endObject();
+                }
+                builder.endObject();
+            }
 
             builder.field(Fields.SCROLL_TOTAL, scrollCount);
             builder.humanReadableField(Fields.SCROLL_TIME_IN_MILLIS, Fields.SCROLL_TIME, getScrollTime());
@@ -322,6 +366,9 @@ public class SearchStats implements Writeable, ToXContentFragment {
         static final String FETCH_TIME = "fetch_time";
         static final String FETCH_TIME_IN_MILLIS = "fetch_time_in_millis";
         static final String FETCH_CURRENT = "fetch_current";
+        static final String FETCH_BREAKDOWN = "fetch_breakdown";
+        static final String TIME = "time";
+        static final String TIME_IN_MILLIS = "time_in_millis";
         static final String SCROLL_TOTAL = "scroll_total";
         static final String SCROLL_TIME = "scroll_time";
         static final String SCROLL_TIME_IN_MILLIS = "scroll_time_in_millis";
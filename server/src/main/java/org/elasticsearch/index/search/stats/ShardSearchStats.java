@@ -23,6 +23,7 @@ import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -117,6 +118,9 @@ public final class ShardSearchStats implements SearchOperationListener {
     public void onFetchPhase(SearchContext searchContext, long tookInNanos) {
         computeStats(searchContext, statsHolder -> {
             statsHolder.fetchMetric.inc(tookInNanos);
+            for (Map.Entry<String, Long> entry : searchContext.fetchResult().timeBreakdownInNanos().entrySet()) {
+                statsHolder.fetchBreakdown.computeIfAbsent(entry.getKey(), k -> new CounterMetric()).inc(entry.getValue());
+            }
             statsHolder.fetchCurrent.dec();
             assert statsHolder.fetchCurrent.count() >= 0;
         });
@@ -183,11 +187,17 @@ public final class ShardSearchStats implements SearchOperationListener {
         final CounterMetric fetchCurrent = new CounterMetric();
         final CounterMetric scrollCurrent = new CounterMetric();
         final CounterMetric suggestCurrent = new CounterMetric();
+        // the time in nanoseconds spent loading stored fields and in every fetch sub phase, keyed by sub phase name
+        final Map<String, CounterMetric> fetchBreakdown = ConcurrentCollections.newConcurrentMap();
 
         SearchStats.Stats stats() {
+            Map<String, Long> fetchBreakdownInMillis = new HashMap<>(fetchBreakdown.size());
+            for (Map.Entry<String, CounterMetric> entry : fetchBreakdown.entrySet()) {
+                fetchBreakdownInMillis.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().count()));
+            }
             return new SearchStats.Stats(
                     queryMetric.count(), TimeUnit.NANOSECONDS.toMillis(queryMetric.sum()), queryCurrent.count(),
-                    fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count(),
+                    fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count(), fetchBreakdownInMillis,
                     scrollMetric.count(), TimeUnit.MICROSECONDS.toMillis(scrollMetric.sum()), scrollCurrent.count(),
                     suggestMetric.count(), TimeUnit.NANOSECONDS.toMillis(suggestMetric.sum()), suggestCurrent.count()
             );
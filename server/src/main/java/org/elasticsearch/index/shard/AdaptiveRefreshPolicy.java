@@ -0,0 +1,101 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.index.IndexSettings;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether a scheduled refresh of a shard should run or be deferred. The scheduled refresh still ticks every
+ * {@code index.refresh_interval} but the effective interval between two scheduled refreshes is stretched up to
+ * {@code index.refresh.adaptive.max_interval}:
+ * <ul>
+ *     <li>the interval doubles after every refresh that was not followed by a search, or that saw heavy indexing</li>
+ *     <li>the interval drops back to {@code index.refresh_interval} as soon as the shard is searched while indexing is not heavy, or
+ *     when a refresh listener is waiting</li>
+ * </ul>
+ * Spreading refreshes out under heavy indexing creates fewer, larger segments and keeps the indexing buffer doing useful work.
+ */
+final class AdaptiveRefreshPolicy {
+
+    private final IndexSettings indexSettings;
+    private final LongSupplier relativeTimeInMillis;
+    private final CounterMetric deferred = new CounterMetric();
+
+    private volatile long intervalInMillis;
+    private long lastRefreshInMillis;
+    private long lastIndexCount;
+
+    AdaptiveRefreshPolicy(IndexSettings indexSettings, LongSupplier relativeTimeInMillis) {
+        this.indexSettings = indexSettings;
+        this.relativeTimeInMillis = relativeTimeInMillis;
+        this.intervalInMillis = indexSettings.getRefreshInterval().millis();
+        this.lastRefreshInMillis = relativeTimeInMillis.getAsLong();
+    }
+
+    /**
+     * Returns <code>true</code> if the scheduled refresh should run now and <code>false</code> if it should be deferred to a later tick.
+     *
+     * @param listenersWaiting   whether refresh listeners are waiting for the next refresh
+     * @param lastSearcherAccess the relative time in milliseconds the searcher of the shard was last accessed
+     * @param indexCount         the total number of documents indexed into the shard so far
+     */
+    synchronized boolean shouldRefresh(boolean listenersWaiting, long lastSearcherAccess, long indexCount) {
+        final long baseInterval = indexSettings.getRefreshInterval().millis();
+        final long maxInterval = Math.max(baseInterval, indexSettings.getAdaptiveRefreshMaxInterval().millis());
+        final long now = relativeTimeInMillis.getAsLong();
+        final long elapsed = Math.max(1, now - lastRefreshInMillis);
+        final boolean heavyIndexing = (indexCount - lastIndexCount) * 1000 / elapsed >= indexSettings.getAdaptiveRefreshHeavyIndexingRate();
+        final boolean searched = lastSearcherAccess > lastRefreshInMillis;
+
+        long interval = Math.min(maxInterval, Math.max(baseInterval, intervalInMillis));
+        if (listenersWaiting || (searched && heavyIndexing == false)) {
+            interval = baseInterval;
+        } else if (elapsed + baseInterval / 2 < interval) {
+            // the task ticks every base interval, allow half a tick of slack so that we don't miss the tick we were aiming for
+            intervalInMillis = interval;
+            deferred.inc();
+            return false;
+        }
+        if (listenersWaiting == false && (heavyIndexing || searched == false)) {
+            interval = Math.min(maxInterval, interval * 2);
+        }
+        intervalInMillis = interval;
+        lastRefreshInMillis = now;
+        lastIndexCount = indexCount;
+        return true;
+    }
+
+    /**
+     * Returns the number of scheduled refreshes this policy deferred.
+     */
+    long deferredCount() {
+        return deferred.count();
+    }
+
+    /**
+     * Returns the interval, in milliseconds, this policy currently aims for between two scheduled refreshes.
+     */
+    long intervalInMillis() {
+        return intervalInMillis;
+    }
+}
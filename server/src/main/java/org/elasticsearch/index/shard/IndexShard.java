@@ -59,6 +59,7 @@ import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
@@ -140,6 +141,7 @@ import org.elasticsearch.indices.recovery.RecoveryTarget;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightCache;
 import org.elasticsearch.search.suggest.completion.CompletionStats;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -150,6 +152,7 @@ import java.io.UncheckedIOException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
@@ -187,6 +190,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final ShardRequestCache requestCacheStats;
     private final ShardFieldData shardFieldData;
     private final ShardBitsetFilterCache shardBitsetFilterCache;
+    private final HighlightCache highlightCache;
     private final Object mutex = new Object();
     private final String checkIndexOnStartup;
     private final CodecService codecService;
@@ -258,6 +262,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
     private final AtomicLong lastSearcherAccess = new AtomicLong();
     private final AtomicReference<Translog.Location> pendingRefreshLocation = new AtomicReference<>();
+    private final AdaptiveRefreshPolicy adaptiveRefreshPolicy;
 
     public IndexShard(
             final ShardRouting shardRouting,
@@ -308,6 +313,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.requestCacheStats = new ShardRequestCache();
         this.shardFieldData = new ShardFieldData();
         this.shardBitsetFilterCache = new ShardBitsetFilterCache(shardId, indexSettings);
+        this.highlightCache = new HighlightCache(indexSettings.getValue(IndexSettings.HIGHLIGHT_CACHE_SIZE_SETTING));
         state = IndexShardState.CREATED;
         this.path = path;
         this.circuitBreakerService = circuitBreakerService;
@@ -353,6 +359,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         searcherWrapper = indexSearcherWrapper;
         refreshListeners = buildRefreshListeners();
         lastSearcherAccess.set(threadPool.relativeTimeInMillis());
+        adaptiveRefreshPolicy = new AdaptiveRefreshPolicy(indexSettings, threadPool::relativeTimeInMillis);
         persistMetadata(path, indexSettings, shardRouting, null, logger);
     }
 
@@ -379,6 +386,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return shardBitsetFilterCache;
     }
 
+    public HighlightCache highlightCache() {
+        return highlightCache;
+    }
+
     public MapperService mapperService() {
         return mapperService;
     }
@@ -714,6 +725,49 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             ifPrimaryTerm, autoGeneratedTimestamp, isRetry, Engine.Operation.Origin.PRIMARY, sourceToParse);
     }
 
+    /**
+     * Indexes a batch of new documents with auto-generated ids on the primary, see {@link Engine#index(List)}. Documents that require
+     * a dynamic mapping update are not indexed, their result holds the required mapping update instead.
+     *
+     * @return the results of the documents, in the order of the given sources
+     */
+    public List<Engine.IndexResult> applyIndexOperationsOnPrimary(List<SourceToParse> sourcesToParse, long[] autoGeneratedTimestamps)
+        throws IOException {
+        assert sourcesToParse.size() == autoGeneratedTimestamps.length;
+        ensureWriteAllowed(Engine.Operation.Origin.PRIMARY);
+        final long opPrimaryTerm = getOperationPrimaryTerm();
+        final Engine.IndexResult[] results = new Engine.IndexResult[sourcesToParse.size()];
+        final List<Engine.Index> operations = new ArrayList<>(sourcesToParse.size());
+        final int[] slots = new int[sourcesToParse.size()];
+        for (int i = 0; i < sourcesToParse.size(); i++) {
+            try {
+                final SourceToParse sourceWithResolvedType = withResolvedType(sourcesToParse.get(i));
+                final Engine.Index operation = prepareIndex(docMapper(sourceWithResolvedType.type()),
+                    indexSettings.getIndexVersionCreated(), sourceWithResolvedType, UNASSIGNED_SEQ_NO, opPrimaryTerm, Versions.MATCH_ANY,
+                    VersionType.INTERNAL, Engine.Operation.Origin.PRIMARY, autoGeneratedTimestamps[i], false, UNASSIGNED_SEQ_NO,
+                    SequenceNumbers.UNASSIGNED_PRIMARY_TERM);
+                final Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
+                if (update != null) {
+                    results[i] = new Engine.IndexResult(update);
+                } else {
+                    slots[operations.size()] = i;
+                    operations.add(operation);
+                }
+            } catch (Exception e) {
+                // We treat any exception during parsing and or mapping update as a document level failure, see applyIndexOperation
+                verifyNotClosed(e);
+                results[i] = new Engine.IndexResult(e, Versions.MATCH_ANY, opPrimaryTerm, UNASSIGNED_SEQ_NO);
+            }
+        }
+        if (operations.isEmpty() == false) {
+            final List<Engine.IndexResult> indexResults = index(getEngine(), operations);
+            for (int i = 0; i < indexResults.size(); i++) {
+                results[slots[i]] = indexResults.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
     public Engine.IndexResult applyIndexOperationOnReplica(long seqNo, long version, long autoGeneratedTimeStamp,
                                                            boolean isRetry, SourceToParse sourceToParse)
         throws IOException {
@@ -730,16 +784,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         ensureWriteAllowed(origin);
         Engine.Index operation;
         try {
-            final String resolvedType = mapperService.resolveDocumentType(sourceToParse.type());
-            final SourceToParse sourceWithResolvedType;
-            if (resolvedType.equals(sourceToParse.type())) {
-                sourceWithResolvedType = sourceToParse;
-            } else {
-                sourceWithResolvedType = new SourceToParse(sourceToParse.index(), resolvedType, sourceToParse.id(),
-                    sourceToParse.source(), sourceToParse.getXContentType(), sourceToParse.routing());
-            }
-            operation = prepareIndex(docMapper(resolvedType), indexSettings.getIndexVersionCreated(), sourceWithResolvedType,
-                seqNo, opPrimaryTerm, version, versionType, origin, autoGeneratedTimeStamp, isRetry, ifSeqNo, ifPrimaryTerm);
+            final SourceToParse sourceWithResolvedType = withResolvedType(sourceToParse);
+            operation = prepareIndex(docMapper(sourceWithResolvedType.type()), indexSettings.getIndexVersionCreated(),
+                sourceWithResolvedType, seqNo, opPrimaryTerm, version, versionType, origin, autoGeneratedTimeStamp, isRetry,
+                ifSeqNo, ifPrimaryTerm);
             Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
             if (update != null) {
                 return new Engine.IndexResult(update);
@@ -756,6 +804,35 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return index(engine, operation);
     }
 
+    private SourceToParse withResolvedType(SourceToParse sourceToParse) {
+        final String resolvedType = mapperService.resolveDocumentType(sourceToParse.type());
+        if (resolvedType.equals(sourceToParse.type())) {
+            return sourceToParse;
+        }
+        return new SourceToParse(sourceToParse.index(), resolvedType, sourceToParse.id(),
+            sourceToParse.source(), sourceToParse.getXContentType(), sourceToParse.routing());
+    }
+
+    /**
+     * Parses the given document against the current mapping, without indexing it, and returns the dynamic mapping update that
+     * indexing it would require, or {@code null} if it needs none. Documents that cannot be parsed also yield {@code null}, their
+     * failure is reported once they are actually indexed.
+     */
+    public Mapping getDynamicMappingUpdate(SourceToParse sourceToParse) {
+        try {
+            final SourceToParse sourceWithResolvedType = withResolvedType(sourceToParse);
+            final DocumentMapperForType docMapper = docMapper(sourceWithResolvedType.type());
+            final ParsedDocument doc = docMapper.getDocumentMapper().parse(sourceWithResolvedType);
+            if (docMapper.getMapping() != null) {
+                doc.addDynamicMappingsUpdate(docMapper.getMapping());
+            }
+            return doc.dynamicMappingsUpdate();
+        } catch (Exception e) {
+            logger.trace(() -> new ParameterizedMessage("failed to parse document [{}] ahead of indexing it", sourceToParse.id()), e);
+            return null;
+        }
+    }
+
     public static Engine.Index prepareIndex(DocumentMapperForType docMapper, Version indexCreatedVersion, SourceToParse source, long seqNo,
                                             long primaryTerm, long version, VersionType versionType, Engine.Operation.Origin origin,
                                             long autoGeneratedIdTimestamp, boolean isRetry,
@@ -803,6 +880,35 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return result;
     }
 
+    private List<Engine.IndexResult> index(Engine engine, List<Engine.Index> operations) throws IOException {
+        active.set(true);
+        final List<Engine.Index> indices = new ArrayList<>(operations.size());
+        for (Engine.Index operation : operations) {
+            indices.add(indexingOperationListeners.preIndex(shardId, operation));
+        }
+        final List<Engine.IndexResult> results;
+        try {
+            if (logger.isTraceEnabled()) {
+                logger.trace("index batch of [{}] operations allocation-id [{}] operationPrimaryTerm [{}]",
+                    indices.size(), routingEntry().allocationId(), getOperationPrimaryTerm());
+            }
+            results = engine.index(indices);
+        } catch (Exception e) {
+            if (logger.isTraceEnabled()) {
+                logger.trace(new ParameterizedMessage("index-fail batch of [{}] operations allocation-id [{}] operationPrimaryTerm [{}]",
+                    indices.size(), routingEntry().allocationId(), getOperationPrimaryTerm()), e);
+            }
+            for (Engine.Index index : indices) {
+                indexingOperationListeners.postIndex(shardId, index, e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < indices.size(); i++) {
+            indexingOperationListeners.postIndex(shardId, indices.get(i), results.get(i));
+        }
+        return results;
+    }
+
     public Engine.NoOpResult markSeqNoAsNoop(long seqNo, String reason) throws IOException {
         return markSeqNoAsNoop(getEngine(), seqNo, getOperationPrimaryTerm(), reason, Engine.Operation.Origin.REPLICA);
     }
@@ -945,7 +1051,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             TimeUnit.NANOSECONDS.toMillis(refreshMetric.sum()),
             externalRefreshMetric.count(),
             TimeUnit.NANOSECONDS.toMillis(externalRefreshMetric.sum()),
-            listeners);
+            listeners,
+            adaptiveRefreshPolicy.deferredCount(),
+            indexSettings.isAdaptiveRefresh() ? adaptiveRefreshPolicy.intervalInMillis() : 0);
     }
 
     public FlushStats flushStats() {
@@ -1221,12 +1329,32 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     private Engine.Searcher acquireSearcher(String source, Engine.SearcherScope scope) {
+        return wrapSearcher(acquireUnwrappedSearcher(source, scope));
+    }
+
+    /**
+     * Acquires a searcher that is not wrapped by the {@link IndexSearcherWrapper} of the index. Such a searcher may only be used to
+     * hold on to a reader, every search against it must go through a searcher returned by {@link #wrapSearcher(Engine.Searcher)}.
+     */
+    public Engine.Searcher acquireUnwrappedSearcher(String source) {
+        return acquireUnwrappedSearcher(source, Engine.SearcherScope.EXTERNAL);
+    }
+
+    private Engine.Searcher acquireUnwrappedSearcher(String source, Engine.SearcherScope scope) {
         readAllowed();
         markSearcherAccessed();
         final Engine engine = getEngine();
         final Engine.Searcher searcher = engine.acquireSearcher(source, scope);
         assert ElasticsearchDirectoryReader.unwrap(searcher.getDirectoryReader())
             != null : "DirectoryReader must be an instance or ElasticsearchDirectoryReader";
+        return searcher;
+    }
+
+    /**
+     * Wraps the given searcher with the {@link IndexSearcherWrapper} of the index, if any. The given searcher is closed if wrapping
+     * fails, otherwise it is closed together with the returned one.
+     */
+    public Engine.Searcher wrapSearcher(Engine.Searcher searcher) {
         boolean success = false;
         try {
             final Engine.Searcher wrappedSearcher = searcherWrapper == null ? searcher : searcherWrapper.wrap(searcher);
@@ -1251,6 +1379,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 try {
                     if (engine != null && flushEngine) {
                         engine.flushAndClose();
+                        writeStoreMetadataSnapshot();
                     }
                 } finally {
                     // playing safe here and close the engine even if the above succeeds - close can be called multiple times
@@ -1262,6 +1391,29 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         }
     }
 
+    /**
+     * Writes the metadata snapshot of the last commit to the shard state directory once the engine was flushed and closed, so that
+     * listing the store of the closed shard, like the master does for allocating replicas after a restart, needn't read the footers
+     * of all its files. Failing to do so only makes listing the store slower.
+     * <p>
+     * This adds to the time it takes to close the shard: the footers of all files of the last commit are read once more, since
+     * neither Lucene nor the engine keep their checksums, and a state file is written and fsynced. The cost grows with the number of
+     * segments rather than with the size of the shard, and is logged at debug level. It is paid once per shutdown, whereas reading
+     * the footers on listing is paid by every listing of the store until the shard is allocated.
+     */
+    private void writeStoreMetadataSnapshot() {
+        final long startTimeNanos = System.nanoTime();
+        try {
+            final Store.MetadataSnapshot snapshot = store.writeMetadataSnapshot(shardPath().getShardStatePath());
+            if (logger.isDebugEnabled()) {
+                logger.debug("wrote store metadata snapshot of [{}] files in [{}]", snapshot.size(),
+                    TimeValue.timeValueNanos(System.nanoTime() - startTimeNanos));
+            }
+        } catch (Exception e) {
+            logger.debug("failed to write store metadata snapshot", e);
+        }
+    }
+
     public IndexShard postRecovery(String reason)
                 throws IndexShardStartedException, IndexShardRelocatedException, IndexShardClosedException {
         synchronized (mutex) {
@@ -2938,6 +3090,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
                 setRefreshPending(engine);
                 return false;
+            } else if (indexSettings.isAdaptiveRefresh()
+                && indexSettings.getRefreshInterval().millis() > 0
+                && adaptiveRefreshPolicy.shouldRefresh(listenerNeedsRefresh, lastSearcherAccess.get(),
+                    internalIndexingStats.indexCount()) == false) {
+                // the adaptive refresh policy stretches the interval between scheduled refreshes, we will refresh on a later tick.
+                // Mark the refresh as pending so that the next searcher access registers a refresh listener which forces it.
+                final Engine engine = getEngine();
+                engine.maybePruneDeletes();
+                setRefreshPending(engine);
+                return false;
             } else {
                 if (logger.isTraceEnabled()) {
                     logger.trace("refresh with source [schedule]");
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.shard;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -47,6 +48,8 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
         private long noopUpdateCount;
         private long throttleTimeInMillis;
         private boolean isThrottled;
+        private long appendOnlyIndexCount;
+        private long appendOnlyIndexTimeInMillis;
 
         Stats() {}
 
@@ -61,10 +64,21 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             noopUpdateCount = in.readVLong();
             isThrottled = in.readBoolean();
             throttleTimeInMillis = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                appendOnlyIndexCount = in.readVLong();
+                appendOnlyIndexTimeInMillis = in.readVLong();
+            }
         }
 
         public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long indexFailedCount, long deleteCount,
                         long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis) {
+            this(indexCount, indexTimeInMillis, indexCurrent, indexFailedCount, deleteCount, deleteTimeInMillis, deleteCurrent,
+                noopUpdateCount, isThrottled, throttleTimeInMillis, 0, 0);
+        }
+
+        public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long indexFailedCount, long deleteCount,
+                        long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis,
+                        long appendOnlyIndexCount, long appendOnlyIndexTimeInMillis) {
             this.indexCount = indexCount;
             this.indexTimeInMillis = indexTimeInMillis;
             this.indexCurrent = indexCurrent;
@@ -75,6 +89,8 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             this.noopUpdateCount = noopUpdateCount;
             this.isThrottled = isThrottled;
             this.throttleTimeInMillis = throttleTimeInMillis;
+            this.appendOnlyIndexCount = appendOnlyIndexCount;
+            this.appendOnlyIndexTimeInMillis = appendOnlyIndexTimeInMillis;
         }
 
         public void add(Stats stats) {
@@ -92,6 +108,9 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             if (isThrottled != stats.isThrottled) {
                 isThrottled = true; //When combining if one is throttled set result to throttled.
             }
+
+            appendOnlyIndexCount += stats.appendOnlyIndexCount;
+            appendOnlyIndexTimeInMillis += stats.appendOnlyIndexTimeInMillis;
         }
 
         /**
@@ -147,6 +166,21 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             return noopUpdateCount;
         }
 
+        /**
+         * The number of indexing operations that were appended without consulting the live version map.
+         * Comparing their mean time to the one of all indexing operations shows the gain of the append-only path.
+         */
+        public long getAppendOnlyIndexCount() {
+            return appendOnlyIndexCount;
+        }
+
+        /**
+         * The total amount of time spent on executing indexing operations that took the append-only path.
+         */
+        public TimeValue getAppendOnlyIndexTime() {
+            return new TimeValue(appendOnlyIndexTimeInMillis);
+        }
+
         @Override
         public void readFrom(StreamInput in) throws IOException {
             throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
@@ -164,7 +198,10 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             out.writeVLong(noopUpdateCount);
             out.writeBoolean(isThrottled);
             out.writeLong(throttleTimeInMillis);
-
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(appendOnlyIndexCount);
+                out.writeVLong(appendOnlyIndexTimeInMillis);
+            }
         }
 
         @Override
@@ -173,6 +210,8 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             builder.humanReadableField(Fields.INDEX_TIME_IN_MILLIS, Fields.INDEX_TIME, getIndexTime());
             builder.field(Fields.INDEX_CURRENT, indexCurrent);
             builder.field(Fields.INDEX_FAILED, indexFailedCount);
+            builder.field(Fields.APPEND_ONLY_INDEX_TOTAL, appendOnlyIndexCount);
+            builder.humanReadableField(Fields.APPEND_ONLY_INDEX_TIME_IN_MILLIS, Fields.APPEND_ONLY_INDEX_TIME, getAppendOnlyIndexTime());
 
             builder.field(Fields.DELETE_TOTAL, deleteCount);
             builder.humanReadableField(Fields.DELETE_TIME_IN_MILLIS, Fields.DELETE_TIME, getDeleteTime());
@@ -272,6 +311,9 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
         static final String INDEX_TIME_IN_MILLIS = "index_time_in_millis";
         static final String INDEX_CURRENT = "index_current";
         static final String INDEX_FAILED = "index_failed";
+        static final String APPEND_ONLY_INDEX_TOTAL = "append_only_index_total";
+        static final String APPEND_ONLY_INDEX_TIME = "append_only_index_time";
+        static final String APPEND_ONLY_INDEX_TIME_IN_MILLIS = "append_only_index_time_in_millis";
         static final String DELETE_TOTAL = "delete_total";
         static final String DELETE_TIME = "delete_time";
         static final String DELETE_TIME_IN_MILLIS = "delete_time_in_millis";
@@ -64,6 +64,13 @@ final class InternalIndexingStats implements IndexingOperationListener {
         return new IndexingStats(total, typesSt);
     }
 
+    /**
+     * Returns the total number of documents indexed outside of recoveries.
+     */
+    long indexCount() {
+        return totalStats.indexMetric.count();
+    }
+
     @Override
     public Engine.Index preIndex(ShardId shardId, Engine.Index operation) {
         if (operation.origin().isRecovery() == false) {
@@ -84,6 +91,10 @@ final class InternalIndexingStats implements IndexingOperationListener {
                     StatsHolder typeStats = typeStats(index.type());
                     typeStats.indexMetric.inc(took);
                     typeStats.indexCurrent.dec();
+                    if (result.isAppendOnly()) {
+                        totalStats.appendOnlyIndexMetric.inc(took);
+                        typeStats.appendOnlyIndexMetric.inc(took);
+                    }
                 }
                 break;
             case FAILURE:
@@ -169,17 +180,20 @@ final class InternalIndexingStats implements IndexingOperationListener {
         private final CounterMetric indexFailed = new CounterMetric();
         private final CounterMetric deleteCurrent = new CounterMetric();
         private final CounterMetric noopUpdates = new CounterMetric();
+        private final MeanMetric appendOnlyIndexMetric = new MeanMetric();
 
         IndexingStats.Stats stats(boolean isThrottled, long currentThrottleMillis) {
             return new IndexingStats.Stats(
                 indexMetric.count(), TimeUnit.NANOSECONDS.toMillis(indexMetric.sum()), indexCurrent.count(), indexFailed.count(),
                 deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count(),
-                noopUpdates.count(), isThrottled, TimeUnit.MILLISECONDS.toMillis(currentThrottleMillis));
+                noopUpdates.count(), isThrottled, TimeUnit.MILLISECONDS.toMillis(currentThrottleMillis),
+                appendOnlyIndexMetric.count(), TimeUnit.NANOSECONDS.toMillis(appendOnlyIndexMetric.sum()));
         }
 
         void clear() {
             indexMetric.clear();
             deleteMetric.clear();
+            appendOnlyIndexMetric.clear();
         }
     }
 }
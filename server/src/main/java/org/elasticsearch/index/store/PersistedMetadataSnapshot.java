@@ -0,0 +1,139 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.gateway.CorruptStateException;
+import org.elasticsearch.gateway.MetaDataStateFormat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A copy of the {@link Store.MetadataSnapshot} of the last commit of a shard that is written to the shard state directory when the
+ * shard is closed. Listing the store of a closed shard can then skip reading the footers of all its files, as long as the last commit
+ * on disk is still the one the copy was taken of.
+ */
+final class PersistedMetadataSnapshot {
+
+    private static final String STORE_STATE_FILE_PREFIX = "store-";
+    private static final String VERSION_KEY = "version";
+    private static final String SNAPSHOT_KEY = "snapshot";
+
+    private PersistedMetadataSnapshot() {
+    }
+
+    static final MetaDataStateFormat<Store.MetadataSnapshot> FORMAT =
+        new MetaDataStateFormat<Store.MetadataSnapshot>(STORE_STATE_FILE_PREFIX) {
+
+        @Override
+        public void toXContent(XContentBuilder builder, Store.MetadataSnapshot snapshot) throws IOException {
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                out.setVersion(Version.CURRENT);
+                snapshot.writeTo(out);
+                builder.field(VERSION_KEY, Version.CURRENT.id);
+                builder.field(SNAPSHOT_KEY, BytesReference.toBytes(out.bytes()));
+            }
+        }
+
+        @Override
+        public Store.MetadataSnapshot fromXContent(XContentParser parser) throws IOException {
+            XContentParser.Token token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            Version version = null;
+            byte[] snapshot = null;
+            String currentFieldName = null;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                if (token == XContentParser.Token.FIELD_NAME) {
+                    currentFieldName = parser.currentName();
+                } else if (VERSION_KEY.equals(currentFieldName)) {
+                    version = Version.fromId(parser.intValue());
+                } else if (SNAPSHOT_KEY.equals(currentFieldName)) {
+                    snapshot = parser.binaryValue();
+                } else {
+                    throw new CorruptStateException("unexpected field in store state [" + currentFieldName + "]");
+                }
+            }
+            if (version == null || snapshot == null) {
+                throw new CorruptStateException("missing value for [" + (version == null ? VERSION_KEY : SNAPSHOT_KEY) +
+                    "] in store state");
+            }
+            try (StreamInput in = new BytesArray(snapshot).streamInput()) {
+                in.setVersion(version);
+                return new Store.MetadataSnapshot(in);
+            }
+        }
+    };
+
+    /**
+     * Writes the given snapshot to the given shard state directory, replacing any previous one.
+     */
+    static void write(Store.MetadataSnapshot snapshot, Path shardStatePath) throws IOException {
+        FORMAT.writeAndCleanup(snapshot, shardStatePath);
+    }
+
+    /**
+     * Returns the snapshot in the given shard state directory if it was taken of the last commit in the given directory, or
+     * <code>null</code> otherwise.
+     */
+    static Store.MetadataSnapshot loadIfCurrent(Directory directory, Path shardStatePath, Logger logger) throws IOException {
+        final Store.MetadataSnapshot snapshot;
+        try {
+            snapshot = FORMAT.loadLatestState(logger, NamedXContentRegistry.EMPTY, shardStatePath);
+        } catch (IOException e) {
+            logger.debug(() -> new ParameterizedMessage("failed to load persisted metadata snapshot from [{}]", shardStatePath), e);
+            return null;
+        }
+        if (snapshot == null) {
+            return null;
+        }
+        final String segmentsFileName = SegmentInfos.getLastCommitSegmentsFileName(directory);
+        final StoreFileMetaData segmentsFile = segmentsFileName == null ? null : snapshot.get(segmentsFileName);
+        if (segmentsFile == null) {
+            return null;
+        }
+        // the segments file lists the ids of all segments of the commit, so the commit is the same if the segments file is
+        try (IndexInput in = directory.openInput(segmentsFileName, IOContext.READONCE)) {
+            if (in.length() != segmentsFile.length()
+                || Store.digestToString(CodecUtil.retrieveChecksum(in)).equals(segmentsFile.checksum()) == false) {
+                logger.trace("persisted metadata snapshot in [{}] is not the one of the last commit [{}]", shardStatePath,
+                    segmentsFileName);
+                return null;
+            }
+        }
+        return snapshot;
+    }
+}
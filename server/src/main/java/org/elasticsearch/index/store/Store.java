@@ -53,6 +53,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.Version;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.Streams;
@@ -305,6 +306,23 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
         }
     }
 
+    /**
+     * Writes the MetadataSnapshot of the latest commit to the given shard state directory so that
+     * {@link #readMetadataSnapshot(Path, Path, ShardId, NodeEnvironment.ShardLocker, Logger)} can return it without reading the
+     * index. This should only be called once no more commits can happen, like when the shard is closed.
+     * <p>
+     * Lucene does not record the checksums of the files of a commit anywhere but in their footers, so this reads the footer of every
+     * file of the commit, which is the same work a single listing of the store would do, plus writing a state file of a few bytes per
+     * file.
+     *
+     * @return the snapshot that was written
+     */
+    public MetadataSnapshot writeMetadataSnapshot(Path shardStatePath) throws IOException {
+        final MetadataSnapshot snapshot = getMetadata(null);
+        PersistedMetadataSnapshot.write(snapshot, shardStatePath);
+        return snapshot;
+    }
+
     /**
      * Renames all the given files from the key of the map to the
      * value of the map. All successfully renamed files are removed from the map in-place.
@@ -448,9 +466,30 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
      */
     public static MetadataSnapshot readMetadataSnapshot(Path indexLocation, ShardId shardId, NodeEnvironment.ShardLocker shardLocker,
                                                         Logger logger) throws IOException {
+        return readMetadataSnapshot(indexLocation, null, shardId, shardLocker, logger);
+    }
+
+    /**
+     * Reads a MetadataSnapshot from the given index locations or returns an empty snapshot if it can't be read. The snapshot that
+     * was written to the given shard state directory by {@link #writeMetadataSnapshot(Path)} is returned instead if it is the one of
+     * the last commit, which saves reading the footers of all files of the commit.
+     *
+     * @param shardStatePath the shard state directory to look for a written snapshot in, or <code>null</code> to always read it
+     *                       from the index
+     * @throws IOException if the index we try to read is corrupted
+     */
+    public static MetadataSnapshot readMetadataSnapshot(Path indexLocation, @Nullable Path shardStatePath, ShardId shardId,
+                                                        NodeEnvironment.ShardLocker shardLocker, Logger logger) throws IOException {
         try (ShardLock lock = shardLocker.lock(shardId, "read metadata snapshot", TimeUnit.SECONDS.toMillis(5));
              Directory dir = new SimpleFSDirectory(indexLocation)) {
             failIfCorrupted(dir, shardId);
+            if (shardStatePath != null) {
+                final MetadataSnapshot persisted = PersistedMetadataSnapshot.loadIfCurrent(dir, shardStatePath, logger);
+                if (persisted != null) {
+                    logger.trace("{} using persisted metadata snapshot", shardId);
+                    return persisted;
+                }
+            }
             return new MetadataSnapshot(null, dir, logger);
         } catch (IndexNotFoundException ex) {
             // that's fine - happens all the time no need to log
@@ -545,6 +545,57 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         }
     }
 
+    /**
+     * Adds a batch of operations to the transaction log. The operations are serialized into a single buffer which is written to the
+     * current generation at once.
+     *
+     * @param operations the operations to add
+     * @return the locations of the operations in the translog, in the order of the given operations
+     * @throws IOException if adding the operations to the translog resulted in an I/O exception
+     */
+    public List<Location> add(final List<? extends Operation> operations) throws IOException {
+        final ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(bigArrays);
+        try {
+            final long[] seqNos = new long[operations.size()];
+            final int[] sizes = new int[operations.size()];
+            long maxPrimaryTerm = 0;
+            for (int i = 0; i < operations.size(); i++) {
+                final Operation operation = operations.get(i);
+                final long start = out.position();
+                out.skip(Integer.BYTES);
+                writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+                final long end = out.position();
+                final int operationSize = (int) (end - Integer.BYTES - start);
+                out.seek(start);
+                out.writeInt(operationSize);
+                out.seek(end);
+                seqNos[i] = operation.seqNo();
+                sizes[i] = Math.toIntExact(end - start);
+                maxPrimaryTerm = Math.max(maxPrimaryTerm, operation.primaryTerm());
+            }
+            final ReleasablePagedBytesReference bytes = out.bytes();
+            try (ReleasableLock ignored = readLock.acquire()) {
+                ensureOpen();
+                if (maxPrimaryTerm > current.getPrimaryTerm()) {
+                    assert false :
+                        "Operation term is newer than the current term; "
+                            + "current term[" + current.getPrimaryTerm() + "], operation term[" + maxPrimaryTerm + "]";
+                    throw new IllegalArgumentException("Operation term is newer than the current term; "
+                        + "current term[" + current.getPrimaryTerm() + "], operation term[" + maxPrimaryTerm + "]");
+                }
+                return current.add(bytes, seqNos, sizes);
+            }
+        } catch (final AlreadyClosedException | IOException ex) {
+            closeOnTragicEvent(ex);
+            throw ex;
+        } catch (final Exception ex) {
+            closeOnTragicEvent(ex);
+            throw new TranslogException(shardId, "Failed to write [" + operations.size() + "] operations", ex);
+        } finally {
+            Releasables.close(out);
+        }
+    }
+
     /**
      * Tests whether or not the translog generation should be rolled to a new generation. This test
      * is based on the size of the current generation compared to the configured generation
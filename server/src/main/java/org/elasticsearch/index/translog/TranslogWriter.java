@@ -38,7 +38,9 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -184,6 +186,43 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         return new Translog.Location(generation, offset, data.length());
     }
 
+    /**
+     * Add the given bytes, which hold several serialized operations one after the other, to the translog with a single write;
+     * returns the locations the individual operations were written to.
+     *
+     * @param data   the bytes to write
+     * @param seqNos the sequence numbers associated with the operations
+     * @param sizes  the number of bytes of each of the operations
+     * @return the locations the operations were written to
+     * @throws IOException if writing to the translog resulted in an I/O exception
+     */
+    public synchronized List<Translog.Location> add(final BytesReference data, final long[] seqNos, final int[] sizes)
+        throws IOException {
+        assert seqNos.length == sizes.length : seqNos.length + " sequence numbers but " + sizes.length + " sizes";
+        ensureOpen();
+        final long offset = totalOffset;
+        try {
+            data.writeTo(outputStream);
+        } catch (final Exception ex) {
+            closeWithTragicEvent(ex);
+            throw ex;
+        }
+        totalOffset += data.length();
+
+        final List<Translog.Location> locations = new ArrayList<>(seqNos.length);
+        int operationOffset = 0;
+        for (int i = 0; i < seqNos.length; i++) {
+            minSeqNo = SequenceNumbers.min(minSeqNo, seqNos[i]);
+            maxSeqNo = SequenceNumbers.max(maxSeqNo, seqNos[i]);
+            operationCounter++;
+            assert assertNoSeqNumberConflict(seqNos[i], data.slice(operationOffset, sizes[i]));
+            locations.add(new Translog.Location(generation, offset + operationOffset, sizes[i]));
+            operationOffset += sizes[i];
+        }
+        assert operationOffset == data.length() : "operations take [" + operationOffset + "] bytes but got [" + data.length() + "]";
+        return locations;
+    }
+
     private synchronized boolean assertNoSeqNumberConflict(long seqNo, BytesReference data) throws IOException {
         if (seqNo == SequenceNumbers.UNASSIGNED_SEQ_NO) {
             // nothing to do
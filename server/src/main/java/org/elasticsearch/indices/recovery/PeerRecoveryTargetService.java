@@ -565,6 +565,9 @@ public class PeerRecoveryTargetService implements IndexEventListener {
                 if (request.sourceThrottleTimeInNanos() != RecoveryState.Index.UNKNOWN) {
                     indexState.addSourceThrottling(request.sourceThrottleTimeInNanos());
                 }
+                if (request.roundTrips() > 0) {
+                    indexState.addFileChunkRoundTrips(request.roundTrips(), request.roundTripTimeInNanos());
+                }
 
                 RateLimiter rateLimiter = recoverySettings.rateLimiter();
                 if (rateLimiter != null) {
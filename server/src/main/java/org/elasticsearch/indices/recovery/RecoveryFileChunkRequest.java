@@ -38,6 +38,8 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
     private BytesReference content;
     private StoreFileMetaData metaData;
     private long sourceThrottleTimeInNanos;
+    private int roundTrips;
+    private long roundTripTimeInNanos;
 
     private int totalTranslogOps;
 
@@ -46,6 +48,12 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
 
     public RecoveryFileChunkRequest(long recoveryId, ShardId shardId, StoreFileMetaData metaData, long position, BytesReference content,
                                     boolean lastChunk, int totalTranslogOps, long sourceThrottleTimeInNanos) {
+        this(recoveryId, shardId, metaData, position, content, lastChunk, totalTranslogOps, sourceThrottleTimeInNanos, 0, 0L);
+    }
+
+    public RecoveryFileChunkRequest(long recoveryId, ShardId shardId, StoreFileMetaData metaData, long position, BytesReference content,
+                                    boolean lastChunk, int totalTranslogOps, long sourceThrottleTimeInNanos,
+                                    int roundTrips, long roundTripTimeInNanos) {
         this.recoveryId = recoveryId;
         this.shardId = shardId;
         this.metaData = metaData;
@@ -54,6 +62,8 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         this.lastChunk = lastChunk;
         this.totalTranslogOps = totalTranslogOps;
         this.sourceThrottleTimeInNanos = sourceThrottleTimeInNanos;
+        this.roundTrips = roundTrips;
+        this.roundTripTimeInNanos = roundTripTimeInNanos;
     }
 
     public long recoveryId() {
@@ -92,6 +102,20 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         return sourceThrottleTimeInNanos;
     }
 
+    /**
+     * The number of file chunk requests of this recovery that the source saw completing since it sent the previous file chunk request.
+     */
+    public int roundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * The total round trip time, as measured by the source, of the file chunk requests counted by {@link #roundTrips()}.
+     */
+    public long roundTripTimeInNanos() {
+        return roundTripTimeInNanos;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -108,6 +132,10 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         lastChunk = in.readBoolean();
         totalTranslogOps = in.readVInt();
         sourceThrottleTimeInNanos = in.readLong();
+        if (in.getVersion().onOrAfter(org.elasticsearch.Version.V_8_0_0)) {
+            roundTrips = in.readVInt();
+            roundTripTimeInNanos = in.readVLong();
+        }
     }
 
     @Override
@@ -124,6 +152,10 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         out.writeBoolean(lastChunk);
         out.writeVInt(totalTranslogOps);
         out.writeLong(sourceThrottleTimeInNanos);
+        if (out.getVersion().onOrAfter(org.elasticsearch.Version.V_8_0_0)) {
+            out.writeVInt(roundTrips);
+            out.writeVLong(roundTripTimeInNanos);
+        }
     }
 
     @Override
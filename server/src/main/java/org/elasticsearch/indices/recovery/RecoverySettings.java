@@ -45,6 +45,22 @@ public class RecoverySettings {
     public static final Setting<Integer> INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING =
         Setting.intSetting("indices.recovery.max_concurrent_file_chunks", 2, 1, 5, Property.Dynamic, Property.NodeScope);
 
+    /**
+     * Controls the number of files that are sent in parallel from the source node to the target node by a single recovery. Each of
+     * these files can have up to {@link #INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING} chunk requests in flight.
+     */
+    public static final Setting<Integer> INDICES_RECOVERY_MAX_CONCURRENT_FILE_STREAMS_SETTING =
+        Setting.intSetting("indices.recovery.max_concurrent_file_streams", 1, 1, 8, Property.Dynamic, Property.NodeScope);
+
+    /**
+     * The size the file chunks of a recovery can grow to. The first chunk of every file has the default chunk size and the following
+     * chunks double in size up to this limit, so that large files are sent with fewer round trips. Defaults to the default chunk size,
+     * which means chunks don't grow unless this is raised.
+     */
+    public static final Setting<ByteSizeValue> INDICES_RECOVERY_MAX_CHUNK_SIZE_SETTING =
+        Setting.byteSizeSetting("indices.recovery.max_chunk_size", new ByteSizeValue(512, ByteSizeUnit.KB),
+            new ByteSizeValue(512, ByteSizeUnit.KB), new ByteSizeValue(16, ByteSizeUnit.MB), Property.Dynamic, Property.NodeScope);
+
     /**
      * how long to wait before retrying after issues cause by cluster state syncing between nodes
      * i.e., local node is not yet known on remote node, remote shard not yet started etc.
@@ -85,6 +101,8 @@ public class RecoverySettings {
 
     private volatile ByteSizeValue maxBytesPerSec;
     private volatile int maxConcurrentFileChunks;
+    private volatile int maxConcurrentFileStreams;
+    private volatile ByteSizeValue maxChunkSize;
     private volatile SimpleRateLimiter rateLimiter;
     private volatile TimeValue retryDelayStateSync;
     private volatile TimeValue retryDelayNetwork;
@@ -93,10 +111,13 @@ public class RecoverySettings {
     private volatile TimeValue internalActionLongTimeout;
 
     private volatile ByteSizeValue chunkSize = DEFAULT_CHUNK_SIZE;
+    private volatile boolean fixedChunkSize = false;
 
     public RecoverySettings(Settings settings, ClusterSettings clusterSettings) {
         this.retryDelayStateSync = INDICES_RECOVERY_RETRY_DELAY_STATE_SYNC_SETTING.get(settings);
         this.maxConcurrentFileChunks = INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING.get(settings);
+        this.maxConcurrentFileStreams = INDICES_RECOVERY_MAX_CONCURRENT_FILE_STREAMS_SETTING.get(settings);
+        this.maxChunkSize = INDICES_RECOVERY_MAX_CHUNK_SIZE_SETTING.get(settings);
         // doesn't have to be fast as nodes are reconnected every 10s by default (see InternalClusterService.ReconnectToNodes)
         // and we want to give the master time to remove a faulty node
         this.retryDelayNetwork = INDICES_RECOVERY_RETRY_DELAY_NETWORK_SETTING.get(settings);
@@ -117,6 +138,9 @@ public class RecoverySettings {
 
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_BYTES_PER_SEC_SETTING, this::setMaxBytesPerSec);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING, this::setMaxConcurrentFileChunks);
+        clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_CONCURRENT_FILE_STREAMS_SETTING,
+            this::setMaxConcurrentFileStreams);
+        clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_MAX_CHUNK_SIZE_SETTING, this::setMaxChunkSize);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_RETRY_DELAY_STATE_SYNC_SETTING, this::setRetryDelayStateSync);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_RETRY_DELAY_NETWORK_SETTING, this::setRetryDelayNetwork);
         clusterSettings.addSettingsUpdateConsumer(INDICES_RECOVERY_INTERNAL_ACTION_TIMEOUT_SETTING, this::setInternalActionTimeout);
@@ -156,6 +180,22 @@ public class RecoverySettings {
             throw new IllegalArgumentException("chunkSize must be > 0");
         }
         this.chunkSize = chunkSize;
+        this.fixedChunkSize = true;
+    }
+
+    /**
+     * Returns the size file chunks can grow to. A chunk size that was set explicitly is never grown.
+     */
+    public ByteSizeValue getMaxChunkSize() {
+        final ByteSizeValue chunkSize = this.chunkSize;
+        if (fixedChunkSize || chunkSize.getBytes() >= maxChunkSize.getBytes()) {
+            return chunkSize;
+        }
+        return maxChunkSize;
+    }
+
+    private void setMaxChunkSize(ByteSizeValue maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
     }
 
 
@@ -197,4 +237,12 @@ public class RecoverySettings {
     private void setMaxConcurrentFileChunks(int maxConcurrentFileChunks) {
         this.maxConcurrentFileChunks = maxConcurrentFileChunks;
     }
+
+    public int getMaxConcurrentFileStreams() {
+        return maxConcurrentFileStreams;
+    }
+
+    private void setMaxConcurrentFileStreams(int maxConcurrentFileStreams) {
+        this.maxConcurrentFileStreams = maxConcurrentFileStreams;
+    }
 }
@@ -38,13 +38,17 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.logging.Loggers;
-import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
+import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.engine.Engine;
@@ -64,10 +68,11 @@ import org.elasticsearch.transport.RemoteTransportException;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
@@ -101,19 +106,34 @@ public class RecoverySourceHandler {
     private final StartRecoveryRequest request;
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
+    private final int maxChunkSizeInBytes;
     private final int maxConcurrentFileChunks;
+    private final int maxConcurrentFileStreams;
+    private final PageCacheRecycler pageCacheRecycler;
     private final CancellableThreads cancellableThreads = new CancellableThreads();
 
     public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget, final StartRecoveryRequest request,
                                  final int fileChunkSizeInBytes, final int maxConcurrentFileChunks) {
+        this(shard, recoveryTarget, request, PageCacheRecycler.NON_RECYCLING_INSTANCE, fileChunkSizeInBytes, fileChunkSizeInBytes,
+            maxConcurrentFileChunks, 1);
+    }
+
+    public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget, final StartRecoveryRequest request,
+                                 final PageCacheRecycler pageCacheRecycler, final int fileChunkSizeInBytes,
+                                 final int maxFileChunkSizeInBytes, final int maxConcurrentFileChunks,
+                                 final int maxConcurrentFileStreams) {
         this.shard = shard;
+        this.pageCacheRecycler = pageCacheRecycler;
         this.recoveryTarget = recoveryTarget;
         this.request = request;
         this.shardId = this.request.shardId().id();
         this.logger = Loggers.getLogger(getClass(), request.shardId(), "recover to " + request.targetNode().getName());
         this.chunkSizeInBytes = fileChunkSizeInBytes;
+        this.maxChunkSizeInBytes = Math.max(fileChunkSizeInBytes, maxFileChunkSizeInBytes);
         // if the target is on an old version, it won't be able to handle out-of-order file chunks.
-        this.maxConcurrentFileChunks = request.targetNode().getVersion().onOrAfter(Version.V_6_7_0) ? maxConcurrentFileChunks : 1;
+        final boolean concurrentChunks = request.targetNode().getVersion().onOrAfter(Version.V_6_7_0);
+        this.maxConcurrentFileChunks = concurrentChunks ? maxConcurrentFileChunks : 1;
+        this.maxConcurrentFileStreams = concurrentChunks ? maxConcurrentFileStreams : 1;
     }
 
     public StartRecoveryRequest getRequest() {
@@ -686,44 +706,86 @@ public class RecoverySourceHandler {
                 '}';
     }
 
+    /**
+     * Sends the given files to the target. Up to {@code maxConcurrentFileStreams} files are read at the same time and their chunks are
+     * sent in turns. The bytes in flight are capped to what {@code maxConcurrentFileChunks} chunks of the configured chunk size per file
+     * would take, counting from the oldest unacknowledged request so that the target never has to buffer more out-of-order chunks than
+     * that. Growing chunks therefore mean fewer requests rather than more memory. The target reassembles the chunks of every file in
+     * order.
+     */
     void sendFiles(Store store, StoreFileMetaData[] files, Supplier<Integer> translogOps) throws Exception {
         ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetaData::length)); // send smallest first
         final LocalCheckpointTracker requestSeqIdTracker = new LocalCheckpointTracker(NO_OPS_PERFORMED, NO_OPS_PERFORMED);
         final AtomicReference<Tuple<StoreFileMetaData, Exception>> error = new AtomicReference<>();
-        final byte[] buffer = new byte[chunkSizeInBytes];
-        for (final StoreFileMetaData md : files) {
-            if (error.get() != null) {
-                break;
-            }
-            try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE);
-                 InputStream in = new InputStreamIndexInput(indexInput, md.length())) {
-                long position = 0;
-                int bytesRead;
-                while ((bytesRead = in.read(buffer, 0, buffer.length)) != -1) {
-                    final BytesArray content = new BytesArray(buffer, 0, bytesRead);
-                    final boolean lastChunk = position + content.length() == md.length();
-                    final long requestSeqId = requestSeqIdTracker.generateSeqNo();
-                    cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqId - maxConcurrentFileChunks));
-                    cancellableThreads.checkForCancel();
-                    if (error.get() != null) {
-                        break;
-                    }
-                    final long requestFilePosition = position;
+        final long maxBytesInFlight =
+            Math.max(maxChunkSizeInBytes, (long) chunkSizeInBytes * maxConcurrentFileChunks * maxConcurrentFileStreams);
+        // the seq id of every request that may still be in flight along with the total bytes sent up to and including that request
+        final Deque<Tuple<Long, Long>> sentRequests = new ArrayDeque<>();
+        long bytesSent = 0;
+        long bytesAcknowledged = 0;
+        final Deque<FileChunkStream> streams = new ArrayDeque<>(maxConcurrentFileStreams);
+        int nextFile = 0;
+        StoreFileMetaData current = null;
+        try {
+            while (error.get() == null) {
+                while (streams.size() < maxConcurrentFileStreams && nextFile < files.length) {
+                    current = files[nextFile++];
+                    streams.add(new FileChunkStream(store, current, chunkSizeInBytes, maxChunkSizeInBytes));
+                }
+                final FileChunkStream stream = streams.poll();
+                if (stream == null) {
+                    break;
+                }
+                final StoreFileMetaData md = current = stream.md;
+                final int chunkSize = stream.nextChunkSize();
+                if (chunkSize == 0) {
+                    stream.close();
+                    continue;
+                }
+                // wait for enough of the oldest requests to complete to leave room for this chunk before reading it
+                long waitForSeqId = NO_OPS_PERFORMED;
+                while (bytesSent + chunkSize - bytesAcknowledged > maxBytesInFlight) {
+                    final Tuple<Long, Long> oldest = sentRequests.pollFirst();
+                    assert oldest != null : "a single chunk of [" + chunkSize + "] bytes exceeds [" + maxBytesInFlight + "] bytes";
+                    waitForSeqId = oldest.v1();
+                    bytesAcknowledged = oldest.v2();
+                }
+                final long seqIdToComplete = waitForSeqId;
+                cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(seqIdToComplete));
+                cancellableThreads.checkForCancel();
+                if (error.get() != null) {
+                    break;
+                }
+                final long requestFilePosition = stream.position;
+                final FileChunk chunk = stream.nextChunk(pageCacheRecycler, chunkSize);
+                final boolean lastChunk = stream.position == md.length();
+                if (lastChunk) {
+                    stream.close();
+                } else {
+                    streams.add(stream);
+                }
+                final long requestSeqId = requestSeqIdTracker.generateSeqNo();
+                bytesSent += chunkSize;
+                sentRequests.addLast(Tuple.tuple(requestSeqId, bytesSent));
+                try {
                     cancellableThreads.executeIO(() ->
-                        recoveryTarget.writeFileChunk(md, requestFilePosition, content, lastChunk, translogOps.get(),
-                            ActionListener.wrap(
+                        recoveryTarget.writeFileChunk(md, requestFilePosition, chunk.content, lastChunk, translogOps.get(),
+                            ActionListener.runAfter(ActionListener.wrap(
                                 r -> requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId),
                                 e -> {
                                     error.compareAndSet(null, Tuple.tuple(md, e));
                                     requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
                                 }
-                            )));
-                    position += content.length();
+                            ), chunk::close)));
+                } catch (Exception e) {
+                    chunk.close();
+                    throw e;
                 }
-            } catch (Exception e) {
-                error.compareAndSet(null, Tuple.tuple(md, e));
-                break;
             }
+        } catch (Exception e) {
+            error.compareAndSet(null, Tuple.tuple(current, e));
+        } finally {
+            IOUtils.closeWhileHandlingException(streams);
         }
         // When we terminate exceptionally, we don't wait for the outstanding requests as we don't use their results anyway.
         // This allows us to end quickly and eliminate the complexity of handling requestSeqIds in case of error.
@@ -735,6 +797,89 @@ public class RecoverySourceHandler {
         }
     }
 
+    /**
+     * A file that is sent to the target chunk by chunk. The first chunk has the configured chunk size and every following chunk is
+     * twice as large as the previous one up to the maximum chunk size. The maximum chunk size equals the configured chunk size unless
+     * it was raised, in which case small files are still sent in small requests and large files need fewer round trips.
+     */
+    private static final class FileChunkStream implements Closeable {
+        private final StoreFileMetaData md;
+        private final IndexInput indexInput;
+        private final int maxChunkSizeInBytes;
+        private int chunkSizeInBytes;
+        private long position;
+
+        FileChunkStream(Store store, StoreFileMetaData md, int chunkSizeInBytes, int maxChunkSizeInBytes) throws IOException {
+            this.md = md;
+            this.indexInput = store.directory().openInput(md.name(), IOContext.READONCE);
+            this.chunkSizeInBytes = chunkSizeInBytes;
+            this.maxChunkSizeInBytes = maxChunkSizeInBytes;
+        }
+
+        /**
+         * Returns the size of the next chunk of the file, or 0 if the whole file was read.
+         */
+        int nextChunkSize() {
+            return Math.toIntExact(Math.min(chunkSizeInBytes, md.length() - position));
+        }
+
+        /**
+         * Reads the next chunk of the file, of the given size, into pages taken from the given recycler. The pages must be released
+         * by closing the returned chunk once the target acknowledged it, since several chunks of the file can be in flight at the same
+         * time.
+         */
+        FileChunk nextChunk(PageCacheRecycler recycler, int size) throws IOException {
+            assert size == nextChunkSize() : size + " vs " + nextChunkSize();
+            final List<Recycler.V<byte[]>> pages = new ArrayList<>();
+            final List<BytesReference> references = new ArrayList<>();
+            boolean success = false;
+            try {
+                int remaining = size;
+                while (remaining > 0) {
+                    final Recycler.V<byte[]> page = recycler.bytePage(false);
+                    pages.add(page);
+                    final int length = Math.min(remaining, page.v().length);
+                    indexInput.readBytes(page.v(), 0, length);
+                    references.add(new BytesArray(page.v(), 0, length));
+                    remaining -= length;
+                }
+                success = true;
+            } finally {
+                if (success == false) {
+                    Releasables.close(pages);
+                }
+            }
+            position += size;
+            chunkSizeInBytes = (int) Math.min(maxChunkSizeInBytes, 2L * chunkSizeInBytes);
+            final BytesReference content =
+                references.size() == 1 ? references.get(0) : new CompositeBytesReference(references.toArray(new BytesReference[0]));
+            return new FileChunk(content, Releasables.releaseOnce(pages.toArray(new Releasable[0])));
+        }
+
+        @Override
+        public void close() throws IOException {
+            indexInput.close();
+        }
+    }
+
+    /**
+     * A chunk of a file along with the recycled pages that hold it.
+     */
+    private static final class FileChunk implements Releasable {
+        private final BytesReference content;
+        private final Releasable pages;
+
+        FileChunk(BytesReference content, Releasable pages) {
+            this.content = content;
+            this.pages = pages;
+        }
+
+        @Override
+        public void close() {
+            pages.close();
+        }
+    }
+
     private void handleErrorOnSendFiles(Store store, StoreFileMetaData md, Exception e) throws Exception {
         final IOException corruptIndexException;
         if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(e)) != null) {
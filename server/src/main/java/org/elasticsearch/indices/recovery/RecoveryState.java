@@ -19,6 +19,7 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -347,6 +348,11 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
         static final String SOURCE_THROTTLE_TIME_IN_MILLIS = "source_throttle_time_in_millis";
         static final String TARGET_THROTTLE_TIME = "target_throttle_time";
         static final String TARGET_THROTTLE_TIME_IN_MILLIS = "target_throttle_time_in_millis";
+        static final String FILE_CHUNK_ROUND_TRIPS = "file_chunk_round_trips";
+        static final String AVG_FILE_CHUNK_ROUND_TRIP_TIME = "avg_file_chunk_round_trip_time";
+        static final String AVG_FILE_CHUNK_ROUND_TRIP_TIME_IN_MILLIS = "avg_file_chunk_round_trip_time_in_millis";
+        static final String THROUGHPUT_PER_SEC = "throughput_per_sec";
+        static final String THROUGHPUT_IN_BYTES_PER_SEC = "throughput_in_bytes_per_sec";
     }
 
     public static class Timer implements Writeable {
@@ -683,6 +689,8 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
         private long version = UNKNOWN;
         private long sourceThrottlingInNanos = UNKNOWN;
         private long targetThrottleTimeInNanos = UNKNOWN;
+        private long fileChunkRoundTrips = 0;
+        private long fileChunkRoundTripTimeInNanos = 0;
 
         public Index() {
         }
@@ -696,6 +704,10 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             }
             sourceThrottlingInNanos = in.readLong();
             targetThrottleTimeInNanos = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                fileChunkRoundTrips = in.readVLong();
+                fileChunkRoundTripTimeInNanos = in.readVLong();
+            }
         }
 
         @Override
@@ -708,6 +720,10 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             }
             out.writeLong(sourceThrottlingInNanos);
             out.writeLong(targetThrottleTimeInNanos);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(fileChunkRoundTrips);
+                out.writeVLong(fileChunkRoundTripTimeInNanos);
+            }
         }
 
         public synchronized List<File> fileDetails() {
@@ -720,6 +736,8 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             fileDetails.clear();
             sourceThrottlingInNanos = UNKNOWN;
             targetThrottleTimeInNanos = UNKNOWN;
+            fileChunkRoundTrips = 0;
+            fileChunkRoundTripTimeInNanos = 0;
         }
 
         public synchronized void addFileDetail(String name, long length, boolean reused) {
@@ -753,6 +771,42 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             }
         }
 
+        /**
+         * Records file chunk requests that completed, as reported by the source together with their total round trip time.
+         */
+        public synchronized void addFileChunkRoundTrips(int roundTrips, long roundTripTimeInNanos) {
+            fileChunkRoundTrips += roundTrips;
+            fileChunkRoundTripTimeInNanos += roundTripTimeInNanos;
+        }
+
+        /**
+         * number of file chunk requests whose round trip time was reported by the source
+         */
+        public synchronized long fileChunkRoundTrips() {
+            return fileChunkRoundTrips;
+        }
+
+        /**
+         * average round trip time of a file chunk request, from the source sending it until the target acknowledged it
+         */
+        public synchronized TimeValue avgFileChunkRoundTripTime() {
+            if (fileChunkRoundTrips == 0) {
+                return TimeValue.ZERO;
+            }
+            return TimeValue.timeValueNanos(fileChunkRoundTripTimeInNanos / fileChunkRoundTrips);
+        }
+
+        /**
+         * number of bytes recovered per second since this stage started
+         */
+        public synchronized long throughputInBytesPerSec() {
+            final long timeInMillis = time();
+            if (timeInMillis <= 0) {
+                return 0;
+            }
+            return recoveredBytes() * 1000 / timeInMillis;
+        }
+
         public synchronized TimeValue sourceThrottling() {
             return TimeValue.timeValueNanos(sourceThrottlingInNanos);
         }
@@ -938,6 +992,11 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, new TimeValue(time()));
             builder.humanReadableField(Fields.SOURCE_THROTTLE_TIME_IN_MILLIS, Fields.SOURCE_THROTTLE_TIME, sourceThrottling());
             builder.humanReadableField(Fields.TARGET_THROTTLE_TIME_IN_MILLIS, Fields.TARGET_THROTTLE_TIME, targetThrottling());
+            builder.field(Fields.FILE_CHUNK_ROUND_TRIPS, fileChunkRoundTrips());
+            builder.humanReadableField(Fields.AVG_FILE_CHUNK_ROUND_TRIP_TIME_IN_MILLIS, Fields.AVG_FILE_CHUNK_ROUND_TRIP_TIME,
+                avgFileChunkRoundTripTime());
+            builder.humanReadableField(Fields.THROUGHPUT_IN_BYTES_PER_SEC, Fields.THROUGHPUT_PER_SEC,
+                new ByteSizeValue(throughputInBytesPerSec()));
             return builder;
         }
 
@@ -39,6 +39,7 @@ import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -55,6 +56,10 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
 
     private final AtomicLong bytesSinceLastPause = new AtomicLong();
 
+    // file chunk round trips completed since the last file chunk request, reported to the target with the next request
+    private final AtomicInteger roundTripsSinceLastRequest = new AtomicInteger();
+    private final AtomicLong roundTripTimeSinceLastRequest = new AtomicLong();
+
     private final Consumer<Long> onSourceThrottle;
 
     public RemoteRecoveryTargetHandler(long recoveryId, ShardId shardId, TransportService transportService,
@@ -173,6 +178,9 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
             throttleTimeInNanos = 0;
         }
 
+        final int roundTrips = roundTripsSinceLastRequest.getAndSet(0);
+        final long roundTripTimeInNanos = roundTripTimeSinceLastRequest.getAndSet(0);
+        final long startTimeInNanos = System.nanoTime();
         transportService.submitRequest(targetNode, PeerRecoveryTargetService.Actions.FILE_CHUNK,
             new RecoveryFileChunkRequest(recoveryId, shardId, fileMetaData, position, content, lastChunk,
                 totalTranslogOps,
@@ -180,8 +188,12 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                  * see how many translog ops we accumulate while copying files across the network. A future optimization
                  * would be in to restart file copy again (new deltas) if we have too many translog ops are piling up.
                  */
-                throttleTimeInNanos), fileChunkRequestOptions, new ActionListenerResponseHandler<>(
-                    ActionListener.map(listener, r -> null), in -> TransportResponse.Empty.INSTANCE));
+                throttleTimeInNanos, roundTrips, roundTripTimeInNanos), fileChunkRequestOptions, new ActionListenerResponseHandler<>(
+                    ActionListener.map(listener, r -> {
+                        roundTripTimeSinceLastRequest.addAndGet(Math.max(0L, System.nanoTime() - startTimeInNanos));
+                        roundTripsSinceLastRequest.incrementAndGet();
+                        return null;
+                    }), in -> TransportResponse.Empty.INSTANCE));
     }
 
 }
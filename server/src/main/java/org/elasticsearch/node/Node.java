@@ -31,6 +31,8 @@ import org.elasticsearch.action.ActionModule;
 import org.elasticsearch.action.search.SearchExecutionStatsCollector;
 import org.elasticsearch.action.search.SearchPhaseController;
 import org.elasticsearch.action.search.SearchTransportService;
+import org.elasticsearch.action.search.async.AsyncSearchIndexService;
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
 import org.elasticsearch.action.support.TransportAction;
 import org.elasticsearch.action.update.UpdateHelper;
 import org.elasticsearch.bootstrap.BootstrapCheck;
@@ -93,6 +95,7 @@ import org.elasticsearch.gateway.GatewayMetaState;
 import org.elasticsearch.gateway.GatewayModule;
 import org.elasticsearch.gateway.GatewayService;
 import org.elasticsearch.gateway.MetaStateService;
+import org.elasticsearch.gateway.PersistedClusterStateService;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
@@ -397,6 +400,8 @@ public class Node implements Closeable {
                 ClusterModule.getNamedXWriteables().stream())
                 .flatMap(Function.identity()).collect(toList()));
             final MetaStateService metaStateService = new MetaStateService(nodeEnvironment, xContentRegistry);
+            final PersistedClusterStateService persistedClusterStateService =
+                new PersistedClusterStateService(settings, nodeEnvironment, xContentRegistry);
 
             // collect engine factory providers from server and from plugins
             final Collection<EnginePlugin> enginePlugins = pluginsService.filterPlugins(EnginePlugin.class);
@@ -471,7 +476,8 @@ public class Node implements Closeable {
             final TransportService transportService = newTransportService(settings, transport, threadPool,
                 networkModule.getTransportInterceptor(), localNodeFactory, settingsModule.getClusterSettings(), taskHeaders);
             final GatewayMetaState gatewayMetaState = new GatewayMetaState(settings, nodeEnvironment, metaStateService,
-                    metaDataIndexUpgradeService, metaDataUpgrader, transportService, clusterService, indicesService);
+                    metaDataIndexUpgradeService, metaDataUpgrader, transportService, clusterService, indicesService,
+                    persistedClusterStateService);
             final ResponseCollectorService responseCollectorService = new ResponseCollectorService(clusterService);
             final SearchTransportService searchTransportService =  new SearchTransportService(transportService,
                 SearchExecutionStatsCollector.makeWrapper(responseCollectorService));
@@ -505,6 +511,9 @@ public class Node implements Closeable {
                 new PersistentTasksClusterService(settings, registry, clusterService, threadPool);
             resourcesToClose.add(persistentTasksClusterService);
             final PersistentTasksService persistentTasksService = new PersistentTasksService(clusterService, threadPool, client);
+            final AsyncSearchIndexService asyncSearchIndexService = new AsyncSearchIndexService(settings, client, clusterService,
+                threadPool, namedWriteableRegistry, getAsyncSearchSecurity(pluginsService.filterPlugins(ActionPlugin.class)));
+            resourcesToClose.add(asyncSearchIndexService);
 
             modules.add(b -> {
                     b.bind(Node.class).toInstance(this);
@@ -533,6 +542,7 @@ public class Node implements Closeable {
                     b.bind(SearchService.class).toInstance(searchService);
                     b.bind(SearchTransportService.class).toInstance(searchTransportService);
                     b.bind(SearchPhaseController.class).toInstance(new SearchPhaseController(searchService::createReduceContext));
+                    b.bind(AsyncSearchIndexService.class).toInstance(asyncSearchIndexService);
                     b.bind(Transport.class).toInstance(transport);
                     b.bind(TransportService.class).toInstance(transportService);
                     b.bind(NetworkService.class).toInstance(networkService);
@@ -545,7 +555,7 @@ public class Node implements Closeable {
                         RecoverySettings recoverySettings = new RecoverySettings(settings, settingsModule.getClusterSettings());
                         processRecoverySettings(settingsModule.getClusterSettings(), recoverySettings);
                         b.bind(PeerRecoverySourceService.class).toInstance(new PeerRecoverySourceService(transportService,
-                                indicesService, recoverySettings));
+                                indicesService, recoverySettings, pageCacheRecycler));
                         b.bind(PeerRecoveryTargetService.class).toInstance(new PeerRecoveryTargetService(threadPool,
                                 transportService, recoverySettings, clusterService));
                     }
@@ -821,8 +831,10 @@ public class Node implements Closeable {
         toClose.add(nodeService.getMonitorService());
         toClose.add(() -> stopWatch.stop().start("gateway"));
         toClose.add(injector.getInstance(GatewayService.class));
+        toClose.add(injector.getInstance(GatewayMetaState.class));
         toClose.add(() -> stopWatch.stop().start("search"));
         toClose.add(injector.getInstance(SearchService.class));
+        toClose.add(injector.getInstance(AsyncSearchIndexService.class));
         toClose.add(() -> stopWatch.stop().start("transport"));
         toClose.add(injector.getInstance(TransportService.class));
 
@@ -986,6 +998,24 @@ public class Node implements Closeable {
         return customNameResolvers;
     }
 
+    /**
+     * Returns the {@link AsyncSearchSecurity} provided by the action plugins, or {@link AsyncSearchSecurity#NONE} if no plugin secures
+     * async searches.
+     */
+    private static AsyncSearchSecurity getAsyncSearchSecurity(List<ActionPlugin> actionPlugins) {
+        AsyncSearchSecurity asyncSearchSecurity = null;
+        for (ActionPlugin plugin : actionPlugins) {
+            final AsyncSearchSecurity pluginAsyncSearchSecurity = plugin.getAsyncSearchSecurity();
+            if (pluginAsyncSearchSecurity != null) {
+                if (asyncSearchSecurity != null) {
+                    throw new IllegalArgumentException("Cannot have more than one plugin securing async searches");
+                }
+                asyncSearchSecurity = pluginAsyncSearchSecurity;
+            }
+        }
+        return asyncSearchSecurity == null ? AsyncSearchSecurity.NONE : asyncSearchSecurity;
+    }
+
     /** Constructs a ClusterInfoService which may be mocked for tests. */
     protected ClusterInfoService newClusterInfoService(Settings settings, ClusterService clusterService,
                                                        ThreadPool threadPool, NodeClient client, Consumer<ClusterInfo> listeners) {
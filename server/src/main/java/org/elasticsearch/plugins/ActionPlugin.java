@@ -24,6 +24,7 @@ import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionResponse;
 import org.elasticsearch.action.admin.indices.mapping.put.MappingRequestValidator;
 import org.elasticsearch.action.admin.indices.mapping.put.TransportPutMappingAction;
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
 import org.elasticsearch.action.support.ActionFilter;
 import org.elasticsearch.action.support.TransportAction;
 import org.elasticsearch.action.support.TransportActions;
@@ -189,4 +190,14 @@ public interface ActionPlugin {
     default Collection<MappingRequestValidator> mappingRequestValidators() {
         return Collections.emptyList();
     }
+
+    /**
+     * Returns the {@link AsyncSearchSecurity} that identifies the users of async searches, or <code>null</code> if this plugin does
+     * not secure them.
+     *
+     * Note: Only one installed plugin may secure async searches.
+     */
+    default AsyncSearchSecurity getAsyncSearchSecurity() {
+        return null;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest.action.search;
+
+import org.elasticsearch.action.search.async.GetAsyncSearchAction;
+import org.elasticsearch.action.search.async.GetAsyncSearchRequest;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.action.RestStatusToXContentListener;
+
+import java.io.IOException;
+import java.util.Set;
+
+import static org.elasticsearch.common.unit.TimeValue.parseTimeValue;
+import static org.elasticsearch.rest.RestRequest.Method.GET;
+
+public class RestGetAsyncSearchAction extends BaseRestHandler {
+
+    public RestGetAsyncSearchAction(Settings settings, RestController controller) {
+        super(settings);
+        controller.registerHandler(GET, "/_async_search/{id}", this);
+    }
+
+    @Override
+    public String getName() {
+        return "get_async_search_action";
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) throws IOException {
+        final GetAsyncSearchRequest getRequest = new GetAsyncSearchRequest(request.param("id"));
+        if (request.hasParam("wait_for_completion_timeout")) {
+            getRequest.setWaitForCompletionTimeout(parseTimeValue(request.param("wait_for_completion_timeout"),
+                "wait_for_completion_timeout"));
+        }
+        if (request.hasParam("keep_alive")) {
+            getRequest.setKeepAlive(parseTimeValue(request.param("keep_alive"), "keep_alive"));
+        }
+        return channel -> client.execute(GetAsyncSearchAction.INSTANCE, getRequest, new RestStatusToXContentListener<>(channel));
+    }
+
+    @Override
+    protected Set<String> responseParams() {
+        return RestSubmitAsyncSearchAction.RESPONSE_PARAMS;
+    }
+}
@@ -30,6 +30,7 @@ import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -57,6 +58,7 @@ import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.IndexEventListener;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.SearchOperationListener;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService.AllocatedIndices.IndexRemovalReason;
 import org.elasticsearch.node.ResponseCollectorService;
@@ -67,6 +69,7 @@ import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
 import org.elasticsearch.search.aggregations.SearchContextAggregations;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.collapse.CollapseContext;
 import org.elasticsearch.search.dfs.DfsPhase;
@@ -81,6 +84,8 @@ import org.elasticsearch.search.fetch.subphase.ScriptFieldsContext.ScriptField;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalScrollSearchRequest;
+import org.elasticsearch.search.internal.ReaderContext;
+import org.elasticsearch.search.internal.ReaderContextId;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.SearchContext.Lifetime;
@@ -188,6 +193,14 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private final ConcurrentMapLong<SearchContext> activeContexts = ConcurrentCollections.newConcurrentMapLongWithAggressiveConcurrency();
 
+    private final ConcurrentMapLong<ReaderContext> activeReaders = ConcurrentCollections.newConcurrentMapLongWithAggressiveConcurrency();
+
+    /**
+     * A random id that is part of the id of every reader context, so that reader context ids are unguessable and can't be reused
+     * once this node restarted.
+     */
+    private final String readerSessionId = UUIDs.randomBase64UUID();
+
     private final MultiBucketConsumerService multiBucketConsumerService;
 
     private final AtomicInteger openScrollContexts = new AtomicInteger();
@@ -293,6 +306,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         for (final SearchContext context : activeContexts.values()) {
             freeContext(context.id());
         }
+        for (final ReaderContext readerContext : activeReaders.values()) {
+            removeReaderContext(readerContext.id());
+        }
     }
 
     @Override
@@ -646,7 +662,12 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         IndexShard indexShard = indexService.getShard(request.shardId().getId());
         SearchShardTarget shardTarget = new SearchShardTarget(clusterService.localNode().getId(),
                 indexShard.shardId(), request.getClusterAlias(), OriginalIndices.NONE);
-        Engine.Searcher engineSearcher = indexShard.acquireSearcher(source);
+        final Engine.Searcher engineSearcher;
+        if (request.readerContextId() == null) {
+            engineSearcher = indexShard.acquireSearcher(source);
+        } else {
+            engineSearcher = acquireReaderContextSearcher(request, source);
+        }
 
         final DefaultSearchContext searchContext = new DefaultSearchContext(idGenerator.incrementAndGet(), request, shardTarget,
             engineSearcher, clusterService, indexService, indexShard, bigArrays, threadPool::relativeTimeInMillis, timeout,
@@ -675,6 +696,119 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 freeContext(ctx.id());
             }
         }
+        for (ReaderContext readerContext : activeReaders.values()) {
+            if (index.equals(readerContext.shardId().getIndex())) {
+                removeReaderContext(readerContext.id());
+            }
+        }
+    }
+
+    /**
+     * Opens a point in time reader context on the given shard and returns its id. If another point in time already holds the current
+     * reader of the shard then the new context shares its reader rather than opening a new one. The given alias filter applies to
+     * every search executed against the context.
+     */
+    public ReaderContextId openReaderContext(ShardId shardId, AliasFilter aliasFilter, TimeValue keepAlive) {
+        checkReaderContextKeepAlive(keepAlive.millis());
+        final IndexService indexService = indicesService.indexServiceSafe(shardId.getIndex());
+        final IndexShard indexShard = indexService.getShard(shardId.id());
+        // the reader is wrapped, for instance with document and field level security, by every search request executed against it
+        final Engine.Searcher searcher = indexShard.acquireUnwrappedSearcher("point_in_time");
+        ReaderContext readerContext = null;
+        boolean success = false;
+        try {
+            for (ReaderContext other : activeReaders.values()) {
+                if (other.shardId().equals(shardId) && other.hasSameReader(searcher)) {
+                    readerContext = other.share(idGenerator.incrementAndGet(), aliasFilter, keepAlive.millis(),
+                        threadPool.relativeTimeInMillis());
+                    if (readerContext != null) {
+                        break;
+                    }
+                }
+            }
+            if (readerContext == null) {
+                readerContext = ReaderContext.open(idGenerator.incrementAndGet(), indexShard, searcher, aliasFilter, keepAlive.millis(),
+                    threadPool.relativeTimeInMillis());
+                success = true;
+            }
+        } finally {
+            if (success == false) {
+                // the new context shares the reader of another one, or opening it failed
+                searcher.close();
+            }
+        }
+        try {
+            indexShard.getSearchOperationListener().onNewReaderContext(readerContext);
+        } catch (Exception e) {
+            readerContext.close();
+            throw e;
+        }
+        final ReaderContext previous = activeReaders.put(readerContext.id(), readerContext);
+        assert previous == null;
+        return new ReaderContextId(readerSessionId, readerContext.id());
+    }
+
+    /**
+     * Releases the point in time reader context with the given id on behalf of the given request. Its reader is freed once every
+     * context sharing it was released. Returns <code>false</code> if there is no such context.
+     */
+    public boolean freeReaderContext(ReaderContextId id, TransportRequest request) {
+        final ReaderContext readerContext;
+        try {
+            readerContext = findReaderContext(id);
+        } catch (SearchContextMissingException e) {
+            return false;
+        }
+        readerContext.indexShard().getSearchOperationListener().validateReaderContext(readerContext, request);
+        return removeReaderContext(id.getId());
+    }
+
+    private boolean removeReaderContext(long id) {
+        final ReaderContext readerContext = activeReaders.remove(id);
+        if (readerContext == null) {
+            return false;
+        }
+        try {
+            readerContext.indexShard().getSearchOperationListener().onFreeReaderContext(readerContext);
+        } finally {
+            readerContext.close();
+        }
+        return true;
+    }
+
+    private ReaderContext findReaderContext(ReaderContextId id) {
+        final ReaderContext readerContext = readerSessionId.equals(id.getSessionId()) ? activeReaders.get(id.getId()) : null;
+        if (readerContext == null) {
+            throw new SearchContextMissingException(id.getId());
+        }
+        return readerContext;
+    }
+
+    private Engine.Searcher acquireReaderContextSearcher(ShardSearchRequest request, String source) {
+        final ReaderContext readerContext = findReaderContext(request.readerContextId());
+        if (readerContext.shardId().equals(request.shardId()) == false) {
+            throw new SearchContextMissingException(request.readerContextId().getId());
+        }
+        // point in time searches are always sent over the transport layer, see ShardSearchLocalRequest
+        readerContext.indexShard().getSearchOperationListener().validateReaderContext(readerContext, (TransportRequest) request);
+        final PointInTimeBuilder pointInTime = request.source() == null ? null : request.source().pointInTimeBuilder();
+        if (pointInTime != null && pointInTime.getKeepAlive() != null) {
+            checkReaderContextKeepAlive(pointInTime.getKeepAlive().millis());
+            readerContext.keepAlive(pointInTime.getKeepAlive().millis());
+        }
+        readerContext.accessed(threadPool.relativeTimeInMillis());
+        // the alias filter is the one of the point in time, it can't be chosen by the request
+        request.setAliasFilter(readerContext.aliasFilter());
+        return readerContext.acquireSearcher(source);
+    }
+
+    private void checkReaderContextKeepAlive(long keepAlive) {
+        if (keepAlive > maxKeepAlive) {
+            throw new IllegalArgumentException(
+                "Keep alive for point in time (" + TimeValue.timeValueMillis(keepAlive) + ") is too large. " +
+                    "It must be less than (" + TimeValue.timeValueMillis(maxKeepAlive) + "). " +
+                    "This limit can be set by changing the [" + MAX_KEEPALIVE_SETTING.getKey() + "] cluster level setting.");
+        }
     }
 
 
@@ -914,6 +1048,11 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         if (source.collapse() != null) {
             final CollapseContext collapseContext = source.collapse().build(context);
             context.collapse(collapseContext);
+            try {
+                source.collapse().buildFetchPhaseInnerHits(context, collapseContext, source.query(), source.postFilter());
+            } catch (IOException e) {
+                throw new SearchContextException(context, "failed to build collapse inner_hits", e);
+            }
         }
     }
 
@@ -981,6 +1120,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return this.activeContexts.size();
     }
 
+    /**
+     * Returns the number of open point in time reader contexts.
+     */
+    public int getActiveReaderContexts() {
+        return this.activeReaders.size();
+    }
+
     public ResponseCollectorService getResponseCollectorService() {
         return this.responseCollectorService;
     }
@@ -1002,6 +1148,14 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     freeContext(context.id());
                 }
             }
+            for (ReaderContext readerContext : activeReaders.values()) {
+                final long lastAccessTime = readerContext.lastAccessTime();
+                if (time - lastAccessTime > readerContext.keepAlive()) {
+                    logger.debug("freeing reader context [{}], time [{}], lastAccessTime [{}], keepAlive [{}]", readerContext.id(), time,
+                        lastAccessTime, readerContext.keepAlive());
+                    removeReaderContext(readerContext.id());
+                }
+            }
         }
     }
 
@@ -19,6 +19,7 @@
 package org.elasticsearch.search.collapse;
 
 import org.apache.lucene.index.IndexOptions;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.Strings;
@@ -33,15 +34,23 @@ import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.InnerHitBuilder;
+import org.elasticsearch.index.query.InnerHitContextBuilder;
+import org.elasticsearch.index.query.MatchAllQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.SearchContextException;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * A builder that enables field collapsing on search request.
@@ -155,6 +164,37 @@ public class CollapseBuilder implements Writeable, ToXContentObject {
         return maxConcurrentGroupRequests;
     }
 
+    /**
+     * Returns <code>true</code> if the inner hits of the collapsed groups can be retrieved by the fetch phase of the shards rather than
+     * by a second round of searches once the hits are fetched. This is only the case if the search request targets a single shard,
+     * since every document of a group is then on that shard, and if the inner hits have unique names that don't clash with the inner
+     * hits of the query and don't collapse their own hits.
+     *
+     * @param numShards  the number of shards the search request targets
+     * @param query      the query of the search request
+     * @param postFilter the post filter of the search request
+     */
+    public boolean canExpandInFetchPhase(int numShards, @Nullable QueryBuilder query, @Nullable QueryBuilder postFilter) {
+        if (numShards != 1 || innerHits.isEmpty()) {
+            return false;
+        }
+        Map<String, InnerHitContextBuilder> queryInnerHits = new HashMap<>();
+        if (query != null) {
+            InnerHitContextBuilder.extractInnerHits(query, queryInnerHits);
+        }
+        if (postFilter != null) {
+            InnerHitContextBuilder.extractInnerHits(postFilter, queryInnerHits);
+        }
+        Set<String> names = new HashSet<>();
+        for (InnerHitBuilder innerHit : innerHits) {
+            if (innerHit.getName() == null || innerHit.getInnerCollapseBuilder() != null
+                    || names.add(innerHit.getName()) == false || queryInnerHits.containsKey(innerHit.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, ToXContent.Params params) throws IOException {
         builder.startObject();
@@ -231,4 +271,36 @@ public class CollapseBuilder implements Writeable, ToXContentObject {
 
         return new CollapseContext(field, fieldType, innerHits);
     }
+
+    /**
+     * Adds the inner hits that expand the collapsed groups to the inner hits of the provided context if they can be retrieved by the
+     * fetch phase of the shard, see {@link #canExpandInFetchPhase}.
+     */
+    public void buildFetchPhaseInnerHits(SearchContext context, CollapseContext collapseContext,
+                                         @Nullable QueryBuilder query, @Nullable QueryBuilder postFilter) throws IOException {
+        if (canExpandInFetchPhase(context.request().numberOfShards(), query, postFilter) == false) {
+            return;
+        }
+        int maxInnerResultWindow = context.mapperService().getIndexSettings().getMaxInnerResultWindow();
+        for (InnerHitBuilder innerHit : innerHits) {
+            if (innerHit.getFrom() + innerHit.getSize() > maxInnerResultWindow) {
+                // the searches that expand the groups otherwise are only limited by the max result window
+                return;
+            }
+        }
+        BoolQueryBuilder groupQuery = new BoolQueryBuilder().must(query == null ? new MatchAllQueryBuilder() : query);
+        if (postFilter != null) {
+            groupQuery.filter(postFilter);
+        }
+        Map<String, InnerHitContextBuilder> children = new HashMap<>();
+        if (query != null) {
+            InnerHitContextBuilder.extractInnerHits(query, children);
+        }
+        if (postFilter != null) {
+            InnerHitContextBuilder.extractInnerHits(postFilter, children);
+        }
+        for (InnerHitBuilder innerHit : innerHits) {
+            new CollapseInnerHitContextBuilder(collapseContext, groupQuery, innerHit, children).build(context, context.innerHits());
+        }
+    }
 }
@@ -20,6 +20,7 @@ package org.elasticsearch.search.collapse;
 
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.grouping.CollapsingTopDocsCollector;
+import org.apache.lucene.search.grouping.GroupSelector;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
@@ -70,4 +71,18 @@ public class CollapseContext {
                 ", only keywords and numbers are accepted");
         }
     }
+
+    /**
+     * Creates a {@link GroupSelector} that extracts the collapse key of documents.
+     */
+    public GroupSelector<?> createGroupSelector() {
+        if (fieldType instanceof KeywordFieldMapper.KeywordFieldType) {
+            return CollapsingTopDocsCollector.createKeywordGroupSelector(fieldType.name());
+        } else if (fieldType instanceof NumberFieldMapper.NumberFieldType) {
+            return CollapsingTopDocsCollector.createNumericGroupSelector(fieldType.name());
+        } else {
+            throw new IllegalStateException("unknown type for collapse field " + fieldType.name() +
+                ", only keywords and numbers are accepted");
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.collapse;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.search.grouping.GroupSelector;
+import org.apache.lucene.util.Bits;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.index.query.InnerHitBuilder;
+import org.elasticsearch.index.query.InnerHitContextBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.fetch.subphase.InnerHitsContext;
+import org.elasticsearch.search.fetch.subphase.InnerHitsContext.InnerHitCollector;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the inner hits that expand the groups of a collapsed search in the fetch phase of the shard, see
+ * {@link CollapseBuilder#canExpandInFetchPhase}. The inner hits of a group are the top documents that match the query of the request
+ * and share the collapse key of the group, like the searches that {@code ExpandSearchPhase} sends otherwise.
+ */
+final class CollapseInnerHitContextBuilder extends InnerHitContextBuilder {
+
+    private final CollapseContext collapseContext;
+
+    /**
+     * @param query    the query and post filter of the request
+     * @param children the inner hits of the query and post filter of the request
+     */
+    CollapseInnerHitContextBuilder(CollapseContext collapseContext, QueryBuilder query, InnerHitBuilder innerHitBuilder,
+                                   Map<String, InnerHitContextBuilder> children) {
+        super(query, innerHitBuilder, children);
+        this.collapseContext = collapseContext;
+    }
+
+    @Override
+    protected void doBuild(SearchContext parentSearchContext, InnerHitsContext innerHitsContext) throws IOException {
+        CollapseInnerHitSubContext collapseInnerHits =
+            new CollapseInnerHitSubContext(innerHitBuilder.getName(), parentSearchContext, collapseContext);
+        setupInnerHitsContext(parentSearchContext.getQueryShardContext(), collapseInnerHits);
+        innerHitsContext.addInnerHitDefinition(collapseInnerHits);
+    }
+
+    static final class CollapseInnerHitSubContext extends InnerHitsContext.InnerHitSubContext {
+
+        private final CollapseContext collapseContext;
+
+        CollapseInnerHitSubContext(String name, SearchContext context, CollapseContext collapseContext) {
+            super(name, context);
+            this.collapseContext = collapseContext;
+        }
+
+        @Override
+        public TopDocsAndMaxScore[] topDocs(SearchHit[] hits) throws IOException {
+            // the inner hits are filtered like the top hits, by alias filters and types
+            final boolean needsScores = size() != 0 && (sort() == null || sort().sort.needsScores());
+            Weight weight = context.searcher().createWeight(context.searcher().rewrite(context.buildFilteredQuery(query())),
+                needsScores ? ScoreMode.COMPLETE : ScoreMode.COMPLETE_NO_SCORES, 1f);
+            List<LeafReaderContext> leaves = searcher().getIndexReader().leaves();
+
+            // read the collapse key of every hit, in doc id order since doc values can only be advanced
+            Integer[] order = new Integer[hits.length];
+            for (int i = 0; i < hits.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> hits[i].docId()));
+            GroupSelector<?> groupSelector = collapseContext.createGroupSelector();
+            Map<Object, InnerHitCollector> groups = new HashMap<>();
+            InnerHitCollector[] collectors = new InnerHitCollector[hits.length];
+            LeafReaderContext currentLeaf = null;
+            for (int index : order) {
+                int docId = hits[index].docId();
+                LeafReaderContext ctx = leaves.get(ReaderUtil.subIndex(docId, leaves));
+                if (ctx != currentLeaf) {
+                    currentLeaf = ctx;
+                    groupSelector.setNextReader(ctx);
+                }
+                groupSelector.advanceTo(docId - ctx.docBase);
+                collectors[index] = groups.computeIfAbsent(groupSelector.copyValue(), key -> new InnerHitCollector(this));
+            }
+
+            // collect the inner hits of all groups in a single pass over the matching documents
+            try {
+                for (LeafReaderContext ctx : leaves) {
+                    Scorer scorer = weight.scorer(ctx);
+                    if (scorer == null) {
+                        continue;
+                    }
+                    groupSelector.setNextReader(ctx);
+                    Bits liveDocs = ctx.reader().getLiveDocs();
+                    DocIdSetIterator iterator = scorer.iterator();
+                    for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+                        if (liveDocs != null && liveDocs.get(doc) == false) {
+                            continue;
+                        }
+                        groupSelector.advanceTo(doc);
+                        InnerHitCollector collector = groups.get(groupSelector.currentValue());
+                        if (collector != null) {
+                            collector.collect(ctx, scorer, doc);
+                        }
+                    }
+                }
+            } finally {
+                clearReleasables(Lifetime.COLLECTION);
+            }
+
+            Map<InnerHitCollector, TopDocsAndMaxScore> topDocs = new IdentityHashMap<>(groups.size());
+            TopDocsAndMaxScore[] result = new TopDocsAndMaxScore[hits.length];
+            for (int i = 0; i < hits.length; i++) {
+                result[i] = topDocs.computeIfAbsent(collectors[i], InnerHitCollector::topDocs);
+            }
+            return result;
+        }
+    }
+}
@@ -21,8 +21,11 @@ package org.elasticsearch.search.fetch;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
@@ -32,9 +35,11 @@ import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BitSet;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.xcontent.XContentHelper;
@@ -57,9 +62,15 @@ import org.elasticsearch.search.fetch.subphase.InnerHitsContext;
 import org.elasticsearch.search.fetch.subphase.InnerHitsFetchSubPhase;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.lookup.SourceLookup;
+import org.elasticsearch.search.profile.AbstractProfileBreakdown;
+import org.elasticsearch.search.profile.Timer;
+import org.elasticsearch.search.profile.fetch.FetchProfiler;
+import org.elasticsearch.search.profile.fetch.FetchSubPhaseTimingType;
+import org.elasticsearch.search.profile.fetch.FetchTimingType;
 import org.elasticsearch.tasks.TaskCancelledException;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -76,6 +87,12 @@ import java.util.Set;
 public class FetchPhase implements SearchPhase {
     private static final Logger LOGGER = LogManager.getLogger(FetchPhase.class);
 
+    /**
+     * The minimum number of documents of a segment to load for the stored fields to be read sequentially, decompressing a whole block
+     * of stored fields doesn't pay off when only a few documents of the segment are loaded.
+     */
+    static final int SEQUENTIAL_READ_MIN_DOCS = 10;
+
     private final FetchSubPhase[] fetchSubPhases;
 
     public FetchPhase(List<FetchSubPhase> fetchSubPhases) {
@@ -142,31 +159,68 @@ public class FetchPhase implements SearchPhase {
         }
 
         try {
+            // load the hits in doc id order so that the stored fields of a segment are read sequentially, and put them back in the
+            // order of the top docs afterwards
+            DocIdToIndex[] docs = new DocIdToIndex[context.docIdsToLoadSize()];
+            for (int index = 0; index < context.docIdsToLoadSize(); index++) {
+                docs[index] = new DocIdToIndex(context.docIdsToLoad()[context.docIdsToLoadFrom() + index], index);
+            }
+            Arrays.sort(docs);
+
+            FetchProfiler profiler = new FetchProfiler();
+            Timer[] processTimers = new Timer[fetchSubPhases.length];
+            for (int i = 0; i < fetchSubPhases.length; i++) {
+                processTimers[i] = profiler.getSubPhaseBreakdown(fetchSubPhases[i]).getTimer(FetchSubPhaseTimingType.PROCESS);
+            }
+
             SearchHit[] hits = new SearchHit[context.docIdsToLoadSize()];
+            SearchHit[] sortedHits = new SearchHit[context.docIdsToLoadSize()];
             FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
-            for (int index = 0; index < context.docIdsToLoadSize(); index++) {
+            List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+            int currentReaderIndex = -1;
+            LeafReaderContext subReaderContext = null;
+            CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader = null;
+            for (int index = 0; index < docs.length; index++) {
                 if (context.isCancelled()) {
                     throw new TaskCancelledException("cancelled");
                 }
-                int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
-                int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
-                LeafReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
+                int docId = docs[index].docId;
+                int readerIndex = ReaderUtil.subIndex(docId, leaves);
+                if (currentReaderIndex != readerIndex) {
+                    currentReaderIndex = readerIndex;
+                    subReaderContext = leaves.get(readerIndex);
+                    AbstractProfileBreakdown<FetchTimingType> leafBreakdown = profiler.startLeaf(subReaderContext.ord);
+                    Timer nextReaderTimer = leafBreakdown.getTimer(FetchTimingType.NEXT_READER);
+                    nextReaderTimer.start();
+                    try {
+                        fieldReader = profileStoredFieldsReader(getStoredFieldsReader(subReaderContext, docs, index),
+                            leafBreakdown.getTimer(FetchTimingType.LOAD_STORED_FIELDS));
+                    } finally {
+                        nextReaderTimer.stop();
+                    }
+                }
                 int subDocId = docId - subReaderContext.docBase;
 
                 final SearchHit searchHit;
                 int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
                 if (rootDocId != -1) {
                     searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId,
-                        storedToRequestedFields, subReaderContext);
+                        storedToRequestedFields, fieldReader, subReaderContext);
                 } else {
                     searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId,
-                        storedToRequestedFields, subReaderContext);
+                        storedToRequestedFields, fieldReader, subReaderContext);
                 }
 
-                hits[index] = searchHit;
+                hits[docs[index].index] = searchHit;
+                sortedHits[index] = searchHit;
                 hitContext.reset(searchHit, subReaderContext, subDocId, context.searcher());
-                for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
-                    fetchSubPhase.hitExecute(context, hitContext);
+                for (int i = 0; i < fetchSubPhases.length; i++) {
+                    processTimers[i].start();
+                    try {
+                        fetchSubPhases[i].hitExecute(context, hitContext);
+                    } finally {
+                        processTimers[i].stop();
+                    }
                 }
             }
             if (context.isCancelled()) {
@@ -174,7 +228,13 @@ public class FetchPhase implements SearchPhase {
             }
 
             for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
-                fetchSubPhase.hitsExecute(context, hits);
+                Timer timer = profiler.getSubPhaseBreakdown(fetchSubPhase).getTimer(FetchSubPhaseTimingType.PROCESS_HITS);
+                timer.start();
+                try {
+                    fetchSubPhase.hitsExecute(context, sortedHits);
+                } finally {
+                    timer.stop();
+                }
                 if (context.isCancelled()) {
                     throw new TaskCancelledException("cancelled");
                 }
@@ -182,11 +242,56 @@ public class FetchPhase implements SearchPhase {
 
             TotalHits totalHits = context.queryResult().getTotalHits();
             context.fetchResult().hits(new SearchHits(hits, totalHits, context.queryResult().getMaxScore()));
+            context.fetchResult().timeBreakdownInNanos(profiler.getTimeBreakdownInNanos());
+            if (context.getProfilers() != null) {
+                context.fetchResult().profileResult(profiler.getProfileResult());
+            }
         } catch (IOException e) {
             throw ExceptionsHelper.convertToElastic(e);
         }
     }
 
+    /**
+     * Returns the function that loads the stored fields of the documents of the provided segment. The stored fields are read through a
+     * reader that keeps the last decompressed block of stored fields around when enough documents of the segment need to be loaded.
+     *
+     * @param docs  the documents to load, sorted by doc id
+     * @param index the index of the first document of the segment in <code>docs</code>
+     */
+    static CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> getStoredFieldsReader(LeafReaderContext readerContext,
+                                                                                             DocIdToIndex[] docs,
+                                                                                             int index) throws IOException {
+        LeafReader reader = readerContext.reader();
+        if (reader instanceof SequentialStoredFieldsLeafReader
+                && ((SequentialStoredFieldsLeafReader) reader).canReadSequentially()
+                && countDocsInLeaf(readerContext, docs, index) >= SEQUENTIAL_READ_MIN_DOCS) {
+            StoredFieldsReader storedFieldsReader = ((SequentialStoredFieldsLeafReader) reader).getSequentialStoredFieldsReader();
+            return storedFieldsReader::visitDocument;
+        }
+        return reader::document;
+    }
+
+    private static CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> profileStoredFieldsReader(
+            CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader, Timer timer) {
+        return (docId, visitor) -> {
+            timer.start();
+            try {
+                fieldReader.accept(docId, visitor);
+            } finally {
+                timer.stop();
+            }
+        };
+    }
+
+    private static int countDocsInLeaf(LeafReaderContext readerContext, DocIdToIndex[] docs, int index) {
+        int maxDoc = readerContext.docBase + readerContext.reader().maxDoc();
+        int count = 0;
+        for (int i = index; i < docs.length && docs[i].docId < maxDoc; i++) {
+            count++;
+        }
+        return count;
+    }
+
     private int findRootDocumentIfNested(SearchContext context, LeafReaderContext subReaderContext, int subDocId) throws IOException {
         if (context.mapperService().hasNested()) {
             BitSet bits = context.bitsetFilterCache()
@@ -204,6 +309,7 @@ public class FetchPhase implements SearchPhase {
                                       int docId,
                                       int subDocId,
                                       Map<String, Set<String>> storedToRequestedFields,
+                                      CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader,
                                       LeafReaderContext subReaderContext) {
         DocumentMapper documentMapper = context.mapperService().documentMapper();
         Text typeText = documentMapper.typeText();
@@ -212,7 +318,7 @@ public class FetchPhase implements SearchPhase {
         }
 
         Map<String, DocumentField> searchFields = getSearchFields(context, fieldsVisitor, subDocId,
-            storedToRequestedFields, subReaderContext);
+            storedToRequestedFields, fieldReader);
 
         SearchHit searchHit = new SearchHit(docId, fieldsVisitor.uid().id(), typeText, searchFields);
         // Set _source if requested.
@@ -228,8 +334,8 @@ public class FetchPhase implements SearchPhase {
                                                        FieldsVisitor fieldsVisitor,
                                                        int subDocId,
                                                        Map<String, Set<String>> storedToRequestedFields,
-                                                       LeafReaderContext subReaderContext) {
-        loadStoredFields(context, subReaderContext, fieldsVisitor, subDocId);
+                                                       CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader) {
+        loadStoredFields(context, fieldReader, fieldsVisitor, subDocId);
         fieldsVisitor.postProcess(context.mapperService());
 
         if (fieldsVisitor.fields().isEmpty()) {
@@ -257,6 +363,7 @@ public class FetchPhase implements SearchPhase {
                                             int nestedSubDocId,
                                             int rootSubDocId,
                                             Map<String, Set<String>> storedToRequestedFields,
+                                            CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader,
                                             LeafReaderContext subReaderContext) throws IOException {
         // Also if highlighting is requested on nested documents we need to fetch the _source from the root document,
         // otherwise highlighting will attempt to fetch the _source from the nested doc, which will fail,
@@ -266,7 +373,7 @@ public class FetchPhase implements SearchPhase {
         final boolean needSource = context.sourceRequested() || context.highlight() != null;
         if (needSource || (context instanceof InnerHitsContext.InnerHitSubContext == false)) {
             FieldsVisitor rootFieldsVisitor = new FieldsVisitor(needSource);
-            loadStoredFields(context, subReaderContext, rootFieldsVisitor, rootSubDocId);
+            loadStoredFields(context, fieldReader, rootFieldsVisitor, rootSubDocId);
             rootFieldsVisitor.postProcess(context.mapperService());
             uid = rootFieldsVisitor.uid();
             source = rootFieldsVisitor.source();
@@ -280,7 +387,7 @@ public class FetchPhase implements SearchPhase {
         if (context.hasStoredFields() && !context.storedFieldsContext().fieldNames().isEmpty()) {
             FieldsVisitor nestedFieldsVisitor = new CustomFieldsVisitor(storedToRequestedFields.keySet(), false);
             searchFields = getSearchFields(context, nestedFieldsVisitor, nestedSubDocId,
-                storedToRequestedFields, subReaderContext);
+                storedToRequestedFields, fieldReader);
         }
 
         DocumentMapper documentMapper = context.mapperService().documentMapper();
@@ -419,12 +526,30 @@ public class FetchPhase implements SearchPhase {
         return nestedIdentity;
     }
 
-    private void loadStoredFields(SearchContext searchContext, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, int docId) {
+    private void loadStoredFields(SearchContext searchContext,
+                                  CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader,
+                                  FieldsVisitor fieldVisitor,
+                                  int docId) {
         fieldVisitor.reset();
         try {
-            readerContext.reader().document(docId, fieldVisitor);
+            fieldReader.accept(docId, fieldVisitor);
         } catch (IOException e) {
             throw new FetchPhaseExecutionException(searchContext, "Failed to fetch doc id [" + docId + "]", e);
         }
     }
+
+    static final class DocIdToIndex implements Comparable<DocIdToIndex> {
+        final int docId;
+        final int index;
+
+        DocIdToIndex(int docId, int index) {
+            this.docId = docId;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(DocIdToIndex o) {
+            return Integer.compare(docId, o.docId);
+        }
+    }
 }
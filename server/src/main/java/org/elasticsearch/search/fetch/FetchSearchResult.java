@@ -19,19 +19,27 @@
 
 package org.elasticsearch.search.fetch;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.profile.ProfileResult;
 import org.elasticsearch.search.query.QuerySearchResult;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 
 public final class FetchSearchResult extends SearchPhaseResult {
 
     private SearchHits hits;
+    private ProfileResult profileResult;
+    // the time spent per fetch sub phase, only used by the shard stats of the node that executed the fetch phase
+    private transient Map<String, Long> timeBreakdownInNanos = Collections.emptyMap();
     // client side counter
     private transient int counter;
 
@@ -42,6 +50,9 @@ public final class FetchSearchResult extends SearchPhaseResult {
         super(in);
         requestId = in.readLong();
         hits = new SearchHits(in);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            profileResult = in.readOptionalWriteable(ProfileResult::new);
+        }
     }
 
     public FetchSearchResult(long id, SearchShardTarget shardTarget) {
@@ -75,6 +86,29 @@ public final class FetchSearchResult extends SearchPhaseResult {
         return hits;
     }
 
+    /**
+     * Sets the profile of the fetch phase, only set if the request is profiled.
+     */
+    public void profileResult(ProfileResult profileResult) {
+        this.profileResult = profileResult;
+    }
+
+    @Nullable
+    public ProfileResult profileResult() {
+        return profileResult;
+    }
+
+    /**
+     * Sets the time spent loading stored fields and in every fetch sub phase, in nanoseconds.
+     */
+    public void timeBreakdownInNanos(Map<String, Long> timeBreakdownInNanos) {
+        this.timeBreakdownInNanos = timeBreakdownInNanos;
+    }
+
+    public Map<String, Long> timeBreakdownInNanos() {
+        return timeBreakdownInNanos;
+    }
+
     public FetchSearchResult initCounter() {
         counter = 0;
         return this;
@@ -89,5 +123,8 @@ public final class FetchSearchResult extends SearchPhaseResult {
         super.writeTo(out);
         out.writeLong(requestId);
         hits.writeTo(out);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeOptionalWriteable(profileResult);
+        }
     }
 }
@@ -78,9 +78,13 @@ public interface FetchSubPhase {
 
     /**
      * Executes the hit level phase, with a reader and doc id (note, its a low level reader, and the matching doc).
+     * Hits are visited in doc id order, one segment after the other.
      */
     default void hitExecute(SearchContext context, HitContext hitContext) throws IOException {}
 
-
+    /**
+     * Executes the phase on all the hits at once. The hits are sorted by doc id, the order of the hits in the response is not affected
+     * by changes to the order of the provided array.
+     */
     default void hitsExecute(SearchContext context, SearchHit[] hits) throws IOException {}
 }
@@ -25,12 +25,21 @@ import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.ConjunctionDISI;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.Bits;
+import org.elasticsearch.action.search.MaxScoreCollector;
+import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.search.SearchHit;
@@ -123,6 +132,67 @@ public final class InnerHitsContext {
         }
     }
 
+    /**
+     * Collects the top inner hits of a single hit. The documents of a segment can be routed to the collectors of several hits in a
+     * single pass, so that the inner hits of all hits are retrieved without executing one search per hit.
+     */
+    public static final class InnerHitCollector {
+        private final InnerHitSubContext innerHits;
+        private final TotalHitCountCollector totalHitCountCollector;
+        private final TopDocsCollector<?> topDocsCollector;
+        private final MaxScoreCollector maxScoreCollector;
+        private final Collector collector;
+        private LeafReaderContext currentLeaf;
+        private LeafCollector leafCollector;
+
+        public InnerHitCollector(InnerHitSubContext innerHits) {
+            this.innerHits = innerHits;
+            if (innerHits.size() == 0) {
+                totalHitCountCollector = new TotalHitCountCollector();
+                topDocsCollector = null;
+                maxScoreCollector = null;
+                collector = totalHitCountCollector;
+            } else {
+                totalHitCountCollector = null;
+                int topN = Math.min(innerHits.from() + innerHits.size(), innerHits.searcher().getIndexReader().maxDoc());
+                if (innerHits.sort() != null) {
+                    topDocsCollector = TopFieldCollector.create(innerHits.sort().sort, topN, Integer.MAX_VALUE);
+                    maxScoreCollector = innerHits.trackScores() ? new MaxScoreCollector() : null;
+                } else {
+                    topDocsCollector = TopScoreDocCollector.create(topN, Integer.MAX_VALUE);
+                    maxScoreCollector = new MaxScoreCollector();
+                }
+                collector = maxScoreCollector == null ? topDocsCollector : MultiCollector.wrap(topDocsCollector, maxScoreCollector);
+            }
+        }
+
+        /**
+         * Collects a document of the provided segment. Segments must be visited in order and the scorer must be positioned on the
+         * document.
+         */
+        public void collect(LeafReaderContext ctx, Scorable scorer, int doc) throws IOException {
+            if (currentLeaf != ctx) {
+                currentLeaf = ctx;
+                leafCollector = collector.getLeafCollector(ctx);
+                leafCollector.setScorer(scorer);
+            }
+            leafCollector.collect(doc);
+        }
+
+        /**
+         * Returns the collected top inner hits, may only be called once.
+         */
+        public TopDocsAndMaxScore topDocs() {
+            if (totalHitCountCollector != null) {
+                return new TopDocsAndMaxScore(new TopDocs(new TotalHits(totalHitCountCollector.getTotalHits(),
+                    TotalHits.Relation.EQUAL_TO), Lucene.EMPTY_SCORE_DOCS), Float.NaN);
+            }
+            TopDocs topDocs = topDocsCollector.topDocs(innerHits.from(), innerHits.size());
+            float maxScore = maxScoreCollector == null ? Float.NaN : maxScoreCollector.getMaxScore();
+            return new TopDocsAndMaxScore(topDocs, maxScore);
+        }
+    }
+
     public static void intersect(Weight weight, Weight innerHitQueryWeight, Collector collector, LeafReaderContext ctx) throws IOException {
         ScorerSupplier scorerSupplier = weight.scorerSupplier(ctx);
         if (scorerSupplier == null) {
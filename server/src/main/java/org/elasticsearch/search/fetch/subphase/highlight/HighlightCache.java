@@ -0,0 +1,157 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch.subphase.highlight;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.lucene.index.ElasticsearchLeafReader;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A per-shard cache of the fragments highlighted for a field of a document, so that paging through the same results doesn't
+ * highlight the same documents over and over. Entries are keyed by the segment, the document, the field, the highlight query and
+ * the options that affect the fragments, and are dropped when their segment is closed.
+ */
+public final class HighlightCache {
+
+    // the key and its references, the query is not accounted for
+    private static final long BASE_RAM_BYTES_USED = 128;
+
+    private final Cache<Key, String[]> cache;
+    private final Set<IndexReader.CacheKey> registeredReaders = ConcurrentCollections.newConcurrentSet();
+
+    public HighlightCache(ByteSizeValue maxSize) {
+        if (maxSize.getBytes() > 0) {
+            cache = CacheBuilder.<Key, String[]>builder()
+                .setMaximumWeight(maxSize.getBytes())
+                .weigher((key, fragments) -> ramBytesUsed(key, fragments))
+                .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the highlights of the reader can be cached: the cache is enabled and the reader is not filtered, for
+     * instance by field or document level security, since such highlights depend on the user they are computed for. Highlighters
+     * should check this before they build the options of {@link #getOrCompute}.
+     */
+    public boolean canCache(LeafReader reader) {
+        return cache != null && reader instanceof ElasticsearchLeafReader && reader.getCoreCacheHelper() != null;
+    }
+
+    /**
+     * Returns the fragments highlighted for the field of the document, loading and caching them if they are not cached yet. The
+     * fragments are loaded without being cached if {@link #canCache} returns <code>false</code> for the reader.
+     *
+     * @param options the options that affect the highlighted fragments, compared using {@link Object#equals(Object)}
+     */
+    public String[] getOrCompute(LeafReader reader, int docId, String field, Query query, List<Object> options,
+                                 CheckedSupplier<String[], IOException> loader) throws IOException {
+        if (canCache(reader) == false) {
+            return loader.get();
+        }
+        final IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+        final Key key = new Key(cacheHelper.getKey(), docId, field, query, options);
+        String[] fragments = cache.get(key);
+        if (fragments == null) {
+            fragments = loader.get();
+            if (registeredReaders.add(cacheHelper.getKey())) {
+                cacheHelper.addClosedListener(this::onClose);
+            }
+            cache.put(key, fragments);
+        }
+        return fragments;
+    }
+
+    /**
+     * Returns the number of cached highlights.
+     */
+    public int count() {
+        return cache == null ? 0 : cache.count();
+    }
+
+    private void onClose(IndexReader.CacheKey readerKey) {
+        registeredReaders.remove(readerKey);
+        for (Key key : cache.keys()) {
+            if (key.readerKey == readerKey) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    private static long ramBytesUsed(Key key, String[] fragments) {
+        long size = BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(fragments) + 2L * key.field.length();
+        for (String fragment : fragments) {
+            size += RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 2L * fragment.length();
+        }
+        return size;
+    }
+
+    private static final class Key {
+        private final IndexReader.CacheKey readerKey;
+        private final int docId;
+        private final String field;
+        private final Query query;
+        private final List<Object> options;
+        private final int hashCode;
+
+        private Key(IndexReader.CacheKey readerKey, int docId, String field, Query query, List<Object> options) {
+            this.readerKey = readerKey;
+            this.docId = docId;
+            this.field = field;
+            this.query = query;
+            this.options = options;
+            this.hashCode = Objects.hash(readerKey, docId, field, query, options);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return docId == key.docId
+                && readerKey == key.readerKey
+                && field.equals(key.field)
+                && query.equals(key.query)
+                && options.equals(key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
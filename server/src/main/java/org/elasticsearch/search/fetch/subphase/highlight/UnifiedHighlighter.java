@@ -19,7 +19,9 @@
 package org.elasticsearch.search.fetch.subphase.highlight;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.highlight.Encoder;
 import org.apache.lucene.search.uhighlight.BoundedBreakIteratorScanner;
@@ -45,6 +47,7 @@ import org.elasticsearch.search.internal.SearchContext;
 import java.io.IOException;
 import java.text.BreakIterator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
@@ -59,6 +62,43 @@ public class UnifiedHighlighter implements Highlighter {
     
     @Override
     public HighlightField highlight(HighlighterContext highlighterContext) {
+        SearchContext context = highlighterContext.context;
+        FetchSubPhase.HitContext hitContext = highlighterContext.hitContext;
+        final HighlightCache cache = context.indexShard().highlightCache();
+
+        final String[] fragments;
+        try {
+            if (cache != null && cache.canCache(hitContext.reader())) {
+                fragments = cache.getOrCompute(hitContext.reader(), hitContext.docId(), highlighterContext.fieldName,
+                    highlighterContext.query, getCacheOptions(highlighterContext), () -> highlightFragments(highlighterContext));
+            } else {
+                fragments = highlightFragments(highlighterContext);
+            }
+        } catch (IOException e) {
+            throw new FetchPhaseExecutionException(context,
+                "Failed to highlight field [" + highlighterContext.fieldName + "]", e);
+        }
+
+        if (fragments.length > 0) {
+            return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the options, besides the document, the field and the query, that the highlighted fragments depend on.
+     */
+    private List<Object> getCacheOptions(HighlighterContext highlighterContext) {
+        final SearchContextHighlight.FieldOptions fieldOptions = highlighterContext.field.fieldOptions();
+        final SearchContext context = highlighterContext.context;
+        return Arrays.asList(getClass(), highlighterContext.fieldType.name(), fieldOptions.preTags()[0], fieldOptions.postTags()[0],
+            fieldOptions.encoder(), fieldOptions.numberOfFragments(), fieldOptions.fragmentCharSize(),
+            fieldOptions.boundaryScannerType(), fieldOptions.boundaryScannerLocale(), fieldOptions.noMatchSize(),
+            fieldOptions.requireFieldMatch(), fieldOptions.scoreOrdered(), context.highlight().forceSource(highlighterContext.field),
+            context.indexShard().indexSettings().getHighlightMaxAnalyzedOffset());
+    }
+
+    private String[] highlightFragments(HighlighterContext highlighterContext) throws IOException {
         MappedFieldType fieldType = highlighterContext.fieldType;
         SearchContextHighlight.Field field = highlighterContext.field;
         SearchContext context = highlighterContext.context;
@@ -66,65 +106,59 @@ public class UnifiedHighlighter implements Highlighter {
         Encoder encoder = field.fieldOptions().encoder().equals("html") ? HighlightUtils.Encoders.HTML : HighlightUtils.Encoders.DEFAULT;
         final int maxAnalyzedOffset = context.indexShard().indexSettings().getHighlightMaxAnalyzedOffset();
 
+        final Analyzer analyzer = getAnalyzer(context.mapperService().documentMapper(hitContext.hit().getType()),
+                hitContext);
+        List<Object> fieldValues = loadFieldValues(fieldType, field, context, hitContext);
+        if (fieldValues.size() == 0) {
+            return Strings.EMPTY_ARRAY;
+        }
         List<Snippet> snippets = new ArrayList<>();
         int numberOfFragments;
-        try {
-
-            final Analyzer analyzer = getAnalyzer(context.mapperService().documentMapper(hitContext.hit().getType()),
-                    hitContext);
-            List<Object> fieldValues = loadFieldValues(fieldType, field, context, hitContext);
-            if (fieldValues.size() == 0) {
-                return null;
-            }
-            final PassageFormatter passageFormatter = getPassageFormatter(hitContext, field, encoder);
-            final IndexSearcher searcher = new IndexSearcher(hitContext.reader());
-            final CustomUnifiedHighlighter highlighter;
-            final String fieldValue = mergeFieldValues(fieldValues, MULTIVAL_SEP_CHAR);
-            final OffsetSource offsetSource = getOffsetSource(fieldType);
-            if ((offsetSource == OffsetSource.ANALYSIS) && (fieldValue.length() > maxAnalyzedOffset)) {
-                throw new IllegalArgumentException(
-                    "The length of [" + highlighterContext.fieldName + "] field of [" + hitContext.hit().getId() +
-                        "] doc of [" + context.indexShard().shardId().getIndexName() + "] index " + "has exceeded [" +
-                        maxAnalyzedOffset + "] - maximum allowed to be analyzed for highlighting. " +
-                        "This maximum can be set by changing the [" + IndexSettings.MAX_ANALYZED_OFFSET_SETTING.getKey() +
-                        "] index level setting. " + "For large texts, indexing with offsets or term vectors is recommended!");
-            }
-            if (field.fieldOptions().numberOfFragments() == 0) {
-                // we use a control char to separate values, which is the only char that the custom break iterator
-                // breaks the text on, so we don't lose the distinction between the different values of a field and we
-                // get back a snippet per value
-                CustomSeparatorBreakIterator breakIterator = new CustomSeparatorBreakIterator(MULTIVAL_SEP_CHAR);
-                highlighter = new CustomUnifiedHighlighter(searcher, analyzer, offsetSource, passageFormatter,
-                    field.fieldOptions().boundaryScannerLocale(), breakIterator, fieldValue, field.fieldOptions().noMatchSize());
-                numberOfFragments = fieldValues.size(); // we are highlighting the whole content, one snippet per value
-            } else {
-                //using paragraph separator we make sure that each field value holds a discrete passage for highlighting
-                BreakIterator bi = getBreakIterator(field);
-                highlighter = new CustomUnifiedHighlighter(searcher, analyzer, offsetSource, passageFormatter,
-                    field.fieldOptions().boundaryScannerLocale(), bi,
-                    fieldValue, field.fieldOptions().noMatchSize());
-                numberOfFragments = field.fieldOptions().numberOfFragments();
-            }
+        final PassageFormatter passageFormatter = getPassageFormatter(hitContext, field, encoder);
+        final IndexSearcher searcher = new IndexSearcher(hitContext.reader());
+        final CustomUnifiedHighlighter highlighter;
+        final String fieldValue = mergeFieldValues(fieldValues, MULTIVAL_SEP_CHAR);
+        final OffsetSource offsetSource = getOffsetSource(fieldType, hitContext.reader());
+        if ((offsetSource == OffsetSource.ANALYSIS) && (fieldValue.length() > maxAnalyzedOffset)) {
+            throw new IllegalArgumentException(
+                "The length of [" + highlighterContext.fieldName + "] field of [" + hitContext.hit().getId() +
+                    "] doc of [" + context.indexShard().shardId().getIndexName() + "] index " + "has exceeded [" +
+                    maxAnalyzedOffset + "] - maximum allowed to be analyzed for highlighting. " +
+                    "This maximum can be set by changing the [" + IndexSettings.MAX_ANALYZED_OFFSET_SETTING.getKey() +
+                    "] index level setting. " + "For large texts, indexing with offsets or term vectors is recommended!");
+        }
+        if (field.fieldOptions().numberOfFragments() == 0) {
+            // we use a control char to separate values, which is the only char that the custom break iterator
+            // breaks the text on, so we don't lose the distinction between the different values of a field and we
+            // get back a snippet per value
+            CustomSeparatorBreakIterator breakIterator = new CustomSeparatorBreakIterator(MULTIVAL_SEP_CHAR);
+            highlighter = new CustomUnifiedHighlighter(searcher, analyzer, offsetSource, passageFormatter,
+                field.fieldOptions().boundaryScannerLocale(), breakIterator, fieldValue, field.fieldOptions().noMatchSize());
+            numberOfFragments = fieldValues.size(); // we are highlighting the whole content, one snippet per value
+        } else {
+            //using paragraph separator we make sure that each field value holds a discrete passage for highlighting
+            BreakIterator bi = getBreakIterator(field);
+            highlighter = new CustomUnifiedHighlighter(searcher, analyzer, offsetSource, passageFormatter,
+                field.fieldOptions().boundaryScannerLocale(), bi,
+                fieldValue, field.fieldOptions().noMatchSize());
+            numberOfFragments = field.fieldOptions().numberOfFragments();
+        }
 
-            if (field.fieldOptions().requireFieldMatch()) {
-                final String fieldName = highlighterContext.fieldName;
-                highlighter.setFieldMatcher((name) -> fieldName.equals(name));
-            } else {
-                // ignore terms that targets the _id field since they use a different encoding
-                // that is not compatible with utf8
-                highlighter.setFieldMatcher(name -> IdFieldMapper.NAME.equals(name) == false);
-            }
+        if (field.fieldOptions().requireFieldMatch()) {
+            final String fieldName = highlighterContext.fieldName;
+            highlighter.setFieldMatcher((name) -> fieldName.equals(name));
+        } else {
+            // ignore terms that targets the _id field since they use a different encoding
+            // that is not compatible with utf8
+            highlighter.setFieldMatcher(name -> IdFieldMapper.NAME.equals(name) == false);
+        }
 
-            Snippet[] fieldSnippets = highlighter.highlightField(highlighterContext.fieldName,
-                highlighterContext.query, hitContext.docId(), numberOfFragments);
-            for (Snippet fieldSnippet : fieldSnippets) {
-                if (Strings.hasText(fieldSnippet.getText())) {
-                    snippets.add(fieldSnippet);
-                }
+        Snippet[] fieldSnippets = highlighter.highlightField(highlighterContext.fieldName,
+            highlighterContext.query, hitContext.docId(), numberOfFragments);
+        for (Snippet fieldSnippet : fieldSnippets) {
+            if (Strings.hasText(fieldSnippet.getText())) {
+                snippets.add(fieldSnippet);
             }
-        } catch (IOException e) {
-            throw new FetchPhaseExecutionException(context,
-                "Failed to highlight field [" + highlighterContext.fieldName + "]", e);
         }
 
         if (field.fieldOptions().scoreOrdered()) {
@@ -136,11 +170,7 @@ public class UnifiedHighlighter implements Highlighter {
         for (int i = 0; i < fragments.length; i++) {
             fragments[i] = snippets.get(i).getText();
         }
-
-        if (fragments.length > 0) {
-            return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments));
-        }
-        return null;
+        return fragments;
     }
 
     protected PassageFormatter getPassageFormatter(HitContext hitContext, SearchContextHighlight.Field field, Encoder encoder) {
@@ -201,6 +231,26 @@ public class UnifiedHighlighter implements Highlighter {
         return rawValue.substring(0, Math.min(rawValue.length(), Integer.MAX_VALUE - 1));
     }
 
+    /**
+     * Returns the source of the offsets of the field in the segment of the document to highlight. Offsets indexed in the postings or
+     * in the term vectors of the segment are preferred over re-analyzing the text of the field, the mapping is used for segments that
+     * do not contain the field.
+     */
+    protected OffsetSource getOffsetSource(MappedFieldType fieldType, LeafReader reader) {
+        final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(fieldType.name());
+        if (fieldInfo == null) {
+            return getOffsetSource(fieldType);
+        }
+        if (fieldInfo.getIndexOptions() == IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) {
+            return fieldInfo.hasVectors() ? OffsetSource.POSTINGS_WITH_TERM_VECTORS : OffsetSource.POSTINGS;
+        }
+        // field infos don't tell whether term vectors have offsets
+        if (fieldInfo.hasVectors() && fieldType.storeTermVectorOffsets()) {
+            return OffsetSource.TERM_VECTORS;
+        }
+        return OffsetSource.ANALYSIS;
+    }
+
     protected OffsetSource getOffsetSource(MappedFieldType fieldType) {
         if (fieldType.indexOptions() == IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) {
             return fieldType.storeTermVectors() ? OffsetSource.POSTINGS_WITH_TERM_VECTORS : OffsetSource.POSTINGS;
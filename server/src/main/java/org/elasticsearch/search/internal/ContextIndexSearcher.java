@@ -36,6 +36,7 @@ import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.search.XIndexSearcher;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -46,8 +47,12 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -68,6 +73,9 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     private Runnable checkCancelled;
 
+    private Comparator<LeafReaderContext> leafComparator;
+    private Predicate<LeafReaderContext> leafFilter;
+
     public ContextIndexSearcher(Engine.Searcher searcher, QueryCache queryCache, QueryCachingPolicy queryCachingPolicy) {
         super(searcher.reader());
         engineSearcher = searcher;
@@ -93,6 +101,15 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         this.checkCancelled = checkCancelled;
     }
 
+    /**
+     * Set the order in which the leaves are searched and a predicate, checked right before a leaf is searched, that tells whether
+     * the leaf may still hold matches the collector needs. Leaves are searched in reader order and none is skipped by default.
+     */
+    public void setLeafOrder(@Nullable Comparator<LeafReaderContext> leafComparator, @Nullable Predicate<LeafReaderContext> leafFilter) {
+        this.leafComparator = leafComparator;
+        this.leafFilter = leafFilter;
+    }
+
     public void setAggregatedDfs(AggregatedDfs aggregatedDfs) {
         this.aggregatedDfs = aggregatedDfs;
     }
@@ -174,7 +191,19 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         } else {
             cancellableWeight = weight;
         }
-        in.search(leaves, cancellableWeight, collector);
+        if (leafComparator == null && leafFilter == null) {
+            in.search(leaves, cancellableWeight, collector);
+        } else {
+            final List<LeafReaderContext> orderedLeaves = new ArrayList<>(leaves);
+            if (leafComparator != null) {
+                orderedLeaves.sort(leafComparator);
+            }
+            for (LeafReaderContext leaf : orderedLeaves) {
+                if (leafFilter == null || leafFilter.test(leaf)) {
+                    in.search(Collections.singletonList(leaf), cancellableWeight, collector);
+                }
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,178 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchContextMissingException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A point in time snapshot of the reader of a shard that outlives a single search request. Any number of search requests can be
+ * executed against it, with different queries, sorts and aggregations, until it is freed or its keep alive expires.
+ * <p>
+ * Several points in time that were opened while the reader of the shard did not change share the same reader, but each of them has
+ * its own reader context with its own id and keep alive. Every reader context holds exactly one reference on the shared reader, which
+ * is released once every reader context sharing it was closed.
+ * <p>
+ * A reader context keeps the alias filter that applied when its point in time was opened, the search requests executed against it
+ * cannot choose their own. Its reader is not wrapped by the searcher wrapper of the index, such as document and field level security,
+ * the searcher of every request is wrapped instead, on behalf of the user of the request.
+ */
+public final class ReaderContext implements Releasable {
+
+    private final long id;
+    private final SharedReader reader;
+    private final AliasFilter aliasFilter;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Map<String, Object> context = new HashMap<>();
+    private volatile long keepAlive;
+    private volatile long lastAccessTime;
+
+    private ReaderContext(long id, SharedReader reader, AliasFilter aliasFilter, long keepAlive, long nowInMillis) {
+        this.id = id;
+        this.reader = reader;
+        this.aliasFilter = aliasFilter;
+        this.keepAlive = keepAlive;
+        this.lastAccessTime = nowInMillis;
+    }
+
+    /**
+     * Creates a reader context holding the given searcher, the searcher is closed once the context and all contexts sharing its
+     * reader are closed. The searcher must not be wrapped by the searcher wrapper of the index.
+     */
+    public static ReaderContext open(long id, IndexShard indexShard, Engine.Searcher searcher, AliasFilter aliasFilter,
+                                     long keepAlive, long nowInMillis) {
+        return new ReaderContext(id, new SharedReader(indexShard, searcher), aliasFilter, keepAlive, nowInMillis);
+    }
+
+    /**
+     * Creates a new reader context with its own id, alias filter and keep alive that shares the reader of this context. Returns
+     * <code>null</code> if the reader was released in the meantime.
+     */
+    public ReaderContext share(long id, AliasFilter aliasFilter, long keepAlive, long nowInMillis) {
+        if (reader.tryIncRef() == false) {
+            return null;
+        }
+        return new ReaderContext(id, reader, aliasFilter, keepAlive, nowInMillis);
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public ShardId shardId() {
+        return reader.indexShard.shardId();
+    }
+
+    public IndexShard indexShard() {
+        return reader.indexShard;
+    }
+
+    /**
+     * Returns <code>true</code> if this context snapshots the same reader as the given searcher.
+     */
+    public boolean hasSameReader(Engine.Searcher other) {
+        return reader.searcher.reader() == other.reader();
+    }
+
+    /**
+     * Returns the alias filter that applied when the point in time of this context was opened.
+     */
+    public AliasFilter aliasFilter() {
+        return aliasFilter;
+    }
+
+    /**
+     * Acquires a searcher on the reader of this context, wrapped by the searcher wrapper of the index for the current request. The
+     * reader stays open until the returned searcher is closed, even if this context is closed in the meantime.
+     */
+    public Engine.Searcher acquireSearcher(String source) {
+        if (closed.get() || reader.tryIncRef() == false) {
+            throw new SearchContextMissingException(id);
+        }
+        return reader.indexShard.wrapSearcher(new Engine.Searcher(source, reader.searcher.searcher(), reader::decRef));
+    }
+
+    /**
+     * Returns the object or <code>null</code> if the given key does not have a value in the context
+     */
+    @SuppressWarnings("unchecked") // (T)object
+    public <T> T getFromContext(String key) {
+        return (T) context.get(key);
+    }
+
+    /**
+     * Puts the object into the context. This must only be called before the reader context is registered with the search service.
+     */
+    public void putInContext(String key, Object value) {
+        context.put(key, value);
+    }
+
+    public long keepAlive() {
+        return keepAlive;
+    }
+
+    public void keepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public long lastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public void accessed(long accessTime) {
+        this.lastAccessTime = accessTime;
+    }
+
+    /**
+     * Releases the reference this context holds on its reader. Closing a context more than once has no effect, so that it can never
+     * release a reference that belongs to another context sharing the reader.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            reader.decRef();
+        }
+    }
+
+    private static final class SharedReader extends AbstractRefCounted {
+
+        private final IndexShard indexShard;
+        private final Engine.Searcher searcher;
+
+        SharedReader(IndexShard indexShard, Engine.Searcher searcher) {
+            super("reader_context");
+            this.indexShard = indexShard;
+            this.searcher = searcher;
+        }
+
+        @Override
+        protected void closeInternal() {
+            searcher.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.internal;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Identifies a point in time {@link ReaderContext} on a node. The session id is a random id generated by the search service of the
+ * node when it starts, so that the id of a reader context can neither be guessed nor be reused against another node or after a
+ * restart of the node that opened it.
+ */
+public final class ReaderContextId implements Writeable {
+
+    private final String sessionId;
+    private final long id;
+
+    public ReaderContextId(String sessionId, long id) {
+        this.sessionId = Objects.requireNonNull(sessionId);
+        this.id = id;
+    }
+
+    public ReaderContextId(StreamInput in) throws IOException {
+        this.sessionId = in.readString();
+        this.id = in.readLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(sessionId);
+        out.writeLong(id);
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ReaderContextId that = (ReaderContextId) o;
+        return id == that.id && sessionId.equals(that.sessionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sessionId, id);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + sessionId + "][" + id + "]";
+    }
+}
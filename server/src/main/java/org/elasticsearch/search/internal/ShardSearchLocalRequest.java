@@ -19,6 +19,7 @@
 
 package org.elasticsearch.search.internal;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.common.Nullable;
@@ -68,28 +69,40 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
     private final boolean allowPartialSearchResults;
     private final String[] indexRoutings;
     private final String preference;
+    private final ReaderContextId readerContextId;
     //these are the only two mutable fields, as they are subject to rewriting
     private AliasFilter aliasFilter;
     private SearchSourceBuilder source;
 
     public ShardSearchLocalRequest(SearchRequest searchRequest, ShardId shardId, int numberOfShards, AliasFilter aliasFilter,
                                    float indexBoost, long nowInMillis, @Nullable String clusterAlias, String[] indexRoutings) {
+        this(searchRequest, shardId, numberOfShards, aliasFilter, indexBoost, nowInMillis, clusterAlias, indexRoutings, null);
+    }
+
+    /**
+     * Point in time searches are only ever sent as a {@link ShardSearchTransportRequest}, the reader context they are executed
+     * against is validated against the transport request.
+     */
+    ShardSearchLocalRequest(SearchRequest searchRequest, ShardId shardId, int numberOfShards, AliasFilter aliasFilter,
+                            float indexBoost, long nowInMillis, @Nullable String clusterAlias, String[] indexRoutings,
+                            @Nullable ReaderContextId readerContextId) {
         this(shardId, numberOfShards, searchRequest.searchType(), searchRequest.source(), searchRequest.types(),
             searchRequest.requestCache(), aliasFilter, indexBoost, searchRequest.allowPartialSearchResults(), indexRoutings,
-            searchRequest.preference(), searchRequest.scroll(), nowInMillis, clusterAlias);
+            searchRequest.preference(), searchRequest.scroll(), nowInMillis, clusterAlias, readerContextId);
         // If allowPartialSearchResults is unset (ie null), the cluster-level default should have been substituted
         // at this stage. Any NPEs in the above are therefore an error in request preparation logic.
         assert searchRequest.allowPartialSearchResults() != null;
     }
 
     public ShardSearchLocalRequest(ShardId shardId, String[] types, long nowInMillis, AliasFilter aliasFilter) {
-        this(shardId, -1, null, null, types, null, aliasFilter, 1.0f, false, Strings.EMPTY_ARRAY, null, null, nowInMillis, null);
+        this(shardId, -1, null, null, types, null, aliasFilter, 1.0f, false, Strings.EMPTY_ARRAY, null, null, nowInMillis, null,
+            null);
     }
 
     private ShardSearchLocalRequest(ShardId shardId, int numberOfShards, SearchType searchType, SearchSourceBuilder source, String[] types,
                                     Boolean requestCache, AliasFilter aliasFilter, float indexBoost, boolean allowPartialSearchResults,
                                     String[] indexRoutings, String preference, Scroll scroll, long nowInMillis,
-                                    @Nullable String clusterAlias) {
+                                    @Nullable String clusterAlias, @Nullable ReaderContextId readerContextId) {
         this.shardId = shardId;
         this.numberOfShards = numberOfShards;
         this.searchType = searchType;
@@ -104,6 +117,7 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         this.scroll = scroll;
         this.nowInMillis = nowInMillis;
         this.clusterAlias = clusterAlias;
+        this.readerContextId = readerContextId;
     }
 
     ShardSearchLocalRequest(StreamInput in) throws IOException {
@@ -121,6 +135,11 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         allowPartialSearchResults = in.readBoolean();
         indexRoutings = in.readStringArray();
         preference = in.readOptionalString();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            readerContextId = in.readOptionalWriteable(ReaderContextId::new);
+        } else {
+            readerContextId = null;
+        }
     }
 
     protected final void innerWriteTo(StreamOutput out, boolean asKey) throws IOException {
@@ -143,6 +162,9 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         if (asKey == false) {
             out.writeStringArray(indexRoutings);
             out.writeOptionalString(preference);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeOptionalWriteable(readerContextId);
+            }
         }
     }
 
@@ -221,6 +243,11 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         return preference;
     }
 
+    @Override
+    public ReaderContextId readerContextId() {
+        return readerContextId;
+    }
+
     @Override
     public BytesReference cacheKey() throws IOException {
         BytesStreamOutput out = new BytesStreamOutput();
@@ -83,6 +83,13 @@ public interface ShardSearchRequest {
      */
     String preference();
 
+    /**
+     * Returns the id of the point in time {@link ReaderContext} this request should be executed against, or <code>null</code> if
+     * it should be executed against the current reader of the shard.
+     */
+    @Nullable
+    ReaderContextId readerContextId();
+
     /**
      * Returns the cache key for this shard search request, based on its content
      */
@@ -23,12 +23,18 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -50,10 +56,28 @@ public class SourceLookup implements Map {
         return source;
     }
 
+    /**
+     * The content type of the source. It is detected from the source bytes if the source was not parsed yet.
+     */
     public XContentType sourceContentType() {
+        if (sourceContentType == null && source == null && sourceAsBytes != null) {
+            sourceContentType = detectContentType(sourceAsBytes);
+        }
         return sourceContentType;
     }
 
+    private static XContentType detectContentType(BytesReference bytes) {
+        final Compressor compressor = CompressorFactory.compressor(bytes);
+        if (compressor == null) {
+            return XContentHelper.xContentType(bytes);
+        }
+        try (InputStream in = new BufferedInputStream(compressor.streamInput(bytes.streamInput()))) {
+            return XContentFactory.xContentType(in);
+        } catch (IOException e) {
+            throw new ElasticsearchParseException("failed to detect the content type of the source", e);
+        }
+    }
+
     private Map<String, Object> loadSourceIfNeeded() {
         if (source != null) {
             return source;
@@ -98,11 +122,13 @@ public class SourceLookup implements Map {
         this.reader = context.reader();
         this.source = null;
         this.sourceAsBytes = null;
+        this.sourceContentType = null;
         this.docId = docId;
     }
 
     public void setSource(BytesReference source) {
         this.sourceAsBytes = source;
+        this.sourceContentType = null;
     }
 
     public void setSourceContentType(XContentType sourceContentType) {
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.search.profile;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -36,9 +38,17 @@ public class ProfileShardResult implements Writeable {
 
     private final AggregationProfileShardResult aggProfileShardResult;
 
+    private final ProfileResult fetchProfileResult;
+
     public ProfileShardResult(List<QueryProfileShardResult> queryProfileResults, AggregationProfileShardResult aggProfileShardResult) {
+        this(queryProfileResults, aggProfileShardResult, null);
+    }
+
+    public ProfileShardResult(List<QueryProfileShardResult> queryProfileResults, AggregationProfileShardResult aggProfileShardResult,
+                              @Nullable ProfileResult fetchProfileResult) {
         this.aggProfileShardResult = aggProfileShardResult;
         this.queryProfileResults = Collections.unmodifiableList(queryProfileResults);
+        this.fetchProfileResult = fetchProfileResult;
     }
 
     public ProfileShardResult(StreamInput in) throws IOException {
@@ -50,6 +60,11 @@ public class ProfileShardResult implements Writeable {
         }
         this.queryProfileResults = Collections.unmodifiableList(queryProfileResults);
         this.aggProfileShardResult = new AggregationProfileShardResult(in);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            this.fetchProfileResult = in.readOptionalWriteable(ProfileResult::new);
+        } else {
+            this.fetchProfileResult = null;
+        }
     }
 
     @Override
@@ -59,6 +74,9 @@ public class ProfileShardResult implements Writeable {
             queryShardResult.writeTo(out);
         }
         aggProfileShardResult.writeTo(out);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeOptionalWriteable(fetchProfileResult);
+        }
     }
 
     public List<QueryProfileShardResult> getQueryProfileResults() {
@@ -68,4 +86,19 @@ public class ProfileShardResult implements Writeable {
     public AggregationProfileShardResult getAggregationProfileResults() {
         return aggProfileShardResult;
     }
+
+    /**
+     * Returns the profile of the fetch phase, or <code>null</code> if the fetch phase was not executed on the shard.
+     */
+    @Nullable
+    public ProfileResult getFetchProfileResult() {
+        return fetchProfileResult;
+    }
+
+    /**
+     * Returns a copy of this result with the provided profile of the fetch phase.
+     */
+    public ProfileShardResult withFetchProfileResult(ProfileResult fetchProfileResult) {
+        return new ProfileShardResult(queryProfileResults, aggProfileShardResult, fetchProfileResult);
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile.fetch;
+
+import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.profile.AbstractProfileBreakdown;
+import org.elasticsearch.search.profile.ProfileResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the timings of the fetch phase of a shard: the time spent loading the stored fields of the hits of every segment, and the
+ * time spent in every {@link FetchSubPhase}. The fetch phase always records these timings since they feed the fetch stats of the
+ * shard, they are only returned to the client when the request is profiled.
+ */
+public final class FetchProfiler {
+
+    /**
+     * The key of the time spent loading stored fields in {@link #getTimeBreakdownInNanos()}.
+     */
+    public static final String STORED_FIELDS = "stored_fields";
+
+    private final Map<String, SubPhaseProfileBreakdown> subPhases = new LinkedHashMap<>();
+    private final List<LeafProfileBreakdown> leaves = new ArrayList<>();
+
+    /**
+     * Returns the breakdown of the provided sub phase.
+     */
+    public AbstractProfileBreakdown<FetchSubPhaseTimingType> getSubPhaseBreakdown(FetchSubPhase subPhase) {
+        return subPhases.computeIfAbsent(subPhase.getClass().getSimpleName(), k -> new SubPhaseProfileBreakdown());
+    }
+
+    /**
+     * Starts recording the stored fields of a new segment and returns its breakdown. Segments are visited in order by the fetch phase
+     * so every segment is only started once.
+     */
+    public AbstractProfileBreakdown<FetchTimingType> startLeaf(int ord) {
+        LeafProfileBreakdown leaf = new LeafProfileBreakdown(ord);
+        leaves.add(leaf);
+        return leaf;
+    }
+
+    /**
+     * Returns the total time spent in every sub phase and loading stored fields, in nanoseconds, keyed by sub phase name and
+     * {@link #STORED_FIELDS}.
+     */
+    public Map<String, Long> getTimeBreakdownInNanos() {
+        Map<String, Long> breakdown = new HashMap<>(subPhases.size() + 1);
+        long storedFields = 0;
+        for (LeafProfileBreakdown leaf : leaves) {
+            storedFields += totalTime(leaf, FetchTimingType.values());
+        }
+        breakdown.put(STORED_FIELDS, storedFields);
+        for (Map.Entry<String, SubPhaseProfileBreakdown> entry : subPhases.entrySet()) {
+            breakdown.put(entry.getKey(), totalTime(entry.getValue(), FetchSubPhaseTimingType.values()));
+        }
+        return Collections.unmodifiableMap(breakdown);
+    }
+
+    /**
+     * Returns the profile of the fetch phase. Its breakdown sums up the timings of its children: one per sub phase followed by one per
+     * segment the hits were loaded from.
+     */
+    public ProfileResult getProfileResult() {
+        Map<String, Long> timings = new HashMap<>();
+        List<ProfileResult> children = new ArrayList<>(subPhases.size() + leaves.size());
+        for (Map.Entry<String, SubPhaseProfileBreakdown> entry : subPhases.entrySet()) {
+            Map<String, Long> subPhaseTimings = entry.getValue().toTimingMap();
+            subPhaseTimings.forEach((key, value) -> timings.merge(key, value, Long::sum));
+            children.add(new ProfileResult(entry.getKey(), "", subPhaseTimings, Collections.emptyList()));
+        }
+        for (LeafProfileBreakdown leaf : leaves) {
+            Map<String, Long> leafTimings = leaf.toTimingMap();
+            leafTimings.forEach((key, value) -> timings.merge(key, value, Long::sum));
+            children.add(new ProfileResult("StoredFields", "segment [" + leaf.ord + "]", leafTimings, Collections.emptyList()));
+        }
+        return new ProfileResult("FetchPhase", "", timings, children);
+    }
+
+    private static <T extends Enum<T>> long totalTime(AbstractProfileBreakdown<T> breakdown, T[] timingTypes) {
+        long time = 0;
+        for (T timingType : timingTypes) {
+            time += breakdown.getTimer(timingType).getApproximateTiming();
+        }
+        return time;
+    }
+
+    private static final class SubPhaseProfileBreakdown extends AbstractProfileBreakdown<FetchSubPhaseTimingType> {
+        SubPhaseProfileBreakdown() {
+            super(FetchSubPhaseTimingType.class);
+        }
+    }
+
+    private static final class LeafProfileBreakdown extends AbstractProfileBreakdown<FetchTimingType> {
+        final int ord;
+
+        LeafProfileBreakdown(int ord) {
+            super(FetchTimingType.class);
+            this.ord = ord;
+        }
+    }
+}
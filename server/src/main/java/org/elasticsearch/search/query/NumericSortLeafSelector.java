@@ -0,0 +1,222 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSelector;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.sort.SortAndFormats;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders the leaves of a search sorted on a long or date field so that the segments that hold the most competitive values are
+ * searched first, and skips the segments that can't hold a value competitive with the top hits collected so far. The most
+ * competitive value of a segment is taken from the bounds of the points of the field, the values of the top hits are tracked by
+ * a collector that reads the sort value of every collected document.
+ * <p>
+ * On time-based indices, a search sorted on a descending timestamp can stop once it collected the hits of the newest segments.
+ */
+final class NumericSortLeafSelector {
+
+    private final String field;
+    private final boolean reverse;
+    private final long missingValue;
+    private final SortedNumericSelector.Type selector;
+    private final long minCollectedBeforeSkipping;
+    private final long[] leafBestValues;
+
+    // a heap of the sort values of the top hits, the least competitive value on top
+    private final long[] topValues;
+    private int numTopValues;
+    private long collected;
+
+    private NumericSortLeafSelector(IndexReader reader, SortedNumericSortField sortField, int numHits,
+                                    long minCollectedBeforeSkipping) throws IOException {
+        this.field = sortField.getField();
+        this.reverse = sortField.getReverse();
+        this.missingValue = sortField.getMissingValue() == null ? 0L : (Long) sortField.getMissingValue();
+        this.selector = sortField.getSelector();
+        this.minCollectedBeforeSkipping = minCollectedBeforeSkipping;
+        this.topValues = new long[numHits];
+        final List<LeafReaderContext> leaves = reader.leaves();
+        this.leafBestValues = new long[leaves.size()];
+        for (LeafReaderContext leaf : leaves) {
+            leafBestValues[leaf.ord] = bestValue(leaf);
+        }
+    }
+
+    /**
+     * Creates a selector for the leaves of the provided <code>reader</code>, or returns <code>null</code> if the search can't
+     * benefit from it.
+     *
+     * @param sortAndFormats the sort of the search, before any rewrite of the query phase
+     * @param hasFilterCollector True if the collector chain contains at least one collector that can filters document
+     */
+    static NumericSortLeafSelector create(SearchContext searchContext, IndexReader reader, SortAndFormats sortAndFormats,
+                                          boolean hasFilterCollector) throws IOException {
+        if (sortAndFormats == null || reader.leaves().size() < 2 || searchContext.size() == 0) {
+            return null;
+        }
+        if (searchContext.scrollContext() != null || searchContext.collapse() != null || searchContext.searchAfter() != null) {
+            return null;
+        }
+        if (hasFilterCollector || searchContext.queryCollectors().isEmpty() == false) {
+            // the values of the collected documents would not be those of the top hits, or all documents must be collected
+            return null;
+        }
+        final SortField sortField = sortAndFormats.sort.getSort()[0];
+        if (sortField instanceof SortedNumericSortField == false
+                || ((SortedNumericSortField) sortField).getNumericType() != SortField.Type.LONG
+                || QueryPhase.isIndexedLongField(searchContext, sortField.getField()) == false) {
+            return null;
+        }
+        final long minCollectedBeforeSkipping;
+        final int trackTotalHitsUpTo = searchContext.trackTotalHitsUpTo();
+        if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED
+                || TopDocsCollectorContext.shortcutTotalHitCount(reader, searchContext.query()) != -1) {
+            minCollectedBeforeSkipping = 0;
+        } else if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
+            // every match must be counted, no segment could be skipped
+            return null;
+        } else {
+            // the total hits are only reported as a lower bound once they exceed the threshold
+            minCollectedBeforeSkipping = trackTotalHitsUpTo + 1L;
+        }
+        final int numHits = searchContext.from() + searchContext.size();
+        if (numHits <= 0 || numHits > reader.maxDoc()) {
+            return null;
+        }
+        return new NumericSortLeafSelector(reader, (SortedNumericSortField) sortField, numHits, minCollectedBeforeSkipping);
+    }
+
+    /**
+     * Orders the leaves by decreasing competitiveness of their most competitive value.
+     */
+    Comparator<LeafReaderContext> leafComparator() {
+        return (a, b) -> compareValues(leafBestValues[b.ord], leafBestValues[a.ord]);
+    }
+
+    /**
+     * Returns <code>true</code> if the leaf may hold a document that is competitive with the top hits collected so far.
+     */
+    boolean isCompetitive(LeafReaderContext leaf) {
+        if (collected < minCollectedBeforeSkipping || numTopValues < topValues.length) {
+            return true;
+        }
+        // a value that ties with the least competitive top hit may still win on the tie-breakers
+        return compareValues(leafBestValues[leaf.ord], topValues[0]) >= 0;
+    }
+
+    /**
+     * Wraps the query collector to track the sort values of the collected documents.
+     */
+    Collector wrap(Collector collector) {
+        return new FilterCollector(collector) {
+            @Override
+            public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+                final LeafCollector leafCollector = super.getLeafCollector(context);
+                final NumericDocValues values = SortedNumericSelector.wrap(DocValues.getSortedNumeric(context.reader(), field),
+                    selector, SortField.Type.LONG);
+                return new FilterLeafCollector(leafCollector) {
+                    @Override
+                    public void collect(int doc) throws IOException {
+                        super.collect(doc);
+                        collected++;
+                        offer(values.advanceExact(doc) ? values.longValue() : missingValue);
+                    }
+                };
+            }
+        };
+    }
+
+    private long bestValue(LeafReaderContext leaf) throws IOException {
+        final PointValues pointValues = leaf.reader().getPointValues(field);
+        if (pointValues == null) {
+            return missingValue;
+        }
+        final byte[] packedValue = reverse ? pointValues.getMaxPackedValue() : pointValues.getMinPackedValue();
+        final long best = LongPoint.decodeDimension(packedValue, 0);
+        if (pointValues.getDocCount() < leaf.reader().maxDoc()) {
+            // some documents have no value and sort with the missing value
+            return compareValues(best, missingValue) >= 0 ? best : missingValue;
+        }
+        return best;
+    }
+
+    /**
+     * Compares two sort values, a positive result means that the first one is more competitive.
+     */
+    private int compareValues(long a, long b) {
+        return reverse ? Long.compare(a, b) : Long.compare(b, a);
+    }
+
+    private void offer(long value) {
+        if (numTopValues < topValues.length) {
+            int i = numTopValues++;
+            topValues[i] = value;
+            // sift up
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (compareValues(topValues[i], topValues[parent]) >= 0) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        } else if (compareValues(value, topValues[0]) > 0) {
+            topValues[0] = value;
+            // sift down
+            int i = 0;
+            while (true) {
+                final int left = 2 * i + 1;
+                if (left >= numTopValues) {
+                    break;
+                }
+                final int right = left + 1;
+                final int leastCompetitive = right < numTopValues && compareValues(topValues[right], topValues[left]) < 0 ? right : left;
+                if (compareValues(topValues[leastCompetitive], topValues[i]) >= 0) {
+                    break;
+                }
+                swap(i, leastCompetitive);
+                i = leastCompetitive;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        final long tmp = topValues[i];
+        topValues[i] = topValues[j];
+        topValues[j] = tmp;
+    }
+}
@@ -21,26 +21,37 @@ package org.elasticsearch.search.query;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.queries.MinDocQuery;
 import org.apache.lucene.queries.SearchAfterSortedDocQuery;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.FutureArrays;
 import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.util.concurrent.QueueResizingEsThreadPoolExecutor;
+import org.elasticsearch.index.IndexSortConfig;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
@@ -57,6 +68,8 @@ import org.elasticsearch.search.suggest.SuggestPhase;
 import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
@@ -251,13 +264,38 @@ public class QueryPhase implements SearchPhase {
             // searchContext.lowLevelCancellation()
             collectors.add(createCancellableCollectorContext(searchContext.getTask()::isCancelled));
 
+            // try to skip non-competitive documents of a sort on a long or date field using its points
+            final SortAndFormats originalSortAndFormats = searchContext.sort();
+            boolean prependedScoreSort = false;
+            final Query numericSortQuery = tryRewriteLongSort(searchContext, reader, query, hasFilterCollector);
+            if (numericSortQuery != null) {
+                query = numericSortQuery;
+                if (searchContext.searchAfter() == null) {
+                    // sort on _score first, the score of the rewritten query decreases with the distance of the value to the
+                    // most competitive one, and keep the original sort as the tie-breaker
+                    searchContext.sort(prependScoreSort(searchContext.sort()));
+                    prependedScoreSort = true;
+                }
+            }
+            // search the segments that hold the most competitive values of such a sort first, and skip those that can't compete
+            // unless the index sort already allows to early terminate the collection of every segment
+            final NumericSortLeafSelector leafSelector =
+                searcher instanceof ContextIndexSearcher && canEarlyTerminate(reader, originalSortAndFormats) == false ?
+                NumericSortLeafSelector.create(searchContext, reader, originalSortAndFormats, hasFilterCollector) : null;
+            boolean appendedDocSort = false;
+            if (leafSelector != null && endsWithDocSort(originalSortAndFormats.sort) == false) {
+                // segments are no longer searched in doc id order, the implicit doc id tie-breaker must be made explicit
+                searchContext.sort(appendDocSort(searchContext.sort()));
+                appendedDocSort = true;
+            }
+
             final boolean doProfile = searchContext.getProfilers() != null;
             // create the top docs collector last when the other collectors are known
             final TopDocsCollectorContext topDocsFactory = createTopDocsCollectorContext(searchContext, reader, hasFilterCollector);
             // add the top docs collector, the first collector context in the chain
             collectors.addFirst(topDocsFactory);
 
-            final Collector queryCollector;
+            Collector queryCollector;
             if (doProfile) {
                 InternalProfileCollector profileCollector = QueryCollectorContext.createQueryCollectorWithProfiler(collectors);
                 searchContext.getProfilers().getCurrentQueryProfiler().setCollector(profileCollector);
@@ -265,6 +303,10 @@ public class QueryPhase implements SearchPhase {
             } else {
                queryCollector = QueryCollectorContext.createQueryCollector(collectors);
             }
+            if (leafSelector != null) {
+                queryCollector = leafSelector.wrap(queryCollector);
+                ((ContextIndexSearcher) searcher).setLeafOrder(leafSelector.leafComparator(), leafSelector::isCompetitive);
+            }
 
             try {
                 searcher.search(query, queryCollector);
@@ -279,6 +321,9 @@ public class QueryPhase implements SearchPhase {
                 }
                 queryResult.searchTimedOut(true);
             } finally {
+                if (leafSelector != null) {
+                    ((ContextIndexSearcher) searcher).setLeafOrder(null, null);
+                }
                 searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
             }
             if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
@@ -290,6 +335,11 @@ public class QueryPhase implements SearchPhase {
             for (QueryCollectorContext ctx : collectors) {
                 ctx.postProcess(result);
             }
+            if (prependedScoreSort || appendedDocSort) {
+                // restore the original sort and remove the sort values of the added sort fields from the top docs
+                searchContext.sort(originalSortAndFormats);
+                restoreTopFieldDocs(result, originalSortAndFormats, prependedScoreSort ? 1 : 0);
+            }
             ExecutorService executor = searchContext.indexShard().getThreadPool().executor(ThreadPool.Names.SEARCH);
             if (executor instanceof QueueResizingEsThreadPoolExecutor) {
                 QueueResizingEsThreadPoolExecutor rExecutor = (QueueResizingEsThreadPoolExecutor) executor;
@@ -341,5 +391,254 @@ public class QueryPhase implements SearchPhase {
         return true;
     }
 
+    /**
+     * Rewrites the query of a search sorted on a single valued long or date field that is indexed with points so that the collection
+     * can skip non-competitive documents, or returns <code>null</code> if the search doesn't qualify.
+     * <p>
+     * Without <code>search_after</code> the sort value is turned into a score with a distance feature query on the field, whose origin
+     * is the most competitive value. Once the top hits queue is full its bottom gives a minimum competitive score, and the distance
+     * feature query uses the points of the field to skip the documents, blocks and segments that can't beat it. The caller must then
+     * sort on <code>_score</code> first, using the original sort as tie-breaker since the scores of close values may be equal.
+     * <p>
+     * With <code>search_after</code> the query is filtered with a range on the points of the field that starts at the value of the
+     * last hit, which excludes whole segments and blocks of points that were returned in previous pages.
+     */
+    static Query tryRewriteLongSort(SearchContext searchContext, IndexReader reader,
+                                    Query query, boolean hasFilterCollector) throws IOException {
+        if (searchContext.sort() == null || searchContext.size() == 0) {
+            return null;
+        }
+        if (searchContext.scrollContext() != null || searchContext.collapse() != null || searchContext.trackScores()) {
+            return null;
+        }
+        if (hasFilterCollector || searchContext.queryCollectors().isEmpty() == false) {
+            // collectors that filter documents or need all of them (aggregations) defeat the purpose
+            return null;
+        }
+        if (searchContext.mapperService() == null) {
+            // only in tests
+            return null;
+        }
+        final Sort sort = searchContext.sort().sort;
+        final SortField sortField = sort.getSort()[0];
+        if (SortField.Type.LONG.equals(IndexSortConfig.getSortFieldType(sortField)) == false) {
+            return null;
+        }
+        final String fieldName = sortField.getField();
+        if (isIndexedLongField(searchContext, fieldName) == false
+                || searchContext.mapperService().fullName(fieldName).hasDocValues() == false) {
+            return null;
+        }
+        // the tie-breakers must not depend on the score
+        for (int i = 1; i < sort.getSort().length; i++) {
+            final SortField tieBreaker = sort.getSort()[i];
+            if (tieBreaker.getField() == null) {
+                if (SortField.FIELD_DOC.equals(tieBreaker) == false) {
+                    return null;
+                }
+            } else if (searchContext.mapperService().fullName(tieBreaker.getField()) == null) {
+                // scripts and _score are not mapped fields
+                return null;
+            }
+        }
+        // documents without a value must sort last, they get no score from the distance feature query
+        if (sortField.getMissingValue() instanceof Long == false) {
+            return null;
+        }
+        final long missingValue = (Long) sortField.getMissingValue();
+        if (missingValue != (sortField.getReverse() ? Long.MIN_VALUE : Long.MAX_VALUE)) {
+            return null;
+        }
+        final int docCount = PointValues.getDocCount(reader, fieldName);
+        if (docCount <= 512) {
+            // not worth it on small shards
+            return null;
+        }
+        if (PointValues.size(reader, fieldName) != docCount) {
+            // multi-valued fields are not supported
+            return null;
+        }
+        final byte[] minPackedValue = PointValues.getMinPackedValue(reader, fieldName);
+        final byte[] maxPackedValue = PointValues.getMaxPackedValue(reader, fieldName);
+        if (minPackedValue == null || maxPackedValue == null) {
+            return null;
+        }
+        final long minValue = LongPoint.decodeDimension(minPackedValue, 0);
+        final long maxValue = LongPoint.decodeDimension(maxPackedValue, 0);
+
+        final FieldDoc searchAfter = searchContext.searchAfter();
+        if (searchAfter != null) {
+            if (searchContext.trackTotalHitsUpTo() != SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+                // the range filters out the documents before the cursor, they would be missing from the total hits
+                return null;
+            }
+            // documents without a value would be excluded by the range, they are only ignored if every document has a value
+            if (docCount != reader.maxDoc() || searchAfter.fields[0] instanceof Long == false) {
+                return null;
+            }
+            final long after = (Long) searchAfter.fields[0];
+            final Query range = sortField.getReverse() ?
+                LongPoint.newRangeQuery(fieldName, Long.MIN_VALUE, after) : LongPoint.newRangeQuery(fieldName, after, Long.MAX_VALUE);
+            return new BooleanQuery.Builder()
+                .add(query, BooleanClause.Occur.MUST)
+                .add(range, BooleanClause.Occur.FILTER)
+                .build();
+        }
+
+        if (searchContext.trackTotalHitsUpTo() == SearchContext.TRACK_TOTAL_HITS_ACCURATE
+                && TopDocsCollectorContext.shortcutTotalHitCount(reader, searchContext.query()) == -1) {
+            // every match must be counted, no document could be skipped
+            return null;
+        }
+        final Query sortQuery;
+        if (minValue == maxValue) {
+            sortQuery = new DocValuesFieldExistsQuery(fieldName);
+        } else {
+            if (indexFieldHasDuplicateData(reader, fieldName)) {
+                // the distance feature query can't skip much if most documents share the same values
+                return null;
+            }
+            final long origin = sortField.getReverse() ? maxValue : minValue;
+            // halve the unsigned distance to avoid overflows
+            final long pivotDistance = Math.max(1, (maxValue - minValue) >>> 1);
+            sortQuery = LongPoint.newDistanceFeatureQuery(fieldName, 1, origin, pivotDistance);
+        }
+        return new BooleanQuery.Builder()
+            .add(query, BooleanClause.Occur.FILTER)
+            .add(sortQuery, BooleanClause.Occur.SHOULD)
+            .build();
+    }
+
+    /**
+     * Returns <code>true</code> if the field is mapped as a long or a date and indexed with points, so that its points can bound the
+     * values of its sort.
+     */
+    static boolean isIndexedLongField(SearchContext searchContext, String fieldName) {
+        if (fieldName == null || searchContext.mapperService() == null) {
+            return false;
+        }
+        final MappedFieldType fieldType = searchContext.mapperService().fullName(fieldName);
+        if (fieldType == null || fieldType.indexOptions() == IndexOptions.NONE) {
+            return false;
+        }
+        return fieldType instanceof DateFieldMapper.DateFieldType
+            || NumberFieldMapper.NumberType.LONG.typeName().equals(fieldType.typeName());
+    }
+
+    private static boolean endsWithDocSort(Sort sort) {
+        final SortField[] sortFields = sort.getSort();
+        return SortField.FIELD_DOC.equals(sortFields[sortFields.length - 1]);
+    }
+
+    private static SortAndFormats appendDocSort(SortAndFormats sortAndFormats) {
+        final SortField[] sortFields = sortAndFormats.sort.getSort();
+        final SortField[] newSortFields = Arrays.copyOf(sortFields, sortFields.length + 1);
+        final DocValueFormat[] newFormats = Arrays.copyOf(sortAndFormats.formats, sortFields.length + 1);
+        newSortFields[sortFields.length] = SortField.FIELD_DOC;
+        newFormats[sortFields.length] = DocValueFormat.RAW;
+        return new SortAndFormats(new Sort(newSortFields), newFormats);
+    }
+
+    private static SortAndFormats prependScoreSort(SortAndFormats sortAndFormats) {
+        final SortField[] sortFields = sortAndFormats.sort.getSort();
+        final SortField[] newSortFields = new SortField[sortFields.length + 1];
+        final DocValueFormat[] newFormats = new DocValueFormat[sortFields.length + 1];
+        newSortFields[0] = SortField.FIELD_SCORE;
+        newFormats[0] = DocValueFormat.RAW;
+        System.arraycopy(sortFields, 0, newSortFields, 1, sortFields.length);
+        System.arraycopy(sortAndFormats.formats, 0, newFormats, 1, sortFields.length);
+        return new SortAndFormats(new Sort(newSortFields), newFormats);
+    }
+
+    /**
+     * Removes the sort values of the sort fields that the query phase added around the original sort from the top docs.
+     *
+     * @param offset the number of sort fields that were added in front of the original sort fields
+     */
+    static void restoreTopFieldDocs(QuerySearchResult result, SortAndFormats originalSortAndFormats, int offset) {
+        final int numSortFields = originalSortAndFormats.sort.getSort().length;
+        final TopDocsAndMaxScore topDocsAndMaxScore = result.topDocs();
+        final TopDocs topDocs = topDocsAndMaxScore.topDocs;
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+            final FieldDoc fieldDoc = (FieldDoc) scoreDoc;
+            fieldDoc.fields = Arrays.copyOfRange(fieldDoc.fields, offset, offset + numSortFields);
+        }
+        final TopFieldDocs newTopDocs = new TopFieldDocs(topDocs.totalHits, topDocs.scoreDocs, originalSortAndFormats.sort.getSort());
+        result.topDocs(new TopDocsAndMaxScore(newTopDocs, topDocsAndMaxScore.maxScore), originalSortAndFormats.formats);
+    }
+
+    /**
+     * Returns <code>true</code> if more than half of the documents that have a value for the field are in segments where more than
+     * half of the values are concentrated in a narrow range, which the distance feature query can't skip efficiently.
+     * The concentration is estimated per segment by bisecting the range of values on the points of the field.
+     */
+    static boolean indexFieldHasDuplicateData(IndexReader reader, String field) throws IOException {
+        long docsNoDuplicates = 0;
+        long docsDuplicates = 0;
+        for (LeafReaderContext leaf : reader.leaves()) {
+            final PointValues pointValues = leaf.reader().getPointValues(field);
+            if (pointValues == null) {
+                continue;
+            }
+            final int docCount = pointValues.getDocCount();
+            if (docCount <= 512) {
+                // point count estimates are too coarse on small segments
+                continue;
+            }
+            final long duplicatesThreshold = docCount / 2;
+            long minValue = LongPoint.decodeDimension(pointValues.getMinPackedValue(), 0);
+            long maxValue = LongPoint.decodeDimension(pointValues.getMaxPackedValue(), 0);
+            boolean hasDuplicates = true;
+            while (minValue < maxValue && hasDuplicates) {
+                // divide each value first to avoid overflows
+                final long midValue = Math.floorDiv(minValue, 2) + Math.floorDiv(maxValue, 2);
+                final long countLeft = estimatePointCount(pointValues, minValue, midValue);
+                final long countRight = estimatePointCount(pointValues, midValue + 1, maxValue);
+                if (countLeft >= countRight && countLeft > duplicatesThreshold) {
+                    maxValue = midValue;
+                } else if (countRight > countLeft && countRight > duplicatesThreshold) {
+                    minValue = midValue + 1;
+                } else {
+                    hasDuplicates = false;
+                }
+            }
+            if (hasDuplicates) {
+                docsDuplicates += docCount;
+            } else {
+                docsNoDuplicates += docCount;
+            }
+        }
+        return docsDuplicates > docsNoDuplicates;
+    }
+
+    private static long estimatePointCount(PointValues pointValues, long minValue, long maxValue) {
+        final byte[] minValueAsBytes = new byte[Long.BYTES];
+        LongPoint.encodeDimension(minValue, minValueAsBytes, 0);
+        final byte[] maxValueAsBytes = new byte[Long.BYTES];
+        LongPoint.encodeDimension(maxValue, maxValueAsBytes, 0);
+        return pointValues.estimatePointCount(new PointValues.IntersectVisitor() {
+            @Override
+            public void visit(int docID) {
+            }
+
+            @Override
+            public void visit(int docID, byte[] packedValue) {
+            }
+
+            @Override
+            public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+                if (FutureArrays.compareUnsigned(minPackedValue, 0, Long.BYTES, maxValueAsBytes, 0, Long.BYTES) > 0 ||
+                        FutureArrays.compareUnsigned(maxPackedValue, 0, Long.BYTES, minValueAsBytes, 0, Long.BYTES) < 0) {
+                    return PointValues.Relation.CELL_OUTSIDE_QUERY;
+                }
+                if (FutureArrays.compareUnsigned(minPackedValue, 0, Long.BYTES, minValueAsBytes, 0, Long.BYTES) < 0 ||
+                        FutureArrays.compareUnsigned(maxPackedValue, 0, Long.BYTES, maxValueAsBytes, 0, Long.BYTES) > 0) {
+                    return PointValues.Relation.CELL_CROSSES_QUERY;
+                }
+                return PointValues.Relation.CELL_INSIDE_QUERY;
+            }
+        });
+    }
+
     private static class TimeExceededException extends RuntimeException {}
 }
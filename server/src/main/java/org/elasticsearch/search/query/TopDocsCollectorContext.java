@@ -20,12 +20,11 @@
 package org.elasticsearch.search.query;
 
 import org.apache.lucene.index.FieldInfo;
-import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PointValues;
-import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BoostQuery;
@@ -34,8 +33,10 @@ import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.PointRangeQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreDoc;
@@ -53,6 +54,7 @@ import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.grouping.CollapseTopFieldDocs;
 import org.apache.lucene.search.grouping.CollapsingTopDocsCollector;
 import org.apache.lucene.search.spans.SpanQuery;
+import org.apache.lucene.util.FutureArrays;
 import org.elasticsearch.action.search.MaxScoreCollector;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lucene.Lucene;
@@ -368,9 +370,8 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
     }
 
     /**
-     * Returns query total hit count if the <code>query</code> is a {@link MatchAllDocsQuery}
-     * or a {@link TermQuery} and the <code>reader</code> has no deletions,
-     * -1 otherwise.
+     * Returns query total hit count if it can be computed from index statistics on every segment of the <code>reader</code>,
+     * -1 otherwise. See {@link #shortcutLeafHitCount(LeafReader, Query)} for the queries that can be counted.
      */
     static int shortcutTotalHitCount(IndexReader reader, Query query) throws IOException {
         while (true) {
@@ -382,47 +383,105 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 query = ((ConstantScoreQuery) query).getQuery();
             } else if (query instanceof BoostQuery) {
                 query = ((BoostQuery) query).getQuery();
+            } else if (query instanceof IndexOrDocValuesQuery) {
+                // both queries match the same documents, only the index query can be counted
+                query = ((IndexOrDocValuesQuery) query).getIndexQuery();
             } else {
                 break;
             }
         }
+        int count = 0;
+        for (LeafReaderContext context : reader.leaves()) {
+            final int leafCount = shortcutLeafHitCount(context.reader(), query);
+            if (leafCount == -1) {
+                return -1;
+            }
+            count += leafCount;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of documents of the segment that match the <code>query</code> if it can be computed without
+     * visiting the matching documents, -1 otherwise:
+     * <ul>
+     *     <li>a {@link MatchAllDocsQuery} matches every live document</li>
+     *     <li>a {@link TermQuery} matches as many documents as the frequency of its term</li>
+     *     <li>a {@link DocValuesFieldExistsQuery} matches as many documents as have points or terms in an indexed field</li>
+     *     <li>a {@link PointRangeQuery} matches all the documents with points if it contains the bounds of the segment's points,
+     *     and none if it is disjoint from them</li>
+     * </ul>
+     * Index statistics include deleted documents so the counts are only used for segments without deletions, unless the
+     * query matches no document at all.
+     */
+    private static int shortcutLeafHitCount(LeafReader reader, Query query) throws IOException {
         if (query.getClass() == MatchAllDocsQuery.class) {
             return reader.numDocs();
-        } else if (query.getClass() == TermQuery.class && reader.hasDeletions() == false) {
-            final Term term = ((TermQuery) query).getTerm();
-            int count = 0;
-            for (LeafReaderContext context : reader.leaves()) {
-                count += context.reader().docFreq(term);
-            }
-            return count;
-        } else if (query.getClass() == DocValuesFieldExistsQuery.class && reader.hasDeletions() == false) {
+        } else if (query.getClass() == TermQuery.class) {
+            final int docFreq = reader.docFreq(((TermQuery) query).getTerm());
+            return docFreq == 0 || reader.hasDeletions() == false ? docFreq : -1;
+        } else if (query.getClass() == DocValuesFieldExistsQuery.class) {
             final String field = ((DocValuesFieldExistsQuery) query).getField();
-            int count = 0;
-            for (LeafReaderContext context : reader.leaves()) {
-                FieldInfos fieldInfos = context.reader().getFieldInfos();
-                FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
-                if (fieldInfo != null) {
-                    if (fieldInfo.getPointIndexDimensionCount() > 0) {
-                        PointValues points = context.reader().getPointValues(field);
-                        if (points != null) {
-                            count += points.getDocCount();
-                        }
-                    } else if (fieldInfo.getIndexOptions() != IndexOptions.NONE) {
-                        Terms terms = context.reader().terms(field);
-                        if (terms != null) {
-                            count += terms.getDocCount();
-                        }
-                    } else {
-                        return -1; // no shortcut possible for fields that are not indexed
-                    }
-                }
+            final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+            if (fieldInfo == null) {
+                return 0;
+            }
+            final int docCount;
+            if (fieldInfo.getPointIndexDimensionCount() > 0) {
+                PointValues points = reader.getPointValues(field);
+                docCount = points == null ? 0 : points.getDocCount();
+            } else if (fieldInfo.getIndexOptions() != IndexOptions.NONE) {
+                Terms terms = reader.terms(field);
+                docCount = terms == null ? 0 : terms.getDocCount();
+            } else {
+                return -1; // no shortcut possible for fields that are not indexed
+            }
+            return docCount == 0 || reader.hasDeletions() == false ? docCount : -1;
+        } else if (query instanceof PointRangeQuery) {
+            final PointRangeQuery rangeQuery = (PointRangeQuery) query;
+            final PointValues points = reader.getPointValues(rangeQuery.getField());
+            if (points == null) {
+                return 0;
+            }
+            if (points.getNumIndexDimensions() != rangeQuery.getNumDims()
+                    || points.getBytesPerDimension() != rangeQuery.getBytesPerDim()) {
+                // let the query report the mismatch
+                return -1;
+            }
+            switch (relate(rangeQuery, points.getMinPackedValue(), points.getMaxPackedValue())) {
+                case CELL_OUTSIDE_QUERY:
+                    return 0;
+                case CELL_INSIDE_QUERY:
+                    return reader.hasDeletions() == false ? points.getDocCount() : -1;
+                default:
+                    return -1;
             }
-            return count;
         } else {
             return -1;
         }
     }
 
+    /**
+     * Returns how the range of the <code>query</code> relates to the cell bounded by the provided packed values.
+     */
+    private static PointValues.Relation relate(PointRangeQuery query, byte[] minPackedValue, byte[] maxPackedValue) {
+        final byte[] lowerPoint = query.getLowerPoint();
+        final byte[] upperPoint = query.getUpperPoint();
+        final int bytesPerDim = query.getBytesPerDim();
+        boolean inside = true;
+        for (int dim = 0; dim < query.getNumDims(); dim++) {
+            final int from = dim * bytesPerDim;
+            final int to = from + bytesPerDim;
+            if (FutureArrays.compareUnsigned(minPackedValue, from, to, upperPoint, from, to) > 0
+                    || FutureArrays.compareUnsigned(maxPackedValue, from, to, lowerPoint, from, to) < 0) {
+                return PointValues.Relation.CELL_OUTSIDE_QUERY;
+            }
+            inside &= FutureArrays.compareUnsigned(minPackedValue, from, to, lowerPoint, from, to) >= 0
+                && FutureArrays.compareUnsigned(maxPackedValue, from, to, upperPoint, from, to) <= 0;
+        }
+        return inside ? PointValues.Relation.CELL_INSIDE_QUERY : PointValues.Relation.CELL_CROSSES_QUERY;
+    }
+
     /**
      * Creates a {@link TopDocsCollectorContext} from the provided <code>searchContext</code>.
      * @param hasFilterCollector True if the collector chain contains at least one collector that can filters document.
@@ -25,6 +25,8 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.cluster.coordination.PendingClusterStateStats;
 import org.elasticsearch.cluster.coordination.PublishClusterStateStats;
+import org.elasticsearch.cluster.service.ClusterApplierStats;
+import org.elasticsearch.cluster.service.MasterServiceStats;
 import org.elasticsearch.http.HttpStats;
 import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerStats;
@@ -259,6 +261,52 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(queueStats.getTotal(), deserializedDiscoveryStats.getQueueStats().getTotal());
                         assertEquals(queueStats.getPending(), deserializedDiscoveryStats.getQueueStats().getPending());
                     }
+                    PublishClusterStateStats publishStats = discoveryStats.getPublishStats();
+                    if (publishStats == null) {
+                        assertNull(deserializedDiscoveryStats.getPublishStats());
+                    } else {
+                        PublishClusterStateStats deserializedPublishStats = deserializedDiscoveryStats.getPublishStats();
+                        assertEquals(publishStats.getFullClusterStateReceivedCount(),
+                            deserializedPublishStats.getFullClusterStateReceivedCount());
+                        assertEquals(publishStats.getFullClusterStateSerializedCount(),
+                            deserializedPublishStats.getFullClusterStateSerializedCount());
+                        assertEquals(publishStats.getClusterStateDiffSerializedCount(),
+                            deserializedPublishStats.getClusterStateDiffSerializedCount());
+                        assertEquals(publishStats.getSerializationTimeMillis(), deserializedPublishStats.getSerializationTimeMillis());
+                    }
+                    ClusterApplierStats applierStats = discoveryStats.getApplierStats();
+                    if (applierStats == null) {
+                        assertNull(deserializedDiscoveryStats.getApplierStats());
+                    } else {
+                        ClusterApplierStats deserializedApplierStats = deserializedDiscoveryStats.getApplierStats();
+                        assertEquals(applierStats.getAppliedStates(), deserializedApplierStats.getAppliedStates());
+                        assertEquals(applierStats.getCollapsedStates(), deserializedApplierStats.getCollapsedStates());
+                        assertEquals(applierStats.getRecordings().size(), deserializedApplierStats.getRecordings().size());
+                        for (int i = 0; i < applierStats.getRecordings().size(); i++) {
+                            ClusterApplierStats.Recording recording = applierStats.getRecordings().get(i);
+                            ClusterApplierStats.Recording deserializedRecording = deserializedApplierStats.getRecordings().get(i);
+                            assertEquals(recording.getName(), deserializedRecording.getName());
+                            assertEquals(recording.getExecutionCount(), deserializedRecording.getExecutionCount());
+                            assertEquals(recording.getExecutionTimeMillis(), deserializedRecording.getExecutionTimeMillis());
+                        }
+                    }
+                    MasterServiceStats masterServiceStats = discoveryStats.getMasterServiceStats();
+                    if (masterServiceStats == null) {
+                        assertNull(deserializedDiscoveryStats.getMasterServiceStats());
+                    } else {
+                        MasterServiceStats deserializedMasterServiceStats = deserializedDiscoveryStats.getMasterServiceStats();
+                        assertEquals(masterServiceStats.getChainedBatches(), deserializedMasterServiceStats.getChainedBatches());
+                        assertEquals(masterServiceStats.getExecutors().size(), deserializedMasterServiceStats.getExecutors().size());
+                        for (int i = 0; i < masterServiceStats.getExecutors().size(); i++) {
+                            MasterServiceStats.ExecutorStats executor = masterServiceStats.getExecutors().get(i);
+                            MasterServiceStats.ExecutorStats deserializedExecutor = deserializedMasterServiceStats.getExecutors().get(i);
+                            assertEquals(executor.getName(), deserializedExecutor.getName());
+                            assertEquals(executor.getTaskCount(), deserializedExecutor.getTaskCount());
+                            assertEquals(executor.getQueueTimeMillis(), deserializedExecutor.getQueueTimeMillis());
+                            assertEquals(executor.getExecutionCount(), deserializedExecutor.getExecutionCount());
+                            assertEquals(executor.getComputeTimeMillis(), deserializedExecutor.getComputeTimeMillis());
+                        }
+                    }
                 }
                 IngestStats ingestStats = nodeStats.getIngestStats();
                 IngestStats deserializedIngestStats = deserializedNodeStats.getIngestStats();
@@ -427,6 +475,18 @@ public class NodeStatsTests extends ESTestCase {
         }
         ScriptStats scriptStats = frequently() ?
                 new ScriptStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()) : null;
+        int numApplierRecordings = randomIntBetween(0, 5);
+        List<ClusterApplierStats.Recording> applierRecordings = new ArrayList<>(numApplierRecordings);
+        for (int i = 0; i < numApplierRecordings; i++) {
+            applierRecordings.add(new ClusterApplierStats.Recording(randomAlphaOfLengthBetween(3, 10), randomNonNegativeLong(),
+                randomNonNegativeLong()));
+        }
+        int numMasterServiceExecutors = randomIntBetween(0, 5);
+        List<MasterServiceStats.ExecutorStats> masterServiceExecutors = new ArrayList<>(numMasterServiceExecutors);
+        for (int i = 0; i < numMasterServiceExecutors; i++) {
+            masterServiceExecutors.add(new MasterServiceStats.ExecutorStats(randomAlphaOfLengthBetween(3, 10), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()));
+        }
         DiscoveryStats discoveryStats = frequently()
             ? new DiscoveryStats(
                 randomBoolean()
@@ -434,9 +494,21 @@ public class NodeStatsTests extends ESTestCase {
                 : null,
                 randomBoolean()
                 ? new PublishClusterStateStats(
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
                     randomNonNegativeLong(),
                     randomNonNegativeLong(),
                     randomNonNegativeLong())
+                : null,
+                randomBoolean()
+                ? new ClusterApplierStats(
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    applierRecordings)
+                : null,
+                randomBoolean()
+                ? new MasterServiceStats(randomNonNegativeLong(), masterServiceExecutors)
                 : null)
             : null;
         IngestStats ingestStats = null;
@@ -44,6 +44,7 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.Mapping;
 import org.elasticsearch.index.mapper.MetadataFieldMapper;
 import org.elasticsearch.index.seqno.SequenceNumbers;
@@ -54,7 +55,9 @@ import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.rest.RestStatus;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -63,6 +66,7 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -287,6 +291,155 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         closeShards(shard);
     }
 
+    public void testBatchedMappingUpdates() throws Exception {
+        IndexShard shard = newStartedShard(true,
+            Settings.builder().put(MapperService.INDEX_MAPPING_BATCH_DYNAMIC_UPDATES_SETTING.getKey(), true).build());
+
+        int numItems = randomIntBetween(2, 10);
+        BulkItemRequest[] items = new BulkItemRequest[numItems];
+        for (int i = 0; i < numItems; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest("index", "_doc", "id_" + i)
+                .source(Requests.INDEX_CONTENT_TYPE, "field_" + i, "value"));
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        List<Mapping> updates = new ArrayList<>();
+        MappingUpdatePerformer mappingUpdater = (update, shardId, type, listener) -> {
+            updates.add(update);
+            try {
+                updateMappings(shard, IndexMetaData.builder(shard.indexSettings().getIndexMetaData())
+                    .putMapping(type, update.toString()).build());
+                listener.onResponse(null);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        };
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis, mappingUpdater, listener -> listener.onResponse(null),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {
+                for (BulkItemRequest item : result.replicaRequest().items()) {
+                    assertFalse(item.getPrimaryResponse().isFailed());
+                }
+            }), latch), threadPool);
+        latch.await();
+
+        // the first item requested the mapping updates of all items at once
+        assertThat(updates.size(), equalTo(1));
+        for (int i = 0; i < numItems; i++) {
+            assertThat(updates.get(0).toString(), containsString("field_" + i));
+            assertNotNull(shard.mapperService().fullName("field_" + i));
+        }
+        assertDocCount(shard, numItems);
+
+        closeShards(shard);
+    }
+
+    public void testBatchedIndexRequests() throws Exception {
+        final boolean batched = randomBoolean();
+        IndexShard shard = newStartedShard(true,
+            Settings.builder().put(IndexSettings.INDEX_BATCH_AUTO_GENERATED_IDS_SETTING.getKey(), batched).build());
+
+        int numItems = randomIntBetween(3, 20);
+        int itemWithNewField = randomIntBetween(2, numItems - 1);
+        BulkItemRequest[] items = new BulkItemRequest[numItems];
+        // the first item introduces the field that the following documents with auto-generated ids use
+        items[0] = new BulkItemRequest(0, new IndexRequest("index", "_doc", "id").source(Requests.INDEX_CONTENT_TYPE, "foo", "bar"));
+        for (int i = 1; i < numItems; i++) {
+            IndexRequest request = new IndexRequest("index", "_doc")
+                .source(Requests.INDEX_CONTENT_TYPE, i == itemWithNewField ? "new_field" : "foo", "bar");
+            request.process(Version.CURRENT, null, "index");
+            items[i] = new BulkItemRequest(i, request);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        AtomicInteger updates = new AtomicInteger();
+        MappingUpdatePerformer mappingUpdater = (update, shardId, type, listener) -> {
+            updates.incrementAndGet();
+            try {
+                updateMappings(shard, IndexMetaData.builder(shard.indexSettings().getIndexMetaData())
+                    .putMapping(type, update.toString()).build());
+                listener.onResponse(null);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        };
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis, mappingUpdater, listener -> listener.onResponse(null),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {
+                BulkItemRequest[] replicaItems = result.replicaRequest().items();
+                for (BulkItemRequest item : replicaItems) {
+                    assertFalse(item.getPrimaryResponse().isFailed());
+                }
+                long lastSeqNo = replicaItems[numItems - 1].getPrimaryResponse().getResponse().getSeqNo();
+                long seqNoOfItemWithNewField = replicaItems[itemWithNewField].getPrimaryResponse().getResponse().getSeqNo();
+                if (batched == false) {
+                    // the items are indexed one at a time, in order
+                    for (int i = 0; i < numItems; i++) {
+                        assertThat(replicaItems[i].getPrimaryResponse().getResponse().getSeqNo(), equalTo((long) i));
+                    }
+                } else if (itemWithNewField != numItems - 1) {
+                    // the item that required a mapping update was indexed after the rest of the batch
+                    assertThat(seqNoOfItemWithNewField, greaterThan(lastSeqNo));
+                }
+            }), latch), threadPool);
+        latch.await();
+
+        assertThat(updates.get(), equalTo(2));
+        assertDocCount(shard, numItems);
+        assertThat(shard.getLocalCheckpoint(), equalTo((long) numItems - 1));
+
+        closeShards(shard);
+    }
+
+    public void testBatchedMappingUpdateFallsBackToSingleItemUpdate() throws Exception {
+        IndexShard shard = newStartedShard(true,
+            Settings.builder().put(MapperService.INDEX_MAPPING_BATCH_DYNAMIC_UPDATES_SETTING.getKey(), true).build());
+
+        BulkItemRequest[] items = new BulkItemRequest[2];
+        items[0] = new BulkItemRequest(0, new IndexRequest("index", "_doc", "id_0")
+            .source(Requests.INDEX_CONTENT_TYPE, "field_0", "value"));
+        items[1] = new BulkItemRequest(1, new IndexRequest("index", "_doc", "id_1")
+            .source(Requests.INDEX_CONTENT_TYPE, "field_1", "value"));
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        // reject any update that covers more than the field of a single item
+        List<Mapping> updates = new ArrayList<>();
+        MappingUpdatePerformer mappingUpdater = (update, shardId, type, listener) -> {
+            updates.add(update);
+            if (update.toString().contains("field_0") && update.toString().contains("field_1")) {
+                listener.onFailure(new IllegalArgumentException("too many fields"));
+                return;
+            }
+            try {
+                updateMappings(shard, IndexMetaData.builder(shard.indexSettings().getIndexMetaData())
+                    .putMapping(type, update.toString()).build());
+                listener.onResponse(null);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        };
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis, mappingUpdater, listener -> listener.onResponse(null),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {
+                for (BulkItemRequest item : result.replicaRequest().items()) {
+                    assertFalse(item.getPrimaryResponse().isFailed());
+                }
+            }), latch), threadPool);
+        latch.await();
+
+        // batched update, the retry of the first item alone, and the (unbatched) update of the last item
+        assertThat(updates.size(), equalTo(3));
+        assertDocCount(shard, 2);
+
+        closeShards(shard);
+    }
+
     public void testExecuteBulkIndexRequestWithErrorWhileUpdatingMapping() throws Exception {
         IndexShard shard = newStartedShard(true);
 
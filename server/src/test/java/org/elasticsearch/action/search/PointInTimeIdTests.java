@@ -0,0 +1,75 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.internal.ReaderContextId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class PointInTimeIdTests extends ESTestCase {
+
+    public void testEncodeDecode() throws IOException {
+        final Map<ShardId, PointInTimeId.ReaderContextIdForNode> shards = new HashMap<>();
+        final int numIndices = randomIntBetween(1, 5);
+        for (int i = 0; i < numIndices; i++) {
+            final String indexUUID = UUIDs.randomBase64UUID();
+            final int numShards = randomIntBetween(1, 5);
+            for (int shard = 0; shard < numShards; shard++) {
+                shards.put(new ShardId("index-" + i, indexUUID, shard), new PointInTimeId.ReaderContextIdForNode(randomAlphaOfLength(10),
+                    new ReaderContextId(UUIDs.randomBase64UUID(), randomNonNegativeLong())));
+            }
+        }
+        final PointInTimeId decoded = PointInTimeId.decode(new PointInTimeId(shards).encode());
+        assertThat(decoded.shards(), equalTo(shards));
+    }
+
+    public void testCloseRequestRelatesToIndicesOfId() throws IOException {
+        final Map<ShardId, PointInTimeId.ReaderContextIdForNode> shards = new HashMap<>();
+        final String sessionId = UUIDs.randomBase64UUID();
+        shards.put(new ShardId("index-1", "uuid-1", 0),
+            new PointInTimeId.ReaderContextIdForNode("node", new ReaderContextId(sessionId, 1)));
+        shards.put(new ShardId("index-0", "uuid-0", 0),
+            new PointInTimeId.ReaderContextIdForNode("node", new ReaderContextId(sessionId, 2)));
+        shards.put(new ShardId("index-0", "uuid-0", 1),
+            new PointInTimeId.ReaderContextIdForNode("node", new ReaderContextId(sessionId, 3)));
+        final ClosePointInTimeRequest request = new ClosePointInTimeRequest(new PointInTimeId(shards).encode());
+        assertNull(request.validate());
+        assertArrayEquals(new String[] {"index-0", "index-1"}, request.indices());
+
+        final ActionRequestValidationException e = new ClosePointInTimeRequest(randomAlphaOfLength(12)).validate();
+        assertNotNull(e);
+        assertThat(e.validationErrors(), equalTo(Collections.singletonList("Cannot parse point in time id")));
+    }
+
+    public void testDecodeInvalidId() {
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> PointInTimeId.decode(randomAlphaOfLength(12)));
+        assertThat(e.getMessage(), equalTo("Cannot parse point in time id"));
+    }
+}
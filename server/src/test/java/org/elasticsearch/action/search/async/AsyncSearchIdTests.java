@@ -0,0 +1,44 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class AsyncSearchIdTests extends ESTestCase {
+
+    public void testEncodeDecode() {
+        final AsyncSearchId id = new AsyncSearchId(UUIDs.randomBase64UUID(), new TaskId(randomAlphaOfLength(10), randomNonNegativeLong()));
+        final AsyncSearchId decoded = AsyncSearchId.decode(id.getEncoded());
+        assertThat(decoded, equalTo(id));
+        assertThat(decoded.getDocId(), equalTo(id.getDocId()));
+        assertThat(decoded.getTaskId(), equalTo(id.getTaskId()));
+        assertThat(decoded.getEncoded(), equalTo(id.getEncoded()));
+    }
+
+    public void testDecodeInvalidId() {
+        final String invalid = randomAlphaOfLength(5) + "!";
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> AsyncSearchId.decode(invalid));
+        assertThat(e.getMessage(), equalTo("invalid async search id [" + invalid + "]"));
+    }
+}
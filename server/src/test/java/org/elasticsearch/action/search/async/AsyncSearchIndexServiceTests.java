@@ -0,0 +1,47 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AsyncSearchIndexServiceTests extends ESTestCase {
+
+    public void testNoSecurity() {
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        threadContext.putHeader("X-Opaque-Id", "opaque");
+        final AsyncSearchSecurity security = AsyncSearchSecurity.NONE;
+        final Map<String, String> originHeaders = security.getSecurityHeaders(threadContext);
+        assertThat(originHeaders, equalTo(emptyMap()));
+        assertTrue(security.isSameUser(originHeaders, security.getSecurityHeaders(threadContext)));
+        try (ThreadContext.StoredContext ignore = threadContext.stashContext()) {
+            assertTrue(security.isSameUser(originHeaders, security.getSecurityHeaders(threadContext)));
+        }
+        // a search that was submitted while security was enabled
+        assertFalse(security.isSameUser(singletonMap("header", "value"), security.getSecurityHeaders(threadContext)));
+    }
+}
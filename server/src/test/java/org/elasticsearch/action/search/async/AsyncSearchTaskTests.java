@@ -0,0 +1,137 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class AsyncSearchTaskTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void shutdownThreadPool() {
+        terminate(threadPool);
+    }
+
+    private AsyncSearchTask newTask(boolean keepOnCompletion) {
+        final AsyncSearchId searchId = new AsyncSearchId(UUIDs.randomBase64UUID(), new TaskId("node", 1));
+        return new AsyncSearchTask(1, "transport", SubmitAsyncSearchAction.NAME, TaskId.EMPTY_TASK_ID, Collections.emptyMap(),
+            searchId, Collections.emptyMap(), 0L, Long.MAX_VALUE, keepOnCompletion, threadPool, () -> null);
+    }
+
+    private static SearchResponse newSearchResponse() {
+        return new SearchResponse(InternalSearchResponse.empty(), null, 1, 1, 0, 10,
+            ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+    }
+
+    public void testCompletedBeforeTimeout() throws InterruptedException {
+        final AsyncSearchTask task = newTask(false);
+        final AtomicReference<AsyncSearchResponse> responseRef = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        task.addCompletionListener(ActionListener.wrap(r -> {
+            responseRef.set(r);
+            latch.countDown();
+        }, e -> fail(e.getMessage())), TimeValue.timeValueHours(1));
+        final SearchResponse searchResponse = newSearchResponse();
+        task.onResponse(searchResponse);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        final AsyncSearchResponse response = responseRef.get();
+        assertFalse(response.isRunning());
+        assertFalse(response.isPartial());
+        assertThat(response.getSearchResponse(), sameInstance(searchResponse));
+        // the search completed before its id was returned so the response is not kept
+        assertThat(response.getId(), nullValue());
+        assertFalse(task.shouldKeepResponse());
+    }
+
+    public void testRunningResponseIsKept() {
+        final AsyncSearchTask task = newTask(false);
+        final AtomicReference<AsyncSearchResponse> responseRef = new AtomicReference<>();
+        task.addCompletionListener(ActionListener.wrap(responseRef::set, e -> fail(e.getMessage())), TimeValue.ZERO);
+        final AsyncSearchResponse response = responseRef.get();
+        assertTrue(response.isRunning());
+        assertTrue(response.isPartial());
+        assertThat(response.getId(), equalTo(task.getSearchId().getEncoded()));
+        assertTrue(task.shouldKeepResponse());
+        assertFalse(task.isFinished());
+
+        task.onResponse(newSearchResponse());
+        assertTrue(task.isFinished());
+        final AsyncSearchResponse finalResponse = task.getResponse();
+        assertFalse(finalResponse.isRunning());
+        assertFalse(finalResponse.isPartial());
+        assertThat(finalResponse.getId(), equalTo(task.getSearchId().getEncoded()));
+    }
+
+    public void testTimeoutReturnsPartialResponse() throws InterruptedException {
+        final AsyncSearchTask task = newTask(randomBoolean());
+        final AtomicReference<AsyncSearchResponse> responseRef = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        task.addCompletionListener(ActionListener.wrap(r -> {
+            responseRef.set(r);
+            latch.countDown();
+        }, e -> fail(e.getMessage())), TimeValue.timeValueMillis(1));
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(responseRef.get().isRunning());
+        assertTrue(responseRef.get().isPartial());
+    }
+
+    public void testFailure() {
+        final AsyncSearchTask task = newTask(true);
+        task.onFailure(new IllegalStateException("boom"));
+        final AsyncSearchResponse response = task.getResponse();
+        assertFalse(response.isRunning());
+        assertTrue(response.isPartial());
+        assertThat(response.getFailure().getMessage(), containsString("boom"));
+        assertThat(response.getId(), equalTo(task.getSearchId().getEncoded()));
+    }
+
+    public void testExpirationTimeIsNeverShortened() {
+        final AsyncSearchTask task = newTask(false);
+        task.extendExpirationTime(10);
+        assertThat(task.getExpirationTime(), equalTo(Long.MAX_VALUE));
+    }
+}
@@ -20,24 +20,34 @@ package org.elasticsearch.cluster.coordination;
 
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.cluster.coordination.CoordinationMetaData.VotingConfiguration;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.test.transport.CapturingTransport;
+import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 
 public class PublicationTransportHandlerTests extends ESTestCase {
@@ -81,10 +91,129 @@ public class PublicationTransportHandlerTests extends ESTestCase {
             }
         };
 
-        ElasticsearchException e = expectThrows(ElasticsearchException.class, () ->
-            handler.newPublicationContext(new ClusterChangedEvent("test", unserializableClusterState, clusterState)));
+        // serialization happens on the generic threadpool and fails the publish request to the node that needed the diff
+        final PublicationTransportHandler.PublicationContext context =
+            handler.newPublicationContext(new ClusterChangedEvent("test", unserializableClusterState, clusterState));
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        context.sendPublishRequest(otherNode, new PublishRequest(unserializableClusterState), ActionListener.wrap(
+            r -> fail("should not succeed"), failure::set));
+        deterministicTaskQueue.runAllRunnableTasks();
+        assertThat(failure.get(), instanceOf(ElasticsearchException.class));
+        final Exception e = failure.get();
         assertNotNull(e.getCause());
         assertThat(e.getCause(), instanceOf(IOException.class));
         assertThat(e.getCause().getMessage(), containsString("Simulated failure of diff serialization"));
     }
+
+    public void testFullStateSerializationFailureOnlyFailsNodesOfThatVersion() {
+        DeterministicTaskQueue deterministicTaskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "test").build(), random());
+        final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        final DiscoveryNode localNode = new DiscoveryNode("localNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final CapturingTransport capturingTransport = new CapturingTransport();
+        final TransportService transportService = capturingTransport.createTransportService(Settings.EMPTY,
+            deterministicTaskQueue.getThreadPool(),
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            x -> localNode,
+            clusterSettings, Collections.emptySet());
+        final PublicationTransportHandler handler = new PublicationTransportHandler(transportService,
+            writableRegistry(), pu -> null, (pu, l) -> {});
+        transportService.start();
+        transportService.acceptIncomingRequests();
+
+        final DiscoveryNode currentNode1 = new DiscoveryNode("currentNode1", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode currentNode2 = new DiscoveryNode("currentNode2", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode previousVersionNode = new DiscoveryNode("previousVersionNode", buildNewFakeTransportAddress(),
+            VersionUtils.getPreviousVersion());
+        final ClusterState previousState = CoordinationStateTests.clusterState(2L, 1L,
+            DiscoveryNodes.builder().add(localNode).localNodeId(localNode.getId()).build(),
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+        final ClusterState clusterState = CoordinationStateTests.clusterState(2L, 2L,
+            DiscoveryNodes.builder(previousState.nodes()).add(currentNode1).add(currentNode2).add(previousVersionNode).build(),
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+        final ClusterState unserializableClusterState = new ClusterState(clusterState.version(),
+            clusterState.stateUUID(), clusterState) {
+            @Override
+            public void writeTo(StreamOutput out) throws IOException {
+                if (out.getVersion().equals(Version.CURRENT)) {
+                    throw new IOException("Simulated failure of full state serialization");
+                }
+                super.writeTo(out);
+            }
+        };
+
+        // the publication context is created even though the state cannot be serialized for the version of the local node, instead
+        // the publish requests to the nodes of that version fail while the other nodes still receive the state
+        final PublicationTransportHandler.PublicationContext context =
+            handler.newPublicationContext(new ClusterChangedEvent("test", unserializableClusterState, previousState));
+        final Map<String, Exception> failures = new HashMap<>();
+        for (DiscoveryNode node : Arrays.asList(currentNode1, currentNode2, previousVersionNode)) {
+            context.sendPublishRequest(node, new PublishRequest(unserializableClusterState), ActionListener.wrap(
+                r -> fail("should not succeed"), e -> failures.put(node.getId(), e)));
+        }
+        deterministicTaskQueue.runAllRunnableTasks();
+
+        assertThat(failures.keySet(), equalTo(Sets.newHashSet(currentNode1.getId(), currentNode2.getId())));
+        for (Exception e : failures.values()) {
+            assertThat(e, instanceOf(ElasticsearchException.class));
+            assertThat(e.getCause(), instanceOf(IOException.class));
+            assertThat(e.getCause().getMessage(), containsString("Simulated failure of full state serialization"));
+        }
+        final CapturingTransport.CapturedRequest[] capturedRequests = capturingTransport.getCapturedRequestsAndClear();
+        assertThat(capturedRequests.length, equalTo(1));
+        assertThat(capturedRequests[0].node, equalTo(previousVersionNode));
+        assertThat(handler.stats().getFullClusterStateSerializedCount(), equalTo(1L));
+    }
+
+    public void testSerializesOncePerNodeVersion() {
+        DeterministicTaskQueue deterministicTaskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "test").build(), random());
+        final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        final DiscoveryNode localNode = new DiscoveryNode("localNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final CapturingTransport capturingTransport = new CapturingTransport();
+        final TransportService transportService = capturingTransport.createTransportService(Settings.EMPTY,
+            deterministicTaskQueue.getThreadPool(),
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            x -> localNode,
+            clusterSettings, Collections.emptySet());
+        final PublicationTransportHandler handler = new PublicationTransportHandler(transportService,
+            writableRegistry(), pu -> null, (pu, l) -> {});
+        transportService.start();
+        transportService.acceptIncomingRequests();
+
+        final DiscoveryNode existingNode1 = new DiscoveryNode("existingNode1", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode existingNode2 = new DiscoveryNode("existingNode2", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode newNode1 = new DiscoveryNode("newNode1", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode newNode2 = new DiscoveryNode("newNode2", buildNewFakeTransportAddress(), Version.CURRENT);
+        final ClusterState previousState = CoordinationStateTests.clusterState(2L, 1L,
+            DiscoveryNodes.builder().add(localNode).add(existingNode1).add(existingNode2).localNodeId(localNode.getId()).build(),
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+        final ClusterState newState = CoordinationStateTests.clusterState(2L, 2L,
+            DiscoveryNodes.builder(previousState.nodes()).add(newNode1).add(newNode2).build(),
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+
+        final PublicationTransportHandler.PublicationContext context =
+            handler.newPublicationContext(new ClusterChangedEvent("test", newState, previousState));
+        // nothing is serialized on the publishing thread
+        assertThat(handler.stats().getFullClusterStateSerializedCount(), equalTo(0L));
+        assertThat(handler.stats().getClusterStateDiffSerializedCount(), equalTo(0L));
+
+        for (DiscoveryNode node : Arrays.asList(existingNode1, existingNode2, newNode1, newNode2)) {
+            context.sendPublishRequest(node, new PublishRequest(newState), ActionListener.wrap(r -> {}, e -> {}));
+        }
+        deterministicTaskQueue.runAllRunnableTasks();
+
+        assertThat(handler.stats().getFullClusterStateSerializedCount(), equalTo(1L));
+        assertThat(handler.stats().getClusterStateDiffSerializedCount(), equalTo(1L));
+        final Map<String, BytesReference> sentBytes = new HashMap<>();
+        for (CapturingTransport.CapturedRequest capturedRequest : capturingTransport.getCapturedRequestsAndClear()) {
+            assertThat(capturedRequest.action, equalTo(PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME));
+            sentBytes.put(capturedRequest.node.getId(), ((BytesTransportRequest) capturedRequest.request).bytes());
+        }
+        assertThat(sentBytes.size(), equalTo(4));
+        // the nodes share the same compressed bytes
+        assertSame(sentBytes.get(existingNode1.getId()), sentBytes.get(existingNode2.getId()));
+        assertSame(sentBytes.get(newNode1.getId()), sentBytes.get(newNode2.getId()));
+        assertNotSame(sentBytes.get(existingNode1.getId()), sentBytes.get(newNode1.getId()));
+    }
 }
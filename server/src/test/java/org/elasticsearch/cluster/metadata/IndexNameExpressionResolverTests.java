@@ -40,6 +40,7 @@ import org.elasticsearch.indices.IndexClosedException;
 import org.elasticsearch.indices.InvalidIndexNameException;
 import org.elasticsearch.test.ESTestCase;
 
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -58,6 +59,7 @@ import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 
 public class IndexNameExpressionResolverTests extends ESTestCase {
@@ -635,6 +637,97 @@ public class IndexNameExpressionResolverTests extends ESTestCase {
             equalTo(newHashSet("testXXX", "testXXY", "testXYY")));
     }
 
+    public void testConcreteIndicesResolvedAgainstTheirOwnMetaData() {
+        MetaData.Builder mdBuilder = MetaData.builder()
+                .put(indexBuilder("testXXX").state(State.OPEN))
+                .put(indexBuilder("testXXY").state(State.OPEN).putAlias(AliasMetaData.builder("testAlias")));
+        ClusterState state = ClusterState.builder(new ClusterName("_name")).metaData(mdBuilder).build();
+        ClusterState newState = ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData()).put(indexBuilder("testXYZ").state(State.OPEN))).build();
+
+        IndexNameExpressionResolver.Context context =
+            new IndexNameExpressionResolver.Context(state, IndicesOptions.lenientExpandOpen());
+        String[] concreteIndices = indexNameExpressionResolver.concreteIndexNames(context, "testX*");
+        assertThat(newHashSet(concreteIndices), equalTo(newHashSet("testXXX", "testXXY")));
+        // modifying the returned array must not affect later resolutions
+        Arrays.fill(concreteIndices, "testYYY");
+        assertThat(newHashSet(indexNameExpressionResolver.concreteIndexNames(context, "testX*")),
+            equalTo(newHashSet("testXXX", "testXXY")));
+
+        IndexNameExpressionResolver.Context newContext =
+            new IndexNameExpressionResolver.Context(newState, IndicesOptions.lenientExpandOpen());
+        assertThat(newHashSet(indexNameExpressionResolver.concreteIndexNames(newContext, "testX*")),
+            equalTo(newHashSet("testXXX", "testXXY", "testXYZ")));
+        assertThat(newHashSet(indexNameExpressionResolver.concreteIndexNames(context, "testX*")),
+            equalTo(newHashSet("testXXX", "testXXY")));
+        assertThat(newHashSet(indexNameExpressionResolver.concreteIndexNames(newContext, "testX*", "-testXXY")),
+            equalTo(newHashSet("testXXX", "testXYZ")));
+
+        assertThat(indexNameExpressionResolver.resolveWildcardMatches(state.metaData(), "test*"),
+            equalTo(newHashSet("testXXX", "testXXY", "testAlias")));
+        assertThat(indexNameExpressionResolver.resolveWildcardMatches(newState.metaData(), "test*"),
+            equalTo(newHashSet("testXXX", "testXXY", "testXYZ", "testAlias")));
+        assertThat(indexNameExpressionResolver.resolveWildcardMatches(newState.metaData(), "*Y*"),
+            equalTo(newHashSet("testXXY", "testXYZ")));
+        assertThat(indexNameExpressionResolver.resolveWildcardMatches(newState.metaData(), "*"),
+            equalTo(newHashSet("testXXX", "testXXY", "testXYZ", "testAlias")));
+    }
+
+    public void testResolutionsOfDifferentMetaDataAreCachedSideBySide() {
+        MetaData.Builder mdBuilder = MetaData.builder()
+                .put(indexBuilder("testXXX").state(State.OPEN))
+                .put(indexBuilder("testXXY").state(State.OPEN));
+        ClusterState state = ClusterState.builder(new ClusterName("_name")).metaData(mdBuilder).build();
+        // an intermediate state on the master, which carries the same metadata version
+        ClusterState intermediateState = ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData()).put(indexBuilder("testXYZ").state(State.OPEN))).build();
+        assertThat(intermediateState.metaData().version(), equalTo(state.metaData().version()));
+
+        IndexNameExpressionResolver resolver = new IndexNameExpressionResolver();
+        IndexNameExpressionResolver.Context context = new IndexNameExpressionResolver.Context(state, IndicesOptions.lenientExpandOpen());
+        IndexNameExpressionResolver.Context intermediateContext =
+            new IndexNameExpressionResolver.Context(intermediateState, IndicesOptions.lenientExpandOpen());
+        assertThat(newHashSet(resolver.concreteIndexNames(context, "testX*")), equalTo(newHashSet("testXXX", "testXXY")));
+        assertThat(newHashSet(resolver.concreteIndexNames(intermediateContext, "testX*")),
+            equalTo(newHashSet("testXXX", "testXXY", "testXYZ")));
+        assertThat(resolver.resolutionCache().count(), equalTo(2));
+
+        // resolving against the intermediate state did not evict the resolution against the applied state
+        long hits = resolver.resolutionCache().stats().getHits();
+        assertThat(newHashSet(resolver.concreteIndexNames(context, "testX*")), equalTo(newHashSet("testXXX", "testXXY")));
+        assertThat(resolver.resolutionCache().stats().getHits(), equalTo(hits + 1));
+
+        // the cache is bounded by the estimated size of its entries
+        for (int i = 0; i < 10_000; i++) {
+            resolver.resolveWildcardMatches(state.metaData(), "test" + i + "*");
+        }
+        assertThat(resolver.resolutionCache().weight(), lessThanOrEqualTo(IndexNameExpressionResolver.MAX_CACHED_RESOLUTIONS_BYTES));
+    }
+
+    public void testCacheDoesNotKeepOldMetaDataAlive() throws Exception {
+        IndexNameExpressionResolver resolver = new IndexNameExpressionResolver();
+        ClusterState state = ClusterState.builder(new ClusterName("_name"))
+            .metaData(MetaData.builder().put(indexBuilder("testXXX").state(State.OPEN))).build();
+        assertThat(newHashSet(resolver.concreteIndexNames(state, IndicesOptions.lenientExpandOpen(), "testX*")),
+            equalTo(newHashSet("testXXX")));
+        assertThat(resolver.resolveWildcardMatches(state.metaData(), "test*"), equalTo(newHashSet("testXXX")));
+        final WeakReference<MetaData> oldMetaData = new WeakReference<>(state.metaData());
+
+        // the next state is applied and the previous one is no longer referenced but by the cache
+        state = ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData()).put(indexBuilder("testXYZ").state(State.OPEN))).build();
+        assertThat(newHashSet(resolver.concreteIndexNames(state, IndicesOptions.lenientExpandOpen(), "testX*")),
+            equalTo(newHashSet("testXXX", "testXYZ")));
+        assertThat(resolver.resolutionCache().count(), equalTo(3));
+
+        assertBusy(() -> {
+            System.gc();
+            assertNull("the cache must not keep the old metadata alive", oldMetaData.get());
+        });
+        assertThat(newHashSet(resolver.concreteIndexNames(state, IndicesOptions.lenientExpandOpen(), "testX*")),
+            equalTo(newHashSet("testXXX", "testXYZ")));
+    }
+
     public void testConcreteIndicesWildcardWithNegation() {
         MetaData.Builder mdBuilder = MetaData.builder()
                 .put(indexBuilder("testXXX").state(State.OPEN))
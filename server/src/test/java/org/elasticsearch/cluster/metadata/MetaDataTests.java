@@ -40,6 +40,7 @@ import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.plugins.MapperPlugin;
 import org.elasticsearch.test.ESTestCase;
 
@@ -503,6 +504,98 @@ public class MetaDataTests extends ESTestCase {
         assertThat(fromStreamMeta.indexGraveyard(), equalTo(fromStreamMeta.indexGraveyard()));
     }
 
+    public void testMappingsAreDeduplicated() throws IOException {
+        MetaData.Builder builder = MetaData.builder();
+        int numIndices = randomIntBetween(2, 5);
+        for (int i = 0; i < numIndices; i++) {
+            builder.put(IndexMetaData.builder("index" + i)
+                .settings(Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                    .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0))
+                .putMapping("_doc", FIND_MAPPINGS_TEST_ITEM));
+        }
+        builder.put(IndexMetaData.builder("other")
+            .settings(Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0))
+            .putMapping("_doc", "{\"_doc\":{\"properties\":{\"name\":{\"type\":\"keyword\"}}}}"));
+        MetaData metaData = builder.build();
+        assertMappingsDeduplicated(metaData, numIndices);
+
+        NamedWriteableRegistry namedWriteableRegistry = new NamedWriteableRegistry(ClusterModule.getNamedWriteables());
+        for (Version version : new Version[] { Version.CURRENT, Version.V_7_2_0 }) {
+            final BytesStreamOutput out = new BytesStreamOutput();
+            out.setVersion(version);
+            metaData.writeTo(out);
+            final NamedWriteableAwareStreamInput in =
+                new NamedWriteableAwareStreamInput(out.bytes().streamInput(), namedWriteableRegistry);
+            in.setVersion(version);
+            final MetaData fromStreamMeta = MetaData.readFrom(in);
+            assertMappingsDeduplicated(fromStreamMeta, numIndices);
+            for (int i = 0; i < numIndices; i++) {
+                assertThat(fromStreamMeta.index("index" + i).mapping(), equalTo(metaData.index("index" + i).mapping()));
+            }
+            assertThat(fromStreamMeta.index("other").mapping(), equalTo(metaData.index("other").mapping()));
+        }
+    }
+
+    public void testDeduplicationKeepsExistingIndexMetaData() {
+        final Settings.Builder indexSettings = Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0);
+        final String otherMapping = "{\"_doc\":{\"properties\":{\"name\":{\"type\":\"keyword\"}}}}";
+        MetaData.Builder builder = MetaData.builder();
+        int numIndices = randomIntBetween(2, 5);
+        for (int i = 0; i < numIndices; i++) {
+            builder.put(IndexMetaData.builder("index" + i).settings(indexSettings).putMapping("_doc", FIND_MAPPINGS_TEST_ITEM));
+        }
+        builder.put(IndexMetaData.builder("other").settings(indexSettings).putMapping("_doc", otherMapping));
+        final MetaData metaData = builder.build();
+
+        // adds indices with new but equal mapping instances, which must not replace the instances the existing indices refer to
+        builder = MetaData.builder(metaData).remove("other");
+        for (int i = numIndices; i < numIndices * 2; i++) {
+            builder.put(IndexMetaData.builder("index" + i).settings(indexSettings).putMapping("_doc", FIND_MAPPINGS_TEST_ITEM));
+        }
+        final MetaData updated = builder.build();
+        for (int i = 0; i < numIndices; i++) {
+            assertSame(metaData.index("index" + i), updated.index("index" + i));
+        }
+        final MappingMetaData shared = metaData.index("index0").mapping();
+        for (int i = numIndices; i < numIndices * 2; i++) {
+            assertSame(shared, updated.index("index" + i).mapping());
+        }
+        assertThat(updated.getMappingsByHash().size(), equalTo(1));
+        assertSame(shared, updated.getMappingsByHash().get(shared.getSha256()));
+    }
+
+    public void testDefaultMappingDoesNotModifySharedMappings() throws IOException {
+        final Settings.Builder indexSettings = Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0);
+        final MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("index").settings(indexSettings)
+                .putMapping("_doc", "{\"_doc\":{\"properties\":{\"name\":{\"type\":\"keyword\"}}}}"))
+            .build();
+        final MappingMetaData shared = metaData.index("index").mapping();
+        final String sha256 = shared.getSha256();
+
+        final IndexMetaData withDefault = IndexMetaData.builder("with_default").settings(indexSettings)
+            .putMapping(shared)
+            .putMapping(MapperService.DEFAULT_MAPPING, "{\"_default_\":{\"_routing\":{\"required\":true}}}")
+            .build();
+        assertTrue(withDefault.mapping().routing().required());
+        assertNotSame(shared, withDefault.mapping());
+        assertFalse(shared.routing().required());
+        assertEquals(sha256, shared.getSha256());
+    }
+
+    private static void assertMappingsDeduplicated(MetaData metaData, int numIndices) {
+        assertThat(metaData.getMappingsByHash().size(), equalTo(2));
+        final MappingMetaData shared = metaData.index("index0").mapping();
+        assertSame(shared, metaData.getMappingsByHash().get(shared.getSha256()));
+        for (int i = 1; i < numIndices; i++) {
+            assertSame(shared, metaData.index("index" + i).mapping());
+        }
+        assertNotSame(shared, metaData.index("other").mapping());
+    }
+
     public void testFindMappings() throws IOException {
         MetaData metaData = MetaData.builder()
                 .put(IndexMetaData.builder("index1")
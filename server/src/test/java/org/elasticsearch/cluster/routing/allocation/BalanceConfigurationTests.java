@@ -25,6 +25,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ESAllocationTestCase;
 import org.elasticsearch.cluster.EmptyClusterInfoService;
@@ -45,6 +46,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
 import org.hamcrest.Matchers;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
@@ -116,6 +119,57 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
             numberOfNodes + 1 - (numberOfNodes + 1) / 2, numberOfIndices, numberOfReplicas, numberOfShards, balanceThreshold);
     }
 
+    public void testDiskUsageBalance() {
+        final Set<Integer> largeShards = new HashSet<>();
+        final ClusterInfo clusterInfo = new ClusterInfo() {
+            @Override
+            public Long getShardSize(ShardRouting shardRouting) {
+                return largeShards.contains(shardRouting.id()) ? 100L : 1L;
+            }
+        };
+        final Settings.Builder settings = Settings.builder()
+            .put(ClusterRebalanceAllocationDecider.CLUSTER_ROUTING_ALLOCATION_ALLOW_REBALANCE_SETTING.getKey(),
+                ClusterRebalanceAllocationDecider.ClusterRebalanceType.ALWAYS.toString());
+        AllocationService strategy = createAllocationService(settings.build(), () -> clusterInfo);
+
+        MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("test").settings(settings(Version.CURRENT)).numberOfShards(4).numberOfReplicas(0))
+            .build();
+        RoutingTable routingTable = RoutingTable.builder().addAsNew(metaData.index("test")).build();
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING
+            .getDefault(Settings.EMPTY)).metaData(metaData).routingTable(routingTable)
+            .nodes(DiscoveryNodes.builder().add(newNode("node1")).add(newNode("node2"))).build();
+        clusterState = strategy.reroute(clusterState, "reroute");
+        clusterState = applyStartedShardsUntilNoChange(clusterState, strategy);
+        assertThat(clusterState.getRoutingNodes().node("node1").numberOfShardsWithState(STARTED), Matchers.equalTo(2));
+        assertThat(clusterState.getRoutingNodes().node("node2").numberOfShardsWithState(STARTED), Matchers.equalTo(2));
+
+        // the shards of node1 turn out to be much larger than the ones of node2, which only counting shards doesn't care about
+        for (ShardRouting shard : clusterState.getRoutingNodes().node("node1")) {
+            largeShards.add(shard.id());
+        }
+        assertSame(clusterState, strategy.reroute(clusterState, "reroute"));
+        assertThat(diskUsage(clusterState, "node1", clusterInfo), Matchers.equalTo(200L));
+        assertThat(diskUsage(clusterState, "node2", clusterInfo), Matchers.equalTo(2L));
+
+        settings.put(BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING.getKey(), 1.0f);
+        strategy = createAllocationService(settings.build(), () -> clusterInfo);
+        clusterState = strategy.reroute(clusterState, "reroute");
+        clusterState = applyStartedShardsUntilNoChange(clusterState, strategy);
+        assertThat(clusterState.getRoutingNodes().node("node1").numberOfShardsWithState(STARTED), Matchers.equalTo(2));
+        assertThat(clusterState.getRoutingNodes().node("node2").numberOfShardsWithState(STARTED), Matchers.equalTo(2));
+        assertThat(diskUsage(clusterState, "node1", clusterInfo), Matchers.equalTo(101L));
+        assertThat(diskUsage(clusterState, "node2", clusterInfo), Matchers.equalTo(101L));
+    }
+
+    private static long diskUsage(ClusterState clusterState, String nodeId, ClusterInfo clusterInfo) {
+        long diskUsage = 0;
+        for (ShardRouting shard : clusterState.getRoutingNodes().node(nodeId)) {
+            diskUsage += clusterInfo.getShardSize(shard, 0);
+        }
+        return diskUsage;
+    }
+
     private ClusterState initCluster(AllocationService strategy) {
         MetaData.Builder metaDataBuilder = MetaData.builder();
         RoutingTable.Builder routingTableBuilder = RoutingTable.builder();
@@ -274,7 +328,14 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
         service.applySettings(settings.build());
         assertThat(allocator.getIndexBalance(), Matchers.equalTo(0.5f));
         assertThat(allocator.getShardBalance(), Matchers.equalTo(0.1f));
+        assertThat(allocator.getDiskUsageBalance(), Matchers.equalTo(0.0f));
         assertThat(allocator.getThreshold(), Matchers.equalTo(3.0f));
+
+        settings.put(BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING.getKey(), 0.4);
+        service.applySettings(settings.build());
+        assertThat(allocator.getIndexBalance(), Matchers.equalTo(0.5f));
+        assertThat(allocator.getShardBalance(), Matchers.equalTo(0.1f));
+        assertThat(allocator.getDiskUsageBalance(), Matchers.equalTo(0.4f));
     }
 
     public void testNoRebalanceOnPrimaryOverload() {
@@ -28,12 +28,16 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.RoutingChangesObserver;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.decider.ClusterRebalanceAllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.ThrottlingAllocationDecider;
 import org.elasticsearch.common.settings.Settings;
 
+import java.util.HashSet;
+
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.STARTED;
 import static org.hamcrest.Matchers.equalTo;
@@ -365,6 +369,45 @@ public class RoutingNodesIntegrityTests extends ESAllocationTestCase {
 
     }
 
+    public void testCopyRoutingNodes() {
+        AllocationService strategy = createAllocationService(Settings.builder()
+                .put("cluster.routing.allocation.node_concurrent_recoveries", 10)
+                .put("cluster.routing.allocation.node_initial_primaries_recoveries", 10).build());
+
+        MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("test").settings(settings(Version.CURRENT)).numberOfShards(3).numberOfReplicas(1)).build();
+        RoutingTable initialRoutingTable = RoutingTable.builder().addAsNew(metaData.index("test")).build();
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING
+            .getDefault(Settings.EMPTY)).metaData(metaData).routingTable(initialRoutingTable)
+            .nodes(DiscoveryNodes.builder().add(newNode("node1")).add(newNode("node2"))).build();
+        clusterState = strategy.reroute(clusterState, "reroute");
+
+        RoutingNodes routingNodes = clusterState.getRoutingNodes();
+        RoutingNodes copy = new RoutingNodes(routingNodes, false);
+        assertThat(assertShardStats(copy), equalTo(true));
+        assertThat(copy.size(), equalTo(routingNodes.size()));
+        assertThat(new HashSet<>(copy.shardsWithState(INITIALIZING)), equalTo(new HashSet<>(routingNodes.shardsWithState(INITIALIZING))));
+        assertThat(copy.unassigned().size(), equalTo(routingNodes.unassigned().size()));
+        assertThat(copy.hasInactivePrimaries(), equalTo(routingNodes.hasInactivePrimaries()));
+
+        // modifying the copy leaves the original untouched
+        ShardRouting initializing = copy.shardsWithState(INITIALIZING).get(0);
+        copy.startShard(logger, initializing, new RoutingChangesObserver.AbstractRoutingChangesObserver());
+        assertThat(assertShardStats(copy), equalTo(true));
+        assertThat(assertShardStats(routingNodes), equalTo(true));
+        assertThat(copy.shardsWithState(STARTED).size(), equalTo(1));
+        assertThat(routingNodes.shardsWithState(STARTED).size(), equalTo(0));
+        assertThat(routingNodes.node(initializing.currentNodeId()).getByShardId(initializing.shardId()), equalTo(initializing));
+
+        // rerouting from the routing table computed last reuses its routing nodes
+        ClusterState started = strategy.applyStartedShards(clusterState, routingNodes.shardsWithState(INITIALIZING));
+        assertThat(started.getRoutingNodes().shardsWithState(STARTED).size(), equalTo(3));
+        assertThat(strategy.reroute(started, "reroute"), equalTo(started));
+        started = strategy.applyStartedShards(started, started.getRoutingNodes().shardsWithState(INITIALIZING));
+        assertThat(started.getRoutingNodes().shardsWithState(STARTED).size(), equalTo(6));
+        assertThat(assertShardStats(started.getRoutingNodes()), equalTo(true));
+    }
+
     private boolean assertShardStats(RoutingNodes routingNodes) {
         return RoutingNodes.assertShardStats(routingNodes);
     }
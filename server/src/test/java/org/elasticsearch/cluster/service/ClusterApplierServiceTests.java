@@ -22,6 +22,7 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterStateObserver;
@@ -47,6 +48,8 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -56,7 +59,10 @@ import static java.util.Collections.emptySet;
 import static org.elasticsearch.test.ClusterServiceUtils.createNoOpNodeConnectionsService;
 import static org.elasticsearch.test.ClusterServiceUtils.setState;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class ClusterApplierServiceTests extends ESTestCase {
 
@@ -89,11 +95,15 @@ public class ClusterApplierServiceTests extends ESTestCase {
     }
 
     private TimedClusterApplierService createTimedClusterService(boolean makeMaster) {
+        return createTimedClusterService(makeMaster, Settings.EMPTY);
+    }
+
+    private TimedClusterApplierService createTimedClusterService(boolean makeMaster, Settings settings) {
         DiscoveryNode localNode = new DiscoveryNode("node1", buildNewFakeTransportAddress(), emptyMap(),
             emptySet(), Version.CURRENT);
         TimedClusterApplierService timedClusterApplierService = new TimedClusterApplierService(Settings.builder().put("cluster.name",
-            "ClusterApplierServiceTests").build(), new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
-            threadPool);
+            "ClusterApplierServiceTests").put(settings).build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), threadPool);
         timedClusterApplierService.setNodeConnectionsService(createNoOpNodeConnectionsService());
         timedClusterApplierService.setInitialState(ClusterState.builder(new ClusterName("ClusterApplierServiceTests"))
             .nodes(DiscoveryNodes.builder()
@@ -489,6 +499,59 @@ public class ClusterApplierServiceTests extends ESTestCase {
         assertTrue(applierCalled.get());
     }
 
+    public void testCollapsesPendingClusterStates() throws InterruptedException {
+        clusterApplierService.close();
+        clusterApplierService = createTimedClusterService(true, Settings.builder()
+            .put(ClusterApplierService.CLUSTER_APPLIER_COLLAPSE_PENDING_STATES_SETTING.getKey(), true).build());
+        final List<ClusterChangedEvent> events = new CopyOnWriteArrayList<>();
+        clusterApplierService.addStateApplier(events::add);
+
+        // block the applier thread so that the new states queue up behind it
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        clusterApplierService.runOnApplierThread("block", currentState -> {
+            blocked.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }, (source, e) -> { throw new AssertionError(e); });
+        blocked.await();
+
+        final ClusterState initialState = clusterApplierService.state();
+        final int numStates = randomIntBetween(2, 10);
+        final CountDownLatch applied = new CountDownLatch(numStates);
+        for (int i = 1; i <= numStates; i++) {
+            final ClusterState newState = ClusterState.builder(initialState).version(initialState.version() + i).build();
+            clusterApplierService.onNewClusterState("state " + i, () -> newState, new ClusterApplyListener() {
+                @Override
+                public void onSuccess(String source) {
+                    applied.countDown();
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+        unblock.countDown();
+        applied.await();
+
+        assertThat(events, hasSize(1));
+        assertThat(events.get(0).previousState(), sameInstance(initialState));
+        assertThat(events.get(0).state().version(), equalTo(initialState.version() + numStates));
+        assertThat(clusterApplierService.state().version(), equalTo(initialState.version() + numStates));
+
+        final ClusterApplierStats stats = clusterApplierService.stats();
+        assertThat(stats.getAppliedStates(), equalTo(1L));
+        assertThat(stats.getCollapsedStates(), equalTo(numStates - 1L));
+        assertThat(stats.getRecordings(), hasSize(1));
+        assertThat(stats.getRecordings().get(0).getName(), equalTo(ClusterApplierServiceTests.class.getName()));
+        assertThat(stats.getRecordings().get(0).getExecutionCount(), equalTo(1L));
+    }
+
     static class TimedClusterApplierService extends ClusterApplierService {
 
         final ClusterSettings clusterSettings;
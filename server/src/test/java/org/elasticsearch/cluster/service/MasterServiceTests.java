@@ -32,6 +32,7 @@ import org.elasticsearch.cluster.ClusterStateTaskListener;
 import org.elasticsearch.cluster.ClusterStateUpdateTask;
 import org.elasticsearch.cluster.LocalClusterUpdateTask;
 import org.elasticsearch.cluster.block.ClusterBlocks;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.Nullable;
@@ -78,6 +79,7 @@ import static java.util.Collections.emptySet;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 
 public class MasterServiceTests extends ESTestCase {
@@ -599,6 +601,94 @@ public class MasterServiceTests extends ESTestCase {
         }
     }
 
+    public void testChainsBatchesOfExecutorsThatAllowIt() throws Exception {
+        final CountDownLatch blockMasterThread = new CountDownLatch(1);
+        final CountDownLatch masterThreadBlocked = new CountDownLatch(1);
+        masterService.submitStateUpdateTask("block", new ClusterStateUpdateTask() {
+            @Override
+            public ClusterState execute(ClusterState currentState) throws Exception {
+                masterThreadBlocked.countDown();
+                blockMasterThread.await();
+                return currentState;
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        masterThreadBlocked.await();
+
+        class ChainingExecutor implements ClusterStateTaskExecutor<String> {
+            final String setting;
+            final AtomicInteger executions = new AtomicInteger();
+            final List<Long> publishedVersions = Collections.synchronizedList(new ArrayList<>());
+
+            ChainingExecutor(String setting) {
+                this.setting = setting;
+            }
+
+            @Override
+            public ClusterTasksResult<String> execute(ClusterState currentState, List<String> tasks) {
+                executions.incrementAndGet();
+                return ClusterTasksResult.<String>builder().successes(tasks).build(ClusterState.builder(currentState)
+                    .metaData(MetaData.builder(currentState.metaData())
+                        .transientSettings(Settings.builder().put(currentState.metaData().transientSettings())
+                            .put(setting, tasks.size()).build())).build());
+            }
+
+            @Override
+            public boolean allowsChaining() {
+                return true;
+            }
+
+            @Override
+            public void clusterStatePublished(ClusterChangedEvent clusterChangedEvent) {
+                publishedVersions.add(clusterChangedEvent.state().version());
+            }
+        }
+
+        final ChainingExecutor first = new ChainingExecutor("first");
+        final ChainingExecutor second = new ChainingExecutor("second");
+        final CountDownLatch processed = new CountDownLatch(3);
+        final AtomicReference<ClusterState> processedState = new AtomicReference<>();
+        final ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+            @Override
+            public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                processedState.set(newState);
+                processed.countDown();
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+        masterService.submitStateUpdateTask("first", "task1", ClusterStateTaskConfig.build(Priority.NORMAL), first, listener);
+        masterService.submitStateUpdateTask("second", "task2", ClusterStateTaskConfig.build(Priority.NORMAL), second, listener);
+        masterService.submitStateUpdateTask("first", "task3", ClusterStateTaskConfig.build(Priority.NORMAL), first, listener);
+        blockMasterThread.countDown();
+        processed.await();
+
+        assertThat(first.executions.get(), equalTo(1));
+        assertThat(second.executions.get(), equalTo(1));
+        // both executors saw the changes of the other one and were published together
+        assertThat(processedState.get().metaData().transientSettings().get("first"), equalTo("2"));
+        assertThat(processedState.get().metaData().transientSettings().get("second"), equalTo("1"));
+        assertBusy(() -> {
+            assertThat(first.publishedVersions, equalTo(Collections.singletonList(processedState.get().version())));
+            assertThat(second.publishedVersions, equalTo(Collections.singletonList(processedState.get().version())));
+        });
+
+        final MasterServiceStats stats = masterService.stats();
+        assertThat(stats.getChainedBatches(), equalTo(1L));
+        final Set<String> executorNames = new HashSet<>();
+        for (MasterServiceStats.ExecutorStats executor : stats.getExecutors()) {
+            executorNames.add(executor.getName());
+        }
+        assertThat(executorNames, hasItem(ChainingExecutor.class.getName()));
+    }
+
     public void testBlockingCallInClusterStateTaskListenerFails() throws InterruptedException {
         assumeTrue("assertions must be enabled for this test to work", BaseFuture.class.desiredAssertionStatus());
         final CountDownLatch latch = new CountDownLatch(1);
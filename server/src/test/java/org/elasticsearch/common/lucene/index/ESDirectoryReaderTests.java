@@ -19,8 +19,11 @@
 
 package org.elasticsearch.common.lucene.index;
 
+import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
@@ -68,4 +71,36 @@ public class ESDirectoryReaderTests extends ESTestCase {
         assertSame(ir.leaves().get(0).reader().getCoreCacheHelper().getKey(), ir2.leaves().get(0).reader().getCoreCacheHelper().getKey());
         IOUtils.close(ir, ir2, iw, dir);
     }
+
+    /** Test that the sequential stored fields reader returns the same stored fields as the reader */
+    public void testSequentialStoredFieldsReader() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = new IndexWriterConfig(null);
+        iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter iw = new IndexWriter(dir, iwc);
+        int numDocs = randomIntBetween(1, 500);
+        for (int i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new StoredField("value", randomAlphaOfLengthBetween(1, 200)));
+            iw.addDocument(doc);
+        }
+        iw.commit();
+
+        ShardId shardId = new ShardId("fake", "_na_", 1);
+        DirectoryReader ir = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(iw), shardId);
+        assertEquals(1, ir.leaves().size());
+        assertTrue(ir.leaves().get(0).reader() instanceof SequentialStoredFieldsLeafReader);
+        SequentialStoredFieldsLeafReader leafReader = (SequentialStoredFieldsLeafReader) ir.leaves().get(0).reader();
+        assertTrue(leafReader.canReadSequentially());
+        StoredFieldsReader sequentialReader = leafReader.getSequentialStoredFieldsReader();
+        for (int docId = randomIntBetween(0, numDocs - 1); docId < numDocs; docId += randomIntBetween(1, 5)) {
+            DocumentStoredFieldVisitor expected = new DocumentStoredFieldVisitor();
+            leafReader.document(docId, expected);
+            DocumentStoredFieldVisitor actual = new DocumentStoredFieldVisitor();
+            sequentialReader.visitDocument(docId, actual);
+            assertEquals(expected.getDocument().get("value"), actual.getDocument().get("value"));
+        }
+
+        IOUtils.close(ir, iw, dir);
+    }
 }
@@ -22,6 +22,8 @@ package org.elasticsearch.common.xcontent.support;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -69,6 +71,9 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals("Filtered map must be equal to the expected map",
                 toMap(expected, xContentType, humanReadable),
                 XContentMapValues.filter(toMap(actual, xContentType, humanReadable), sourceIncludes, sourceExcludes));
+        assertEquals("Streaming filtered map must be equal to the expected map",
+                toMap(expected, xContentType, humanReadable),
+                filterStreaming(toMap(actual, xContentType, humanReadable), sourceIncludes, sourceExcludes));
     }
 
     @SuppressWarnings({"unchecked"})
@@ -461,6 +466,47 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals(expected, filtered);
     }
 
+    public void testStreamingFilterDotsInFieldNames() throws IOException {
+        Map<String, Object> map = new HashMap<>();
+        map.put("foo.bar", 2);
+        map.put("foo", Collections.singletonMap("baz", 3));
+        map.put("quux", 5);
+        map.put("obj", Collections.singletonMap("a.b", Collections.singletonMap("c", 4)));
+
+        for (String[] includes : new String[][] {{"foo"}, {"foo.bar"}, {"obj.a.b.c"}, {"obj.a"}, {"*.bar"}, {"obj.*"}}) {
+            for (String[] excludes : new String[][] {{}, {"foo"}, {"foo.baz"}, {"obj.a.b"}, {"*.c"}}) {
+                assertEquals(XContentMapValues.filter(map, includes, excludes), filterStreaming(map, includes, excludes));
+            }
+        }
+    }
+
+    public void testStreamingFilterKeepsPropertiesOrder() throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+            .field("c", 1)
+            .field("a", 2)
+            .startObject("obj").field("z", 3).field("f", 4).field("b", 5).endObject()
+            .field("b", 6)
+            .endObject();
+        try (XContentParser parser = createParser(builder)) {
+            XContentBuilder filtered = XContentFactory.jsonBuilder();
+            XContentMapValues.filterStreaming(new String[] {"c", "obj", "b"}, new String[] {"obj.f"}).accept(parser, filtered);
+            assertEquals("{\"c\":1,\"obj\":{\"z\":3,\"b\":5},\"b\":6}", Strings.toString(filtered));
+        }
+    }
+
+    public void testStreamingFilterOmitsEmptyObjectsAndArrays() throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+            .startObject("obj").field("f1", 1).endObject()
+            .startArray("array").startObject().field("f1", 1).endObject().startObject().field("f2", 2).endObject().endArray()
+            .startArray("other").value(1).value(2).endArray()
+            .endObject();
+        try (XContentParser parser = createParser(builder)) {
+            XContentBuilder filtered = XContentFactory.jsonBuilder();
+            XContentMapValues.filterStreaming(new String[] {"*.f2"}, Strings.EMPTY_ARRAY).accept(parser, filtered);
+            assertEquals("{\"array\":[{\"f2\":2}]}", Strings.toString(filtered));
+        }
+    }
+
     public void testSupplementaryCharactersInPaths() {
         Map<String, Object> map = new HashMap<>();
         map.put("搜索", 2);
@@ -490,6 +536,17 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals(expected, filtered);
     }
 
+    private static Map<String, Object> filterStreaming(Map<String, Object> map, String[] includes, String[] excludes) throws IOException {
+        XContentType xContentType = randomFrom(XContentType.values());
+        BytesReference source = BytesReference.bytes(XContentFactory.contentBuilder(xContentType).map(map));
+        try (XContentParser parser = xContentType.xContent().createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source.streamInput())) {
+            XContentBuilder filtered = XContentFactory.contentBuilder(xContentType);
+            XContentMapValues.filterStreaming(includes, excludes).accept(parser, filtered);
+            return convertToMap(BytesReference.bytes(filtered), true, xContentType).v2();
+        }
+    }
+
     private static Map<String, Object> toMap(Builder test, XContentType xContentType, boolean humanReadable) throws IOException {
         ToXContentObject toXContent = (builder, params) -> test.apply(builder);
         return convertToMap(toXContent(toXContent, xContentType, humanReadable), true, xContentType).v2();
@@ -30,6 +30,7 @@ import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.test.ESTestCase;
@@ -37,6 +38,7 @@ import org.elasticsearch.test.ESTestCase;
 import java.io.IOException;
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 
@@ -235,4 +237,85 @@ public class GatewayMetaStatePersistedStateTests extends ESTestCase {
         gateway = maybeNew(gateway);
         assertClusterStateEqual(expectedClusterState, gateway.getLastAcceptedState());
     }
+
+    public void testLucenePersistedState() throws IOException {
+        final PersistedClusterStateService persistedClusterStateService =
+            new PersistedClusterStateService(nodeEnvironment.nodeDataPaths(), xContentRegistry(), true);
+        final MetaStateService metaStateService = new MetaStateService(nodeEnvironment, xContentRegistry());
+        final long term = randomLongBetween(1L, 100L);
+        final ClusterState initialState = createClusterState(0L, MetaData.EMPTY_META_DATA);
+        ClusterState state = initialState;
+        try (GatewayMetaState.LucenePersistedState persistedState =
+                 newLucenePersistedState(persistedClusterStateService, metaStateService, 0L, initialState)) {
+            persistedState.setCurrentTerm(term);
+            for (int i = 0; i < randomIntBetween(1, 5); i++) {
+                final MetaData.Builder metaData = MetaData.builder(state.metaData())
+                    .coordinationMetaData(createCoordinationMetaData(term));
+                if (randomBoolean() && state.metaData().indices().isEmpty() == false) {
+                    metaData.remove(randomFrom(state.metaData().indices().keys().toArray(String.class)));
+                } else {
+                    metaData.put(createIndexMetaData(randomAlphaOfLength(10), randomIntBetween(1, 5), randomNonNegativeLong()), false);
+                }
+                state = createClusterState(state.version() + 1, metaData.build());
+                persistedState.setLastAcceptedState(state);
+                assertThat(persistedState.getLastAcceptedState(), equalTo(state));
+            }
+        }
+
+        final PersistedClusterStateService.OnDiskState onDiskState = persistedClusterStateService.loadBestOnDiskState();
+        assertThat(onDiskState.currentTerm, equalTo(term));
+        assertClusterStateEqual(state, createClusterState(onDiskState.lastAcceptedVersion, onDiskState.metaData));
+        assertThat(onDiskState.metaData.indices().size(), equalTo(state.metaData().indices().size()));
+        // the index state files are still written for the dangling indices detection and the listing of started shards
+        for (IndexMetaData indexMetaData : state.metaData()) {
+            assertThat(metaStateService.loadIndexState(indexMetaData.getIndex()), equalTo(indexMetaData));
+        }
+    }
+
+    public void testLucenePersistedStateDoesNotRewriteUnchangedIndexStateFiles() throws IOException {
+        final PersistedClusterStateService persistedClusterStateService =
+            new PersistedClusterStateService(nodeEnvironment.nodeDataPaths(), xContentRegistry(), true);
+        final MetaStateService metaStateService = new MetaStateService(nodeEnvironment, xContentRegistry());
+        final IndexMetaData indexMetaData = createIndexMetaData(randomAlphaOfLength(10), randomIntBetween(1, 5), randomLongBetween(1L, 100L));
+        final ClusterState state = createClusterState(1L, MetaData.builder().put(indexMetaData, false).build());
+        try (GatewayMetaState.LucenePersistedState persistedState =
+                 newLucenePersistedState(persistedClusterStateService, metaStateService, 1L, state)) {
+            assertThat(persistedState.getLastAcceptedState(), equalTo(state));
+        }
+        final long generation = IndexMetaData.FORMAT.loadLatestStateWithGeneration(logger, xContentRegistry(),
+            nodeEnvironment.indexPaths(indexMetaData.getIndex())).v2();
+
+        // a restart with the same index metadata keeps the state file of the index
+        try (GatewayMetaState.LucenePersistedState persistedState =
+                 newLucenePersistedState(persistedClusterStateService, metaStateService, 1L, state)) {
+            assertThat(persistedState.getLastAcceptedState(), equalTo(state));
+        }
+        assertThat(IndexMetaData.FORMAT.loadLatestStateWithGeneration(logger, xContentRegistry(),
+            nodeEnvironment.indexPaths(indexMetaData.getIndex())).v2(), equalTo(generation));
+
+        // a new version of the index metadata is written
+        final IndexMetaData newIndexMetaData = IndexMetaData.builder(indexMetaData).version(indexMetaData.getVersion() + 1).build();
+        try (GatewayMetaState.LucenePersistedState persistedState =
+                 newLucenePersistedState(persistedClusterStateService, metaStateService, 1L, state)) {
+            persistedState.setLastAcceptedState(createClusterState(2L, MetaData.builder().put(newIndexMetaData, false).build()));
+        }
+        assertThat(metaStateService.loadIndexState(indexMetaData.getIndex()), equalTo(newIndexMetaData));
+    }
+
+    private GatewayMetaState.LucenePersistedState newLucenePersistedState(PersistedClusterStateService persistedClusterStateService,
+                                                                          MetaStateService metaStateService, long currentTerm,
+                                                                          ClusterState lastAcceptedState) throws IOException {
+        return new GatewayMetaState.LucenePersistedState(persistedClusterStateService, metaStateService, "test",
+            new ThreadContext(Settings.EMPTY), currentTerm, lastAcceptedState);
+    }
+
+    public void testFailsOnMetaDataIndexWhenLuceneIsDisabled() throws IOException {
+        final PersistedClusterStateService persistedClusterStateService =
+            new PersistedClusterStateService(nodeEnvironment.nodeDataPaths(), xContentRegistry(), true);
+        try (PersistedClusterStateService.Writer writer = persistedClusterStateService.createWriter()) {
+            writer.writeFullStateAndCommit(1L, createClusterState(1L, MetaData.EMPTY_META_DATA));
+        }
+        final IllegalStateException e = expectThrows(IllegalStateException.class, this::newGateway);
+        assertThat(e.getMessage(), containsString(PersistedClusterStateService.ENABLED_SETTING.getKey()));
+    }
 }
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.gateway;
 
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.metadata.MetaDataIndexUpgradeService;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -49,7 +50,8 @@ public class MockGatewayMetaState extends GatewayMetaState {
         super(settings, nodeEnvironment, new MetaStateService(nodeEnvironment, xContentRegistry),
                 mock(MetaDataIndexUpgradeService.class), mock(MetaDataUpgrader.class),
                 mock(TransportService.class), mock(ClusterService.class),
-                mock(IndicesService.class));
+                mock(IndicesService.class),
+                new PersistedClusterStateService(settings, nodeEnvironment, xContentRegistry));
         this.localNode = localNode;
     }
 
@@ -58,6 +60,12 @@ public class MockGatewayMetaState extends GatewayMetaState {
         // MetaData upgrade is tested in GatewayMetaStateTests, we override this method to NOP to make mocking easier
     }
 
+    @Override
+    protected MetaData upgradeOnDiskMetaData(MetaData metaData, MetaDataIndexUpgradeService metaDataIndexUpgradeService,
+                                             MetaDataUpgrader metaDataUpgrader) {
+        return metaData;
+    }
+
     @Override
     public void applyClusterStateUpdaters() {
         // Just set localNode here, not to mess with ClusterService and IndicesService mocking
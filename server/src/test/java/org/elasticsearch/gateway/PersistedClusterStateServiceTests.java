@@ -0,0 +1,156 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.gateway;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.coordination.CoordinationMetaData;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PersistedClusterStateServiceTests extends ESTestCase {
+
+    private PersistedClusterStateService newService(Path... dataPaths) {
+        return new PersistedClusterStateService(dataPaths, xContentRegistry(), true);
+    }
+
+    private static ClusterState createClusterState(long version, MetaData metaData) {
+        return ClusterState.builder(ClusterName.DEFAULT).version(version).metaData(metaData).build();
+    }
+
+    private static IndexMetaData createIndexMetaData(String indexName, long version) {
+        return IndexMetaData.builder(indexName).settings(
+            Settings.builder()
+                .put(IndexMetaData.SETTING_INDEX_UUID, indexName)
+                .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+                .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+                .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .build()
+        ).version(version).build();
+    }
+
+    private static void assertMetaDataEquals(MetaData expected, MetaData actual) {
+        assertTrue(MetaData.isGlobalStateEquals(expected, actual));
+        assertThat(actual.indices().size(), equalTo(expected.indices().size()));
+        for (IndexMetaData indexMetaData : expected) {
+            assertThat(actual.index(indexMetaData.getIndex()), equalTo(indexMetaData));
+        }
+    }
+
+    public void testLoadEmptyState() throws IOException {
+        final PersistedClusterStateService.OnDiskState onDiskState = newService(createTempDir(), createTempDir()).loadBestOnDiskState();
+        assertTrue(onDiskState.empty());
+        assertThat(onDiskState.dataPath, nullValue());
+    }
+
+    public void testFindDataPathsWithMetaDataIndex() throws IOException {
+        final Path dataPath = createTempDir();
+        final Path emptyDataPath = createTempDir();
+        final PersistedClusterStateService service = newService(dataPath, emptyDataPath);
+        assertThat(service.findDataPathsWithMetaDataIndex(), empty());
+
+        try (PersistedClusterStateService.Writer writer = newService(dataPath).createWriter()) {
+            writer.writeFullStateAndCommit(1L, createClusterState(1L, MetaData.EMPTY_META_DATA));
+        }
+        // the metadata index is found even if the service is disabled
+        assertThat(new PersistedClusterStateService(new Path[] { dataPath, emptyDataPath }, xContentRegistry(), false)
+            .findDataPathsWithMetaDataIndex(), contains(dataPath));
+    }
+
+    public void testWriteFullAndIncrementalStates() throws IOException {
+        final Path[] dataPaths = new Path[] { createTempDir(), createTempDir() };
+        final PersistedClusterStateService service = newService(dataPaths);
+
+        final MetaData metaData = MetaData.builder()
+            .persistentSettings(Settings.builder().put(randomAlphaOfLength(10), randomAlphaOfLength(10)).build())
+            .coordinationMetaData(CoordinationMetaData.builder().term(1L).build())
+            .put(createIndexMetaData("unchanged", 1L), false)
+            .put(createIndexMetaData("changed", 1L), false)
+            .put(createIndexMetaData("deleted", 1L), false)
+            .build();
+        final ClusterState clusterState = createClusterState(randomLongBetween(1L, 1000L), metaData);
+
+        final MetaData newMetaData = MetaData.builder(metaData)
+            .persistentSettings(Settings.builder().put(randomAlphaOfLength(10), randomAlphaOfLength(10)).build())
+            .put(createIndexMetaData("changed", 2L), false)
+            .remove("deleted")
+            .put(createIndexMetaData("created", 1L), false)
+            .build();
+        final ClusterState newClusterState = createClusterState(clusterState.version() + 1, newMetaData);
+
+        try (PersistedClusterStateService.Writer writer = service.createWriter()) {
+            writer.writeFullStateAndCommit(5L, clusterState);
+
+            PersistedClusterStateService.OnDiskState onDiskState = service.loadBestOnDiskState();
+            assertThat(onDiskState.currentTerm, equalTo(5L));
+            assertThat(onDiskState.lastAcceptedVersion, equalTo(clusterState.version()));
+            assertMetaDataEquals(metaData, onDiskState.metaData);
+
+            writer.writeIncrementalStateAndCommit(5L, clusterState, newClusterState);
+            writer.commit(6L, newClusterState.version());
+        }
+
+        for (Path dataPath : dataPaths) {
+            final PersistedClusterStateService.OnDiskState onDiskState = newService(dataPath).loadBestOnDiskState();
+            assertThat(onDiskState.currentTerm, equalTo(6L));
+            assertThat(onDiskState.lastAcceptedVersion, equalTo(newClusterState.version()));
+            assertMetaDataEquals(newMetaData, onDiskState.metaData);
+        }
+    }
+
+    public void testLoadBestStateOfAllDataPaths() throws IOException {
+        final Path stalePath = createTempDir();
+        final Path freshPath = createTempDir();
+        final ClusterState staleState = createClusterState(1L, MetaData.builder().put(createIndexMetaData("stale", 1L), false).build());
+        final ClusterState freshState = createClusterState(2L, MetaData.builder().put(createIndexMetaData("fresh", 1L), false).build());
+
+        try (PersistedClusterStateService.Writer writer = newService(stalePath).createWriter()) {
+            writer.writeFullStateAndCommit(1L, staleState);
+        }
+        try (PersistedClusterStateService.Writer writer = newService(freshPath).createWriter()) {
+            writer.writeFullStateAndCommit(1L, freshState);
+        }
+
+        final PersistedClusterStateService service = newService(randomBoolean()
+            ? new Path[] { stalePath, freshPath } : new Path[] { freshPath, stalePath });
+        PersistedClusterStateService.OnDiskState onDiskState = service.loadBestOnDiskState();
+        assertThat(onDiskState.dataPath, equalTo(freshPath));
+        assertMetaDataEquals(freshState.metaData(), onDiskState.metaData);
+
+        // a full write brings every data path up to date
+        try (PersistedClusterStateService.Writer writer = service.createWriter()) {
+            writer.writeFullStateAndCommit(2L, freshState);
+        }
+        onDiskState = newService(stalePath).loadBestOnDiskState();
+        assertThat(onDiskState.currentTerm, equalTo(2L));
+        assertMetaDataEquals(freshState.metaData(), onDiskState.metaData);
+    }
+}
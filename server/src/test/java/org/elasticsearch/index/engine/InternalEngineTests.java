@@ -34,6 +34,7 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexCommit;
@@ -183,6 +184,7 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.everyItem;
@@ -264,6 +266,173 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testAppendOnlyIndex() throws IOException {
+        Settings settings = Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(IndexSettings.INDEX_APPEND_ONLY_SETTING.getKey(), true).build();
+        IndexSettings indexSettings = IndexSettingsModule.newIndexSettings(
+            IndexMetaData.builder(defaultSettings.getIndexMetaData()).settings(settings).build());
+        try (Store store = createStore();
+             InternalEngine engine = createEngine(config(indexSettings, store, createTempDir(), newMergePolicy(), null))) {
+            ParsedDocument doc = testParsedDocument("1", null, testDocumentWithTextField(),
+                new BytesArray("{}".getBytes(Charset.defaultCharset())), null);
+            Engine.IndexResult indexResult = engine.index(appendOnlyPrimary(doc, false, 1));
+            assertThat(indexResult.getResultType(), equalTo(Engine.Result.Type.SUCCESS));
+            assertTrue(indexResult.isAppendOnly());
+            assertLuceneOperations(engine, 1, 0, 0);
+
+            // a retry must not create a duplicate, yet it doesn't switch the version map to safe access
+            Engine.IndexResult retryResult = engine.index(appendOnlyPrimary(doc, true, 1));
+            assertThat(retryResult.getResultType(), equalTo(Engine.Result.Type.SUCCESS));
+            assertFalse(retryResult.isAppendOnly());
+            assertLuceneOperations(engine, 1, 1, 0);
+            assertFalse(engine.isSafeAccessRequired());
+            assertEquals(0, engine.getVersionMapSize());
+
+            Engine.IndexResult updateResult = engine.index(indexForDoc(doc));
+            assertThat(updateResult.getResultType(), equalTo(Engine.Result.Type.FAILURE));
+            assertThat(updateResult.getFailure(), instanceOf(IllegalArgumentException.class));
+            assertThat(updateResult.getFailure().getMessage(), containsString("is append-only"));
+
+            Engine.DeleteResult deleteResult = engine.delete(new Engine.Delete(doc.type(), doc.id(), newUid(doc), primaryTerm.get()));
+            assertThat(deleteResult.getResultType(), equalTo(Engine.Result.Type.FAILURE));
+            assertThat(deleteResult.getFailure(), instanceOf(IllegalArgumentException.class));
+            assertLuceneOperations(engine, 1, 1, 0);
+            assertFalse(engine.isSafeAccessRequired());
+
+            // realtime gets don't rely on the version map
+            try (Engine.GetResult get = engine.get(new Engine.Get(true, false, doc.type(), doc.id(), newUid(doc)),
+                    engine::acquireSearcher)) {
+                assertTrue(get.exists());
+            }
+            assertFalse(engine.isSafeAccessRequired());
+            try (Engine.Searcher searcher = engine.acquireSearcher("test", Engine.SearcherScope.INTERNAL)) {
+                assertEquals(1, searcher.reader().numDocs());
+            }
+        }
+    }
+
+    public void testAppendOnlyRealtimeGetRefreshesOnlyWhenStale() throws IOException {
+        final AtomicLong refreshCounter = new AtomicLong();
+        Settings settings = Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(IndexSettings.INDEX_APPEND_ONLY_SETTING.getKey(), true).build();
+        IndexSettings indexSettings = IndexSettingsModule.newIndexSettings(
+            IndexMetaData.builder(defaultSettings.getIndexMetaData()).settings(settings).build());
+        try (Store store = createStore();
+             InternalEngine engine = createEngine(config(indexSettings, store, createTempDir(), newMergePolicy(),
+                 null,
+                 new ReferenceManager.RefreshListener() {
+                     @Override
+                     public void beforeRefresh() {
+                         refreshCounter.incrementAndGet();
+                     }
+
+                     @Override
+                     public void afterRefresh(boolean didRefresh) {
+
+                     }
+                 }, null, () -> SequenceNumbers.NO_OPS_PERFORMED, new NoneCircuitBreakerService()))) {
+            ParsedDocument doc = testParsedDocument("1", null, testDocumentWithTextField(),
+                new BytesArray("{}".getBytes(Charset.defaultCharset())), null);
+            engine.index(appendOnlyPrimary(doc, false, 1));
+            final Engine.Get get = new Engine.Get(true, false, doc.type(), doc.id(), newUid(doc));
+            try (Engine.GetResult getResult = engine.get(get, engine::acquireSearcher)) {
+                assertTrue(getResult.exists());
+            }
+            final long refreshCount = refreshCounter.get();
+            assertThat(refreshCount, greaterThan(0L));
+            final int gets = between(1, 10);
+            for (int i = 0; i < gets; i++) {
+                try (Engine.GetResult getResult = engine.get(get, engine::acquireSearcher)) {
+                    assertTrue(getResult.exists());
+                }
+            }
+            assertThat("no refresh without new operations", refreshCounter.get(), equalTo(refreshCount));
+
+            ParsedDocument otherDoc = testParsedDocument("2", null, testDocumentWithTextField(),
+                new BytesArray("{}".getBytes(Charset.defaultCharset())), null);
+            engine.index(appendOnlyPrimary(otherDoc, false, 2));
+            try (Engine.GetResult getResult = engine.get(new Engine.Get(true, false, otherDoc.type(), otherDoc.id(), newUid(otherDoc)),
+                    engine::acquireSearcher)) {
+                assertTrue(getResult.exists());
+            }
+            assertThat(refreshCounter.get(), greaterThan(refreshCount));
+        }
+    }
+
+    public void testIndexBatch() throws IOException {
+        final int numDocs = randomIntBetween(2, 64);
+        final List<Engine.Index> operations = new ArrayList<>(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            final ParsedDocument doc = testParsedDocument(Integer.toString(i), null, testDocumentWithTextField(), B_1, null);
+            operations.add(appendOnlyPrimary(doc, false, i));
+        }
+        final List<Engine.IndexResult> results = engine.index(operations);
+        assertThat(results, hasSize(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            final Engine.IndexResult result = results.get(i);
+            assertThat(result.getResultType(), equalTo(Engine.Result.Type.SUCCESS));
+            assertThat(result.getSeqNo(), equalTo((long) i));
+            assertThat(result.getVersion(), equalTo(1L));
+            assertTrue(result.isCreated());
+            assertTrue(result.isAppendOnly());
+            final Translog.Operation operation = engine.getTranslog().readOperation(result.getTranslogLocation());
+            assertThat(((Translog.Index) operation).id(), equalTo(Integer.toString(i)));
+        }
+        assertLuceneOperations(engine, numDocs, 0, 0);
+        assertThat(engine.getLocalCheckpoint(), equalTo((long) numDocs - 1));
+        assertFalse(engine.isSafeAccessRequired());
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            assertEquals(numDocs, searcher.reader().numDocs());
+        }
+    }
+
+    public void testIndexBatchWithDocumentFailure() throws IOException {
+        final int numDocs = randomIntBetween(2, 64);
+        final int failingDoc = randomIntBetween(0, numDocs - 1);
+        final List<Engine.Index> operations = new ArrayList<>(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            final ParseContext.Document document = testDocumentWithTextField();
+            if (i == failingDoc) {
+                document.add(new StringField("immense", randomAlphaOfLength(IndexWriter.MAX_TERM_LENGTH + 1), Field.Store.NO));
+            }
+            operations.add(appendOnlyPrimary(testParsedDocument(Integer.toString(i), null, document, B_1, null), false, i));
+        }
+        final List<Engine.IndexResult> results = engine.index(operations);
+        assertThat(results, hasSize(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            final Engine.IndexResult result = results.get(i);
+            assertThat(result.getSeqNo(), equalTo((long) i));
+            assertNotNull(result.getTranslogLocation());
+            if (i == failingDoc) {
+                assertThat(result.getResultType(), equalTo(Engine.Result.Type.FAILURE));
+                assertThat(result.getFailure(), instanceOf(IllegalArgumentException.class));
+            } else {
+                assertThat(result.getResultType(), equalTo(Engine.Result.Type.SUCCESS));
+            }
+        }
+        assertThat(engine.getLocalCheckpoint(), equalTo((long) numDocs - 1));
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            assertEquals(numDocs - 1, searcher.reader().numDocs());
+        }
+    }
+
+    public void testIndexBatchFallsBackToSingleOperations() throws IOException {
+        final ParsedDocument doc1 = testParsedDocument("1", null, testDocumentWithTextField(), B_1, null);
+        final ParsedDocument doc2 = testParsedDocument("2", null, testDocumentWithTextField(), B_1, null);
+        // documents with explicit ids are not indexed as a batch, they go through the version map
+        final List<Engine.IndexResult> results = engine.index(Arrays.asList(indexForDoc(doc1), appendOnlyPrimary(doc2, false, 1)));
+        assertThat(results, hasSize(2));
+        assertThat(results.get(0).getResultType(), equalTo(Engine.Result.Type.SUCCESS));
+        assertFalse(results.get(0).isAppendOnly());
+        assertThat(results.get(1).getResultType(), equalTo(Engine.Result.Type.SUCCESS));
+        assertTrue(results.get(1).isAppendOnly());
+        assertThat(engine.getLocalCheckpoint(), equalTo(1L));
+    }
+
     public void testSegments() throws Exception {
         Settings settings = Settings.builder()
             .put(defaultSettings.getSettings())
@@ -19,12 +19,16 @@
 
 package org.elasticsearch.index.search.stats;
 
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.index.search.stats.SearchStats.Stats;
 import org.elasticsearch.test.ESTestCase;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.equalTo;
+
 public class SearchStatsTests extends ESTestCase {
 
     // https://github.com/elastic/elasticsearch/issues/7644
@@ -52,6 +56,35 @@ public class SearchStatsTests extends ESTestCase {
         assertStats(groupStats1.get("group1"), 3);
     }
 
+    public void testFetchBreakdown() throws Exception {
+        Map<String, Long> breakdown1 = new HashMap<>();
+        breakdown1.put("stored_fields", 3L);
+        breakdown1.put("HighlightPhase", 5L);
+        Map<String, Long> breakdown2 = new HashMap<>();
+        breakdown2.put("stored_fields", 2L);
+        breakdown2.put("FetchSourceSubPhase", 1L);
+        SearchStats searchStats1 = new SearchStats(new Stats(1, 1, 1, 1, 1, 1, breakdown1, 1, 1, 1, 1, 1, 1), 0, null);
+        SearchStats searchStats2 = new SearchStats(new Stats(1, 1, 1, 1, 1, 1, breakdown2, 1, 1, 1, 1, 1, 1), 0, null);
+
+        SearchStats total = new SearchStats();
+        total.add(searchStats1);
+        total.add(searchStats2);
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("stored_fields", 5L);
+        expected.put("HighlightPhase", 5L);
+        expected.put("FetchSourceSubPhase", 1L);
+        assertThat(total.getTotal().getFetchBreakdownInMillis(), equalTo(expected));
+        // adding stats must not modify the stats that were added
+        assertThat(searchStats1.getTotal().getFetchBreakdownInMillis(), equalTo(breakdown1));
+
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            total.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                assertThat(new SearchStats(in).getTotal().getFetchBreakdownInMillis(), equalTo(expected));
+            }
+        }
+    }
+
     private static void assertStats(Stats stats, long equalTo) {
         assertEquals(equalTo, stats.getQueryCount());
         assertEquals(equalTo, stats.getQueryTimeInMillis());
@@ -0,0 +1,103 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.IndexSettingsModule;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class AdaptiveRefreshPolicyTests extends ESTestCase {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdaptiveRefreshPolicy newPolicy() {
+        final Settings settings = Settings.builder()
+            .put(IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey(), "1s")
+            .put(IndexSettings.INDEX_REFRESH_ADAPTIVE_ENABLED_SETTING.getKey(), true)
+            .put(IndexSettings.INDEX_REFRESH_ADAPTIVE_MAX_INTERVAL_SETTING.getKey(), "8s")
+            .put(IndexSettings.INDEX_REFRESH_ADAPTIVE_HEAVY_INDEXING_RATE_SETTING.getKey(), 100)
+            .build();
+        final IndexSettings indexSettings = IndexSettingsModule.newIndexSettings("index", settings);
+        return new AdaptiveRefreshPolicy(indexSettings, now::get);
+    }
+
+    public void testIntervalGrowsWhileNotSearched() {
+        final AdaptiveRefreshPolicy policy = newPolicy();
+        int refreshes = 0;
+        for (int tick = 1; tick <= 30; tick++) {
+            now.addAndGet(1000);
+            if (policy.shouldRefresh(false, 0, 0)) {
+                refreshes++;
+            }
+        }
+        // refreshes after 1s, 2s, 4s and then every 8s
+        assertThat(refreshes, equalTo(5));
+        assertThat(policy.intervalInMillis(), equalTo(8000L));
+        assertThat(policy.deferredCount(), equalTo(25L));
+    }
+
+    public void testSearchShortensInterval() {
+        final AdaptiveRefreshPolicy policy = newPolicy();
+        for (int tick = 1; tick <= 10; tick++) {
+            now.addAndGet(1000);
+            policy.shouldRefresh(false, 0, 0);
+        }
+        assertThat(policy.intervalInMillis(), equalTo(8000L));
+        now.addAndGet(1000);
+        assertTrue(policy.shouldRefresh(false, now.get() - 500, 0));
+        assertThat(policy.intervalInMillis(), equalTo(1000L));
+        now.addAndGet(1000);
+        assertTrue(policy.shouldRefresh(false, now.get() - 500, 0));
+        assertThat(policy.intervalInMillis(), equalTo(1000L));
+    }
+
+    public void testHeavyIndexingLengthensIntervalDespiteSearches() {
+        final AdaptiveRefreshPolicy policy = newPolicy();
+        long indexCount = 0;
+        int refreshes = 0;
+        for (int tick = 1; tick <= 15; tick++) {
+            now.addAndGet(1000);
+            indexCount += 1000;
+            if (policy.shouldRefresh(false, now.get() - 1, indexCount)) {
+                refreshes++;
+            }
+        }
+        // refreshes after 1s, 2s, 4s and 8s
+        assertThat(refreshes, equalTo(4));
+        assertThat(policy.intervalInMillis(), equalTo(8000L));
+    }
+
+    public void testWaitingListenersForceRefresh() {
+        final AdaptiveRefreshPolicy policy = newPolicy();
+        for (int tick = 1; tick <= 10; tick++) {
+            now.addAndGet(1000);
+            policy.shouldRefresh(false, 0, 0);
+        }
+        assertThat(policy.intervalInMillis(), equalTo(8000L));
+        now.addAndGet(1000);
+        assertTrue(policy.shouldRefresh(true, 0, 0));
+        assertThat(policy.intervalInMillis(), equalTo(1000L));
+    }
+}
@@ -92,6 +92,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Collections.unmodifiableMap;
 import static org.elasticsearch.test.VersionUtils.randomVersion;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
@@ -941,6 +942,49 @@ public class StoreTests extends ESTestCase {
         store.close();
     }
 
+    public void testReadPersistedMetadataSnapshot() throws IOException {
+        final ShardId shardId = new ShardId("index", "_na_", 1);
+        final Path indexPath = createTempDir();
+        final Path shardStatePath = createTempDir();
+        final BaseDirectoryWrapper dir = newFSDirectory(indexPath);
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+        Document doc = new Document();
+        doc.add(new StringField("id", "1", random().nextBoolean() ? Field.Store.YES : Field.Store.NO));
+        writer.addDocument(doc);
+        writer.commit();
+        Store store = new Store(shardId, INDEX_SETTINGS, dir, new DummyShardLock(shardId));
+        final Store.MetadataSnapshot metadata = store.getMetadata(null);
+
+        // nothing persisted yet
+        Store.MetadataSnapshot read = Store.readMetadataSnapshot(indexPath, shardStatePath, shardId,
+            (id, l, d) -> new DummyShardLock(id), logger);
+        assertThat(read.asMap().keySet(), equalTo(metadata.asMap().keySet()));
+
+        // the persisted snapshot is used as long as its commit is the last one, even if it doesn't match the files
+        final String segmentsFile = store.readLastCommittedSegmentsInfo().getSegmentsFileName();
+        final Map<String, StoreFileMetaData> files = new HashMap<>();
+        files.put(segmentsFile, metadata.get(segmentsFile));
+        files.put("_fake.cfs", new StoreFileMetaData("_fake.cfs", 42, "fake", org.apache.lucene.util.Version.LATEST));
+        PersistedMetadataSnapshot.write(new Store.MetadataSnapshot(files, metadata.getCommitUserData(), metadata.getNumDocs()),
+            shardStatePath);
+        read = Store.readMetadataSnapshot(indexPath, shardStatePath, shardId, (id, l, d) -> new DummyShardLock(id), logger);
+        assertThat(read.asMap().keySet(), containsInAnyOrder(segmentsFile, "_fake.cfs"));
+        assertThat(read.get("_fake.cfs").length(), equalTo(42L));
+
+        assertThat(store.writeMetadataSnapshot(shardStatePath).asMap().keySet(), equalTo(metadata.asMap().keySet()));
+        read = Store.readMetadataSnapshot(indexPath, shardStatePath, shardId, (id, l, d) -> new DummyShardLock(id), logger);
+        assertThat(read.asMap().keySet(), equalTo(metadata.asMap().keySet()));
+
+        // a new commit makes the persisted snapshot stale
+        writer.addDocument(doc);
+        writer.commit();
+        writer.close();
+        read = Store.readMetadataSnapshot(indexPath, shardStatePath, shardId, (id, l, d) -> new DummyShardLock(id), logger);
+        assertThat(read.asMap().keySet(), equalTo(store.getMetadata(null).asMap().keySet()));
+        assertNull(read.get(segmentsFile));
+        store.close();
+    }
+
     public void testDeserializeCorruptionException() throws IOException {
         final ShardId shardId = new ShardId("index", "_na_", 1);
         final Directory dir = new RAMDirectory(); // I use ram dir to prevent that virusscanner being a PITA
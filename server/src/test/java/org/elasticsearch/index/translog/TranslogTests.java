@@ -614,6 +614,38 @@ public class TranslogTests extends ESTestCase {
         assertNull(translog.readOperation(new Location(100, 0, 0)));
     }
 
+    public void testAddBatch() throws IOException {
+        final List<Translog.Operation> ops = new ArrayList<>();
+        if (randomBoolean()) {
+            addToTranslogAndList(translog, ops, new Translog.Index("test", "0", 0, primaryTerm.get(), new byte[]{1}));
+        }
+        final List<Translog.Operation> batch = new ArrayList<>();
+        final int numOps = randomIntBetween(1, 100);
+        for (int i = 0; i < numOps; i++) {
+            final long seqNo = ops.size() + i;
+            if (randomBoolean()) {
+                batch.add(new Translog.Index("test", Long.toString(seqNo), seqNo, primaryTerm.get(),
+                    randomByteArrayOfLength(randomIntBetween(1, 64))));
+            } else {
+                batch.add(new Translog.NoOp(seqNo, primaryTerm.get(), randomAlphaOfLength(8)));
+            }
+        }
+        final List<Translog.Location> locations = translog.add(batch);
+        ops.addAll(batch);
+        assertThat(locations.size(), equalTo(batch.size()));
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(batch.get(i), translog.readOperation(locations.get(i)));
+            if (i > 0) {
+                assertThat(locations.get(i).translogLocation,
+                    equalTo(locations.get(i - 1).translogLocation + locations.get(i - 1).size));
+            }
+        }
+        try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+            assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+            assertThat(snapshot.totalOperations(), equalTo(ops.size()));
+        }
+    }
+
     public void testSnapshotWithNewTranslog() throws IOException {
         List<Closeable> toClose = new ArrayList<>();
         try {
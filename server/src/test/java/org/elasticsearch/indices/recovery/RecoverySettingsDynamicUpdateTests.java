@@ -21,6 +21,8 @@ package org.elasticsearch.indices.recovery;
 
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.indices.recovery.RecoverySettings;
 import org.elasticsearch.test.ESTestCase;
@@ -81,4 +83,25 @@ public class RecoverySettingsDynamicUpdateTests extends ESTestCase {
         ).build());
         assertEquals(new TimeValue(duration, timeUnit), recoverySettings.internalActionLongTimeout());
     }
+
+    public void testMaxConcurrentFileStreams() {
+        final int maxConcurrentFileStreams = between(1, 8);
+        clusterSettings.applySettings(Settings.builder().put(
+                RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_FILE_STREAMS_SETTING.getKey(), maxConcurrentFileStreams
+        ).build());
+        assertEquals(maxConcurrentFileStreams, recoverySettings.getMaxConcurrentFileStreams());
+    }
+
+    public void testMaxChunkSize() {
+        assertEquals("chunks don't grow by default", RecoverySettings.DEFAULT_CHUNK_SIZE, recoverySettings.getMaxChunkSize());
+
+        final long maxChunkSizeInMb = between(1, 16);
+        clusterSettings.applySettings(Settings.builder().put(
+                RecoverySettings.INDICES_RECOVERY_MAX_CHUNK_SIZE_SETTING.getKey(), maxChunkSizeInMb, ByteSizeUnit.MB
+        ).build());
+        assertEquals(new ByteSizeValue(maxChunkSizeInMb, ByteSizeUnit.MB), recoverySettings.getMaxChunkSize());
+
+        recoverySettings.setChunkSize(new ByteSizeValue(between(1, 1024), ByteSizeUnit.BYTES));
+        assertEquals("an explicit chunk size is never grown", recoverySettings.getChunkSize(), recoverySettings.getMaxChunkSize());
+    }
 }
@@ -32,6 +32,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.ExceptionsHelper;
@@ -44,6 +45,7 @@ import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lucene.store.IndexOutputOutputStream;
@@ -52,6 +54,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
@@ -89,7 +92,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -102,8 +109,10 @@ import java.util.zip.CRC32;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -550,7 +559,8 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, getStartRecoveryRequest(),
             chunkSize, maxConcurrentChunks);
         Store store = newStore(createTempDir(), false);
-        List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> between(1, chunkSize * 20));
+        // full chunks only, so that the bytes in flight translate to a number of chunks
+        List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> chunkSize * between(1, 20));
         int totalChunks = files.stream().mapToInt(md -> ((int) md.length() + chunkSize - 1) / chunkSize).sum();
         Thread sender = new Thread(() -> {
             try {
@@ -616,7 +626,8 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, getStartRecoveryRequest(),
             chunkSize, maxConcurrentChunks);
         Store store = newStore(createTempDir(), false);
-        List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> between(1, chunkSize * 20));
+        // full chunks only, so that the bytes in flight translate to a number of chunks
+        List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> chunkSize * between(1, 20));
         int totalChunks = files.stream().mapToInt(md -> ((int) md.length() + chunkSize - 1) / chunkSize).sum();
         AtomicReference<Exception> error = new AtomicReference<>();
         Thread sender = new Thread(() -> {
@@ -647,6 +658,112 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         store.close();
     }
 
+    public void testSendFilesInParallelStreamsWithGrowingChunks() throws Exception {
+        final IndexShard shard = mock(IndexShard.class);
+        when(shard.state()).thenReturn(IndexShardState.STARTED);
+        final Map<String, List<BytesReference>> chunksPerFile = new HashMap<>();
+        final Set<String> openFiles = new HashSet<>();
+        final AtomicInteger maxOpenFiles = new AtomicInteger();
+        final TestRecoveryTargetHandler recoveryTarget = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                final List<BytesReference> chunks = chunksPerFile.computeIfAbsent(md.name(), name -> new ArrayList<>());
+                assertThat(position, equalTo(chunks.stream().mapToLong(BytesReference::length).sum()));
+                // the pages of the chunk are recycled once it is acknowledged
+                chunks.add(new BytesArray(BytesReference.toBytes(content)));
+                if (lastChunk) {
+                    openFiles.remove(md.name());
+                } else {
+                    openFiles.add(md.name());
+                    maxOpenFiles.accumulateAndGet(openFiles.size(), Math::max);
+                }
+                listener.onResponse(null);
+            }
+        };
+        final int chunkSize = between(1, 32);
+        final int maxChunkSize = chunkSize * between(1, 8);
+        final int maxConcurrentFileStreams = between(1, 4);
+        final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, getStartRecoveryRequest(),
+            new MockPageCacheRecycler(Settings.EMPTY), chunkSize, maxChunkSize, between(1, 4), maxConcurrentFileStreams);
+        Store store = newStore(createTempDir(), false);
+        // every file is larger than its first two chunks so that it stays open while the other streams send their first chunk
+        List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> between(chunkSize * 4, chunkSize * 40));
+        handler.sendFiles(store, files.toArray(new StoreFileMetaData[0]), () -> 0);
+
+        assertThat(maxOpenFiles.get(), equalTo(Math.min(maxConcurrentFileStreams, files.size())));
+        assertThat(openFiles, empty());
+        for (StoreFileMetaData md : files) {
+            final byte[] expected = new byte[Math.toIntExact(md.length())];
+            try (IndexInput in = store.directory().openInput(md.name(), IOContext.READONCE)) {
+                in.readBytes(expected, 0, expected.length);
+            }
+            final byte[] actual = new byte[expected.length];
+            int position = 0;
+            long expectedChunkSize = chunkSize;
+            for (BytesReference chunk : chunksPerFile.get(md.name())) {
+                assertThat(chunk.length(), equalTo((int) Math.min(expectedChunkSize, expected.length - position)));
+                System.arraycopy(BytesReference.toBytes(chunk), 0, actual, position, chunk.length());
+                position += chunk.length();
+                expectedChunkSize = Math.min(maxChunkSize, expectedChunkSize * 2);
+            }
+            assertThat(position, equalTo(expected.length));
+            assertArrayEquals(expected, actual);
+        }
+        store.close();
+    }
+
+    public void testCapsBytesInFlight() throws Exception {
+        final IndexShard shard = mock(IndexShard.class);
+        when(shard.state()).thenReturn(IndexShardState.STARTED);
+        final List<Tuple<BytesReference, ActionListener<Void>>> unrepliedChunks = new CopyOnWriteArrayList<>();
+        final AtomicLong maxBytesInFlight = new AtomicLong();
+        final TestRecoveryTargetHandler recoveryTarget = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                unrepliedChunks.add(Tuple.tuple(content, listener));
+                maxBytesInFlight.accumulateAndGet(unrepliedChunks.stream().mapToLong(c -> c.v1().length()).sum(), Math::max);
+            }
+        };
+        final int chunkSize = between(1, 32);
+        final int maxChunkSize = chunkSize * between(1, 8);
+        final int maxConcurrentChunks = between(1, 4);
+        final int maxConcurrentFileStreams = between(1, 4);
+        final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, getStartRecoveryRequest(),
+            new MockPageCacheRecycler(Settings.EMPTY), chunkSize, maxChunkSize, maxConcurrentChunks, maxConcurrentFileStreams);
+        Store store = newStore(createTempDir(), false);
+        List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> between(1, chunkSize * 40));
+        final long totalBytes = files.stream().mapToLong(StoreFileMetaData::length).sum();
+        Thread sender = new Thread(() -> {
+            try {
+                handler.sendFiles(store, files.toArray(new StoreFileMetaData[0]), () -> 0);
+            } catch (Exception ex) {
+                throw new AssertionError(ex);
+            }
+        });
+        sender.start();
+        long ackedBytes = 0;
+        while (sender.isAlive()) {
+            if (unrepliedChunks.isEmpty()) {
+                Thread.yield();
+                continue;
+            }
+            final List<Tuple<BytesReference, ActionListener<Void>>> chunksToAck =
+                randomSubsetOf(between(1, unrepliedChunks.size()), unrepliedChunks);
+            unrepliedChunks.removeAll(chunksToAck);
+            for (Tuple<BytesReference, ActionListener<Void>> chunk : chunksToAck) {
+                ackedBytes += chunk.v1().length();
+                chunk.v2().onResponse(null);
+            }
+        }
+        sender.join();
+        assertThat(ackedBytes, equalTo(totalBytes));
+        assertThat(maxBytesInFlight.get(),
+            lessThanOrEqualTo(Math.max(maxChunkSize, (long) chunkSize * maxConcurrentChunks * maxConcurrentFileStreams)));
+        store.close();
+    }
+
     private Store newStore(Path path) throws IOException {
         return newStore(path, true);
     }
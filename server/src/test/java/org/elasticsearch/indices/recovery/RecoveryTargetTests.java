@@ -264,6 +264,8 @@ public class RecoveryTargetTests extends ESTestCase {
         long recoveredBytes = 0;
         long sourceThrottling = Index.UNKNOWN;
         long targetThrottling = Index.UNKNOWN;
+        long roundTrips = 0;
+        long roundTripTimeInNanos = 0;
         while (bytesToRecover > 0) {
             File file = randomFrom(filesToRecover);
             final long toRecover = Math.min(bytesToRecover, randomIntBetween(1, (int) (file.length() - file.recovered())));
@@ -283,6 +285,13 @@ public class RecoveryTargetTests extends ESTestCase {
                 targetThrottling += throttledOnTarget;
             }
             index.addTargetThrottling(throttledOnTarget);
+            if (randomBoolean()) {
+                final int reportedRoundTrips = randomIntBetween(1, 5);
+                final long reportedRoundTripTime = randomLongBetween(reportedRoundTrips, 1000000);
+                index.addFileChunkRoundTrips(reportedRoundTrips, reportedRoundTripTime);
+                roundTrips += reportedRoundTrips;
+                roundTripTimeInNanos += reportedRoundTripTime;
+            }
             bytesToRecover -= toRecover;
             recoveredBytes += toRecover;
             if (file.reused() || file.fullyRecovered()) {
@@ -310,6 +319,8 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(lastRead.stopTime(), equalTo(index.stopTime()));
         assertThat(lastRead.targetThrottling(), equalTo(index.targetThrottling()));
         assertThat(lastRead.sourceThrottling(), equalTo(index.sourceThrottling()));
+        assertThat(lastRead.fileChunkRoundTrips(), equalTo(index.fileChunkRoundTrips()));
+        assertThat(lastRead.avgFileChunkRoundTripTime(), equalTo(index.avgFileChunkRoundTripTime()));
 
         logger.info("testing post recovery");
         assertThat(index.totalBytes(), equalTo(totalFileBytes));
@@ -322,6 +333,8 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(index.recoveredBytes(), equalTo(recoveredBytes));
         assertThat(index.targetThrottling().nanos(), equalTo(targetThrottling));
         assertThat(index.sourceThrottling().nanos(), equalTo(sourceThrottling));
+        assertThat(index.fileChunkRoundTrips(), equalTo(roundTrips));
+        assertThat(index.avgFileChunkRoundTripTime().nanos(), equalTo(roundTrips == 0 ? 0L : roundTripTimeInNanos / roundTrips));
         if (index.totalRecoverFiles() == 0) {
             assertThat((double) index.recoveredFilesPercent(), equalTo(100.0));
             assertThat((double) index.recoveredBytesPercent(), equalTo(100.0));
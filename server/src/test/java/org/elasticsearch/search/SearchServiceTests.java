@@ -27,6 +27,11 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeAction;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
 import org.elasticsearch.action.search.SearchPhaseExecutionException;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
@@ -35,6 +40,7 @@ import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
@@ -67,15 +73,18 @@ import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.elasticsearch.search.aggregations.support.ValueType;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.fetch.ShardFetchRequest;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ReaderContextId;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchLocalRequest;
 import org.elasticsearch.search.internal.ShardSearchTransportRequest;
 import org.elasticsearch.search.suggest.SuggestBuilder;
 import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.transport.TransportRequest;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -665,4 +674,81 @@ public class SearchServiceTests extends ESSingleNodeTestCase {
             assertSame(searchShardTarget, searchContext.fetchResult().getSearchShardTarget());
         }
     }
+
+    public void testReaderContext() throws IOException {
+        createIndex("index");
+        client().prepareIndex("index", "_doc", "1").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexShard indexShard = indicesService.indexServiceSafe(resolveIndex("index")).getShard(0);
+        final TimeValue keepAlive = TimeValue.timeValueMinutes(1);
+
+        final ReaderContextId readerId = service.openReaderContext(indexShard.shardId(), AliasFilter.EMPTY, keepAlive);
+        // the reader of the shard did not change, the reader is shared but each point in time gets its own context
+        final AliasFilter aliasFilter = new AliasFilter(new TermQueryBuilder("field", "value"), "alias");
+        final ReaderContextId sharedReaderId = service.openReaderContext(indexShard.shardId(), aliasFilter, keepAlive);
+        assertNotEquals(readerId, sharedReaderId);
+        assertEquals(2, service.getActiveReaderContexts());
+
+        client().prepareIndex("index", "_doc", "2").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+        final SearchRequest searchRequest = new SearchRequest().allowPartialSearchResults(true);
+        final ShardSearchTransportRequest request = new ShardSearchTransportRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, AliasFilter.EMPTY, 1.0f, -1, null, null, readerId);
+        try (DefaultSearchContext context = service.createSearchContext(request, TimeValue.timeValueSeconds(30))) {
+            assertEquals(1, context.searcher().getIndexReader().numDocs());
+        }
+        final ReaderContextId otherReaderId = service.openReaderContext(indexShard.shardId(), AliasFilter.EMPTY, keepAlive);
+        assertNotEquals(readerId, otherReaderId);
+        assertEquals(3, service.getActiveReaderContexts());
+
+        // the id of a reader context is only valid together with the session id of the node that opened it
+        final ReaderContextId otherSessionId = new ReaderContextId(UUIDs.randomBase64UUID(), readerId.getId());
+        expectThrows(SearchContextMissingException.class, () -> service.createSearchContext(new ShardSearchTransportRequest(
+            OriginalIndices.NONE, searchRequest, indexShard.shardId(), 1, AliasFilter.EMPTY, 1.0f, -1, null, null, otherSessionId),
+            TimeValue.timeValueSeconds(30)));
+        assertFalse(service.freeReaderContext(otherSessionId, TransportRequest.Empty.INSTANCE));
+
+        // freeing a context twice must not release the reader of the context it shares it with
+        assertTrue(service.freeReaderContext(readerId, TransportRequest.Empty.INSTANCE));
+        assertFalse(service.freeReaderContext(readerId, TransportRequest.Empty.INSTANCE));
+        assertEquals(2, service.getActiveReaderContexts());
+        expectThrows(SearchContextMissingException.class, () -> service.createSearchContext(request, TimeValue.timeValueSeconds(30)));
+        // the alias filter of the point in time applies, not the one of the request
+        final ShardSearchTransportRequest sharedRequest = new ShardSearchTransportRequest(OriginalIndices.NONE, searchRequest,
+            indexShard.shardId(), 1, AliasFilter.EMPTY, 1.0f, -1, null, null, sharedReaderId);
+        try (DefaultSearchContext context = service.createSearchContext(sharedRequest, TimeValue.timeValueSeconds(30))) {
+            assertEquals(1, context.searcher().getIndexReader().numDocs());
+            assertEquals(aliasFilter, context.request().getAliasFilter());
+        }
+        assertTrue(service.freeReaderContext(sharedReaderId, TransportRequest.Empty.INSTANCE));
+        assertTrue(service.freeReaderContext(otherReaderId, TransportRequest.Empty.INSTANCE));
+        assertEquals(0, service.getActiveReaderContexts());
+
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> service.openReaderContext(indexShard.shardId(), AliasFilter.EMPTY, TimeValue.timeValueHours(25)));
+        assertThat(e.getMessage(), startsWith("Keep alive for point in time"));
+    }
+
+    public void testSearchPointInTime() throws Exception {
+        final int numShards = randomIntBetween(1, 3);
+        createIndex("index", Settings.builder().put("index.number_of_shards", numShards).build());
+        client().prepareIndex("index", "_doc", "1").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+        final String id = client().execute(OpenPointInTimeAction.INSTANCE,
+            new OpenPointInTimeRequest("index").keepAlive(TimeValue.timeValueMinutes(1))).get().getId();
+        client().prepareIndex("index", "_doc", "2").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+
+        assertHitCount(client().prepareSearch("index").get(), 2);
+        SearchResponse response = client().prepareSearch()
+            .setSource(new SearchSourceBuilder().pointInTimeBuilder(new PointInTimeBuilder(id, TimeValue.timeValueMinutes(1))))
+            .get();
+        assertHitCount(response, 1);
+
+        final ClearScrollResponse closeResponse = client().execute(ClosePointInTimeAction.INSTANCE,
+            new ClosePointInTimeRequest(id)).get();
+        assertTrue(closeResponse.isSucceeded());
+        assertThat(closeResponse.getNumFreed(), equalTo(numShards));
+        assertEquals(0, getInstanceFromNode(SearchService.class).getActiveReaderContexts());
+        expectThrows(Exception.class, () -> client().prepareSearch()
+            .setSource(new SearchSourceBuilder().pointInTimeBuilder(new PointInTimeBuilder(id, null))).get());
+    }
 }
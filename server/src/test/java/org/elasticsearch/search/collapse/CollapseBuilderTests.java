@@ -24,6 +24,7 @@ import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.join.ScoreMode;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RAMDirectory;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
@@ -36,6 +37,9 @@ import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.query.InnerHitBuilder;
 import org.elasticsearch.index.query.InnerHitBuilderTests;
+import org.elasticsearch.index.query.MatchAllQueryBuilder;
+import org.elasticsearch.index.query.NestedQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.search.SearchContextException;
 import org.elasticsearch.search.SearchModule;
@@ -46,6 +50,7 @@ import org.junit.BeforeClass;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static java.util.Collections.emptyList;
@@ -186,6 +191,29 @@ public class CollapseBuilderTests extends AbstractSerializingTestCase<CollapseBu
         }
     }
 
+    public void testCanExpandInFetchPhase() {
+        CollapseBuilder builder = new CollapseBuilder("field")
+            .setInnerHits(Arrays.asList(new InnerHitBuilder().setName("first"), new InnerHitBuilder().setName("second")));
+        assertTrue(builder.canExpandInFetchPhase(1, null, null));
+        assertTrue(builder.canExpandInFetchPhase(1, new MatchAllQueryBuilder(), new MatchAllQueryBuilder()));
+        // the documents of a group may be on several shards
+        assertFalse(builder.canExpandInFetchPhase(2, null, null));
+        assertFalse(new CollapseBuilder("field").canExpandInFetchPhase(1, null, null));
+
+        QueryBuilder nested = new NestedQueryBuilder("path", new MatchAllQueryBuilder(), ScoreMode.None)
+            .innerHit(new InnerHitBuilder().setName("first"));
+        assertFalse(builder.canExpandInFetchPhase(1, nested, null));
+        assertFalse(builder.canExpandInFetchPhase(1, null, nested));
+
+        assertFalse(new CollapseBuilder("field").setInnerHits(new InnerHitBuilder()).canExpandInFetchPhase(1, null, null));
+        assertFalse(new CollapseBuilder("field")
+            .setInnerHits(Arrays.asList(new InnerHitBuilder().setName("first"), new InnerHitBuilder().setName("first")))
+            .canExpandInFetchPhase(1, null, null));
+        assertFalse(new CollapseBuilder("field")
+            .setInnerHits(new InnerHitBuilder().setName("first").setInnerCollapse(new CollapseBuilder("other")))
+            .canExpandInFetchPhase(1, null, null));
+    }
+
     public void testBuildWithSearchContextExceptions() {
         SearchContext context = mockSearchContext();
         {
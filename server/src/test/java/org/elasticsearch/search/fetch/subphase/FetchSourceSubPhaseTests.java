@@ -23,6 +23,8 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.fetch.FetchSubPhase;
@@ -67,6 +69,17 @@ public class FetchSourceSubPhaseTests extends ESTestCase {
         assertEquals(Collections.singletonMap("field1","value"), hitContext.hit().getSourceAsMap());
     }
 
+    public void testFilteringKeepsContentType() throws IOException {
+        XContentType contentType = randomFrom(XContentType.values());
+        XContentBuilder source = XContentFactory.contentBuilder(contentType).startObject()
+            .field("field1", "value")
+            .field("field2", "value2")
+            .endObject();
+        FetchSubPhase.HitContext hitContext = hitExecute(source, true, "field1", null);
+        assertEquals(Collections.singletonMap("field1","value"), hitContext.hit().getSourceAsMap());
+        assertEquals(contentType, XContentHelper.xContentType(hitContext.hit().getSourceRef()));
+    }
+
     public void testMultipleFiltering() throws IOException {
         XContentBuilder source = XContentFactory.jsonBuilder().startObject()
             .field("field", "value")
@@ -0,0 +1,149 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch.subphase.highlight;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+
+public class HighlightCacheTests extends ESTestCase {
+
+    private static DirectoryReader openReader(Directory dir) throws IOException {
+        try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            Document doc = new Document();
+            doc.add(new TextField("field", "some text", Field.Store.YES));
+            writer.addDocument(doc);
+            writer.addDocument(doc);
+        }
+        return ElasticsearchDirectoryReader.wrap(DirectoryReader.open(dir), new ShardId("index", "_na_", 0));
+    }
+
+    public void testCachesHighlights() throws IOException {
+        try (Directory dir = newDirectory()) {
+            DirectoryReader reader = openReader(dir);
+            LeafReader leafReader = reader.leaves().get(0).reader();
+            HighlightCache cache = new HighlightCache(new ByteSizeValue(1024 * 1024));
+            Query query = new TermQuery(new Term("field", "text"));
+            List<Object> options = Arrays.asList("<em>", "</em>", 5);
+            AtomicInteger loads = new AtomicInteger();
+
+            String[] fragments = cache.getOrCompute(leafReader, 0, "field", query, options, () -> {
+                loads.incrementAndGet();
+                return new String[] {"some <em>text</em>"};
+            });
+            assertThat(fragments, arrayContaining("some <em>text</em>"));
+            fragments = cache.getOrCompute(leafReader, 0, "field", new TermQuery(new Term("field", "text")),
+                Arrays.asList("<em>", "</em>", 5), () -> {
+                    loads.incrementAndGet();
+                    return new String[0];
+                });
+            assertThat(fragments, arrayContaining("some <em>text</em>"));
+            assertThat(loads.get(), equalTo(1));
+            assertThat(cache.count(), equalTo(1));
+
+            // different doc, query or options
+            cache.getOrCompute(leafReader, 1, "field", query, options, () -> {
+                loads.incrementAndGet();
+                return new String[0];
+            });
+            cache.getOrCompute(leafReader, 0, "field", new TermQuery(new Term("field", "some")), options, () -> {
+                loads.incrementAndGet();
+                return new String[0];
+            });
+            cache.getOrCompute(leafReader, 0, "field", query, Arrays.asList("<b>", "</b>", 5), () -> {
+                loads.incrementAndGet();
+                return new String[0];
+            });
+            assertThat(loads.get(), equalTo(4));
+            assertThat(cache.count(), equalTo(4));
+
+            // entries are dropped when the segment is closed
+            reader.close();
+            assertThat(cache.count(), equalTo(0));
+        }
+    }
+
+    public void testDoesNotCacheFilteredReaders() throws IOException {
+        try (Directory dir = newDirectory(); DirectoryReader reader = openReader(dir)) {
+            LeafReader filteredReader = new FilterLeafReader(reader.leaves().get(0).reader()) {
+                @Override
+                public CacheHelper getCoreCacheHelper() {
+                    return in.getCoreCacheHelper();
+                }
+
+                @Override
+                public CacheHelper getReaderCacheHelper() {
+                    return in.getReaderCacheHelper();
+                }
+            };
+            HighlightCache cache = new HighlightCache(new ByteSizeValue(1024 * 1024));
+            AtomicInteger loads = new AtomicInteger();
+            for (int i = 0; i < 2; i++) {
+                cache.getOrCompute(filteredReader, 0, "field", new TermQuery(new Term("field", "text")), Collections.emptyList(), () -> {
+                    loads.incrementAndGet();
+                    return new String[0];
+                });
+            }
+            assertThat(loads.get(), equalTo(2));
+            assertThat(cache.count(), equalTo(0));
+            assertFalse(cache.canCache(filteredReader));
+            assertTrue(cache.canCache(reader.leaves().get(0).reader()));
+        }
+    }
+
+    public void testDisabled() throws IOException {
+        try (Directory dir = newDirectory(); DirectoryReader reader = openReader(dir)) {
+            HighlightCache cache = new HighlightCache(new ByteSizeValue(0));
+            assertFalse(cache.canCache(reader.leaves().get(0).reader()));
+            AtomicInteger loads = new AtomicInteger();
+            for (int i = 0; i < 2; i++) {
+                cache.getOrCompute(reader.leaves().get(0).reader(), 0, "field", new TermQuery(new Term("field", "text")),
+                    Collections.emptyList(), () -> {
+                        loads.incrementAndGet();
+                        return new String[0];
+                    });
+            }
+            assertThat(loads.get(), equalTo(2));
+            assertThat(cache.count(), equalTo(0));
+        }
+    }
+}
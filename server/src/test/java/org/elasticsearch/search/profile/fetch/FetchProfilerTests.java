@@ -0,0 +1,84 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile.fetch;
+
+import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.fetch.subphase.ExplainFetchSubPhase;
+import org.elasticsearch.search.fetch.subphase.VersionFetchSubPhase;
+import org.elasticsearch.search.profile.AbstractProfileBreakdown;
+import org.elasticsearch.search.profile.ProfileResult;
+import org.elasticsearch.search.profile.Timer;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+
+public class FetchProfilerTests extends ESTestCase {
+
+    public void testProfileResult() {
+        FetchProfiler profiler = new FetchProfiler();
+        FetchSubPhase explain = new ExplainFetchSubPhase();
+        FetchSubPhase version = new VersionFetchSubPhase();
+        for (int leaf = 0; leaf < 2; leaf++) {
+            AbstractProfileBreakdown<FetchTimingType> leafBreakdown = profiler.startLeaf(leaf);
+            time(leafBreakdown.getTimer(FetchTimingType.NEXT_READER));
+            for (int doc = 0; doc < 3; doc++) {
+                time(leafBreakdown.getTimer(FetchTimingType.LOAD_STORED_FIELDS));
+                time(profiler.getSubPhaseBreakdown(explain).getTimer(FetchSubPhaseTimingType.PROCESS));
+            }
+        }
+        time(profiler.getSubPhaseBreakdown(version).getTimer(FetchSubPhaseTimingType.PROCESS_HITS));
+
+        ProfileResult result = profiler.getProfileResult();
+        assertThat(result.getQueryName(), equalTo("FetchPhase"));
+        assertThat(result.getTimeBreakdown().get("next_reader_count"), equalTo(2L));
+        assertThat(result.getTimeBreakdown().get("load_stored_fields_count"), equalTo(6L));
+        assertThat(result.getTimeBreakdown().get("process_count"), equalTo(6L));
+        assertThat(result.getTimeBreakdown().get("process_hits_count"), equalTo(1L));
+
+        List<ProfileResult> children = result.getProfiledChildren();
+        assertThat(children, hasSize(4));
+        assertThat(children.get(0).getQueryName(), equalTo("ExplainFetchSubPhase"));
+        assertThat(children.get(0).getTimeBreakdown().get("process_count"), equalTo(6L));
+        assertThat(children.get(1).getQueryName(), equalTo("VersionFetchSubPhase"));
+        assertThat(children.get(1).getTimeBreakdown().get("process_hits_count"), equalTo(1L));
+        for (int leaf = 0; leaf < 2; leaf++) {
+            ProfileResult leafResult = children.get(2 + leaf);
+            assertThat(leafResult.getQueryName(), equalTo("StoredFields"));
+            assertThat(leafResult.getLuceneDescription(), equalTo("segment [" + leaf + "]"));
+            assertThat(leafResult.getTimeBreakdown().get("load_stored_fields_count"), equalTo(3L));
+        }
+
+        Map<String, Long> breakdown = profiler.getTimeBreakdownInNanos();
+        assertThat(breakdown.size(), equalTo(3));
+        assertThat(breakdown, hasKey(FetchProfiler.STORED_FIELDS));
+        assertThat(breakdown, hasKey("ExplainFetchSubPhase"));
+        assertThat(breakdown, hasKey("VersionFetchSubPhase"));
+    }
+
+    private static void time(Timer timer) {
+        timer.start();
+        timer.stop();
+    }
+}
@@ -24,15 +24,19 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.LatLonDocValuesField;
 import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.MinDocQuery;
@@ -45,6 +49,7 @@ import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.FilterCollector;
 import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -52,7 +57,10 @@ import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
@@ -65,11 +73,15 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.search.ESToParentBlockJoinQuery;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
 import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.sort.SortAndFormats;
@@ -84,6 +96,10 @@ import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class QueryPhaseTests extends IndexShardTestCase {
 
@@ -129,6 +145,8 @@ public class QueryPhaseTests extends IndexShardTestCase {
         final int numDocs = scaledRandomIntBetween(100, 200);
         for (int i = 0; i < numDocs; ++i) {
             Document doc = new Document();
+            doc.add(new LongPoint("long", i));
+            doc.add(new SortedNumericDocValuesField("long", i));
             if (randomBoolean()) {
                 doc.add(new StringField("foo", "bar", Store.NO));
                 doc.add(new SortedSetDocValuesField("foo", new BytesRef("bar")));
@@ -158,6 +176,13 @@ public class QueryPhaseTests extends IndexShardTestCase {
         Query dvfeqCsq = new ConstantScoreQuery(dvfeq);
         // field with doc-values but not indexed will need to collect
         Query dvOnlyfeq = new DocValuesFieldExistsQuery("docValuesOnlyField");
+        Query rangeContainsAll = LongPoint.newRangeQuery("long", Long.MIN_VALUE, Long.MAX_VALUE);
+        Query rangeContainsAllIndexOrDv = new IndexOrDocValuesQuery(rangeContainsAll,
+            SortedNumericDocValuesField.newSlowRangeQuery("long", Long.MIN_VALUE, Long.MAX_VALUE));
+        // disjoint ranges match no document, so their count never needs to collect, whether or not the reader has deletions:
+        // countTestCase(true) deletes documents, countTestCase(false) does not
+        Query rangeDisjoint = LongPoint.newRangeQuery("long", numDocs, Long.MAX_VALUE);
+        Query rangeCrosses = LongPoint.newRangeQuery("long", 1, numDocs - 2);
         BooleanQuery bq = new BooleanQuery.Builder()
             .add(matchAll, Occur.SHOULD)
             .add(tq, Occur.MUST)
@@ -171,6 +196,10 @@ public class QueryPhaseTests extends IndexShardTestCase {
         countTestCase(dvfeq_points, reader, withDeletions, true);
         countTestCase(dvfeqCsq, reader, withDeletions, true);
         countTestCase(dvOnlyfeq, reader, true, true);
+        countTestCase(rangeContainsAll, reader, withDeletions, true);
+        countTestCase(new ConstantScoreQuery(rangeContainsAllIndexOrDv), reader, withDeletions, true);
+        countTestCase(rangeDisjoint, reader, false, true);
+        countTestCase(rangeCrosses, reader, true, true);
         countTestCase(bq, reader, true, true);
         reader.close();
         w.close();
@@ -579,6 +608,153 @@ public class QueryPhaseTests extends IndexShardTestCase {
         dir.close();
     }
 
+    public void testNumericLongSortOptimization() throws Exception {
+        final String fieldName = "long";
+        final NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName(fieldName);
+        fieldType.setIndexOptions(IndexOptions.DOCS);
+        final MapperService mapperService = mock(MapperService.class);
+        when(mapperService.fullName(fieldName)).thenReturn(fieldType);
+
+        Directory dir = newDirectory();
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig());
+        final int numDocs = scaledRandomIntBetween(1000, 3000);
+        for (int i = 0; i < numDocs; ++i) {
+            Document doc = new Document();
+            long value = randomLongBetween(-1_000_000_000L, 1_000_000_000L);
+            doc.add(new SortedNumericDocValuesField(fieldName, value));
+            doc.add(new LongPoint(fieldName, value));
+            w.addDocument(doc);
+        }
+        final IndexReader reader = w.getReader();
+        w.close();
+        final IndexSearcher searcher = new IndexSearcher(reader);
+
+        final int size = randomIntBetween(1, 100);
+        final boolean reverse = randomBoolean();
+        final SortField sortField = new SortedNumericSortField(fieldName, SortField.Type.LONG, reverse);
+        sortField.setMissingValue(reverse ? Long.MIN_VALUE : Long.MAX_VALUE);
+        final Sort sort = new Sort(sortField, SortField.FIELD_DOC);
+        final DocValueFormat[] formats = new DocValueFormat[] {DocValueFormat.RAW, DocValueFormat.RAW};
+        final TopFieldDocs expected = searcher.search(new MatchAllDocsQuery(), size, sort);
+
+        TestSearchContext context = new TestSearchContext(null, indexShard) {
+            @Override
+            public MapperService mapperService() {
+                return mapperService;
+            }
+        };
+        context.parsedQuery(new ParsedQuery(new MatchAllDocsQuery()));
+        context.setSize(size);
+        context.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+        context.sort(new SortAndFormats(sort, formats));
+        assertThat(QueryPhase.tryRewriteLongSort(context, reader, context.query(), false), notNullValue());
+        assertThat(QueryPhase.tryRewriteLongSort(context, reader, context.query(), true), nullValue());
+
+        QueryPhase.execute(context, searcher, checkCancelled -> {});
+        assertSame(sort, context.sort().sort);
+        assertThat(context.queryResult().topDocs().topDocs.totalHits.value, equalTo((long) numDocs));
+        assertSameFieldDocs(expected, (TopFieldDocs) context.queryResult().topDocs().topDocs);
+
+        // search_after the last hit of the first page
+        final FieldDoc after = (FieldDoc) expected.scoreDocs[expected.scoreDocs.length - 1];
+        final TopFieldDocs expectedNextPage = searcher.searchAfter(after, new MatchAllDocsQuery(), size, sort);
+        context.searchAfter(after);
+        // the documents before the cursor must still be counted
+        assertThat(QueryPhase.tryRewriteLongSort(context, reader, context.query(), false), nullValue());
+        QueryPhase.execute(context, searcher, checkCancelled -> {});
+        assertThat(context.queryResult().topDocs().topDocs.totalHits.value, equalTo((long) numDocs));
+        assertThat(context.queryResult().topDocs().topDocs.totalHits.relation, equalTo(TotalHits.Relation.EQUAL_TO));
+        assertSameFieldDocs(expectedNextPage, (TopFieldDocs) context.queryResult().topDocs().topDocs);
+
+        // the range can only skip the documents before the cursor if the total hits are not tracked
+        context.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_DISABLED);
+        assertThat(QueryPhase.tryRewriteLongSort(context, reader, context.query(), false), notNullValue());
+        QueryPhase.execute(context, searcher, checkCancelled -> {});
+        assertSameFieldDocs(expectedNextPage, (TopFieldDocs) context.queryResult().topDocs().topDocs);
+
+        reader.close();
+        dir.close();
+    }
+
+    public void testNumericSortLeafOrdering() throws Exception {
+        final String fieldName = "timestamp";
+        final NumberFieldMapper.NumberFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName(fieldName);
+        fieldType.setIndexOptions(IndexOptions.DOCS);
+        final MapperService mapperService = mock(MapperService.class);
+        when(mapperService.fullName(fieldName)).thenReturn(fieldType);
+
+        Directory dir = newDirectory();
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+        final int numSegments = randomIntBetween(3, 6);
+        for (int segment = 0; segment < numSegments; segment++) {
+            // every segment holds a distinct time range, like the segments of a time-based index
+            final int numSegmentDocs = randomIntBetween(20, 50);
+            for (int i = 0; i < numSegmentDocs; i++) {
+                Document doc = new Document();
+                long value = segment * 1000L + randomIntBetween(0, 999);
+                doc.add(new SortedNumericDocValuesField(fieldName, value));
+                doc.add(new LongPoint(fieldName, value));
+                w.addDocument(doc);
+            }
+            w.commit();
+        }
+        final IndexReader reader = w.getReader();
+        w.close();
+
+        final int size = randomIntBetween(1, 10);
+        final SortField sortField = new SortedNumericSortField(fieldName, SortField.Type.LONG, true);
+        sortField.setMissingValue(Long.MIN_VALUE);
+        final Sort sort = new Sort(sortField);
+        final TopFieldDocs expected = new IndexSearcher(reader).search(new MatchAllDocsQuery(), size, sort);
+
+        final Engine.Searcher engineSearcher = new Engine.Searcher("test", new IndexSearcher(reader), () -> {});
+        final ContextIndexSearcher searcher = new ContextIndexSearcher(engineSearcher, null, IndexSearcher.getDefaultQueryCachingPolicy());
+        TestSearchContext context = new TestSearchContext(null, indexShard) {
+            @Override
+            public MapperService mapperService() {
+                return mapperService;
+            }
+        };
+        context.parsedQuery(new ParsedQuery(new MatchAllDocsQuery()));
+        context.setSize(size);
+        context.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_DISABLED);
+        context.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+        context.sort(new SortAndFormats(sort, new DocValueFormat[] {DocValueFormat.RAW}));
+
+        QueryPhase.execute(context, searcher, checkCancelled -> {});
+        assertSame(sort, context.sort().sort);
+        assertSameFieldDocs(expected, (TopFieldDocs) context.queryResult().topDocs().topDocs);
+
+        // the newest segment is searched first and the top hits it holds make the older segments non-competitive
+        final NumericSortLeafSelector selector = NumericSortLeafSelector.create(context, reader, context.sort(), false);
+        assertThat(selector, notNullValue());
+        final TopFieldCollector collector = TopFieldCollector.create(sort, size, 1);
+        searcher.setLeafOrder(selector.leafComparator(), selector::isCompetitive);
+        searcher.search(new MatchAllDocsQuery(), selector.wrap(collector));
+        searcher.setLeafOrder(null, null);
+        assertSameFieldDocs(expected, collector.topDocs());
+        final long bottom = (Long) ((FieldDoc) expected.scoreDocs[size - 1]).fields[0];
+        for (LeafReaderContext leaf : reader.leaves()) {
+            final long max = LongPoint.decodeDimension(PointValues.getMaxPackedValue(leaf.reader(), fieldName), 0);
+            assertEquals(max >= bottom, selector.isCompetitive(leaf));
+        }
+
+        reader.close();
+        dir.close();
+    }
+
+    private static void assertSameFieldDocs(TopFieldDocs expected, TopFieldDocs actual) {
+        assertThat(actual.scoreDocs.length, equalTo(expected.scoreDocs.length));
+        assertThat(actual.fields.length, equalTo(expected.fields.length));
+        for (int i = 0; i < expected.scoreDocs.length; i++) {
+            final FieldDoc expectedDoc = (FieldDoc) expected.scoreDocs[i];
+            final FieldDoc actualDoc = (FieldDoc) actual.scoreDocs[i];
+            assertThat(actualDoc.doc, equalTo(expectedDoc.doc));
+            assertArrayEquals(expectedDoc.fields, actualDoc.fields);
+        }
+    }
 
     public void testDisableTopScoreCollection() throws Exception {
         Directory dir = newDirectory();
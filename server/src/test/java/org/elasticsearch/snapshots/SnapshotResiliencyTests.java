@@ -1032,7 +1032,8 @@ public class SnapshotResiliencyTests extends ESTestCase {
             allocationService = ESAllocationTestCase.createAllocationService(settings);
             final IndexScopedSettings indexScopedSettings =
                 new IndexScopedSettings(settings, IndexScopedSettings.BUILT_IN_INDEX_SETTINGS);
-            final BigArrays bigArrays = new BigArrays(new PageCacheRecycler(settings), null, "test");
+            final PageCacheRecycler pageCacheRecycler = new PageCacheRecycler(settings);
+            final BigArrays bigArrays = new BigArrays(pageCacheRecycler, null, "test");
             final MapperRegistry mapperRegistry = new IndicesModule(Collections.emptyList()).getMapperRegistry();
             indicesService = new IndicesService(
                 settings,
@@ -1076,7 +1077,7 @@ public class SnapshotResiliencyTests extends ESTestCase {
                 repositoriesService,
                 mock(SearchService.class),
                 new SyncedFlushService(indicesService, clusterService, transportService, indexNameExpressionResolver),
-                new PeerRecoverySourceService(transportService, indicesService, recoverySettings),
+                new PeerRecoverySourceService(transportService, indicesService, recoverySettings, pageCacheRecycler),
                 snapshotShardsService,
                 new PrimaryReplicaSyncer(
                     transportService,
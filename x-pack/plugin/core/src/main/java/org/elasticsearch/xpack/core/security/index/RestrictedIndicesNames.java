@@ -7,6 +7,7 @@
 package org.elasticsearch.xpack.core.security.index;
 
 import org.apache.lucene.util.automaton.Automaton;
+import org.elasticsearch.action.search.async.AsyncSearchIndexService;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.xpack.core.security.support.Automatons;
 
@@ -21,8 +22,12 @@ public final class RestrictedIndicesNames {
     public static final String INTERNAL_SECURITY_TOKENS_INDEX_7 = ".security-tokens-7";
     public static final String SECURITY_TOKENS_ALIAS = ".security-tokens";
 
+    // the responses of async searches must only be accessed through the async search actions, which check their owner
+    public static final String ASYNC_SEARCH_INDEX = AsyncSearchIndexService.INDEX;
+
     public static final Set<String> RESTRICTED_NAMES = Collections.unmodifiableSet(Sets.newHashSet(SECURITY_MAIN_ALIAS,
-            INTERNAL_SECURITY_MAIN_INDEX_6, INTERNAL_SECURITY_MAIN_INDEX_7, INTERNAL_SECURITY_TOKENS_INDEX_7, SECURITY_TOKENS_ALIAS));
+            INTERNAL_SECURITY_MAIN_INDEX_6, INTERNAL_SECURITY_MAIN_INDEX_7, INTERNAL_SECURITY_TOKENS_INDEX_7, SECURITY_TOKENS_ALIAS,
+            ASYNC_SEARCH_INDEX));
 
     public static final Automaton NAMES_AUTOMATON = Automatons.patterns(RESTRICTED_NAMES);
 
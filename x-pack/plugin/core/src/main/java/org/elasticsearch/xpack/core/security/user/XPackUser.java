@@ -8,6 +8,7 @@ package org.elasticsearch.xpack.core.security.user;
 import org.elasticsearch.xpack.core.security.authz.RoleDescriptor;
 import org.elasticsearch.xpack.core.security.authz.permission.Role;
 import org.elasticsearch.xpack.core.security.index.IndexAuditTrailField;
+import org.elasticsearch.xpack.core.security.index.RestrictedIndicesNames;
 import org.elasticsearch.xpack.core.security.support.MetadataUtils;
 
 /**
@@ -20,6 +21,8 @@ public class XPackUser extends User {
     public static final Role ROLE = Role.builder(new RoleDescriptor(ROLE_NAME, new String[] { "all" },
             new RoleDescriptor.IndicesPrivileges[] {
                     RoleDescriptor.IndicesPrivileges.builder().indices("/@&~(\\.security.*)/").privileges("all").build(),
+                    RoleDescriptor.IndicesPrivileges.builder().indices(RestrictedIndicesNames.ASYNC_SEARCH_INDEX).privileges("all")
+                            .allowRestrictedIndices(true).build(),
                     RoleDescriptor.IndicesPrivileges.builder().indices(IndexAuditTrailField.INDEX_NAME_PREFIX + "-*")
                             .privileges("read").build()
             },
@@ -167,7 +167,10 @@ public class IndexRecoveryMonitoringDocTests extends BaseMonitoringDocTestCase<I
                             + "},"
                             + "\"total_time_in_millis\":0,"
                             + "\"source_throttle_time_in_millis\":0,"
-                            + "\"target_throttle_time_in_millis\":0"
+                            + "\"target_throttle_time_in_millis\":0,"
+                            + "\"file_chunk_round_trips\":0,"
+                            + "\"avg_file_chunk_round_trip_time_in_millis\":0,"
+                            + "\"throughput_in_bytes_per_sec\":0"
                           + "},"
                           + "\"translog\":{"
                             + "\"recovered\":0,"
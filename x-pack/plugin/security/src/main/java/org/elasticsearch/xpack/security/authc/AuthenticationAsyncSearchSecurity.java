@@ -0,0 +1,63 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.security.authc;
+
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.xpack.core.security.authc.Authentication;
+import org.elasticsearch.xpack.core.security.authc.Authentication.RealmRef;
+import org.elasticsearch.xpack.core.security.authc.AuthenticationField;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+
+/**
+ * Identifies the users of async searches by their {@link Authentication}. Two authentications are of the same user if they have the
+ * same principal and the user was looked up by a realm with the same name and type. The node that authenticated the user is ignored,
+ * so that an async search can be retrieved through any node of the cluster.
+ */
+public final class AuthenticationAsyncSearchSecurity implements AsyncSearchSecurity {
+
+    @Override
+    public Map<String, String> getSecurityHeaders(ThreadContext threadContext) {
+        final String header = threadContext.getHeader(AuthenticationField.AUTHENTICATION_KEY);
+        return header == null ? emptyMap() : singletonMap(AuthenticationField.AUTHENTICATION_KEY, header);
+    }
+
+    @Override
+    public boolean isSameUser(Map<String, String> originHeaders, Map<String, String> securityHeaders) {
+        final String originHeader = originHeaders.get(AuthenticationField.AUTHENTICATION_KEY);
+        final String header = securityHeaders.get(AuthenticationField.AUTHENTICATION_KEY);
+        if (originHeader == null || header == null) {
+            return originHeader == null && header == null;
+        }
+        try {
+            return isSameUser(Authentication.decode(originHeader), Authentication.decode(header));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to decode the authentication of an async search", e);
+        }
+    }
+
+    static boolean isSameUser(Authentication origin, Authentication authentication) {
+        final RealmRef originRealm = getLookedUpRealm(origin);
+        final RealmRef realm = getLookedUpRealm(authentication);
+        return origin.getUser().principal().equals(authentication.getUser().principal())
+            && originRealm.getName().equals(realm.getName())
+            && originRealm.getType().equals(realm.getType());
+    }
+
+    /**
+     * Returns the realm of the effective user, which is looked up by another realm than the one that authenticated the request if the
+     * request is run as another user.
+     */
+    private static RealmRef getLookedUpRealm(Authentication authentication) {
+        return authentication.getLookedUpBy() == null ? authentication.getAuthenticatedBy() : authentication.getLookedUpBy();
+    }
+}
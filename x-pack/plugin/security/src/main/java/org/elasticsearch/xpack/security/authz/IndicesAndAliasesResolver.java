@@ -374,9 +374,11 @@ class IndicesAndAliasesResolver {
 
             if (replaceWildcards && Regex.isSimpleMatchPattern(aliasOrIndex)) {
                 wildcardSeen = true;
+                // the names matching the wildcard are cached per metadata, which saves matching it against every authorized index
+                final Set<String> matches = nameExpressionResolver.resolveWildcardMatches(metaData, aliasOrIndex);
                 Set<String> resolvedIndices = new HashSet<>();
                 for (String authorizedIndex : authorizedIndices) {
-                    if (Regex.simpleMatch(aliasOrIndex, authorizedIndex) && isIndexVisible(authorizedIndex, indicesOptions, metaData)) {
+                    if (matches.contains(authorizedIndex) && isIndexVisible(authorizedIndex, indicesOptions, metaData)) {
                         resolvedIndices.add(authorizedIndex);
                     }
                 }
@@ -24,6 +24,8 @@ import org.elasticsearch.action.search.ClearScrollAction;
 import org.elasticsearch.action.search.MultiSearchAction;
 import org.elasticsearch.action.search.SearchScrollAction;
 import org.elasticsearch.action.search.SearchTransportService;
+import org.elasticsearch.action.search.async.DeleteAsyncSearchAction;
+import org.elasticsearch.action.search.async.GetAsyncSearchAction;
 import org.elasticsearch.action.termvectors.MultiTermVectorsAction;
 import org.elasticsearch.cluster.metadata.AliasOrIndex;
 import org.elasticsearch.common.Strings;
@@ -235,8 +237,10 @@ public class RBACEngine implements AuthorizationEngine {
             if (isScrollRelatedAction(action)) {
                 // if the action is a search scroll action, we first authorize that the user can execute the action for some
                 // index and if they cannot, we can fail the request early before we allow the execution of the action and in
-                // turn the shard actions
-                if (SearchScrollAction.NAME.equals(action)) {
+                // turn the shard actions. The async search actions only serve the user that submitted the search, which they
+                // check against the authentication that is stored with the search.
+                if (SearchScrollAction.NAME.equals(action) || GetAsyncSearchAction.NAME.equals(action)
+                        || DeleteAsyncSearchAction.NAME.equals(action)) {
                     authorizeIndexActionName(action, authorizationInfo, null, listener);
                 } else {
                     // we store the request as a transient in the ThreadContext in case of a authorization failure at the shard
@@ -546,6 +550,8 @@ public class RBACEngine implements AuthorizationEngine {
             action.equals(SearchTransportService.QUERY_SCROLL_ACTION_NAME) ||
             action.equals(SearchTransportService.FREE_CONTEXT_SCROLL_ACTION_NAME) ||
             action.equals(ClearScrollAction.NAME) ||
+            action.equals(GetAsyncSearchAction.NAME) ||
+            action.equals(DeleteAsyncSearchAction.NAME) ||
             action.equals("indices:data/read/sql/close_cursor") ||
             action.equals(SearchTransportService.CLEAR_SCROLL_CONTEXTS_ACTION_NAME);
     }
@@ -0,0 +1,71 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.security.authc;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.security.authc.Authentication;
+import org.elasticsearch.xpack.core.security.authc.Authentication.RealmRef;
+import org.elasticsearch.xpack.core.security.authc.AuthenticationField;
+import org.elasticsearch.xpack.core.security.user.User;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AuthenticationAsyncSearchSecurityTests extends ESTestCase {
+
+    public void testSecurityHeaders() throws IOException {
+        final AuthenticationAsyncSearchSecurity security = new AuthenticationAsyncSearchSecurity();
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        threadContext.putHeader("X-Opaque-Id", "opaque");
+        assertThat(security.getSecurityHeaders(threadContext), equalTo(emptyMap()));
+        assertTrue(security.isSameUser(emptyMap(), security.getSecurityHeaders(threadContext)));
+
+        final Authentication authentication = new Authentication(new User("user1"), new RealmRef("file", "file", "node1"), null);
+        authentication.writeToContext(threadContext);
+        final Map<String, String> originHeaders = security.getSecurityHeaders(threadContext);
+        assertThat(originHeaders, equalTo(singletonMap(AuthenticationField.AUTHENTICATION_KEY, authentication.encode())));
+        assertTrue(security.isSameUser(originHeaders, security.getSecurityHeaders(threadContext)));
+        assertFalse(security.isSameUser(emptyMap(), security.getSecurityHeaders(threadContext)));
+        try (ThreadContext.StoredContext ignore = threadContext.stashContext()) {
+            assertFalse(security.isSameUser(originHeaders, security.getSecurityHeaders(threadContext)));
+        }
+    }
+
+    public void testSameUserAuthenticatedOnAnotherNode() throws IOException {
+        final AuthenticationAsyncSearchSecurity security = new AuthenticationAsyncSearchSecurity();
+        final Authentication origin = new Authentication(new User("user1"), new RealmRef("file", "file", "node1"), null);
+        final Authentication authentication = new Authentication(new User("user1", "role"), new RealmRef("file", "file", "node2"), null);
+        assertTrue(security.isSameUser(headers(origin), headers(authentication)));
+
+        assertFalse(security.isSameUser(headers(origin),
+            headers(new Authentication(new User("user2"), new RealmRef("file", "file", "node1"), null))));
+        assertFalse(security.isSameUser(headers(origin),
+            headers(new Authentication(new User("user1"), new RealmRef("file2", "file", "node1"), null))));
+        assertFalse(security.isSameUser(headers(origin),
+            headers(new Authentication(new User("user1"), new RealmRef("file", "native", "node1"), null))));
+    }
+
+    public void testRunAsUser() throws IOException {
+        final AuthenticationAsyncSearchSecurity security = new AuthenticationAsyncSearchSecurity();
+        final Authentication origin = new Authentication(new User(new User("user1"), new User("admin")),
+            new RealmRef("file", "file", "node1"), new RealmRef("native", "native", "node1"));
+        // the effective user is compared, regardless of the user that ran the request as the other user
+        assertTrue(security.isSameUser(headers(origin),
+            headers(new Authentication(new User("user1"), new RealmRef("native", "native", "node2"), null))));
+        assertFalse(security.isSameUser(headers(origin),
+            headers(new Authentication(new User("user1"), new RealmRef("file", "file", "node1"), null))));
+    }
+
+    private static Map<String, String> headers(Authentication authentication) throws IOException {
+        return singletonMap(AuthenticationField.AUTHENTICATION_KEY, authentication.encode());
+    }
+}
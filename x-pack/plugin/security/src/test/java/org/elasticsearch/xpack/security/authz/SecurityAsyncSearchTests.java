@@ -0,0 +1,91 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.security.authz;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.async.AsyncSearchResponse;
+import org.elasticsearch.action.search.async.DeleteAsyncSearchAction;
+import org.elasticsearch.action.search.async.DeleteAsyncSearchRequest;
+import org.elasticsearch.action.search.async.GetAsyncSearchAction;
+import org.elasticsearch.action.search.async.GetAsyncSearchRequest;
+import org.elasticsearch.action.search.async.SubmitAsyncSearchAction;
+import org.elasticsearch.action.search.async.SubmitAsyncSearchRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.SecureString;
+import org.elasticsearch.test.SecurityIntegTestCase;
+import org.elasticsearch.test.SecuritySettingsSource;
+import org.elasticsearch.test.SecuritySettingsSourceField;
+import org.elasticsearch.xpack.core.security.authc.support.UsernamePasswordToken;
+import org.junit.After;
+
+import java.util.Collections;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class SecurityAsyncSearchTests extends SecurityIntegTestCase {
+
+    public void testAsyncSearchIsPerUserAcrossNodes() throws Exception {
+        assertSecurityIndexActive();
+        securityClient().preparePutRole("async_searcher")
+            .addIndices(new String[] { "foo" }, new String[] { "read" }, null, null, null, randomBoolean())
+            .get();
+        securityClient().preparePutUser("other", SecuritySettingsSourceField.TEST_PASSWORD.toCharArray(), getFastStoredHashAlgoForTests(),
+            "async_searcher")
+            .get();
+        internalCluster().ensureAtLeastNumDataNodes(2);
+        final String[] nodeNames = internalCluster().getNodeNames();
+        final String submitNode = randomFrom(nodeNames);
+        final String otherNode = randomValueOtherThan(submitNode, () -> randomFrom(nodeNames));
+
+        final int numDocs = randomIntBetween(4, 16);
+        IndexRequestBuilder[] docs = new IndexRequestBuilder[numDocs];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = client().prepareIndex("foo", "bar").setSource("doc", i);
+        }
+        indexRandom(true, docs);
+
+        // the user is authenticated on each node, so the authentications of the requests only differ in the authenticating node
+        final AsyncSearchResponse submitResponse = client(submitNode, SecuritySettingsSource.TEST_USER_NAME)
+            .execute(SubmitAsyncSearchAction.INSTANCE, new SubmitAsyncSearchRequest(new SearchRequest("foo")).setKeepOnCompletion(true))
+            .actionGet();
+        final String id = submitResponse.getId();
+        assertThat(id, notNullValue());
+
+        final AsyncSearchResponse getResponse = client(otherNode, SecuritySettingsSource.TEST_USER_NAME)
+            .execute(GetAsyncSearchAction.INSTANCE, new GetAsyncSearchRequest(id)).actionGet();
+        assertThat(getResponse.getId(), notNullValue());
+
+        final Client otherUserClient = client(randomFrom(submitNode, otherNode), "other");
+        Exception e = expectThrows(Exception.class,
+            () -> otherUserClient.execute(GetAsyncSearchAction.INSTANCE, new GetAsyncSearchRequest(id)).actionGet());
+        assertThat(ExceptionsHelper.unwrapCause(e), instanceOf(ResourceNotFoundException.class));
+        e = expectThrows(Exception.class,
+            () -> otherUserClient.execute(DeleteAsyncSearchAction.INSTANCE, new DeleteAsyncSearchRequest(id)).actionGet());
+        assertThat(ExceptionsHelper.unwrapCause(e), instanceOf(ResourceNotFoundException.class));
+
+        assertAcked(client(otherNode, SecuritySettingsSource.TEST_USER_NAME)
+            .execute(DeleteAsyncSearchAction.INSTANCE, new DeleteAsyncSearchRequest(id)).actionGet());
+        e = expectThrows(Exception.class, () -> client(submitNode, SecuritySettingsSource.TEST_USER_NAME)
+            .execute(GetAsyncSearchAction.INSTANCE, new GetAsyncSearchRequest(id)).actionGet());
+        assertThat(ExceptionsHelper.unwrapCause(e), instanceOf(ResourceNotFoundException.class));
+    }
+
+    private Client client(String nodeName, String user) {
+        final SecureString password = SecuritySettingsSourceField.TEST_PASSWORD_SECURE_STRING;
+        return internalCluster().client(nodeName)
+            .filterWithHeader(Collections.singletonMap("Authorization", UsernamePasswordToken.basicAuthHeaderValue(user, password)));
+    }
+
+    @After
+    public void cleanupSecurityIndex() throws Exception {
+        super.deleteSecurityIndex();
+    }
+}
@@ -32,10 +32,16 @@ public class XPackUserTests extends ESTestCase {
         final String action = randomFrom(GetAction.NAME, SearchAction.NAME, IndexAction.NAME);
         final Predicate<String> predicate = XPackUser.ROLE.indices().allowedIndicesMatcher(action);
         for (String index : RestrictedIndicesNames.RESTRICTED_NAMES) {
-            assertThat(predicate.test(index), Matchers.is(false));
+            assertThat(predicate.test(index), Matchers.is(RestrictedIndicesNames.ASYNC_SEARCH_INDEX.equals(index)));
         }
     }
 
+    public void testXPackUserCanAccessAsyncSearchIndex() {
+        final String action = randomFrom(GetAction.NAME, SearchAction.NAME, IndexAction.NAME, UpdateAction.NAME);
+        final Predicate<String> predicate = XPackUser.ROLE.indices().allowedIndicesMatcher(action);
+        assertThat(predicate.test(RestrictedIndicesNames.ASYNC_SEARCH_INDEX), Matchers.is(true));
+    }
+
     public void testXPackUserCanReadAuditTrail() {
         final String action = randomFrom(GetAction.NAME, SearchAction.NAME);
         final Predicate<String> predicate = XPackUser.ROLE.indices().allowedIndicesMatcher(action);